@@ -0,0 +1,38 @@
+package me.jangluzniewicz.webstore.aws.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(ImageVariantProperties.class)
+public class ImageVariantConfig {
+  private final Integer poolSize;
+  private final Integer queueCapacity;
+
+  public ImageVariantConfig(
+      @Value("${aws.s3.image-variants.executor.pool-size}") Integer poolSize,
+      @Value("${aws.s3.image-variants.executor.queue-capacity}") Integer queueCapacity) {
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Bounded pool generating image variants. When the queue is full the uploading request resizes
+   * its image itself, which slows uploads down instead of piling up decoded images in memory.
+   */
+  @Bean
+  public ThreadPoolTaskExecutor imageVariantExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("image-variant-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+}
@@ -0,0 +1,16 @@
+package me.jangluzniewicz.webstore.aws.config;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Resized variants generated for every uploaded image.
+ *
+ * @param sizes maximum width and height in pixels of each variant, by variant name.
+ */
+@ConfigurationProperties(prefix = "aws.s3.image-variants")
+public record ImageVariantProperties(Map<String, Integer> sizes) {
+  public ImageVariantProperties {
+    sizes = sizes == null ? Map.of() : sizes;
+  }
+}
@@ -1,13 +1,18 @@
 package me.jangluzniewicz.webstore.aws.config;
 
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
@@ -16,16 +21,22 @@ public class S3Config {
   private final String secretKey;
   private final String url;
   private final Region region;
+  private final DataSize multipartThreshold;
+  private final DataSize multipartPartSize;
 
   public S3Config(
       @Value("${aws.access-key}") String accessKey,
       @Value("${aws.secret-key}") String secretKey,
       @Value("${aws.url}") String url,
-      @Value("${aws.region}") String region) {
+      @Value("${aws.region}") String region,
+      @Value("${aws.s3.multipart.threshold}") DataSize multipartThreshold,
+      @Value("${aws.s3.multipart.part-size}") DataSize multipartPartSize) {
     this.accessKey = accessKey;
     this.secretKey = secretKey;
     this.url = url;
     this.region = Region.of(region);
+    this.multipartThreshold = multipartThreshold;
+    this.multipartPartSize = multipartPartSize;
   }
 
   @Bean
@@ -47,4 +58,30 @@ public class S3Config {
         .region(region)
         .build();
   }
+
+  /**
+   * Non-blocking client for uploads. Bodies larger than {@code multipartThreshold} are sent as a
+   * multipart upload in parts of {@code multipartPartSize}, so they are never buffered whole.
+   */
+  @Bean
+  public S3AsyncClient s3AsyncClient() {
+    AwsBasicCredentials awsBasicCredentials = AwsBasicCredentials.create(accessKey, secretKey);
+    return S3AsyncClient.builder()
+        .endpointOverride(URI.create(url))
+        .credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials))
+        .region(region)
+        .multipartEnabled(true)
+        .multipartConfiguration(
+            MultipartConfiguration.builder()
+                .thresholdInBytes(multipartThreshold.toBytes())
+                .minimumPartSizeInBytes(multipartPartSize.toBytes())
+                .build())
+        .build();
+  }
+
+  /** Threads reading upload bodies from their input streams while they are sent. */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService s3UploadExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
 }
@@ -0,0 +1,21 @@
+package me.jangluzniewicz.webstore.aws.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+@Table(name = "image_references")
+public class ImageReferenceEntity {
+  @Id
+  @Column(name = "object_key")
+  private String key;
+
+  @Column(name = "reference_count", nullable = false)
+  private Long referenceCount;
+}
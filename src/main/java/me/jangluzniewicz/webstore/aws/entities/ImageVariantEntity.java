@@ -0,0 +1,32 @@
+package me.jangluzniewicz.webstore.aws.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.*;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+@Table(name = "image_variants")
+public class ImageVariantEntity {
+  @EmbeddedId private Id id;
+
+  @Embeddable
+  @AllArgsConstructor
+  @NoArgsConstructor
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class Id implements Serializable {
+    @Column(name = "object_key")
+    private String key;
+
+    @Column(name = "variant")
+    private String variant;
+  }
+}
@@ -1,13 +1,54 @@
 package me.jangluzniewicz.webstore.aws.interfaces;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface IAwsS3 {
   String uploadFile(String folderPath, MultipartFile file);
 
+  /**
+   * Uploads {@code file} without blocking, streaming its content and switching to a multipart
+   * upload above the configured threshold. Meant to be awaited before a transaction is opened, so
+   * that no database connection is held during the upload.
+   *
+   * @return a future completed with the key of the stored object, or exceptionally with an {@link
+   *     me.jangluzniewicz.webstore.exceptions.AwsException}.
+   */
+  CompletableFuture<String> uploadFileAsync(String folderPath, MultipartFile file);
+
   String getSignedUrl(String key);
 
+  /**
+   * Signs the URLs of the resized variants stored next to the image under {@code key}. Variants are
+   * generated in the background after an upload; until a variant has been stored, the URL of the
+   * original is returned in its place.
+   *
+   * @return the signed URLs by variant name.
+   */
+  Map<String, String> getSignedVariantUrls(String key);
+
+  /**
+   * Records the variants of the image under {@code key} that are already stored and renders the
+   * missing ones from the original.
+   */
+  void backfillVariants(String key);
+
+  /**
+   * Identifies the signed URLs handed out at the moment. Every URL returned by {@link
+   * #getSignedUrl} or {@link #getSignedVariantUrls} stays valid at least until the generation
+   * changes, so entity tags can include the generation instead of signing the URLs.
+   */
+  String getUrlGeneration();
+
   String updateFile(String key, MultipartFile file);
 
   void deleteFile(String key);
+
+  /**
+   * Deletes the files under {@code keys} with as few requests as possible. Called within a
+   * transaction, the objects are only removed once it commits.
+   */
+  void deleteFiles(Collection<String> keys);
 }
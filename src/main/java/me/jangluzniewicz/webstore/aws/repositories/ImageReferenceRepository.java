@@ -0,0 +1,45 @@
+package me.jangluzniewicz.webstore.aws.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import me.jangluzniewicz.webstore.aws.entities.ImageReferenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImageReferenceRepository extends JpaRepository<ImageReferenceEntity, String> {
+  /**
+   * Adds a reference to {@code key}, creating its counter on the first one. Concurrent first
+   * uploads of the same content wait for each other on the primary key instead of failing.
+   *
+   * @return the number of references after the increment.
+   */
+  @Query(
+      value =
+          "INSERT INTO image_references (object_key, reference_count) VALUES (:key, 1)"
+              + " ON CONFLICT (object_key) DO UPDATE"
+              + " SET reference_count = image_references.reference_count + 1"
+              + " RETURNING reference_count",
+      nativeQuery = true)
+  long addReference(@Param("key") String key);
+
+  @Modifying
+  @Query(
+      "UPDATE ImageReferenceEntity r SET r.referenceCount = r.referenceCount - 1"
+          + " WHERE r.key = :key")
+  int removeReference(@Param("key") String key);
+
+  @Modifying
+  @Query(
+      "UPDATE ImageReferenceEntity r SET r.referenceCount = r.referenceCount - :count"
+          + " WHERE r.key = :key")
+  int removeReferences(@Param("key") String key, @Param("count") long count);
+
+  @Query("SELECT r.key FROM ImageReferenceEntity r WHERE r.key IN :keys AND r.referenceCount <= 0")
+  List<String> findUnreferenced(@Param("keys") Collection<String> keys);
+
+  @Modifying
+  @Query("DELETE FROM ImageReferenceEntity r WHERE r.key = :key AND r.referenceCount <= 0")
+  int deleteIfUnreferenced(@Param("key") String key);
+}
@@ -0,0 +1,46 @@
+package me.jangluzniewicz.webstore.aws.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import me.jangluzniewicz.webstore.aws.entities.ImageVariantEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImageVariantRepository
+    extends JpaRepository<ImageVariantEntity, ImageVariantEntity.Id> {
+  @Query("SELECT v.id.variant FROM ImageVariantEntity v WHERE v.id.key = :key")
+  List<String> findVariants(@Param("key") String key);
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO image_variants (object_key, variant) VALUES (:key, :variant)"
+              + " ON CONFLICT DO NOTHING",
+      nativeQuery = true)
+  int addVariant(@Param("key") String key, @Param("variant") String variant);
+
+  @Modifying
+  @Query("DELETE FROM ImageVariantEntity v WHERE v.id.key IN :keys")
+  int deleteByKeys(@Param("keys") Collection<String> keys);
+
+  /**
+   * Finds the image keys of products and categories, ordered and following {@code after}, that lack
+   * a recorded variant among {@code variants}.
+   */
+  @Query(
+      value =
+          "SELECT k.image_uri FROM"
+              + " (SELECT image_uri FROM products UNION SELECT image_uri FROM categories) k"
+              + " WHERE k.image_uri > :after"
+              + " AND (SELECT COUNT(*) FROM image_variants v"
+              + " WHERE v.object_key = k.image_uri AND v.variant IN (:variants)) < :count"
+              + " ORDER BY k.image_uri LIMIT :limit",
+      nativeQuery = true)
+  List<String> findKeysMissingVariants(
+      @Param("after") String after,
+      @Param("variants") Collection<String> variants,
+      @Param("count") int count,
+      @Param("limit") int limit);
+}
@@ -0,0 +1,293 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import static me.jangluzniewicz.webstore.commons.services.TransactionCallbacks.afterCommit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+/**
+ * Object operations shared by the storage modes: uploads, presigning and the resized variants
+ * stored next to every image under {@code <key>_<variant>}, which are recorded in the {@link
+ * ImageVariantRegistry} once stored.
+ */
+@Slf4j
+public abstract class AbstractS3Service implements IAwsS3 {
+  private static final int MAX_KEYS_PER_DELETE = 1000;
+  protected final S3Client s3Client;
+  protected final S3AsyncClient s3AsyncClient;
+  protected final ExecutorService s3UploadExecutor;
+  protected final S3Presigner s3Presigner;
+  protected final PresignedUrlCache presignedUrlCache;
+  protected final ImageResizer imageResizer;
+  protected final ImageVariantRegistry imageVariantRegistry;
+  protected final AsyncTaskExecutor imageVariantExecutor;
+  protected final String bucketName;
+
+  public AbstractS3Service(
+      S3Client s3Client,
+      S3AsyncClient s3AsyncClient,
+      ExecutorService s3UploadExecutor,
+      S3Presigner s3Presigner,
+      PresignedUrlCache presignedUrlCache,
+      ImageResizer imageResizer,
+      ImageVariantRegistry imageVariantRegistry,
+      AsyncTaskExecutor imageVariantExecutor,
+      String bucketName) {
+    this.s3Client = s3Client;
+    this.s3AsyncClient = s3AsyncClient;
+    this.s3UploadExecutor = s3UploadExecutor;
+    this.s3Presigner = s3Presigner;
+    this.presignedUrlCache = presignedUrlCache;
+    this.imageResizer = imageResizer;
+    this.imageVariantRegistry = imageVariantRegistry;
+    this.imageVariantExecutor = imageVariantExecutor;
+    this.bucketName = bucketName;
+  }
+
+  @Override
+  public Map<String, String> getSignedVariantUrls(String key) {
+    Set<String> stored = imageVariantRegistry.find(key);
+    Map<String, String> urls = new LinkedHashMap<>();
+    imageResizer
+        .getSizes()
+        .keySet()
+        .forEach(
+            variant ->
+                urls.put(
+                    variant,
+                    getSignedUrl(stored.contains(variant) ? variantKey(key, variant) : key)));
+    return urls;
+  }
+
+  /**
+   * Checks the variants not recorded yet with a {@code HEAD} request each, so that images stored
+   * before variants were recorded are not rendered again, and renders all variants when one is
+   * missing.
+   */
+  @Override
+  public void backfillVariants(String key) {
+    Set<String> recorded = imageVariantRegistry.find(key);
+    List<String> stored = new ArrayList<>();
+    for (String variant : imageResizer.getSizes().keySet()) {
+      if (recorded.contains(variant)) {
+        continue;
+      }
+      if (!exists(variantKey(key, variant))) {
+        storeVariants(key);
+        return;
+      }
+      stored.add(variant);
+    }
+    imageVariantRegistry.record(key, stored);
+  }
+
+  protected void putObject(
+      String key, RequestBody requestBody, String contentType, String cacheControl) {
+    s3Client.putObject(
+        PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .contentType(contentType)
+            .cacheControl(cacheControl)
+            .build(),
+        requestBody);
+  }
+
+  /**
+   * Streams {@code file} to {@code key} straight from its input stream, which is read on the upload
+   * executor while the body is being sent.
+   */
+  protected CompletableFuture<Void> putObjectAsync(
+      String key, MultipartFile file, String contentType, String cacheControl) throws IOException {
+    InputStream inputStream = file.getInputStream();
+    return s3AsyncClient
+        .putObject(
+            PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .cacheControl(cacheControl)
+                .build(),
+            AsyncRequestBody.fromInputStream(inputStream, file.getSize(), s3UploadExecutor))
+        .whenComplete((_, _) -> closeQuietly(inputStream))
+        .thenApply(_ -> null);
+  }
+
+  @Override
+  public String getUrlGeneration() {
+    return Long.toString(presignedUrlCache.generation());
+  }
+
+  /** Deletes the object under {@code key} together with its variants. */
+  protected void deleteObject(String key) {
+    imageVariantRegistry.forget(List.of(key));
+    presignedUrlCache.invalidate(key);
+    List<String> variantKeys =
+        imageResizer.getSizes().keySet().stream().map(variant -> variantKey(key, variant)).toList();
+    variantKeys.forEach(presignedUrlCache::invalidate);
+    s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+    if (!variantKeys.isEmpty()) {
+      deleteBatch(variantKeys);
+    }
+  }
+
+  /**
+   * Deletes the objects under {@code keys} together with their variants, sending as many keys per
+   * request as S3 accepts.
+   */
+  protected void deleteObjects(Collection<String> keys) {
+    imageVariantRegistry.forget(keys);
+    List<String> objectKeys = new ArrayList<>();
+    for (String key : keys) {
+      objectKeys.add(key);
+      imageResizer.getSizes().keySet().forEach(variant -> objectKeys.add(variantKey(key, variant)));
+    }
+    objectKeys.forEach(presignedUrlCache::invalidate);
+    for (int from = 0; from < objectKeys.size(); from += MAX_KEYS_PER_DELETE) {
+      deleteBatch(
+          objectKeys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, objectKeys.size())));
+    }
+  }
+
+  /**
+   * Deletes the objects under {@code keys} once the current transaction commits, so that a rolled
+   * back deletion keeps its images. Failures are logged, as the rows are already gone.
+   */
+  protected void deleteObjectsAfterCommit(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    afterCommit(
+        () -> {
+          try {
+            deleteObjects(keys);
+          } catch (Exception e) {
+            log.warn("Error deleting {} files from S3", keys.size(), e);
+          }
+        });
+  }
+
+  /**
+   * Renders and stores the variants of the image stored under {@code key} on the image-variant
+   * pool. The image is streamed back from S3 by the task, so queued tasks hold only keys and the
+   * uploaded file is never kept in memory.
+   */
+  protected void generateVariants(String key) {
+    if (imageResizer.getSizes().isEmpty()) {
+      return;
+    }
+    imageVariantExecutor.execute(
+        () -> {
+          try {
+            storeVariants(key);
+          } catch (Exception e) {
+            log.warn("Error generating image variants of {}", key, e);
+          }
+        });
+  }
+
+  /** The {@code Cache-Control} header the objects of this storage mode are stored with. */
+  protected String cacheControl() {
+    return null;
+  }
+
+  /** Renders the variants of the image stored under {@code key} and records the stored ones. */
+  private void storeVariants(String key) {
+    Map<String, ImageResizer.ImageVariant> variants;
+    try (InputStream image =
+        s3Client.getObject(GetObjectRequest.builder().bucket(bucketName).key(key).build())) {
+      variants = imageResizer.resize(image);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    variants.forEach(
+        (variant, resized) ->
+            putObject(
+                variantKey(key, variant),
+                RequestBody.fromBytes(resized.content()),
+                resized.contentType(),
+                cacheControl()));
+    imageVariantRegistry.record(key, variants.keySet());
+  }
+
+  private boolean exists(String key) {
+    try {
+      s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+      return true;
+    } catch (NoSuchKeyException e) {
+      return false;
+    }
+  }
+
+  protected String presignedUrl(String key, Duration signatureDuration) {
+    return presignedUrlCache.get(key, objectKey -> presign(objectKey, signatureDuration));
+  }
+
+  protected static String variantKey(String key, String variant) {
+    return key + "_" + variant;
+  }
+
+  private void deleteBatch(List<String> keys) {
+    s3Client.deleteObjects(
+        DeleteObjectsRequest.builder()
+            .bucket(bucketName)
+            .delete(
+                Delete.builder()
+                    .objects(
+                        keys.stream()
+                            .map(key -> ObjectIdentifier.builder().key(key).build())
+                            .toList())
+                    .quiet(true)
+                    .build())
+            .build());
+  }
+
+  private static void closeQuietly(InputStream inputStream) {
+    try {
+      inputStream.close();
+    } catch (IOException e) {
+      log.debug("Error closing upload stream", e);
+    }
+  }
+
+  private PresignedUrlCache.SignedUrl presign(String key, Duration signatureDuration) {
+    GetObjectRequest getObjectRequest =
+        GetObjectRequest.builder().bucket(bucketName).key(key).build();
+    GetObjectPresignRequest presignRequest =
+        GetObjectPresignRequest.builder()
+            .signatureDuration(signatureDuration)
+            .getObjectRequest(getObjectRequest)
+            .build();
+    PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(presignRequest);
+    return new PresignedUrlCache.SignedUrl(presigned.url().toString(), presigned.expiration());
+  }
+}
@@ -0,0 +1,267 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import static me.jangluzniewicz.webstore.commons.services.TransactionCallbacks.afterCommit;
+
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.aws.repositories.ImageReferenceRepository;
+import me.jangluzniewicz.webstore.exceptions.AwsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Stores every upload under the SHA-256 hash of its content, so identical images share one object
+ * and an object never changes once written. The number of products and categories referring to an
+ * object is counted in {@code image_references}; uploading known content only adds a reference and
+ * the object is deleted after the transaction removing its last reference commits. Objects are
+ * stored with a long {@code Cache-Control} max-age and served from {@code public-url} when set, or
+ * otherwise through presigned URLs valid for the longest duration S3 allows, which stay the same
+ * while they are cached.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "aws.s3.storage-mode", havingValue = "content-addressed")
+public class ContentAddressedS3Service extends AbstractS3Service {
+  private static final Duration SIGNATURE_DURATION = Duration.ofDays(7);
+  private final ImageReferenceRepository imageReferenceRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final String publicUrl;
+  private final String cacheControl;
+  private final Map<String, CompletableFuture<String>> uploads = new ConcurrentHashMap<>();
+
+  public ContentAddressedS3Service(
+      S3Client s3Client,
+      S3AsyncClient s3AsyncClient,
+      ExecutorService s3UploadExecutor,
+      S3Presigner s3Presigner,
+      PresignedUrlCache presignedUrlCache,
+      ImageResizer imageResizer,
+      ImageVariantRegistry imageVariantRegistry,
+      AsyncTaskExecutor imageVariantExecutor,
+      ImageReferenceRepository imageReferenceRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${aws.s3.bucket}") String bucketName,
+      @Value("${aws.s3.content-addressed.public-url}") String publicUrl,
+      @Value("${aws.s3.content-addressed.max-age}") Duration maxAge) {
+    super(
+        s3Client,
+        s3AsyncClient,
+        s3UploadExecutor,
+        s3Presigner,
+        presignedUrlCache,
+        imageResizer,
+        imageVariantRegistry,
+        imageVariantExecutor,
+        bucketName);
+    this.imageReferenceRepository = imageReferenceRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.publicUrl =
+        publicUrl.isBlank() ? null : publicUrl.endsWith("/") ? publicUrl : publicUrl + "/";
+    this.cacheControl = "public, max-age=" + maxAge.toSeconds() + ", immutable";
+  }
+
+  @Override
+  @Transactional
+  public String uploadFile(String folderPath, MultipartFile file) {
+    try {
+      String key = folderPath + hash(file);
+      if (imageReferenceRepository.addReference(key) > 1) {
+        return key;
+      }
+      try (InputStream inputStream = file.getInputStream()) {
+        putObject(
+            key,
+            RequestBody.fromInputStream(inputStream, file.getSize()),
+            file.getContentType(),
+            cacheControl);
+      }
+      generateVariants(key);
+      return key;
+    } catch (Exception e) {
+      throw new AwsException("Error uploading file to S3");
+    }
+  }
+
+  /**
+   * Adds the reference in a transaction of its own and uploads the content only when it is new. A
+   * failed upload releases the reference again. Uploads of content this instance is still uploading
+   * wait for that upload instead of returning the key at once, and release their reference as well
+   * when it fails, so that no reference is left to an object that was never stored.
+   */
+  @Override
+  public CompletableFuture<String> uploadFileAsync(String folderPath, MultipartFile file) {
+    String key;
+    try {
+      key = folderPath + hash(file);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(new AwsException("Error uploading file to S3"));
+    }
+    CompletableFuture<String> upload = new CompletableFuture<>();
+    CompletableFuture<String> inFlight = uploads.putIfAbsent(key, upload);
+    Long references;
+    try {
+      references = transactionTemplate.execute(_ -> imageReferenceRepository.addReference(key));
+    } catch (Exception e) {
+      if (inFlight == null) {
+        finish(key, upload, e);
+      }
+      return CompletableFuture.failedFuture(new AwsException("Error uploading file to S3"));
+    }
+    if (inFlight != null) {
+      return inFlight.handle(
+          (_, e) -> {
+            if (e != null) {
+              transactionTemplate.executeWithoutResult(_ -> releaseReference(key));
+              throw new AwsException("Error uploading file to S3");
+            }
+            return key;
+          });
+    }
+    if (references != null && references > 1) {
+      finish(key, upload, null);
+      return CompletableFuture.completedFuture(key);
+    }
+    CompletableFuture<Void> put;
+    try {
+      put = putObjectAsync(key, file, file.getContentType(), cacheControl);
+    } catch (Exception e) {
+      put = CompletableFuture.failedFuture(e);
+    }
+    return put.handleAsync(
+            (_, e) -> {
+              if (e != null) {
+                transactionTemplate.executeWithoutResult(_ -> releaseReference(key));
+                throw new AwsException("Error uploading file to S3");
+              }
+              generateVariants(key);
+              return key;
+            },
+            s3UploadExecutor)
+        .whenComplete((_, e) -> finish(key, upload, e));
+  }
+
+  /**
+   * Completes the upload of {@code key} before forgetting it, so that the uploads waiting for it
+   * have released their references by the time a new upload of the same content can start.
+   */
+  private void finish(String key, CompletableFuture<String> upload, Throwable failure) {
+    if (failure != null) {
+      upload.completeExceptionally(failure);
+    } else {
+      upload.complete(key);
+    }
+    uploads.remove(key, upload);
+  }
+
+  @Override
+  public String getSignedUrl(String key) {
+    return publicUrl != null ? publicUrl + key : presignedUrl(key, SIGNATURE_DURATION);
+  }
+
+  @Override
+  protected String cacheControl() {
+    return cacheControl;
+  }
+
+  /** Public URLs never expire, so they form a single generation. */
+  @Override
+  public String getUrlGeneration() {
+    return publicUrl != null ? "public" : super.getUrlGeneration();
+  }
+
+  /** Stores {@code file} under its own hash and releases the reference to {@code key}. */
+  @Override
+  @Transactional
+  public String updateFile(String key, MultipartFile file) {
+    String newKey = uploadFile(key.substring(0, key.lastIndexOf('/') + 1), file);
+    deleteFile(key);
+    return newKey;
+  }
+
+  /**
+   * Releases a reference to {@code key}. Keys without a counter were stored by the random-key mode
+   * and are deleted right away.
+   */
+  @Override
+  @Transactional
+  public void deleteFile(String key) {
+    if (imageReferenceRepository.removeReference(key) == 0
+        || imageReferenceRepository.deleteIfUnreferenced(key) > 0) {
+      deleteObjectAfterCommit(key);
+    }
+  }
+
+  /**
+   * Releases one reference per element of {@code keys}, in which a key shared by several products
+   * occurs several times, and deletes the objects left unreferenced after commit.
+   */
+  @Override
+  @Transactional
+  public void deleteFiles(Collection<String> keys) {
+    Map<String, Long> references =
+        keys.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    List<String> unreferenced = new ArrayList<>();
+    references.forEach(
+        (key, count) -> {
+          if (imageReferenceRepository.removeReferences(key, count) == 0) {
+            unreferenced.add(key);
+          }
+        });
+    List<String> released = imageReferenceRepository.findUnreferenced(references.keySet());
+    imageReferenceRepository.deleteAllByIdInBatch(released);
+    unreferenced.addAll(released);
+    deleteObjectsAfterCommit(unreferenced);
+  }
+
+  private void releaseReference(String key) {
+    if (imageReferenceRepository.removeReference(key) > 0) {
+      imageReferenceRepository.deleteIfUnreferenced(key);
+    }
+  }
+
+  private void deleteObjectAfterCommit(String key) {
+    afterCommit(
+        () -> {
+          try {
+            deleteObject(key);
+          } catch (Exception e) {
+            log.warn("Error deleting unreferenced file {} from S3", key, e);
+          }
+        });
+  }
+
+  /** Hashes {@code file} while streaming it, without holding its content in memory. */
+  private static String hash(MultipartFile file) throws IOException, NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+      inputStream.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+}
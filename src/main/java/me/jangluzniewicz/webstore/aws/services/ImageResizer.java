@@ -0,0 +1,100 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import me.jangluzniewicz.webstore.aws.config.ImageVariantProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders the configured variants of an image. Each variant fits into a square of its configured
+ * size, keeps the aspect ratio and is never larger than the original. Images with transparency are
+ * encoded as PNG, all others as JPEG.
+ */
+@Component
+public class ImageResizer {
+  private final Map<String, Integer> sizes;
+
+  public ImageResizer(ImageVariantProperties properties) {
+    this.sizes = properties.sizes();
+  }
+
+  public record ImageVariant(byte[] content, String contentType) {}
+
+  public Map<String, Integer> getSizes() {
+    return sizes;
+  }
+
+  /**
+   * Decodes {@code image} once and renders every variant from it.
+   *
+   * @return the variants by name, or an empty map when {@code image} is not a readable image.
+   */
+  public Map<String, ImageVariant> resize(byte[] image) throws IOException {
+    return resize(new ByteArrayInputStream(image));
+  }
+
+  /**
+   * Decodes the image read from {@code image} once and renders every variant from it, without
+   * buffering the encoded image.
+   *
+   * @return the variants by name, or an empty map when {@code image} is not a readable image.
+   */
+  public Map<String, ImageVariant> resize(InputStream image) throws IOException {
+    BufferedImage original = ImageIO.read(image);
+    if (original == null) {
+      return Map.of();
+    }
+    boolean alpha = original.getColorModel().hasAlpha();
+    Map<String, ImageVariant> variants = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> size : sizes.entrySet()) {
+      BufferedImage resized = resize(original, size.getValue(), alpha);
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      ImageIO.write(resized, alpha ? "png" : "jpg", content);
+      variants.put(
+          size.getKey(),
+          new ImageVariant(content.toByteArray(), alpha ? "image/png" : "image/jpeg"));
+    }
+    return variants;
+  }
+
+  /**
+   * Scales {@code image} down in steps of at most one half, which keeps bilinear interpolation from
+   * skipping source pixels and gives a result close to area averaging at a fraction of its cost.
+   */
+  private static BufferedImage resize(BufferedImage image, int maxSize, boolean alpha) {
+    double scale = Math.min(1, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+    int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+    BufferedImage current = image;
+    do {
+      int stepWidth = Math.max(width, current.getWidth() / 2);
+      int stepHeight = Math.max(height, current.getHeight() / 2);
+      current = draw(current, stepWidth, stepHeight, alpha);
+    } while (current.getWidth() != width || current.getHeight() != height);
+    return current;
+  }
+
+  private static BufferedImage draw(BufferedImage image, int width, int height, boolean alpha) {
+    BufferedImage target =
+        new BufferedImage(
+            width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(
+          RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(image, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+}
@@ -0,0 +1,62 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.aws.repositories.ImageVariantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completes the recorded variants of product and category images stored before variants were
+ * recorded, whose variant generation failed, or which lack a newly configured size. Failures are
+ * logged and retried on the next run.
+ */
+@Component
+@Slf4j
+public class ImageVariantBackfill {
+  private final IAwsS3 awsS3;
+  private final ImageVariantRepository imageVariantRepository;
+  private final ImageResizer imageResizer;
+  private final int batchSize;
+
+  public ImageVariantBackfill(
+      IAwsS3 awsS3,
+      ImageVariantRepository imageVariantRepository,
+      ImageResizer imageResizer,
+      @Value("${aws.s3.image-variants.backfill.batch-size}") int batchSize) {
+    this.awsS3 = awsS3;
+    this.imageVariantRepository = imageVariantRepository;
+    this.imageResizer = imageResizer;
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(
+      initialDelayString = "${aws.s3.image-variants.backfill.interval}",
+      fixedDelayString = "${aws.s3.image-variants.backfill.interval}")
+  public void backfill() {
+    Set<String> variants = imageResizer.getSizes().keySet();
+    if (variants.isEmpty()) {
+      return;
+    }
+    String after = "";
+    List<String> keys;
+    do {
+      keys =
+          imageVariantRepository.findKeysMissingVariants(
+              after, variants, variants.size(), batchSize);
+      for (String key : keys) {
+        try {
+          awsS3.backfillVariants(key);
+        } catch (Exception e) {
+          log.warn("Error backfilling image variants of {}", key, e);
+        }
+      }
+      if (!keys.isEmpty()) {
+        after = keys.getLast();
+      }
+    } while (keys.size() == batchSize);
+  }
+}
@@ -0,0 +1,65 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import me.jangluzniewicz.webstore.aws.repositories.ImageVariantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Records which variants have been stored for every image, so that only URLs of existing variants
+ * are handed out. Lookups are cached for {@code expire-after}; an instance that has not generated a
+ * variant itself notices it once its entry expires and serves the original until then.
+ */
+@Component
+public class ImageVariantRegistry {
+  private static final int MAX_KEYS_PER_DELETE = 1000;
+  private final ImageVariantRepository imageVariantRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Cache<String, Set<String>> variants;
+
+  public ImageVariantRegistry(
+      ImageVariantRepository imageVariantRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${aws.s3.image-variants.registry.max-size}") long maxSize,
+      @Value("${aws.s3.image-variants.registry.expire-after}") Duration expireAfter) {
+    this.imageVariantRepository = imageVariantRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.variants =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(expireAfter).build();
+  }
+
+  /** Returns the names of the variants stored for the image under {@code key}. */
+  public Set<String> find(String key) {
+    return variants.get(key, k -> Set.copyOf(imageVariantRepository.findVariants(k)));
+  }
+
+  /** Records that {@code names} have been stored for the image under {@code key}. */
+  public void record(String key, Collection<String> names) {
+    if (names.isEmpty()) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(
+        _ -> names.forEach(name -> imageVariantRepository.addVariant(key, name)));
+    variants.invalidate(key);
+  }
+
+  /** Forgets the variants of the images under {@code keys}, which are being deleted. */
+  public void forget(Collection<String> keys) {
+    List<String> distinct = keys.stream().distinct().toList();
+    for (int from = 0; from < distinct.size(); from += MAX_KEYS_PER_DELETE) {
+      List<String> batch =
+          distinct.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, distinct.size()));
+      transactionTemplate.executeWithoutResult(_ -> imageVariantRepository.deleteByKeys(batch));
+    }
+    variants.invalidateAll(distinct);
+  }
+}
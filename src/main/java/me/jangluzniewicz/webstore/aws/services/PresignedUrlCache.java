@@ -0,0 +1,125 @@
+package me.jangluzniewicz.webstore.aws.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, thread-safe cache of presigned URLs keyed by object key. A cached URL is handed out
+ * until {@code safetyMargin} before its signature expires, so clients never receive a URL that is
+ * about to stop working.
+ */
+@Component
+public class PresignedUrlCache {
+  private final Map<String, SignedUrl> urls = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final int maxSize;
+  private final Duration safetyMargin;
+  private final Clock clock;
+
+  @Autowired
+  public PresignedUrlCache(
+      @Value("${aws.s3.url-cache.max-size}") int maxSize,
+      @Value("${aws.s3.url-cache.safety-margin}") Duration safetyMargin) {
+    this(maxSize, safetyMargin, Clock.systemUTC());
+  }
+
+  public PresignedUrlCache(int maxSize, Duration safetyMargin, Clock clock) {
+    this.maxSize = maxSize;
+    this.safetyMargin = safetyMargin;
+    this.clock = clock;
+  }
+
+  public record SignedUrl(String url, Instant expiration) {}
+
+  public String get(String key, Function<String, SignedUrl> signer) {
+    Instant now = clock.instant();
+    SignedUrl cached = urls.get(key);
+    if (cached != null && isFresh(cached, now)) {
+      hits.increment();
+      return cached.url();
+    }
+    misses.increment();
+    SignedUrl signed = signer.apply(key);
+    if (isFresh(signed, now)) {
+      urls.put(key, signed);
+      if (urls.size() > maxSize) {
+        evict(now);
+      }
+    }
+    return signed.url();
+  }
+
+  /**
+   * Numbers consecutive windows of {@code safetyMargin}. A URL handed out by {@link #get} has at
+   * least the margin left, so it outlives the window in which it was handed out.
+   */
+  public long generation() {
+    return clock.millis() / Math.max(safetyMargin.toMillis(), 1);
+  }
+
+  public void invalidate(String key) {
+    urls.remove(key);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    return urls.size();
+  }
+
+  private boolean isFresh(SignedUrl signedUrl, Instant now) {
+    return now.isBefore(signedUrl.expiration().minus(safetyMargin));
+  }
+
+  private synchronized void evict(Instant now) {
+    if (urls.size() <= maxSize) {
+      return;
+    }
+    urls.entrySet()
+        .removeIf(
+            entry -> {
+              boolean stale = !isFresh(entry.getValue(), now);
+              if (stale) {
+                evictions.increment();
+              }
+              return stale;
+            });
+    int target = maxSize - maxSize / 10;
+    int excess = urls.size() - target;
+    if (excess <= 0) {
+      return;
+    }
+    urls.entrySet().stream()
+        .sorted(Comparator.comparing(entry -> entry.getValue().expiration()))
+        .limit(excess)
+        .map(Map.Entry::getKey)
+        .toList()
+        .forEach(
+            key -> {
+              if (urls.remove(key) != null) {
+                evictions.increment();
+              }
+            });
+  }
+}
@@ -1,76 +1,108 @@
 package me.jangluzniewicz.webstore.aws.services;
 
+import java.io.InputStream;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.UUID;
-import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import me.jangluzniewicz.webstore.exceptions.AwsException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
+/** Stores every upload under a new random key and serves it through short-lived URLs. */
 @Service
-public class S3Service implements IAwsS3 {
-  private final S3Client s3Client;
-  private final S3Presigner s3Presigner;
-  private final String bucketName;
+@ConditionalOnProperty(name = "aws.s3.storage-mode", havingValue = "uuid", matchIfMissing = true)
+public class S3Service extends AbstractS3Service {
+  private static final Duration SIGNATURE_DURATION = Duration.ofMinutes(10);
 
   public S3Service(
-      S3Client s3Client, S3Presigner s3Presigner, @Value("${aws.s3.bucket}") String bucketName) {
-    this.s3Client = s3Client;
-    this.s3Presigner = s3Presigner;
-    this.bucketName = bucketName;
+      S3Client s3Client,
+      S3AsyncClient s3AsyncClient,
+      ExecutorService s3UploadExecutor,
+      S3Presigner s3Presigner,
+      PresignedUrlCache presignedUrlCache,
+      ImageResizer imageResizer,
+      ImageVariantRegistry imageVariantRegistry,
+      AsyncTaskExecutor imageVariantExecutor,
+      @Value("${aws.s3.bucket}") String bucketName) {
+    super(
+        s3Client,
+        s3AsyncClient,
+        s3UploadExecutor,
+        s3Presigner,
+        presignedUrlCache,
+        imageResizer,
+        imageVariantRegistry,
+        imageVariantExecutor,
+        bucketName);
   }
 
   @Override
   public String uploadFile(String folderPath, MultipartFile file) {
     String key = folderPath + UUID.randomUUID() + "_" + file.getOriginalFilename();
-    PutObjectRequest putObjectRequest =
-        PutObjectRequest.builder().bucket(bucketName).key(key).build();
-    try {
-      s3Client.putObject(
-          putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+    try (InputStream inputStream = file.getInputStream()) {
+      putObject(key, RequestBody.fromInputStream(inputStream, file.getSize()), null, null);
+      generateVariants(key);
       return key;
     } catch (Exception e) {
       throw new AwsException("Error uploading file to S3");
     }
   }
 
+  @Override
+  public CompletableFuture<String> uploadFileAsync(String folderPath, MultipartFile file) {
+    String key = folderPath + UUID.randomUUID() + "_" + file.getOriginalFilename();
+    try {
+      return putObjectAsync(key, file, file.getContentType(), null)
+          .handle(
+              (_, e) -> {
+                if (e != null) {
+                  throw new AwsException("Error uploading file to S3");
+                }
+                generateVariants(key);
+                return key;
+              });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(new AwsException("Error uploading file to S3"));
+    }
+  }
+
   @Override
   public String getSignedUrl(String key) {
-    GetObjectRequest getObjectRequest =
-        GetObjectRequest.builder().bucket(bucketName).key(key).build();
-    GetObjectPresignRequest presignRequest =
-        GetObjectPresignRequest.builder()
-            .signatureDuration(Duration.ofMinutes(10))
-            .getObjectRequest(getObjectRequest)
-            .build();
-    return s3Presigner.presignGetObject(presignRequest).url().toString();
+    return presignedUrl(key, SIGNATURE_DURATION);
   }
 
   @Override
   public String updateFile(String key, MultipartFile file) {
-    try {
+    try (InputStream inputStream = file.getInputStream()) {
       s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
-      s3Client.putObject(
-          PutObjectRequest.builder().bucket(bucketName).key(key).build(),
-          RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+      putObject(key, RequestBody.fromInputStream(inputStream, file.getSize()), null, null);
+      generateVariants(key);
       return key;
     } catch (Exception e) {
       throw new AwsException("Error updating file in S3");
     }
   }
 
+  /** Deletes the objects after the current transaction commits, or right away outside of one. */
+  @Override
+  public void deleteFiles(Collection<String> keys) {
+    deleteObjectsAfterCommit(keys);
+  }
+
   @Override
   public void deleteFile(String key) {
     try {
-      s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+      deleteObject(key);
     } catch (Exception e) {
       throw new AwsException("Error deleting file from S3");
     }
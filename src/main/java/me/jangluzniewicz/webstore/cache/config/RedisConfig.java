@@ -1,25 +1,54 @@
 package me.jangluzniewicz.webstore.cache.config;
 
-import java.time.Duration;
-import org.springframework.cache.CacheManager;
+import java.util.Map;
+import java.util.stream.Collectors;
+import me.jangluzniewicz.webstore.cache.services.CompactRedisSerializer;
+import me.jangluzniewicz.webstore.cache.services.RedisVersionedWriter;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @Configuration
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 public class RedisConfig {
   @Bean
-  public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-    RedisCacheConfiguration cacheConfig =
-        RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(10))
-            .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(
-                    new GenericJackson2JsonRedisSerializer()));
-    return RedisCacheManager.builder(redisConnectionFactory).cacheDefaults(cacheConfig).build();
+  public TwoLevelCacheManager cacheManager(
+      RedisConnectionFactory redisConnectionFactory, TwoLevelCacheProperties properties) {
+    Map<String, RedisCacheConfiguration> cacheConfigs =
+        properties.caches().keySet().stream()
+            .collect(
+                Collectors.toMap(
+                    name -> name, name -> redisCacheConfig(properties.policyFor(name))));
+    RedisCacheManager redisCacheManager =
+        RedisCacheManager.builder(redisConnectionFactory)
+            .cacheDefaults(redisCacheConfig(properties.defaults()))
+            .withInitialCacheConfigurations(cacheConfigs)
+            .build();
+    redisCacheManager.initializeCaches();
+    return new TwoLevelCacheManager(
+        redisCacheManager, properties, new RedisVersionedWriter(redisConnectionFactory));
+  }
+
+  private static RedisCacheConfiguration redisCacheConfig(TwoLevelCacheProperties.Policy policy) {
+    return RedisCacheConfiguration.defaultCacheConfig()
+        .entryTtl(policy.remoteTtl())
+        .serializeValuesWith(
+            RedisSerializationContext.SerializationPair.fromSerializer(serializer(policy)));
+  }
+
+  private static RedisSerializer<?> serializer(TwoLevelCacheProperties.Policy policy) {
+    return switch (policy.serializer()) {
+      case JSON -> new GenericJackson2JsonRedisSerializer();
+      case JDK -> new JdkSerializationRedisSerializer();
+      case COMPACT -> new CompactRedisSerializer(policy.valueType(), policy.compressionThreshold());
+    };
   }
 }
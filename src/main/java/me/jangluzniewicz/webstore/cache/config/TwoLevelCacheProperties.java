@@ -0,0 +1,66 @@
+package me.jangluzniewicz.webstore.cache.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-cache policies of the two-level cache. Every cache uses {@code defaults}, overridden by the
+ * non-null values of its entry in {@code caches}.
+ */
+@ConfigurationProperties(prefix = "cache")
+public record TwoLevelCacheProperties(Policy defaults, Map<String, Policy> caches) {
+  public TwoLevelCacheProperties {
+    caches = caches == null ? Map.of() : caches;
+  }
+
+  public Policy policyFor(String name) {
+    Policy policy = caches.get(name);
+    return policy == null ? defaults : policy.withDefaults(defaults);
+  }
+
+  /**
+   * @param localMaxSize maximum number of entries kept in memory; 0 disables the local tier.
+   * @param localTtl time after which a local entry expires.
+   * @param refreshAfter time after which a local entry is reloaded from Redis in the background on
+   *     the next read; null disables refresh-ahead.
+   * @param remoteTtl time after which a Redis entry expires.
+   * @param remote whether the Redis tier is used; local-only caches are not shared between
+   *     instances.
+   * @param serializer format of the values stored in Redis.
+   * @param valueType type of all values of the cache, letting the compact serializer omit type
+   *     hints; null when values are of various types.
+   * @param compressionThreshold size in bytes from which the compact serializer compresses values.
+   */
+  public record Policy(
+      Long localMaxSize,
+      Duration localTtl,
+      Duration refreshAfter,
+      Duration remoteTtl,
+      Boolean remote,
+      Serializer serializer,
+      Class<?> valueType,
+      Integer compressionThreshold) {
+    Policy withDefaults(Policy defaults) {
+      return new Policy(
+          localMaxSize != null ? localMaxSize : defaults.localMaxSize(),
+          localTtl != null ? localTtl : defaults.localTtl(),
+          refreshAfter != null ? refreshAfter : defaults.refreshAfter(),
+          remoteTtl != null ? remoteTtl : defaults.remoteTtl(),
+          remote != null ? remote : defaults.remote(),
+          serializer != null ? serializer : defaults.serializer(),
+          valueType != null ? valueType : defaults.valueType(),
+          compressionThreshold != null ? compressionThreshold : defaults.compressionThreshold());
+    }
+
+    public boolean isLocal() {
+      return localMaxSize > 0;
+    }
+  }
+
+  public enum Serializer {
+    JSON,
+    JDK,
+    COMPACT
+  }
+}
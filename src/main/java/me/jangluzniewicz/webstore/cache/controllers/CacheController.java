@@ -0,0 +1,46 @@
+package me.jangluzniewicz.webstore.cache.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import me.jangluzniewicz.webstore.cache.interfaces.ICacheStatistics;
+import me.jangluzniewicz.webstore.cache.models.CacheStatistics;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Caches", description = "Operations related to caches")
+@RestController
+@RequestMapping("/caches")
+public class CacheController {
+  private final ICacheStatistics cacheStatistics;
+
+  public CacheController(ICacheStatistics cacheStatistics) {
+    this.cacheStatistics = cacheStatistics;
+  }
+
+  @Operation(
+      summary = "Get cache statistics",
+      description =
+          "Returns hit, miss and eviction counts of the local and Redis tiers of every cache"
+              + " (requires ADMIN role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Cache statistics",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              array = @ArraySchema(schema = @Schema(implementation = CacheStatistics.class))))
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/statistics")
+  public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+    return ResponseEntity.ok(cacheStatistics.getCacheStatistics());
+  }
+}
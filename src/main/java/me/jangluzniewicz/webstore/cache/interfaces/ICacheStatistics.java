@@ -0,0 +1,15 @@
+package me.jangluzniewicz.webstore.cache.interfaces;
+
+import java.util.List;
+import me.jangluzniewicz.webstore.cache.models.CacheStatistics;
+
+/** Interface for reading cache statistics */
+public interface ICacheStatistics {
+
+  /**
+   * Retrieves the statistics of every cache, per tier.
+   *
+   * @return a list of {@link CacheStatistics}, one per cache, ordered by cache name.
+   */
+  List<CacheStatistics> getCacheStatistics();
+}
@@ -0,0 +1,12 @@
+package me.jangluzniewicz.webstore.cache.interfaces;
+
+/** Interface for cached values carrying a version that grows with every change */
+public interface IVersioned {
+
+  /**
+   * Retrieves the version of the value.
+   *
+   * @return the version, or {@code null} when the value was never stored.
+   */
+  Long getVersion();
+}
@@ -0,0 +1,49 @@
+package me.jangluzniewicz.webstore.cache.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Model representing the statistics of a two-level cache")
+@AllArgsConstructor
+@Getter
+@ToString
+@Builder
+public class CacheStatistics {
+  @NonNull
+  @Schema(description = "Name of the cache", example = "carts")
+  private String name;
+
+  @NonNull
+  @Schema(description = "Number of entries in the local tier", example = "120")
+  private Long localSize;
+
+  @NonNull
+  @Schema(description = "Number of reads answered by the local tier", example = "10500")
+  private Long localHits;
+
+  @NonNull
+  @Schema(description = "Number of reads missed by the local tier", example = "300")
+  private Long localMisses;
+
+  @NonNull
+  @Schema(description = "Number of entries evicted from the local tier", example = "25")
+  private Long localEvictions;
+
+  @NonNull
+  @Schema(description = "Number of reads answered by Redis", example = "280")
+  private Long remoteHits;
+
+  @NonNull
+  @Schema(description = "Number of reads missed by Redis", example = "20")
+  private Long remoteMisses;
+
+  @NonNull
+  @Schema(
+      description = "Number of entries evicted from Redis on request, including invalidations",
+      example = "40")
+  private Long remoteEvictions;
+
+  @NonNull
+  @Schema(description = "Number of times the Redis tier was cleared", example = "1")
+  private Long remoteClears;
+}
@@ -0,0 +1,168 @@
+package me.jangluzniewicz.webstore.cache.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Serializer writing cache values as a format version byte, a flags byte and the payload. Values of
+ * caches with a known value type are written as JSON of that type, without the {@code @class} hints
+ * of {@link GenericJackson2JsonRedisSerializer}, which it falls back to otherwise. Payloads of at
+ * least {@code compressionThreshold} bytes are deflated.
+ *
+ * <p>Values written by {@link GenericJackson2JsonRedisSerializer} are still read, so a cache can be
+ * switched to this serializer without flushing it. Instances must be able to read a format version
+ * before any instance writes it, so a new version is rolled out as readable first and written by a
+ * later release.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+  static final byte FORMAT_VERSION = 1;
+  private static final byte PLAIN = 0;
+  private static final byte DEFLATED = 1;
+  private static final byte NULL_VALUE = 2;
+  private static final int HEADER_LENGTH = 2;
+  private final GenericJackson2JsonRedisSerializer untyped =
+      new GenericJackson2JsonRedisSerializer();
+  private final ObjectWriter writer;
+  private final ObjectReader reader;
+  private final int compressionThreshold;
+
+  /**
+   * @param valueType the type of all values of the cache, or null when they are of various types.
+   * @param compressionThreshold the payload size in bytes from which payloads are deflated.
+   */
+  public CompactRedisSerializer(Class<?> valueType, int compressionThreshold) {
+    if (valueType != null) {
+      JsonMapper mapper =
+          JsonMapper.builder()
+              .findAndAddModules()
+              .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+              .serializationInclusion(JsonInclude.Include.NON_NULL)
+              .build();
+      this.writer = mapper.writerFor(valueType);
+      this.reader = mapper.readerFor(valueType);
+    } else {
+      this.writer = null;
+      this.reader = null;
+    }
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    if (value == null) {
+      return new byte[0];
+    }
+    if (value instanceof NullValue) {
+      return new byte[] {FORMAT_VERSION, NULL_VALUE};
+    }
+    byte[] payload = writer != null ? write(value) : untyped.serialize(value);
+    if (payload.length < compressionThreshold) {
+      return withHeader(PLAIN, payload);
+    }
+    return withHeader(DEFLATED, deflate(payload));
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != FORMAT_VERSION) {
+      if (bytes[0] == '{' || bytes[0] == '[') {
+        return untyped.deserialize(bytes);
+      }
+      throw new SerializationException("Unsupported cache value format " + bytes[0]);
+    }
+    byte[] payload =
+        switch (bytes[1]) {
+          case NULL_VALUE -> null;
+          case PLAIN -> Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+          case DEFLATED -> inflate(bytes);
+          default -> throw new SerializationException("Unsupported cache value flags " + bytes[1]);
+        };
+    if (payload == null) {
+      return NullValue.INSTANCE;
+    }
+    return reader != null ? read(payload) : untyped.deserialize(payload);
+  }
+
+  private byte[] write(Object value) {
+    try {
+      return writer.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new SerializationException("Could not write cache value", e);
+    }
+  }
+
+  private Object read(byte[] payload) {
+    try {
+      return reader.readValue(payload);
+    } catch (IOException e) {
+      throw new SerializationException("Could not read cache value", e);
+    }
+  }
+
+  private static byte[] withHeader(byte flags, byte[] payload) {
+    byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+    bytes[0] = FORMAT_VERSION;
+    bytes[1] = flags;
+    System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+    return bytes;
+  }
+
+  /** Deflates {@code payload}, prefixed with its length so inflating allocates once. */
+  private static byte[] deflate(byte[] payload) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(payload);
+      deflater.finish();
+      byte[] buffer = new byte[Integer.BYTES + payload.length + payload.length / 1000 + 64];
+      ByteBuffer.wrap(buffer).putInt(payload.length);
+      int length = Integer.BYTES;
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      return Arrays.copyOf(buffer, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] bytes) {
+    int offset = HEADER_LENGTH + Integer.BYTES;
+    Inflater inflater = new Inflater();
+    try {
+      byte[] payload = new byte[ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt()];
+      inflater.setInput(bytes, offset, bytes.length - offset);
+      int length = 0;
+      while (length < payload.length && !inflater.finished()) {
+        int inflated = inflater.inflate(payload, length, payload.length - length);
+        if (inflated == 0 && inflater.needsInput()) {
+          throw new SerializationException("Truncated compressed cache value");
+        }
+        length += inflated;
+      }
+      return payload;
+    } catch (DataFormatException e) {
+      throw new SerializationException("Could not decompress cache value", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
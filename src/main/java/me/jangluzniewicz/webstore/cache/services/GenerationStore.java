@@ -0,0 +1,56 @@
+package me.jangluzniewicz.webstore.cache.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generation tokens shared by all instances through Redis. Caches embed the current tokens in their
+ * keys and advance them once a change is committed, so an entry cached by any instance before the
+ * change is never read afterwards. Tokens are random rather than counters, and a missing token is
+ * created on its first read, so tokens lost with the Redis data never reappear.
+ */
+@Component
+public class GenerationStore {
+  private static final RedisScript<List> CURRENT =
+      RedisScript.of(
+          """
+          local tokens = {}
+          for i, key in ipairs(KEYS) do
+            local token = redis.call('GET', key)
+            if not token then
+              token = ARGV[1]
+              redis.call('SET', key, token)
+            end
+            tokens[i] = token
+          end
+          return tokens
+          """,
+          List.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  public GenerationStore(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  /** Returns the current tokens in the order of {@code keys}. */
+  @SuppressWarnings("unchecked")
+  public List<String> current(List<String> keys) {
+    return redisTemplate.execute(CURRENT, keys, UUID.randomUUID().toString());
+  }
+
+  /** Replaces the tokens under {@code keys} with a new one in a single round trip. */
+  public void advance(Collection<String> keys) {
+    String token = UUID.randomUUID().toString();
+    redisTemplate
+        .opsForValue()
+        .multiSet(
+            keys.stream().distinct().collect(Collectors.toMap(Function.identity(), _ -> token)));
+  }
+}
@@ -0,0 +1,123 @@
+package me.jangluzniewicz.webstore.cache.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import me.jangluzniewicz.webstore.cache.interfaces.IVersioned;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * Writes a versioned value into a {@link RedisCache} only when it is newer than the cached one. The
+ * version of an entry is kept next to it under the entry key suffixed with {@value
+ * #VERSION_SUFFIX}, with the same time to live, and both are compared and set by one Lua script, so
+ * writes arriving out of order cannot replace a newer value. Evicting an entry keeps its version;
+ * clearing the cache removes both.
+ */
+public class RedisVersionedWriter {
+  private static final String VERSION_SUFFIX = "#version";
+  private static final byte[] PUT_IF_NEWER =
+      """
+      local current = redis.call('GET', KEYS[2])
+      if current and tonumber(current) >= tonumber(ARGV[2]) then
+        return 0
+      end
+      if tonumber(ARGV[3]) > 0 then
+        redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+        redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+      else
+        redis.call('SET', KEYS[1], ARGV[1])
+        redis.call('SET', KEYS[2], ARGV[2])
+      end
+      return 1
+      """
+          .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] EVICT_UP_TO =
+      """
+      redis.call('DEL', KEYS[1])
+      local current = redis.call('GET', KEYS[2])
+      if current and tonumber(current) >= tonumber(ARGV[1]) then
+        return 0
+      end
+      if tonumber(ARGV[2]) > 0 then
+        redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+      else
+        redis.call('SET', KEYS[2], ARGV[1])
+      end
+      return 1
+      """
+          .getBytes(StandardCharsets.UTF_8);
+  private final RedisConnectionFactory connectionFactory;
+
+  public RedisVersionedWriter(RedisConnectionFactory connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
+
+  /**
+   * @return whether {@code value} was stored, which it is not when the same or a newer version is
+   *     cached.
+   */
+  public boolean putIfNewer(RedisCache cache, Object key, IVersioned value) {
+    RedisCacheConfiguration configuration = cache.getCacheConfiguration();
+    String cacheKey = cacheKey(cache, key);
+    Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      Long written =
+          connection
+              .scriptingCommands()
+              .eval(
+                  PUT_IF_NEWER,
+                  ReturnType.INTEGER,
+                  2,
+                  ByteUtils.getBytes(configuration.getKeySerializationPair().write(cacheKey)),
+                  ByteUtils.getBytes(
+                      configuration.getKeySerializationPair().write(cacheKey + VERSION_SUFFIX)),
+                  ByteUtils.getBytes(configuration.getValueSerializationPair().write(value)),
+                  bytes(value.getVersion()),
+                  bytes(ttl.isNegative() ? 0 : ttl.toMillis()));
+      return written != null && written == 1;
+    }
+  }
+
+  /**
+   * Evicts the entry under {@code key} and raises its version to {@code version}, so that later
+   * writes of that version or older ones are rejected.
+   */
+  public void evictUpTo(RedisCache cache, Object key, long version) {
+    RedisCacheConfiguration configuration = cache.getCacheConfiguration();
+    String cacheKey = cacheKey(cache, key);
+    Duration ttl = configuration.getTtlFunction().getTimeToLive(key, null);
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      connection
+          .scriptingCommands()
+          .eval(
+              EVICT_UP_TO,
+              ReturnType.INTEGER,
+              2,
+              ByteUtils.getBytes(configuration.getKeySerializationPair().write(cacheKey)),
+              ByteUtils.getBytes(
+                  configuration.getKeySerializationPair().write(cacheKey + VERSION_SUFFIX)),
+              bytes(version),
+              bytes(ttl.isNegative() ? 0 : ttl.toMillis()));
+    }
+  }
+
+  /** Builds the key the same way {@link RedisCache} does. */
+  private static String cacheKey(RedisCache cache, Object key) {
+    RedisCacheConfiguration configuration = cache.getCacheConfiguration();
+    String convertedKey =
+        key instanceof String value
+            ? value
+            : configuration.getConversionService().convert(key, String.class);
+    return configuration.usePrefix()
+        ? configuration.getKeyPrefixFor(cache.getName()) + convertedKey
+        : convertedKey;
+  }
+
+  private static byte[] bytes(long value) {
+    return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,240 @@
+package me.jangluzniewicz.webstore.cache.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties.Policy;
+import me.jangluzniewicz.webstore.cache.interfaces.IVersioned;
+import me.jangluzniewicz.webstore.cache.models.CacheStatistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Cache reading from an in-process Caffeine tier first and from a shared remote tier on a local
+ * miss. Values found remotely are copied to the local tier; writes and evictions go to both tiers.
+ * Failures of the remote tier are propagated so that callers can fall back to the database.
+ * Concurrent misses of the same key in {@link #get(Object, Callable)} share one load.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+  private final Cache remote;
+  private final RedisVersionedWriter versionedWriter;
+  private final LongAdder remoteHits = new LongAdder();
+  private final LongAdder remoteMisses = new LongAdder();
+  private final LongAdder remoteEvictions = new LongAdder();
+  private final LongAdder remoteClears = new LongAdder();
+  private final Map<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+  public TwoLevelCache(String name, Policy policy, Cache remote) {
+    this(name, policy, remote, null);
+  }
+
+  public TwoLevelCache(
+      String name, Policy policy, Cache remote, RedisVersionedWriter versionedWriter) {
+    super(true);
+    this.name = name;
+    this.remote = remote;
+    this.versionedWriter = versionedWriter;
+    this.local = policy.isLocal() ? buildLocal(policy) : null;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return this;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    if (local != null) {
+      Object value = local.getIfPresent(key);
+      if (value != null) {
+        return value;
+      }
+    }
+    Object value = lookupRemote(key);
+    if (value != null && local != null) {
+      local.put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Returns the cached value or loads it. Only the first caller missing a key runs {@code
+   * valueLoader}; callers missing the same key meanwhile wait for its result instead of loading it
+   * again.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    Object value = lookup(key);
+    if (value != null) {
+      return (T) fromStoreValue(value);
+    }
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      try {
+        return (T) fromStoreValue(inFlight.join());
+      } catch (CompletionException e) {
+        throw new ValueRetrievalException(key, valueLoader, e.getCause());
+      }
+    }
+    try {
+      // A load finishing between the lookup and the registration has already filled the local tier.
+      value = local != null ? local.asMap().get(key) : null;
+      if (value == null) {
+        T loaded = valueLoader.call();
+        put(key, loaded);
+        value = toStoreValue(loaded);
+      }
+      load.complete(value);
+      return (T) fromStoreValue(value);
+    } catch (Exception e) {
+      load.completeExceptionally(e);
+      throw new ValueRetrievalException(key, valueLoader, e);
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (remote != null) {
+      remote.put(key, value);
+    }
+    if (local != null) {
+      local.put(key, toStoreValue(value));
+    }
+  }
+
+  /**
+   * Stores {@code value} unless the same or a newer version of it is cached. Remote tiers other
+   * than Redis are written unconditionally.
+   *
+   * @return whether the value was stored.
+   */
+  public boolean putIfNewer(Object key, IVersioned value) {
+    if (value.getVersion() == null) {
+      put(key, value);
+      return true;
+    }
+    if (remote instanceof RedisCache redisCache && versionedWriter != null) {
+      if (!versionedWriter.putIfNewer(redisCache, key, value)) {
+        if (local != null) {
+          local.invalidate(key);
+        }
+        return false;
+      }
+    } else if (remote != null) {
+      remote.put(key, value);
+    }
+    if (local != null) {
+      local
+          .asMap()
+          .compute(
+              key,
+              (_, current) ->
+                  current instanceof IVersioned cached
+                          && cached.getVersion() != null
+                          && cached.getVersion() >= value.getVersion()
+                      ? current
+                      : value);
+    }
+    return true;
+  }
+
+  @Override
+  public void evict(Object key) {
+    if (local != null) {
+      local.invalidate(key);
+    }
+    if (remote != null) {
+      remote.evict(key);
+      remoteEvictions.increment();
+    }
+  }
+
+  /**
+   * Evicts the value under {@code key} and rejects later {@link #putIfNewer} writes of {@code
+   * version} or older ones, so that a read which loaded a replaced value cannot cache it again.
+   * Remote tiers other than Redis are only evicted.
+   */
+  public void evictUpTo(Object key, long version) {
+    if (local != null) {
+      local.invalidate(key);
+    }
+    if (remote instanceof RedisCache redisCache && versionedWriter != null) {
+      versionedWriter.evictUpTo(redisCache, key, version);
+      remoteEvictions.increment();
+    } else if (remote != null) {
+      remote.evict(key);
+      remoteEvictions.increment();
+    }
+  }
+
+  @Override
+  public void clear() {
+    if (local != null) {
+      local.invalidateAll();
+    }
+    if (remote != null) {
+      remote.clear();
+      remoteClears.increment();
+    }
+  }
+
+  public CacheStatistics getStatistics() {
+    if (local != null) {
+      local.cleanUp();
+    }
+    CacheStats localStats = local != null ? local.stats() : CacheStats.empty();
+    return CacheStatistics.builder()
+        .name(name)
+        .localSize(local != null ? local.estimatedSize() : 0)
+        .localHits(localStats.hitCount())
+        .localMisses(localStats.missCount())
+        .localEvictions(localStats.evictionCount())
+        .remoteHits(remoteHits.sum())
+        .remoteMisses(remoteMisses.sum())
+        .remoteEvictions(remoteEvictions.sum())
+        .remoteClears(remoteClears.sum())
+        .build();
+  }
+
+  private Object lookupRemote(Object key) {
+    if (remote == null) {
+      return null;
+    }
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper == null) {
+      remoteMisses.increment();
+      return null;
+    }
+    remoteHits.increment();
+    return toStoreValue(wrapper.get());
+  }
+
+  private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildLocal(Policy policy) {
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder()
+            .maximumSize(policy.localMaxSize())
+            .expireAfterWrite(policy.localTtl())
+            .recordStats();
+    if (policy.refreshAfter() != null && remote != null) {
+      return builder.refreshAfterWrite(policy.refreshAfter()).build(this::lookupRemote);
+    }
+    return builder.build();
+  }
+}
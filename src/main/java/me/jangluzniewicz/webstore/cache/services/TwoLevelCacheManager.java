@@ -0,0 +1,64 @@
+package me.jangluzniewicz.webstore.cache.services;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties.Policy;
+import me.jangluzniewicz.webstore.cache.interfaces.ICacheStatistics;
+import me.jangluzniewicz.webstore.cache.models.CacheStatistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractCacheManager;
+
+/**
+ * Cache manager combining a local Caffeine tier with the caches of a remote {@link CacheManager},
+ * configured per cache name through {@link TwoLevelCacheProperties}.
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager implements ICacheStatistics {
+  private final CacheManager remoteCacheManager;
+  private final TwoLevelCacheProperties properties;
+  private final RedisVersionedWriter versionedWriter;
+
+  public TwoLevelCacheManager(CacheManager remoteCacheManager, TwoLevelCacheProperties properties) {
+    this(remoteCacheManager, properties, null);
+  }
+
+  public TwoLevelCacheManager(
+      CacheManager remoteCacheManager,
+      TwoLevelCacheProperties properties,
+      RedisVersionedWriter versionedWriter) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.properties = properties;
+    this.versionedWriter = versionedWriter;
+  }
+
+  @Override
+  public TwoLevelCache getCache(String name) {
+    return (TwoLevelCache) super.getCache(name);
+  }
+
+  @Override
+  protected Collection<? extends Cache> loadCaches() {
+    return properties.caches().keySet().stream().map(this::createCache).toList();
+  }
+
+  @Override
+  protected Cache getMissingCache(String name) {
+    return createCache(name);
+  }
+
+  @Override
+  public List<CacheStatistics> getCacheStatistics() {
+    return getCacheNames().stream()
+        .sorted(Comparator.naturalOrder())
+        .map(name -> getCache(name).getStatistics())
+        .toList();
+  }
+
+  private TwoLevelCache createCache(String name) {
+    Policy policy = properties.policyFor(name);
+    return new TwoLevelCache(
+        name, policy, policy.remote() ? remoteCacheManager.getCache(name) : null, versionedWriter);
+  }
+}
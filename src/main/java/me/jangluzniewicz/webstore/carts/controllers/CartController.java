@@ -1,6 +1,8 @@
 package me.jangluzniewicz.webstore.carts.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -9,9 +11,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.carts.interfaces.ICartCircuitBreaker;
 import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.models.CircuitBreakerStatistics;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.security.interfaces.ISecurity;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,10 +29,15 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
   private final ICart cartService;
   private final ISecurity authService;
+  private final ObjectProvider<ICartCircuitBreaker> cartCircuitBreaker;
 
-  public CartController(ICart cartService, ISecurity authService) {
+  public CartController(
+      ICart cartService,
+      ISecurity authService,
+      ObjectProvider<ICartCircuitBreaker> cartCircuitBreaker) {
     this.cartService = cartService;
     this.authService = authService;
+    this.cartCircuitBreaker = cartCircuitBreaker;
   }
 
   @Operation(
@@ -86,6 +96,49 @@ public class CartController {
     return ResponseEntity.noContent().build();
   }
 
+  @Operation(
+      summary = "Set item quantity in current cart",
+      description =
+          "Sets the quantity of a product in the current cart of the authenticated user, adding"
+              + " the product if it is not in the cart",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(responseCode = "204", description = "Quantity set", content = @Content)
+  @ApiResponse(responseCode = "404", description = "Cart or product not found", content = @Content)
+  @PutMapping("/current/items/{productId}")
+  public ResponseEntity<Void> setItemQuantity(
+      @Parameter(in = ParameterIn.PATH, description = "Product ID", required = true, example = "1")
+          @PathVariable
+          Long productId,
+      @RequestBody(
+              description = "Cart item quantity payload",
+              required = true,
+              content = @Content(schema = @Schema(implementation = CartItemQuantityRequest.class)))
+          @Valid
+          @org.springframework.web.bind.annotation.RequestBody
+          CartItemQuantityRequest cartItemQuantityRequest) {
+    cartService.setProductQuantity(
+        authService.getCurrentUser().getId(), productId, cartItemQuantityRequest.getQuantity());
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Remove item from current cart",
+      description = "Removes a product from the current cart of the authenticated user",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(responseCode = "204", description = "Item removed", content = @Content)
+  @ApiResponse(
+      responseCode = "404",
+      description = "Cart not found or product not in cart",
+      content = @Content)
+  @DeleteMapping("/current/items/{productId}")
+  public ResponseEntity<Void> removeItemFromCart(
+      @Parameter(in = ParameterIn.PATH, description = "Product ID", required = true, example = "1")
+          @PathVariable
+          Long productId) {
+    cartService.removeProductFromCart(authService.getCurrentUser().getId(), productId);
+    return ResponseEntity.noContent().build();
+  }
+
   @Operation(
       summary = "Empty current cart",
       description = "Empties the cart for the authenticated user",
@@ -96,4 +149,31 @@ public class CartController {
     cartService.emptyCart(authService.getCurrentUser().getId());
     return ResponseEntity.noContent().build();
   }
+
+  @Operation(
+      summary = "Get cart cache circuit breaker state",
+      description =
+          "Returns the state, call rates and transition counts of the circuit breaker guarding"
+              + " the cart cache (requires ADMIN role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Circuit breaker state",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = CircuitBreakerStatistics.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "Carts are stored without a circuit breaker",
+      content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/circuit-breaker")
+  public ResponseEntity<CircuitBreakerStatistics> getCircuitBreakerStatistics() {
+    ICartCircuitBreaker circuitBreaker = cartCircuitBreaker.getIfAvailable();
+    if (circuitBreaker == null) {
+      throw new NotFoundException("Cart store does not use a circuit breaker");
+    }
+    return ResponseEntity.ok(circuitBreaker.getCircuitBreakerStatistics());
+  }
 }
@@ -0,0 +1,19 @@
+package me.jangluzniewicz.webstore.carts.controllers;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Schema(description = "Payload for setting the quantity of a product in the cart")
+@AllArgsConstructor
+@Getter
+public class CartItemQuantityRequest {
+  @Schema(description = "New quantity of the product", example = "2")
+  @NotNull(message = "quantity is required")
+  @Min(value = 1, message = "quantity must be at least 1")
+  @Max(value = 100, message = "quantity must be at most 100")
+  private Integer quantity;
+}
@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.List;
 import lombok.*;
-import org.hibernate.annotations.Formula;
 
 @Entity
 @AllArgsConstructor
@@ -28,9 +27,10 @@ public class CartEntity {
   @JoinColumn(name = "cart_id")
   private List<CartItemEntity> items;
 
-  @Formula(
-      "(SELECT COALESCE(SUM(p.price * ci.quantity), 0.00) FROM cart_items ci "
-          + "JOIN products p ON ci.product_id = p.id "
-          + "WHERE ci.cart_id = id)")
+  @Column(nullable = false)
   private BigDecimal total;
+
+  @Version
+  @Column(nullable = false)
+  private Long version;
 }
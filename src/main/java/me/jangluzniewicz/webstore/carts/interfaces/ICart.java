@@ -1,5 +1,6 @@
 package me.jangluzniewicz.webstore.carts.interfaces;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.util.Optional;
@@ -48,6 +49,29 @@ public interface ICart {
    */
   void addProductToCart(@NotNull @Min(1) Long customerId, @NotNull CartItemRequest cartItemRequest);
 
+  /**
+   * Sets the quantity of a product in the cart for a specific customer, adding the product if it is
+   * not in the cart yet.
+   *
+   * @param customerId the ID of the customer whose cart is to be updated; must be a positive
+   *     number.
+   * @param productId the ID of the product; must be a positive number.
+   * @param quantity the new quantity of the product; must be between 1 and 100.
+   */
+  void setProductQuantity(
+      @NotNull @Min(1) Long customerId,
+      @NotNull @Min(1) Long productId,
+      @NotNull @Min(1) @Max(100) Integer quantity);
+
+  /**
+   * Removes a product from the cart for a specific customer.
+   *
+   * @param customerId the ID of the customer whose cart is to be updated; must be a positive
+   *     number.
+   * @param productId the ID of the product to be removed; must be a positive number.
+   */
+  void removeProductFromCart(@NotNull @Min(1) Long customerId, @NotNull @Min(1) Long productId);
+
   /**
    * Empties the cart for a specific customer.
    *
@@ -0,0 +1,14 @@
+package me.jangluzniewicz.webstore.carts.interfaces;
+
+import me.jangluzniewicz.webstore.carts.models.CircuitBreakerStatistics;
+
+/** Interface for reading the state of the circuit breaker guarding the cart cache */
+public interface ICartCircuitBreaker {
+
+  /**
+   * Retrieves the state of the circuit breaker and its transition counters.
+   *
+   * @return the {@link CircuitBreakerStatistics}.
+   */
+  CircuitBreakerStatistics getCircuitBreakerStatistics();
+}
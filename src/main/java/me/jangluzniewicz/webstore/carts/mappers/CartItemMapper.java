@@ -2,9 +2,10 @@ package me.jangluzniewicz.webstore.carts.mappers;
 
 import me.jangluzniewicz.webstore.carts.entities.CartItemEntity;
 import me.jangluzniewicz.webstore.carts.models.CartItem;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
 import org.mapstruct.Mapper;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ProductMapper.class)
 public interface CartItemMapper {
   CartItem fromEntity(CartItemEntity entity);
 
@@ -4,7 +4,7 @@ import me.jangluzniewicz.webstore.carts.entities.CartEntity;
 import me.jangluzniewicz.webstore.carts.models.Cart;
 import org.mapstruct.Mapper;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = CartItemMapper.class)
 public interface CartMapper {
   Cart fromEntity(CartEntity entity);
 
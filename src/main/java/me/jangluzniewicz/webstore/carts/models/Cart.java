@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
 import java.util.List;
 import lombok.*;
+import me.jangluzniewicz.webstore.cache.interfaces.IVersioned;
 
 @Schema(description = "Model representing a shopping cart")
 @AllArgsConstructor
@@ -14,7 +15,7 @@ import lombok.*;
 @ToString
 @EqualsAndHashCode
 @Builder
-public class Cart {
+public class Cart implements IVersioned {
   @Schema(description = "Unique identifier of the cart", example = "1", nullable = true)
   private Long id;
 
@@ -28,4 +29,10 @@ public class Cart {
 
   @Schema(description = "Total price of the cart", example = "599.98", nullable = true)
   private BigDecimal total;
+
+  @Schema(
+      description = "Version of the cart, incremented on every change",
+      example = "3",
+      nullable = true)
+  private Long version;
 }
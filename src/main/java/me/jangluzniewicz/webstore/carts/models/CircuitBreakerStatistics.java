@@ -0,0 +1,45 @@
+package me.jangluzniewicz.webstore.carts.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Model representing the state of the circuit breaker guarding the cart cache")
+@AllArgsConstructor
+@Getter
+@ToString
+@Builder
+public class CircuitBreakerStatistics {
+  @NonNull
+  @Schema(description = "Current state", example = "CLOSED")
+  private String state;
+
+  @NonNull
+  @Schema(description = "Number of calls in the sliding window", example = "100")
+  private Integer bufferedCalls;
+
+  @NonNull
+  @Schema(description = "Percentage of failed calls in the sliding window", example = "2.0")
+  private Float failureRate;
+
+  @NonNull
+  @Schema(description = "Percentage of slow calls in the sliding window", example = "1.0")
+  private Float slowCallRate;
+
+  @NonNull
+  @Schema(
+      description = "Number of calls sent to the fallback without trying the cache",
+      example = "1500")
+  private Long notPermittedCalls;
+
+  @NonNull
+  @Schema(description = "Number of transitions to the open state", example = "3")
+  private Long openedCount;
+
+  @NonNull
+  @Schema(description = "Number of transitions to the half-open state", example = "4")
+  private Long halfOpenedCount;
+
+  @NonNull
+  @Schema(description = "Number of transitions to the closed state", example = "1")
+  private Long closedCount;
+}
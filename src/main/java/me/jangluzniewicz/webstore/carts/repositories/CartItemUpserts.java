@@ -0,0 +1,10 @@
+package me.jangluzniewicz.webstore.carts.repositories;
+
+/** Single-statement upserts of cart items keyed by {@code (cart_id, product_id)}. */
+public interface CartItemUpserts {
+  /** Adds {@code quantity} of a product to the cart, inserting the item if it is missing. */
+  void addItemQuantity(Long cartId, Long productId, int quantity);
+
+  /** Sets the quantity of a product in the cart, inserting the item if it is missing. */
+  void setItemQuantity(Long cartId, Long productId, int quantity);
+}
@@ -0,0 +1,70 @@
+package me.jangluzniewicz.webstore.carts.repositories;
+
+import jakarta.persistence.EntityManager;
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * Upserts cart items with {@code INSERT ... ON CONFLICT DO UPDATE} on PostgreSQL, which any version
+ * since 9.5 accepts. H2 does not support {@code DO UPDATE} even in PostgreSQL mode, so the tests
+ * running on it use the equivalent {@code MERGE}.
+ */
+public class CartItemUpsertsImpl implements CartItemUpserts {
+  private static final String UPSERT =
+      "INSERT INTO cart_items (cart_id, product_id, quantity)"
+          + " VALUES (:cartId, :productId, :quantity)"
+          + " ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = ";
+  private static final String MERGE =
+      "MERGE INTO cart_items ci USING (SELECT CAST(:cartId AS BIGINT) AS cart_id,"
+          + " CAST(:productId AS BIGINT) AS product_id, CAST(:quantity AS INT) AS quantity) s"
+          + " ON ci.cart_id = s.cart_id AND ci.product_id = s.product_id"
+          + " WHEN NOT MATCHED THEN INSERT (cart_id, product_id, quantity)"
+          + " VALUES (s.cart_id, s.product_id, s.quantity)"
+          + " WHEN MATCHED THEN UPDATE SET quantity = ";
+  private final EntityManager entityManager;
+  private final String addQuantity;
+  private final String setQuantity;
+
+  public CartItemUpsertsImpl(EntityManager entityManager, DataSource dataSource) {
+    this.entityManager = entityManager;
+    if (isPostgreSql(dataSource)) {
+      this.addQuantity = UPSERT + "cart_items.quantity + EXCLUDED.quantity";
+      this.setQuantity = UPSERT + "EXCLUDED.quantity";
+    } else {
+      this.addQuantity = MERGE + "ci.quantity + s.quantity";
+      this.setQuantity = MERGE + "s.quantity";
+    }
+  }
+
+  @Override
+  public void addItemQuantity(Long cartId, Long productId, int quantity) {
+    execute(addQuantity, cartId, productId, quantity);
+  }
+
+  @Override
+  public void setItemQuantity(Long cartId, Long productId, int quantity) {
+    execute(setQuantity, cartId, productId, quantity);
+  }
+
+  private void execute(String sql, Long cartId, Long productId, int quantity) {
+    entityManager
+        .createNativeQuery(sql)
+        .setParameter("cartId", cartId)
+        .setParameter("productId", productId)
+        .setParameter("quantity", quantity)
+        .executeUpdate();
+  }
+
+  private static boolean isPostgreSql(DataSource dataSource) {
+    try {
+      return "PostgreSQL"
+          .equals(
+              JdbcUtils.extractDatabaseMetaData(
+                  dataSource, DatabaseMetaData::getDatabaseProductName));
+    } catch (MetaDataAccessException e) {
+      return false;
+    }
+  }
+}
@@ -1,11 +1,73 @@
 package me.jangluzniewicz.webstore.carts.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.carts.entities.CartEntity;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CartRepository extends JpaRepository<CartEntity, Long>, CartItemUpserts {
+  String TOTAL =
+      "(SELECT COALESCE(SUM(p.price * ci.quantity), 0.00) FROM cart_items ci "
+          + "JOIN products p ON ci.product_id = p.id WHERE ci.cart_id = carts.id)";
 
-public interface CartRepository extends CrudRepository<CartEntity, Long> {
   Optional<CartEntity> findByCustomerId(Long customerId);
 
   boolean existsByCustomerId(Long customerId);
+
+  /**
+   * Locks the cart of {@code customerId} until the end of the transaction. Item changes take the
+   * lock before changing items, because the total is recomputed from the items by a later
+   * statement: under read committed, an update waiting for the cart row of a concurrent change
+   * would otherwise recompute the total from a snapshot missing that change's items.
+   */
+  @Query(
+      value = "SELECT id, version FROM carts WHERE customer_id = :customerId FOR UPDATE",
+      nativeQuery = true)
+  Optional<LockedCart> lockByCustomerId(@Param("customerId") Long customerId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM cart_items WHERE cart_id = :cartId AND product_id = :productId",
+      nativeQuery = true)
+  int deleteItem(@Param("cartId") Long cartId, @Param("productId") Long productId);
+
+  /** Recomputes the total of a cart whose items were changed by statement. */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      value = "UPDATE carts SET total = " + TOTAL + ", version = version + 1 WHERE id = :id",
+      nativeQuery = true)
+  int refreshTotal(@Param("id") Long id);
+
+  @Query("SELECT COALESCE(MAX(c.id), 0) FROM CartEntity c")
+  long findMaxId();
+
+  @Query("SELECT DISTINCT c.customerId FROM CartEntity c JOIN c.items i WHERE i.product.id IN :ids")
+  List<Long> findCustomerIdsByProductIds(@Param("ids") Collection<Long> productIds);
+
+  /** Recomputes the totals of the carts of {@code customerIds}. */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE carts SET total = "
+              + TOTAL
+              + ", version = version + 1"
+              + " WHERE customer_id IN :customerIds",
+      nativeQuery = true)
+  int refreshTotals(@Param("customerIds") Collection<Long> customerIds);
+
+  /** Corrects the totals that drifted from their items within the id range {@code (from, to]}. */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE carts SET total = "
+              + TOTAL
+              + ", version = version + 1"
+              + " WHERE id > :from AND id <= :to AND total <> "
+              + TOTAL,
+      nativeQuery = true)
+  int reconcileTotals(@Param("from") long from, @Param("to") long to);
 }
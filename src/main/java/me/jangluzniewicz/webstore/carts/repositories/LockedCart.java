@@ -0,0 +1,8 @@
+package me.jangluzniewicz.webstore.carts.repositories;
+
+/** Id and version of a cart read while locking it. */
+public interface LockedCart {
+  Long getId();
+
+  Long getVersion();
+}
@@ -1,20 +1,28 @@
 package me.jangluzniewicz.webstore.carts.services;
 
 import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
 import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
 import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
+import me.jangluzniewicz.webstore.carts.entities.CartEntity;
 import me.jangluzniewicz.webstore.carts.interfaces.ICart;
 import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
 import me.jangluzniewicz.webstore.carts.models.Cart;
 import me.jangluzniewicz.webstore.carts.models.CartItem;
 import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.carts.repositories.LockedCart;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.exceptions.ConflictException;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.products.interfaces.IProduct;
+import me.jangluzniewicz.webstore.products.models.Product;
 
 public abstract class AbstractCartService implements ICart {
   protected final CartRepository cartRepository;
@@ -37,82 +45,72 @@ public abstract class AbstractCartService implements ICart {
       throw new ConflictException("Cart for customer with id " + customerId + " already exists");
     }
     Cart cart = Cart.builder().customerId(customerId).items(new ArrayList<>()).build();
-    return new IdResponse(cartRepository.save(cartMapper.toEntity(cart)).getId());
+    return new IdResponse(save(cart).getId());
   }
 
   @Override
   public Optional<Cart> getCartByCustomerId(Long customerId) {
-    return cartRepository
-        .findByCustomerId(customerId)
-        .map(
-            cartEntity -> {
-              Cart cart = cartMapper.fromEntity(cartEntity);
-              cart.getItems().stream()
-                  .map(CartItem::getProduct)
-                  .forEach(
-                      product ->
-                          product.setImageUrl(
-                              product.getImageUri() != null
-                                  ? awsS3.getSignedUrl(product.getImageUri())
-                                  : null));
-              return cart;
-            });
+    return cartRepository.findByCustomerId(customerId).map(this::toCart);
   }
 
+  /** Merges repeated products into one item, as a cart holds every product once. */
   @Override
   @Transactional
   public void updateCart(Long customerId, CartRequest cartRequest) {
     Cart cart = fetchCart(customerId);
-    cart.setItems(
-        cartRequest.getItems().stream()
-            .map(
-                cartItemRequest ->
+    Map<Long, Product> products =
+        findProducts(cartRequest.getItems().stream().map(CartItemRequest::getProductId).toList());
+    Map<Long, CartItem> items = new LinkedHashMap<>();
+    cartRequest
+        .getItems()
+        .forEach(
+            cartItemRequest ->
+                items.merge(
+                    cartItemRequest.getProductId(),
                     CartItem.builder()
                         .id(cartItemRequest.getId())
-                        .product(
-                            productService
-                                .getProductById(cartItemRequest.getProductId())
-                                .orElseThrow(
-                                    () ->
-                                        new NotFoundException(
-                                            "Product with id "
-                                                + cartItemRequest.getProductId()
-                                                + " not found")))
+                        .product(products.get(cartItemRequest.getProductId()))
                         .quantity(cartItemRequest.getQuantity())
-                        .build())
-            .toList());
-    cartRepository.save(cartMapper.toEntity(cart));
+                        .build(),
+                    (item, repeated) -> {
+                      item.setQuantity(item.getQuantity() + repeated.getQuantity());
+                      return item;
+                    }));
+    cart.setItems(new ArrayList<>(items.values()));
+    save(cart);
   }
 
+  /**
+   * Adds the product with a single upsert under the lock of the cart row, so concurrent additions
+   * never lose quantities, and recomputes the total with a single update.
+   */
   @Override
   @Transactional
   public void addProductToCart(Long customerId, CartItemRequest cartItemRequest) {
-    Cart cart = fetchCart(customerId);
-    Optional<CartItem> existingItem =
-        cart.getItems().stream()
-            .filter(item -> item.getProduct().getId().equals(cartItemRequest.getProductId()))
-            .findFirst();
-    if (existingItem.isPresent()) {
-      existingItem
-          .get()
-          .setQuantity(existingItem.get().getQuantity() + cartItemRequest.getQuantity());
-    } else {
-      cart.getItems()
-          .add(
-              CartItem.builder()
-                  .product(
-                      productService
-                          .getProductById(cartItemRequest.getProductId())
-                          .orElseThrow(
-                              () ->
-                                  new NotFoundException(
-                                      "Product with id "
-                                          + cartItemRequest.getProductId()
-                                          + " not found")))
-                  .quantity(cartItemRequest.getQuantity())
-                  .build());
+    requireProduct(cartItemRequest.getProductId());
+    LockedCart cart = lockCart(customerId);
+    cartRepository.addItemQuantity(
+        cart.getId(), cartItemRequest.getProductId(), cartItemRequest.getQuantity());
+    afterItemsChanged(customerId, cart);
+  }
+
+  @Override
+  @Transactional
+  public void setProductQuantity(Long customerId, Long productId, Integer quantity) {
+    requireProduct(productId);
+    LockedCart cart = lockCart(customerId);
+    cartRepository.setItemQuantity(cart.getId(), productId, quantity);
+    afterItemsChanged(customerId, cart);
+  }
+
+  @Override
+  @Transactional
+  public void removeProductFromCart(Long customerId, Long productId) {
+    LockedCart cart = lockCart(customerId);
+    if (cartRepository.deleteItem(cart.getId(), productId) == 0) {
+      throw new NotFoundException("Product with id " + productId + " not found in cart");
     }
-    cartRepository.save(cartMapper.toEntity(cart));
+    afterItemsChanged(customerId, cart);
   }
 
   @Override
@@ -120,7 +118,69 @@ public abstract class AbstractCartService implements ICart {
   public void emptyCart(Long customerId) {
     Cart cart = fetchCart(customerId);
     cart.setItems(new ArrayList<>());
-    cartRepository.save(cartMapper.toEntity(cart));
+    save(cart);
+  }
+
+  /** Stores {@code cart} with the total of its items at their current prices. */
+  protected CartEntity save(Cart cart) {
+    cart.setTotal(
+        cart.getItems().stream()
+            .map(
+                item ->
+                    item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
+    CartEntity saved = cartRepository.save(cartMapper.toEntity(cart));
+    afterSave(saved);
+    return saved;
+  }
+
+  /** Called with every saved cart, inside the transaction saving it. */
+  protected void afterSave(CartEntity saved) {}
+
+  /**
+   * Called after the items of a cart were changed by statement, inside the transaction changing
+   * them. Recomputes the total of the cart and bumps its version past the one of {@code cart}.
+   */
+  protected void afterItemsChanged(Long customerId, LockedCart cart) {
+    cartRepository.refreshTotal(cart.getId());
+  }
+
+  /** Maps {@code cartEntity} to a cart whose product images carry signed URLs. */
+  protected Cart toCart(CartEntity cartEntity) {
+    Cart cart = cartMapper.fromEntity(cartEntity);
+    cart.getItems().stream()
+        .map(CartItem::getProduct)
+        .forEach(
+            product ->
+                product.setImageUrl(
+                    product.getImageUri() != null
+                        ? awsS3.getSignedUrl(product.getImageUri())
+                        : null));
+    return cart;
+  }
+
+  /** Resolves all products of a request at once, reporting every missing one in one error. */
+  protected Map<Long, Product> findProducts(Collection<Long> ids) {
+    Map<Long, Product> products = productService.getProductsByIds(ids, false);
+    List<Long> missingIds =
+        ids.stream().distinct().filter(id -> !products.containsKey(id)).sorted().toList();
+    if (!missingIds.isEmpty()) {
+      throw new NotFoundException("Products with ids " + missingIds + " not found");
+    }
+    return products;
+  }
+
+  private LockedCart lockCart(Long customerId) {
+    return cartRepository
+        .lockByCustomerId(customerId)
+        .orElseThrow(
+            () -> new NotFoundException("Cart for customer with id " + customerId + " not found"));
+  }
+
+  protected void requireProduct(Long productId) {
+    if (!productService.getProductsByIds(List.of(productId), false).containsKey(productId)) {
+      throw new NotFoundException("Product with id " + productId + " not found");
+    }
   }
 
   protected Cart fetchCart(Long customerId) {
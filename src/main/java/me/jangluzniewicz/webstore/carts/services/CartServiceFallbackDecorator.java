@@ -1,72 +1,147 @@
 package me.jangluzniewicz.webstore.carts.services;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
 import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
 import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
 import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.carts.interfaces.ICartCircuitBreaker;
 import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.models.CircuitBreakerStatistics;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Primary;
 import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Sends cart calls to the cached service through a {@link CircuitBreaker} and to the uncached one
+ * while Redis is failing or slow, so an outage costs one timeout per probe instead of one per
+ * request. Writes taking the fallback do not evict cached carts, so the {@code carts} cache is
+ * cleared when the breaker closes again.
+ */
 @Service
 @Primary
-public class CartServiceFallbackDecorator implements ICart {
+@Slf4j
+@ConditionalOnProperty(name = "carts.store", havingValue = "database", matchIfMissing = true)
+public class CartServiceFallbackDecorator implements ICart, ICartCircuitBreaker {
   private final ICart primary;
   private final ICart fallback;
+  private final CircuitBreaker circuitBreaker;
 
+  @Autowired
   public CartServiceFallbackDecorator(
       @Qualifier("cartServiceWithCache") ICart primary,
-      @Qualifier("cartServiceNoCache") ICart fallback) {
+      @Qualifier("cartServiceNoCache") ICart fallback,
+      CacheManager cacheManager,
+      @Value("${carts.circuit-breaker.window-size}") int windowSize,
+      @Value("${carts.circuit-breaker.minimum-calls}") int minimumCalls,
+      @Value("${carts.circuit-breaker.failure-rate-threshold}") int failureRateThreshold,
+      @Value("${carts.circuit-breaker.slow-call-rate-threshold}") int slowCallRateThreshold,
+      @Value("${carts.circuit-breaker.slow-call-duration}") Duration slowCallDuration,
+      @Value("${carts.circuit-breaker.open-duration}") Duration openDuration) {
+    this(
+        primary,
+        fallback,
+        new CircuitBreaker(
+            windowSize,
+            minimumCalls,
+            failureRateThreshold,
+            slowCallRateThreshold,
+            slowCallDuration,
+            openDuration,
+            e -> e instanceof RedisConnectionFailureException || e instanceof QueryTimeoutException,
+            state -> onTransition(state, cacheManager),
+            Clock.systemUTC()));
+  }
+
+  public CartServiceFallbackDecorator(
+      ICart primary, ICart fallback, CircuitBreaker circuitBreaker) {
     this.primary = primary;
     this.fallback = fallback;
+    this.circuitBreaker = circuitBreaker;
   }
 
   @Override
   public IdResponse createNewCart(Long customerId) {
-    try {
-      return primary.createNewCart(customerId);
-    } catch (RedisConnectionFailureException | QueryTimeoutException e) {
-      return fallback.createNewCart(customerId);
-    }
+    return circuitBreaker.call(
+        () -> primary.createNewCart(customerId), () -> fallback.createNewCart(customerId));
   }
 
   @Override
   public Optional<Cart> getCartByCustomerId(Long customerId) {
-    try {
-      return primary.getCartByCustomerId(customerId);
-    } catch (RedisConnectionFailureException | QueryTimeoutException e) {
-      return fallback.getCartByCustomerId(customerId);
-    }
+    return circuitBreaker.call(
+        () -> primary.getCartByCustomerId(customerId),
+        () -> fallback.getCartByCustomerId(customerId));
   }
 
   @Override
   public void updateCart(Long customerId, CartRequest cartRequest) {
-    try {
-      primary.updateCart(customerId, cartRequest);
-    } catch (RedisConnectionFailureException | QueryTimeoutException e) {
-      fallback.updateCart(customerId, cartRequest);
-    }
+    circuitBreaker.run(
+        () -> primary.updateCart(customerId, cartRequest),
+        () -> fallback.updateCart(customerId, cartRequest));
   }
 
   @Override
   public void addProductToCart(Long customerId, CartItemRequest cartItemRequest) {
-    try {
-      primary.addProductToCart(customerId, cartItemRequest);
-    } catch (RedisConnectionFailureException | QueryTimeoutException e) {
-      fallback.addProductToCart(customerId, cartItemRequest);
-    }
+    circuitBreaker.run(
+        () -> primary.addProductToCart(customerId, cartItemRequest),
+        () -> fallback.addProductToCart(customerId, cartItemRequest));
+  }
+
+  @Override
+  public void setProductQuantity(Long customerId, Long productId, Integer quantity) {
+    circuitBreaker.run(
+        () -> primary.setProductQuantity(customerId, productId, quantity),
+        () -> fallback.setProductQuantity(customerId, productId, quantity));
+  }
+
+  @Override
+  public void removeProductFromCart(Long customerId, Long productId) {
+    circuitBreaker.run(
+        () -> primary.removeProductFromCart(customerId, productId),
+        () -> fallback.removeProductFromCart(customerId, productId));
   }
 
   @Override
   public void emptyCart(Long customerId) {
+    circuitBreaker.run(() -> primary.emptyCart(customerId), () -> fallback.emptyCart(customerId));
+  }
+
+  @Override
+  public CircuitBreakerStatistics getCircuitBreakerStatistics() {
+    return CircuitBreakerStatistics.builder()
+        .state(circuitBreaker.getState().name())
+        .bufferedCalls(circuitBreaker.getBufferedCalls())
+        .failureRate(circuitBreaker.getFailureRate())
+        .slowCallRate(circuitBreaker.getSlowCallRate())
+        .notPermittedCalls(circuitBreaker.getNotPermittedCalls())
+        .openedCount(circuitBreaker.getTransitions(CircuitBreaker.State.OPEN))
+        .halfOpenedCount(circuitBreaker.getTransitions(CircuitBreaker.State.HALF_OPEN))
+        .closedCount(circuitBreaker.getTransitions(CircuitBreaker.State.CLOSED))
+        .build();
+  }
+
+  private static void onTransition(CircuitBreaker.State state, CacheManager cacheManager) {
+    log.warn("Cart cache circuit breaker is {}", state);
+    if (state != CircuitBreaker.State.CLOSED) {
+      return;
+    }
+    Cache carts = cacheManager.getCache("carts");
     try {
-      primary.emptyCart(customerId);
-    } catch (RedisConnectionFailureException | QueryTimeoutException e) {
-      fallback.emptyCart(customerId);
+      if (carts != null) {
+        carts.clear();
+      }
+    } catch (RuntimeException e) {
+      log.warn("Error clearing the carts cache after Redis recovered", e);
     }
   }
 }
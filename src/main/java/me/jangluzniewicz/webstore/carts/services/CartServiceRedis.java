@@ -0,0 +1,217 @@
+package me.jangluzniewicz.webstore.carts.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
+import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
+import me.jangluzniewicz.webstore.carts.entities.CartEntity;
+import me.jangluzniewicz.webstore.carts.entities.CartItemEntity;
+import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.models.CartItem;
+import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.interfaces.IProduct;
+import me.jangluzniewicz.webstore.products.models.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Cart service keeping the items of carts in Redis, enabled with {@code carts.store: redis}. Adding
+ * a product is a single atomic {@code HINCRBY}, so concurrent additions never lose updates and take
+ * no database lock. Carts are loaded from the database on their first use and written back to it by
+ * the {@link CartWriteBehindWorker}, so the database lags behind Redis by up to one flush interval.
+ * Carts are still created in the database, which assigns their ids.
+ *
+ * <p>Read carts embed products from the product cache at their cached prices, so their totals are
+ * indicative; orders price their items again.
+ *
+ * <p>Limitations: Redis is the primary store of carts in this mode, so there is no fallback to the
+ * database. The cart circuit breaker only guards the cached database store, and while Redis is
+ * unavailable cart requests fail rather than read or write carts that may be older than the changes
+ * still waiting in Redis. Carts are only written back to the database by the worker, and running
+ * without Redis persistence loses the changes of the last flush interval on a Redis crash.
+ */
+@Service
+@Primary
+@Validated
+@ConditionalOnProperty(name = "carts.store", havingValue = "redis")
+public class CartServiceRedis extends AbstractCartService {
+  private final RedisCartStore store;
+  private final TransactionTemplate transactionTemplate;
+
+  public CartServiceRedis(
+      CartRepository cartRepository,
+      CartMapper cartMapper,
+      IProduct productService,
+      IAwsS3 awsS3,
+      RedisCartStore store,
+      PlatformTransactionManager transactionManager) {
+    super(cartRepository, cartMapper, productService, awsS3);
+    this.store = store;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  @Override
+  public Optional<Cart> getCartByCustomerId(Long customerId) {
+    Optional<RedisCartStore.StoredCart> stored = store.find(customerId);
+    if (stored.isEmpty()) {
+      stored = loadFromDatabase(customerId);
+      stored.ifPresent(cart -> store.load(customerId, cart));
+    }
+    return stored.map(cart -> toCart(customerId, cart));
+  }
+
+  @Override
+  public void updateCart(Long customerId, CartRequest cartRequest) {
+    findProducts(cartRequest.getItems().stream().map(CartItemRequest::getProductId).toList());
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    cartRequest
+        .getItems()
+        .forEach(item -> items.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+    change(customerId, () -> store.replace(customerId, items));
+  }
+
+  @Override
+  public void addProductToCart(Long customerId, CartItemRequest cartItemRequest) {
+    requireProduct(cartItemRequest.getProductId());
+    change(
+        customerId,
+        () ->
+            store.increment(
+                customerId, cartItemRequest.getProductId(), cartItemRequest.getQuantity()));
+  }
+
+  @Override
+  public void setProductQuantity(Long customerId, Long productId, Integer quantity) {
+    requireProduct(productId);
+    change(customerId, () -> store.set(customerId, productId, quantity));
+  }
+
+  @Override
+  public void removeProductFromCart(Long customerId, Long productId) {
+    AtomicLong removed = new AtomicLong();
+    change(
+        customerId,
+        () -> {
+          removed.set(store.remove(customerId, productId));
+          return removed.get() >= 0;
+        });
+    if (removed.get() == 0) {
+      throw new NotFoundException("Product with id " + productId + " not found in cart");
+    }
+  }
+
+  @Override
+  public void emptyCart(Long customerId) {
+    change(customerId, () -> store.replace(customerId, Map.of()));
+  }
+
+  /**
+   * Writes the cart held in Redis to the database, reusing the rows of products already in the cart
+   * and dropping products deleted since they were added. Called by the {@link
+   * CartWriteBehindWorker} inside its transaction.
+   */
+  public void writeBehind(Long customerId) {
+    Optional<RedisCartStore.StoredCart> stored = store.find(customerId);
+    Optional<CartEntity> entity = cartRepository.findByCustomerId(customerId);
+    if (stored.isEmpty() || entity.isEmpty()) {
+      return;
+    }
+    Map<Long, Long> itemIds = new HashMap<>();
+    for (CartItemEntity item : entity.get().getItems()) {
+      itemIds.put(item.getProduct().getId(), item.getId());
+    }
+    Map<Long, Product> products =
+        productService.getProductsByIds(stored.get().items().keySet(), false);
+    Cart cart = cartMapper.fromEntity(entity.get());
+    cart.setItems(items(stored.get(), products, itemIds));
+    save(cart);
+  }
+
+  /**
+   * Applies {@code change} to the cart in Redis, loading the cart from the database first when it
+   * is not there yet.
+   */
+  private void change(Long customerId, BooleanSupplier change) {
+    if (change.getAsBoolean()) {
+      return;
+    }
+    store.load(
+        customerId,
+        loadFromDatabase(customerId)
+            .orElseThrow(
+                () ->
+                    new NotFoundException(
+                        "Cart for customer with id " + customerId + " not found")));
+    change.getAsBoolean();
+  }
+
+  private Optional<RedisCartStore.StoredCart> loadFromDatabase(Long customerId) {
+    return transactionTemplate.execute(
+        _ ->
+            cartRepository
+                .findByCustomerId(customerId)
+                .map(
+                    cart -> {
+                      Map<Long, Integer> items = new LinkedHashMap<>();
+                      cart.getItems()
+                          .forEach(
+                              item ->
+                                  items.merge(
+                                      item.getProduct().getId(), item.getQuantity(), Integer::sum));
+                      return new RedisCartStore.StoredCart(cart.getId(), items);
+                    }));
+  }
+
+  private Cart toCart(Long customerId, RedisCartStore.StoredCart stored) {
+    Map<Long, Product> products =
+        productService.getCachedProductsByIds(stored.items().keySet(), true);
+    List<CartItem> items = items(stored, products, Map.of());
+    return Cart.builder()
+        .id(stored.cartId())
+        .customerId(customerId)
+        .items(items)
+        .total(
+            items.stream()
+                .map(
+                    item ->
+                        item.getProduct()
+                            .getPrice()
+                            .multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add))
+        .build();
+  }
+
+  /** Builds the items of {@code stored} ordered by product id, skipping products not found. */
+  private static List<CartItem> items(
+      RedisCartStore.StoredCart stored, Map<Long, Product> products, Map<Long, Long> itemIds) {
+    List<CartItem> items = new ArrayList<>();
+    stored.items().entrySet().stream()
+        .filter(entry -> products.containsKey(entry.getKey()))
+        .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+        .forEach(
+            entry ->
+                items.add(
+                    CartItem.builder()
+                        .id(itemIds.get(entry.getKey()))
+                        .product(products.get(entry.getKey()))
+                        .quantity(entry.getValue())
+                        .build()));
+    return items;
+  }
+}
@@ -1,53 +1,118 @@
 package me.jangluzniewicz.webstore.carts.services;
 
+import static me.jangluzniewicz.webstore.commons.services.TransactionCallbacks.afterCommit;
+
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
 import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
-import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
-import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCache;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCacheManager;
+import me.jangluzniewicz.webstore.carts.entities.CartEntity;
 import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
 import me.jangluzniewicz.webstore.carts.models.Cart;
 import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
-import me.jangluzniewicz.webstore.commons.models.IdResponse;
+import me.jangluzniewicz.webstore.carts.repositories.LockedCart;
 import me.jangluzniewicz.webstore.products.interfaces.IProduct;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+/**
+ * Cart service keeping the {@code carts} cache written through. Every save flushes the cart, maps
+ * the saved entity with its new version and puts it into the cache after the transaction commits,
+ * so the read following a mutation is a hit and a rolled back mutation leaves the cache untouched.
+ * Cache writes, including those of reads filling a miss, only replace older versions, so writes
+ * landing out of order keep the newest cart. Items changed by statement leave no loaded cart
+ * behind, so instead of loading and mapping it again the cached cart is evicted together with the
+ * versions up to the replaced one.
+ *
+ * <p>When the cache cannot be written nor evicted, the customer is remembered and the eviction
+ * retried every {@code retry-interval}; until it succeeds, reads of that cart bypass the cache.
+ */
 @Service("cartServiceWithCache")
 @Validated
+@Slf4j
 public class CartServiceWithCache extends AbstractCartService {
+  private final TwoLevelCache carts;
+  private final Map<Long, Long> pendingEvictions = new ConcurrentHashMap<>();
+
   public CartServiceWithCache(
-      CartRepository cartRepository, CartMapper cartMapper, IProduct productService, IAwsS3 awsS3) {
+      CartRepository cartRepository,
+      CartMapper cartMapper,
+      IProduct productService,
+      IAwsS3 awsS3,
+      TwoLevelCacheManager cacheManager) {
     super(cartRepository, cartMapper, productService, awsS3);
+    this.carts = cacheManager.getCache("carts");
   }
 
   @Override
-  public IdResponse createNewCart(Long customerId) {
-    return super.createNewCart(customerId);
+  public Optional<Cart> getCartByCustomerId(Long customerId) {
+    if (pendingEvictions.containsKey(customerId)) {
+      return super.getCartByCustomerId(customerId);
+    }
+    Cache.ValueWrapper cached = carts.get(customerId);
+    if (cached != null && cached.get() instanceof Cart cart) {
+      return Optional.of(cart);
+    }
+    Optional<Cart> cart = super.getCartByCustomerId(customerId);
+    cart.ifPresent(value -> carts.putIfNewer(customerId, value));
+    return cart;
   }
 
   @Override
-  @Cacheable(value = "carts", key = "#customerId")
-  public Optional<Cart> getCartByCustomerId(Long customerId) {
-    return super.getCartByCustomerId(customerId);
+  protected void afterSave(CartEntity saved) {
+    cartRepository.flush();
+    Cart cart = toCart(saved);
+    afterCommit(() -> write(cart));
   }
 
   @Override
-  @CacheEvict(value = "carts", key = "#customerId", beforeInvocation = true)
-  public void updateCart(Long customerId, CartRequest cartRequest) {
-    super.updateCart(customerId, cartRequest);
+  protected void afterItemsChanged(Long customerId, LockedCart cart) {
+    super.afterItemsChanged(customerId, cart);
+    afterCommit(() -> evict(customerId, cart.getVersion()));
   }
 
-  @Override
-  @CacheEvict(value = "carts", key = "#customerId", beforeInvocation = true)
-  public void addProductToCart(Long customerId, CartItemRequest cartItemRequest) {
-    super.addProductToCart(customerId, cartItemRequest);
+  /** Retries the evictions that failed, stopping at the first one failing again. */
+  @Scheduled(fixedDelayString = "${carts.cache.retry-interval}")
+  public void retryEvictions() {
+    for (Map.Entry<Long, Long> eviction : pendingEvictions.entrySet()) {
+      try {
+        carts.evictUpTo(eviction.getKey(), eviction.getValue());
+      } catch (RuntimeException e) {
+        log.debug("Error retrying eviction of cart of customer {}", eviction.getKey(), e);
+        return;
+      }
+      pendingEvictions.remove(eviction.getKey(), eviction.getValue());
+    }
   }
 
-  @Override
-  @CacheEvict(value = "carts", key = "#customerId", beforeInvocation = true)
-  public void emptyCart(Long customerId) {
-    super.emptyCart(customerId);
+  /**
+   * Writes {@code cart} into the cache, evicting the cached one when that fails. Failures are only
+   * logged, as the cart is already committed.
+   */
+  private void write(Cart cart) {
+    try {
+      carts.putIfNewer(cart.getCustomerId(), cart);
+    } catch (RuntimeException e) {
+      log.warn("Error writing cart of customer {} to the cache", cart.getCustomerId(), e);
+      evict(cart.getCustomerId(), cart.getVersion() != null ? cart.getVersion() - 1 : 0);
+    }
+  }
+
+  /**
+   * Evicts the cart of {@code customerId} and rejects cached versions up to {@code version},
+   * remembering the eviction for a retry when the cache is unavailable.
+   */
+  private void evict(Long customerId, long version) {
+    try {
+      carts.evictUpTo(customerId, version);
+    } catch (RuntimeException e) {
+      log.warn("Error evicting cart of customer {}", customerId, e);
+      pendingEvictions.merge(customerId, version, Math::max);
+    }
   }
 }
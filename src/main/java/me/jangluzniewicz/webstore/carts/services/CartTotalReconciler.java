@@ -0,0 +1,99 @@
+package me.jangluzniewicz.webstore.carts.services;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the stored cart totals in line with product prices. Totals of the carts holding a changed
+ * product are recomputed once the transaction changing it has committed, in short transactions of
+ * {@code refresh-batch-size} carts that also bump their versions and are followed by evicting them
+ * from the {@code carts} cache, so a product change never holds the locks of shoppers' carts. A
+ * scheduled pass walks all carts in id ranges of {@code batch-size} to correct totals that drifted
+ * through writes bypassing the services or refreshes lost to a crash.
+ */
+@Component
+@Slf4j
+public class CartTotalReconciler {
+  private final CartRepository cartRepository;
+  private final CacheManager cacheManager;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final int refreshBatchSize;
+
+  public CartTotalReconciler(
+      CartRepository cartRepository,
+      CacheManager cacheManager,
+      PlatformTransactionManager transactionManager,
+      @Value("${totals.reconciliation.batch-size}") int batchSize,
+      @Value("${totals.reconciliation.refresh-batch-size}") int refreshBatchSize) {
+    this.cartRepository = cartRepository;
+    this.cacheManager = cacheManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.batchSize = batchSize;
+    this.refreshBatchSize = refreshBatchSize;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (event.productIds().isEmpty()) {
+      return;
+    }
+    try {
+      List<Long> customerIds = cartRepository.findCustomerIdsByProductIds(event.productIds());
+      for (int from = 0; from < customerIds.size(); from += refreshBatchSize) {
+        List<Long> batch =
+            customerIds.subList(from, Math.min(from + refreshBatchSize, customerIds.size()));
+        transactionTemplate.executeWithoutResult(_ -> cartRepository.refreshTotals(batch));
+        evict(batch);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Error refreshing cart totals, leaving them to the scheduled reconciliation", e);
+    }
+  }
+
+  /**
+   * Corrects every drifted cart total.
+   *
+   * @return the number of corrected carts.
+   */
+  @Scheduled(cron = "${totals.reconciliation.cron}")
+  public int reconcile() {
+    long maxId = cartRepository.findMaxId();
+    int corrected = 0;
+    for (long from = 0; from < maxId; from += batchSize) {
+      long lower = from;
+      Integer count =
+          transactionTemplate.execute(
+              _ -> cartRepository.reconcileTotals(lower, lower + batchSize));
+      corrected += count != null ? count : 0;
+    }
+    if (corrected > 0) {
+      log.warn("Corrected {} drifted cart totals", corrected);
+    }
+    return corrected;
+  }
+
+  private void evict(List<Long> customerIds) {
+    Cache carts = cacheManager.getCache("carts");
+    try {
+      if (carts != null) {
+        customerIds.forEach(carts::evict);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Error evicting carts with changed prices from the cache", e);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package me.jangluzniewicz.webstore.carts.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes carts changed in Redis back to the database. Every {@code flush-interval} the worker
+ * drains the change stream of {@link RedisCartStore} in batches of {@code batch-size}, writing the
+ * current state of each changed cart once per batch in a single transaction, and acknowledges the
+ * changes only after that transaction commits. When a batch fails, its carts are written one by one
+ * so a single failing cart does not hold back the others.
+ *
+ * <p>Unacknowledged changes stay pending in the stream, which makes it the replay log: changes left
+ * by a crashed instance, or by a failed write, are claimed and written again once they have been
+ * pending for {@code claim-idle}. Every flush scans all pending changes with a cursor, and changes
+ * delivered more than {@code max-deliveries} times are dead-lettered. Once written, a cart is left
+ * to expire from Redis after {@code idle-ttl} unless it changes again.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "carts.store", havingValue = "redis")
+public class CartWriteBehindWorker {
+  private final RedisCartStore store;
+  private final CartServiceRedis cartService;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Duration claimIdle;
+  private final int maxDeliveries;
+  private final String consumer = UUID.randomUUID().toString();
+  private volatile boolean groupCreated;
+
+  public CartWriteBehindWorker(
+      RedisCartStore store,
+      CartServiceRedis cartService,
+      PlatformTransactionManager transactionManager,
+      @Value("${carts.redis.batch-size}") int batchSize,
+      @Value("${carts.redis.claim-idle}") Duration claimIdle,
+      @Value("${carts.redis.max-deliveries}") int maxDeliveries) {
+    this.store = store;
+    this.cartService = cartService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.claimIdle = claimIdle;
+    this.maxDeliveries = maxDeliveries;
+  }
+
+  /**
+   * Writes all pending cart changes.
+   *
+   * @return the number of written changes.
+   */
+  @Scheduled(fixedDelayString = "${carts.redis.flush-interval}")
+  public int flush() {
+    try {
+      if (!groupCreated) {
+        store.createGroup();
+        groupCreated = true;
+      }
+      int written = claimAbandoned();
+      List<MapRecord<String, Object, Object>> changes;
+      do {
+        changes = store.readChanges(consumer, batchSize);
+        written += write(changes);
+      } while (changes.size() == batchSize);
+      return written;
+    } catch (RuntimeException e) {
+      log.warn("Error writing carts behind", e);
+      return 0;
+    }
+  }
+
+  private int claimAbandoned() {
+    int written = 0;
+    String cursor = "0-0";
+    do {
+      RedisCartStore.Claim claim =
+          store.claimAbandoned(consumer, claimIdle, cursor, batchSize, maxDeliveries);
+      if (claim.deadLettered() > 0) {
+        log.error(
+            "Moved {} cart changes delivered more than {} times to {}",
+            claim.deadLettered(),
+            maxDeliveries,
+            RedisCartStore.DEAD_LETTERS);
+      }
+      written += write(claim.changes());
+      cursor = claim.cursor();
+    } while (!cursor.equals("0-0"));
+    return written;
+  }
+
+  /**
+   * Writes the carts of {@code changes} and acknowledges the changes. The change counters are read
+   * before the carts, so a cart changed while being written is not left to expire.
+   */
+  private int write(List<MapRecord<String, Object, Object>> changes) {
+    if (changes.isEmpty()) {
+      return 0;
+    }
+    Map<Long, List<RecordId>> changesByCustomer = new LinkedHashMap<>();
+    changes.forEach(
+        change ->
+            changesByCustomer
+                .computeIfAbsent(RedisCartStore.customerId(change), _ -> new ArrayList<>())
+                .add(change.getId()));
+    List<Long> customerIds = List.copyOf(changesByCustomer.keySet());
+    Map<Long, String> versions = new HashMap<>();
+    List<String> counters = store.versions(customerIds);
+    for (int i = 0; i < counters.size(); i++) {
+      versions.put(customerIds.get(i), counters.get(i));
+    }
+    try {
+      transactionTemplate.executeWithoutResult(_ -> customerIds.forEach(cartService::writeBehind));
+      store.acknowledge(changes.stream().map(MapRecord::getId).toList());
+      customerIds.forEach(customerId -> expireIfUnchanged(customerId, versions));
+      return changes.size();
+    } catch (RuntimeException e) {
+      log.warn("Error writing {} carts behind, retrying one by one", customerIds.size(), e);
+    }
+    int written = 0;
+    for (Long customerId : customerIds) {
+      try {
+        transactionTemplate.executeWithoutResult(_ -> cartService.writeBehind(customerId));
+        store.acknowledge(changesByCustomer.get(customerId));
+        expireIfUnchanged(customerId, versions);
+        written += changesByCustomer.get(customerId).size();
+      } catch (RuntimeException e) {
+        log.warn("Error writing cart of customer {} behind", customerId, e);
+      }
+    }
+    return written;
+  }
+
+  private void expireIfUnchanged(Long customerId, Map<Long, String> versions) {
+    try {
+      store.expireIfUnchanged(customerId, versions.get(customerId));
+    } catch (RuntimeException e) {
+      log.warn("Error letting cart of customer {} expire", customerId, e);
+    }
+  }
+}
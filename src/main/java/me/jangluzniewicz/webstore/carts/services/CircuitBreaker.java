@@ -0,0 +1,219 @@
+package me.jangluzniewicz.webstore.carts.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code windowSize} calls are kept in a
+ * ring; once at least {@code minimumCalls} are recorded and the share of failed or of slow calls
+ * reaches its threshold, the breaker opens and calls go straight to the fallback. After {@code
+ * openDuration} it turns half-open and lets a single probe through: a fast success closes it, a
+ * failed or slow probe opens it again. Exceptions not matching {@code failure} are rethrown and
+ * count as successful calls.
+ */
+public class CircuitBreaker {
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+  private final int minimumCalls;
+  private final int failureRateThreshold;
+  private final int slowCallRateThreshold;
+  private final long slowCallMillis;
+  private final long openMillis;
+  private final Predicate<RuntimeException> failure;
+  private final Consumer<State> transitionListener;
+  private final Clock clock;
+  private final byte[] outcomes;
+  private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+  private final LongAdder notPermittedCalls = new LongAdder();
+  private int position;
+  private int bufferedCalls;
+  private int failedCalls;
+  private int slowCalls;
+  private State state = State.CLOSED;
+  private long openedAt;
+  private boolean probing;
+
+  /**
+   * @param failureRateThreshold the percentage of failed calls opening the breaker.
+   * @param slowCallRateThreshold the percentage of calls taking at least {@code slowCallDuration}
+   *     opening the breaker.
+   * @param transitionListener notified of every state entered, outside of the breaker's lock.
+   */
+  public CircuitBreaker(
+      int windowSize,
+      int minimumCalls,
+      int failureRateThreshold,
+      int slowCallRateThreshold,
+      Duration slowCallDuration,
+      Duration openDuration,
+      Predicate<RuntimeException> failure,
+      Consumer<State> transitionListener,
+      Clock clock) {
+    if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+      throw new IllegalArgumentException("Minimum calls must be between 1 and the window size");
+    }
+    this.outcomes = new byte[windowSize];
+    this.minimumCalls = minimumCalls;
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.slowCallMillis = slowCallDuration.toMillis();
+    this.openMillis = openDuration.toMillis();
+    this.failure = failure;
+    this.transitionListener = transitionListener;
+    this.clock = clock;
+    for (State value : State.values()) {
+      transitions.put(value, new LongAdder());
+    }
+  }
+
+  public <T> T call(Supplier<T> primary, Supplier<T> fallback) {
+    Permission permission = tryAcquirePermission();
+    notify(permission.entered());
+    if (!permission.permitted()) {
+      notPermittedCalls.increment();
+      return fallback.get();
+    }
+    long start = clock.millis();
+    T result;
+    try {
+      result = primary.get();
+    } catch (RuntimeException e) {
+      boolean failed = failure.test(e);
+      notify(record(permission.probe(), failed, clock.millis() - start));
+      if (failed) {
+        return fallback.get();
+      }
+      throw e;
+    }
+    notify(record(permission.probe(), false, clock.millis() - start));
+    return result;
+  }
+
+  public void run(Runnable primary, Runnable fallback) {
+    call(
+        () -> {
+          primary.run();
+          return null;
+        },
+        () -> {
+          fallback.run();
+          return null;
+        });
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized int getBufferedCalls() {
+    return bufferedCalls;
+  }
+
+  /** Returns the percentage of failed calls in the window. */
+  public synchronized float getFailureRate() {
+    return bufferedCalls == 0 ? 0 : failedCalls * 100f / bufferedCalls;
+  }
+
+  /** Returns the percentage of slow calls in the window. */
+  public synchronized float getSlowCallRate() {
+    return bufferedCalls == 0 ? 0 : slowCalls * 100f / bufferedCalls;
+  }
+
+  public long getNotPermittedCalls() {
+    return notPermittedCalls.sum();
+  }
+
+  /** Returns how many times the breaker entered {@code target}. */
+  public long getTransitions(State target) {
+    return transitions.get(target).sum();
+  }
+
+  /**
+   * Decides whether a call may reach the primary. An open breaker whose open duration elapsed turns
+   * half-open here and the call becomes its probe.
+   */
+  private synchronized Permission tryAcquirePermission() {
+    State entered = null;
+    if (state == State.OPEN) {
+      if (clock.millis() - openedAt < openMillis) {
+        return new Permission(false, false, null);
+      }
+      entered = transition(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (probing) {
+        return new Permission(false, false, null);
+      }
+      probing = true;
+      return new Permission(true, true, entered);
+    }
+    return new Permission(true, false, null);
+  }
+
+  /**
+   * Records the outcome of a call and returns the state it made the breaker enter, if any. Calls
+   * permitted before the breaker opened are ignored once it is open or half-open.
+   */
+  private synchronized State record(boolean probe, boolean failed, long elapsedMillis) {
+    boolean slow = elapsedMillis >= slowCallMillis;
+    if (probe) {
+      probing = false;
+      return failed || slow ? open() : transition(State.CLOSED);
+    }
+    if (state != State.CLOSED) {
+      return null;
+    }
+    if (bufferedCalls == outcomes.length) {
+      byte evicted = outcomes[position];
+      failedCalls -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      bufferedCalls++;
+    }
+    outcomes[position] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+    position = (position + 1) % outcomes.length;
+    failedCalls += failed ? 1 : 0;
+    slowCalls += slow ? 1 : 0;
+    if (bufferedCalls >= minimumCalls
+        && (failedCalls * 100L >= (long) failureRateThreshold * bufferedCalls
+            || slowCalls * 100L >= (long) slowCallRateThreshold * bufferedCalls)) {
+      return open();
+    }
+    return null;
+  }
+
+  private State open() {
+    openedAt = clock.millis();
+    return transition(State.OPEN);
+  }
+
+  private State transition(State target) {
+    state = target;
+    position = 0;
+    bufferedCalls = 0;
+    failedCalls = 0;
+    slowCalls = 0;
+    transitions.get(target).increment();
+    return target;
+  }
+
+  private record Permission(boolean permitted, boolean probe, State entered) {}
+
+  private void notify(State entered) {
+    if (entered != null) {
+      transitionListener.accept(entered);
+    }
+  }
+}
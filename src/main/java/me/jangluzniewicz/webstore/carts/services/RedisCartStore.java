@@ -0,0 +1,405 @@
+package me.jangluzniewicz.webstore.carts.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps carts in Redis: the id of the database cart under {@code cart:{customerId}:id}, the
+ * quantities by product id in the hash {@code cart:{customerId}:items} and a change counter under
+ * {@code cart:{customerId}:version}. Every change is applied by a Lua script that also bumps the
+ * counter and appends the customer id to the {@value #CHANGES} stream, so a change and its entry in
+ * the replay log are written atomically. The stream is read by a consumer group of {@link
+ * CartWriteBehindWorker}s; entries stay pending until the cart is written to the database, and
+ * entries delivered more than {@code max-deliveries} times are moved to {@value #DEAD_LETTERS}.
+ *
+ * <p>Carts with changes not yet written to the database never expire. A cart loaded from the
+ * database, or whose changes have all been written, expires after {@code idle-ttl} without changes
+ * and is loaded again on its next use.
+ */
+@Component
+@ConditionalOnProperty(name = "carts.store", havingValue = "redis")
+public class RedisCartStore {
+  static final String CHANGES = "carts:changes";
+  static final String DEAD_LETTERS = "carts:changes:dead";
+  static final String GROUP = "cart-writer";
+  private static final String CUSTOMER_ID = "customerId";
+  private static final String CHANGED =
+      """
+      redis.call('INCR', KEYS[3])
+      redis.call('PERSIST', KEYS[1])
+      redis.call('PERSIST', KEYS[2])
+      redis.call('PERSIST', KEYS[3])
+      redis.call('XADD', KEYS[4], '*', 'customerId', ARGV[1])
+      """;
+  private static final RedisScript<Long> LOAD =
+      RedisScript.of(
+          """
+          if not redis.call('SET', KEYS[1], ARGV[2], 'NX', 'PX', ARGV[1]) then
+            return 0
+          end
+          redis.call('DEL', KEYS[2])
+          for i = 3, #ARGV, 2 do
+            redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+          end
+          redis.call('PEXPIRE', KEYS[2], ARGV[1])
+          redis.call('SET', KEYS[3], '0', 'PX', ARGV[1])
+          return 1
+          """,
+          Long.class);
+  private static final RedisScript<Long> INCREMENT =
+      RedisScript.of(
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            return -1
+          end
+          local quantity = redis.call('HINCRBY', KEYS[2], ARGV[2], ARGV[3])
+          """
+              + CHANGED
+              + """
+              return quantity
+              """,
+          Long.class);
+  private static final RedisScript<Long> SET =
+      RedisScript.of(
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            return -1
+          end
+          local changed
+          if ARGV[3] == '0' then
+            changed = redis.call('HDEL', KEYS[2], ARGV[2])
+          else
+            redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+            changed = 1
+          end
+          if changed == 0 then
+            return 0
+          end
+          """
+              + CHANGED
+              + """
+              return changed
+              """,
+          Long.class);
+  private static final RedisScript<Long> REPLACE =
+      RedisScript.of(
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            return -1
+          end
+          redis.call('DEL', KEYS[2])
+          for i = 2, #ARGV, 2 do
+            redis.call('HINCRBY', KEYS[2], ARGV[i], ARGV[i + 1])
+          end
+          """
+              + CHANGED
+              + """
+              return 1
+              """,
+          Long.class);
+  private static final RedisScript<Long> EXPIRE =
+      RedisScript.of(
+          """
+          if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+            return 0
+          end
+          redis.call('PEXPIRE', KEYS[1], ARGV[2])
+          redis.call('PEXPIRE', KEYS[2], ARGV[2])
+          redis.call('PEXPIRE', KEYS[3], ARGV[2])
+          return 1
+          """,
+          Long.class);
+
+  /**
+   * Claims the entries idle for {@code ARGV[3]} ms from the cursor {@code ARGV[4]} on, and moves
+   * those delivered more than {@code ARGV[6]} times to the dead-letter stream. Returns the next
+   * cursor, the claimed ids and customer ids in turn, and the number of dead-lettered entries.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> CLAIM =
+      RedisScript.of(
+          """
+          local result = redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4],
+            'COUNT', ARGV[5])
+          local claimed = {}
+          local dead = 0
+          for _, entry in ipairs(result[2]) do
+            if entry then
+              local id = entry[1]
+              local customerId = entry[2][2]
+              local deliveries = redis.call('XPENDING', KEYS[1], ARGV[1], id, id, 1)[1][4]
+              if deliveries > tonumber(ARGV[6]) then
+                redis.call('XADD', KEYS[2], '*', 'customerId', customerId, 'changeId', id)
+                redis.call('XACK', KEYS[1], ARGV[1], id)
+                redis.call('XDEL', KEYS[1], id)
+                dead = dead + 1
+              else
+                table.insert(claimed, id)
+                table.insert(claimed, customerId)
+              end
+            end
+          end
+          return {result[1], claimed, tostring(dead)}
+          """,
+          List.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final Duration idleTtl;
+
+  public RedisCartStore(
+      StringRedisTemplate redisTemplate, @Value("${carts.redis.idle-ttl}") Duration idleTtl) {
+    this.redisTemplate = redisTemplate;
+    this.idleTtl = idleTtl;
+  }
+
+  /**
+   * @param cartId the id of the cart in the database.
+   * @param items the quantities of the cart by product id.
+   */
+  public record StoredCart(Long cartId, Map<Long, Integer> items) {}
+
+  /**
+   * @param cursor the cursor to continue claiming from, {@code 0-0} once all pending changes were
+   *     scanned.
+   * @param changes the claimed changes.
+   * @param deadLettered the number of changes moved to the dead-letter stream.
+   */
+  public record Claim(
+      String cursor, List<MapRecord<String, Object, Object>> changes, long deadLettered) {}
+
+  public boolean exists(Long customerId) {
+    return Boolean.TRUE.equals(redisTemplate.hasKey(idKey(customerId)));
+  }
+
+  public Optional<StoredCart> find(Long customerId) {
+    String cartId = redisTemplate.opsForValue().get(idKey(customerId));
+    if (cartId == null) {
+      return Optional.empty();
+    }
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    redisTemplate
+        .<String, String>opsForHash()
+        .entries(itemsKey(customerId))
+        .forEach(
+            (productId, quantity) -> items.put(Long.valueOf(productId), Integer.valueOf(quantity)));
+    return Optional.of(new StoredCart(Long.valueOf(cartId), items));
+  }
+
+  /**
+   * Stores a cart read from the database, expiring after {@code idle-ttl}, unless the customer's
+   * cart is already in Redis.
+   */
+  public void load(Long customerId, StoredCart cart) {
+    redisTemplate.execute(
+        LOAD,
+        keys(customerId).subList(0, 3),
+        arguments(
+            List.of(Long.toString(idleTtl.toMillis()), cart.cartId().toString()), cart.items()));
+  }
+
+  /**
+   * Reads the change counters of the carts, to be passed to {@link #expireIfUnchanged} once their
+   * current state has been written to the database.
+   *
+   * @return the counters in the order of {@code customerIds}, null for carts not in Redis.
+   */
+  public List<String> versions(List<Long> customerIds) {
+    List<String> versions =
+        redisTemplate
+            .opsForValue()
+            .multiGet(customerIds.stream().map(RedisCartStore::versionKey).toList());
+    return versions != null ? versions : Collections.nCopies(customerIds.size(), null);
+  }
+
+  /**
+   * Lets the cart expire after {@code idle-ttl} unless it has changed since its change counter was
+   * {@code version}.
+   */
+  public void expireIfUnchanged(Long customerId, String version) {
+    if (version == null) {
+      return;
+    }
+    redisTemplate.execute(
+        EXPIRE, keys(customerId).subList(0, 3), version, Long.toString(idleTtl.toMillis()));
+  }
+
+  /**
+   * Adds {@code quantity} of a product to the cart.
+   *
+   * @return false when the cart is not in Redis.
+   */
+  public boolean increment(Long customerId, Long productId, int quantity) {
+    Long result =
+        redisTemplate.execute(
+            INCREMENT,
+            keys(customerId),
+            customerId.toString(),
+            productId.toString(),
+            Integer.toString(quantity));
+    return result != null && result >= 0;
+  }
+
+  /**
+   * Sets the quantity of a product in the cart.
+   *
+   * @return false when the cart is not in Redis.
+   */
+  public boolean set(Long customerId, Long productId, int quantity) {
+    Long result =
+        redisTemplate.execute(
+            SET,
+            keys(customerId),
+            customerId.toString(),
+            productId.toString(),
+            Integer.toString(quantity));
+    return result != null && result >= 0;
+  }
+
+  /**
+   * Removes a product from the cart.
+   *
+   * @return the number of removed items, or -1 when the cart is not in Redis.
+   */
+  public long remove(Long customerId, Long productId) {
+    Long result =
+        redisTemplate.execute(
+            SET, keys(customerId), customerId.toString(), productId.toString(), "0");
+    return result != null ? result : -1;
+  }
+
+  /**
+   * Replaces the items of the cart, summing the quantities of repeated products.
+   *
+   * @return false when the cart is not in Redis.
+   */
+  public boolean replace(Long customerId, Map<Long, Integer> items) {
+    Long result =
+        redisTemplate.execute(
+            REPLACE, keys(customerId), arguments(List.of(customerId.toString()), items));
+    return result != null && result >= 0;
+  }
+
+  /** Creates the consumer group of the change stream, and the stream itself, if missing. */
+  public void createGroup() {
+    try {
+      redisTemplate.execute(
+          (RedisCallback<String>)
+              connection ->
+                  connection
+                      .streamCommands()
+                      .xGroupCreate(
+                          CHANGES.getBytes(StandardCharsets.UTF_8),
+                          GROUP,
+                          ReadOffset.from("0"),
+                          true));
+    } catch (RedisSystemException e) {
+      if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+        throw e;
+      }
+    }
+  }
+
+  /** Reads up to {@code count} changes not yet delivered to any consumer. */
+  public List<MapRecord<String, Object, Object>> readChanges(String consumer, int count) {
+    List<MapRecord<String, Object, Object>> records =
+        redisTemplate
+            .opsForStream()
+            .read(
+                Consumer.from(GROUP, consumer),
+                StreamReadOptions.empty().count(count),
+                StreamOffset.create(CHANGES, ReadOffset.lastConsumed()));
+    return records != null ? records : List.of();
+  }
+
+  /**
+   * Takes over up to {@code count} changes delivered to a consumer that has not acknowledged them
+   * for {@code minIdle}, such as one that crashed, scanning the pending changes from {@code cursor}
+   * on. Changes delivered more than {@code maxDeliveries} times are moved to {@value #DEAD_LETTERS}
+   * instead, so a cart that cannot be written does not hold back the others forever.
+   */
+  public Claim claimAbandoned(
+      String consumer, Duration minIdle, String cursor, int count, int maxDeliveries) {
+    List<?> result =
+        redisTemplate.execute(
+            CLAIM,
+            List.of(CHANGES, DEAD_LETTERS),
+            GROUP,
+            consumer,
+            Long.toString(minIdle.toMillis()),
+            cursor,
+            Integer.toString(count),
+            Integer.toString(maxDeliveries));
+    if (result == null) {
+      return new Claim("0-0", List.of(), 0);
+    }
+    List<?> claimed = (List<?>) result.get(1);
+    List<MapRecord<String, Object, Object>> changes = new ArrayList<>(claimed.size() / 2);
+    for (int i = 0; i < claimed.size(); i += 2) {
+      changes.add(
+          MapRecord.<String, Object, Object>create(
+                  CHANGES, Map.of(CUSTOMER_ID, claimed.get(i + 1).toString()))
+              .withId(RecordId.of(claimed.get(i).toString())));
+    }
+    return new Claim(result.get(0).toString(), changes, Long.parseLong(result.get(2).toString()));
+  }
+
+  /** Acknowledges written changes and removes them from the stream. */
+  public void acknowledge(List<RecordId> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    RecordId[] recordIds = ids.toArray(RecordId[]::new);
+    redisTemplate.opsForStream().acknowledge(CHANGES, GROUP, recordIds);
+    redisTemplate.opsForStream().delete(CHANGES, recordIds);
+  }
+
+  public static Long customerId(MapRecord<String, Object, Object> record) {
+    return Long.valueOf(record.getValue().get(CUSTOMER_ID).toString());
+  }
+
+  private static String idKey(Long customerId) {
+    return "cart:{" + customerId + "}:id";
+  }
+
+  private static String itemsKey(Long customerId) {
+    return "cart:{" + customerId + "}:items";
+  }
+
+  private static String versionKey(Long customerId) {
+    return "cart:{" + customerId + "}:version";
+  }
+
+  private static List<String> keys(Long customerId) {
+    return List.of(idKey(customerId), itemsKey(customerId), versionKey(customerId), CHANGES);
+  }
+
+  private static Object[] arguments(List<String> first, Map<Long, Integer> items) {
+    List<String> arguments = new ArrayList<>(first.size() + items.size() * 2);
+    arguments.addAll(first);
+    items.forEach(
+        (productId, quantity) -> {
+          arguments.add(productId.toString());
+          arguments.add(quantity.toString());
+        });
+    return arguments.toArray();
+  }
+}
@@ -11,24 +11,32 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.net.URI;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
 import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
 import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.categories.repositories.CategoryVersionView;
+import me.jangluzniewicz.webstore.commons.models.EntityTag;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @Tag(name = "Categories", description = "Operations related to categories")
 @RestController
 @RequestMapping("/categories")
 public class CategoryController {
   private final ICategory categoryService;
+  private final IAwsS3 awsS3;
 
-  public CategoryController(ICategory categoryService) {
+  public CategoryController(ICategory categoryService, IAwsS3 awsS3) {
     this.categoryService = categoryService;
+    this.awsS3 = awsS3;
   }
 
   @Operation(summary = "Get categories", description = "Returns a paginated list of categories")
@@ -39,6 +47,10 @@ public class CategoryController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON_VALUE,
               schema = @Schema(implementation = PagedResponse.class)))
+  @ApiResponse(
+      responseCode = "304",
+      description = "Not modified since the ETag given in If-None-Match",
+      content = @Content)
   @GetMapping
   public ResponseEntity<PagedResponse<Category>> getCategories(
       @Parameter(in = ParameterIn.QUERY, description = "Page number", example = "0")
@@ -46,8 +58,24 @@ public class CategoryController {
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
-    return ResponseEntity.ok(categoryService.getAllCategories(page, size));
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging,
+      WebRequest webRequest) {
+    PagingMode pagingMode = PagingMode.fromString(paging);
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        && webRequest.checkNotModified(
+            pageTag(categoryService.getAllCategoryVersions(page, size, pagingMode)))) {
+      return null;
+    }
+    PagedResponse<Category> response = categoryService.getAllCategories(page, size, pagingMode);
+    return ResponseEntity.ok()
+        .eTag(pageTag(response.map(CategoryController::versionOf)))
+        .body(response);
   }
 
   @Operation(
@@ -61,14 +89,28 @@ public class CategoryController {
               mediaType = MediaType.APPLICATION_JSON_VALUE,
               schema = @Schema(implementation = Category.class)))
   @ApiResponse(responseCode = "404", description = "Category not found", content = @Content)
+  @ApiResponse(
+      responseCode = "304",
+      description = "Not modified since the ETag given in If-None-Match",
+      content = @Content)
   @GetMapping("/{id}")
   public ResponseEntity<Category> getCategory(
       @Parameter(in = ParameterIn.PATH, description = "Category ID", required = true, example = "1")
           @PathVariable
-          Long id) {
+          Long id,
+      WebRequest webRequest) {
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+      CategoryVersionView version =
+          categoryService
+              .getCategoryVersion(id)
+              .orElseThrow(() -> new NotFoundException("Category not found"));
+      if (webRequest.checkNotModified(categoryTag(version))) {
+        return null;
+      }
+    }
     return categoryService
         .getCategoryById(id)
-        .map(ResponseEntity::ok)
+        .map(category -> ResponseEntity.ok().eTag(categoryTag(versionOf(category))).body(category))
         .orElseThrow(() -> new NotFoundException("Category not found"));
   }
 
@@ -152,4 +194,26 @@ public class CategoryController {
     categoryService.deleteCategory(id);
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Tags a category by its version and by the generation of the signed image URLs, so the tag can
+   * be computed without loading the category or signing its URL.
+   */
+  private String categoryTag(CategoryVersionView version) {
+    return addCategory(EntityTag.builder().add(awsS3.getUrlGeneration()), version).build();
+  }
+
+  private String pageTag(PagedResponse<CategoryVersionView> page) {
+    EntityTag entityTag = EntityTag.builder().add(awsS3.getUrlGeneration()).addPage(page);
+    page.getContent().forEach(version -> addCategory(entityTag, version));
+    return entityTag.build();
+  }
+
+  private static EntityTag addCategory(EntityTag entityTag, CategoryVersionView version) {
+    return entityTag.add(version.id()).add(version.version());
+  }
+
+  private static CategoryVersionView versionOf(Category category) {
+    return new CategoryVersionView(category.getId(), category.getVersion());
+  }
 }
@@ -23,4 +23,8 @@ public class CategoryEntity {
   @Column(nullable = false, unique = true)
   @NonNull
   private String name;
+
+  @Version
+  @Column(nullable = false)
+  private Long version;
 }
@@ -0,0 +1,8 @@
+package me.jangluzniewicz.webstore.categories.events;
+
+/**
+ * Published when a category is updated or deleted.
+ *
+ * @param categoryId the ID of the changed category.
+ */
+public record CategoryChangedEvent(Long categoryId) {}
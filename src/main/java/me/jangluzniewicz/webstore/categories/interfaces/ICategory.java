@@ -2,11 +2,15 @@ package me.jangluzniewicz.webstore.categories.interfaces;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.categories.controllers.CategoryRequest;
 import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.categories.repositories.CategoryVersionView;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 
 /** Interface for managing categories */
 public interface ICategory {
@@ -28,15 +32,47 @@ public interface ICategory {
    */
   Optional<Category> getCategoryById(@NotNull @Min(1) Long id);
 
+  /**
+   * Retrieves the version that identifies the current state of a category without loading it.
+   *
+   * @param id the ID of the category; must be a positive number.
+   * @return an {@link Optional} containing the {@link CategoryVersionView} if found, or empty if
+   *     not found.
+   */
+  Optional<CategoryVersionView> getCategoryVersion(@NotNull @Min(1) Long id);
+
+  /**
+   * Retrieves categories by their IDs in a single query. The image URLs of the returned categories
+   * are not signed, so they are meant for resolving references rather than for responses.
+   *
+   * @param ids the IDs of the categories to be retrieved; must not be null.
+   * @return a {@link Map} of the found categories keyed by their IDs; IDs of categories that do not
+   *     exist are absent from the map.
+   */
+  Map<Long, Category> getCategoriesByIds(@NotNull Collection<Long> ids);
+
   /**
    * Retrieves all categories with pagination.
    *
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of categories per page; must be a positive number.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
    * @return a {@link PagedResponse} containing the paginated list of categories.
    */
   PagedResponse<Category> getAllCategories(
-      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size);
+      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size, @NotNull PagingMode pagingMode);
+
+  /**
+   * Retrieves the versions of the categories on a page, selecting the same categories and totals as
+   * {@link #getAllCategories} without mapping them or signing their URLs.
+   *
+   * @param page the page number to retrieve; must be a non-negative number.
+   * @param size the number of categories per page; must be a positive number.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the versions of the categories on the page.
+   */
+  PagedResponse<CategoryVersionView> getAllCategoryVersions(
+      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size, @NotNull PagingMode pagingMode);
 
   /**
    * Updates an existing category.
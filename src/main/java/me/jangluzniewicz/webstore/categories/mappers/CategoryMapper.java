@@ -3,9 +3,12 @@ package me.jangluzniewicz.webstore.categories.mappers;
 import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
 import me.jangluzniewicz.webstore.categories.models.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface CategoryMapper {
+  @Mapping(target = "imageUrl", ignore = true)
+  @Mapping(target = "imageVariantUrls", ignore = true)
   Category fromEntity(CategoryEntity entity);
 
   CategoryEntity toEntity(Category model);
@@ -2,6 +2,7 @@ package me.jangluzniewicz.webstore.categories.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
 import lombok.*;
 
 @Schema(description = "Model representing a category")
@@ -24,7 +25,16 @@ public class Category {
   @Schema(description = "Image URL of the category")
   private String imageUrl;
 
+  @Schema(
+      description = "Image URLs of the resized variants, by variant name",
+      example = "{\"thumbnail\": \"https://...\"}")
+  private Map<String, String> imageVariantUrls;
+
   @NonNull
   @Schema(description = "Name of the category", example = "Bicycles")
   private String name;
+
+  @JsonIgnore
+  @Schema(description = "Version of the category, incremented on every update")
+  private Long version;
 }
@@ -0,0 +1,11 @@
+package me.jangluzniewicz.webstore.categories.repositories;
+
+import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+
+public class CategoryProjection {
+  public static Projection<CategoryEntity, CategoryVersionView> versionView() {
+    return ((root, criteriaBuilder) ->
+        criteriaBuilder.construct(CategoryVersionView.class, root.get("id"), root.get("version")));
+  }
+}
@@ -1,8 +1,16 @@
 package me.jangluzniewicz.webstore.categories.repositories;
 
+import java.util.Optional;
 import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
   boolean existsByNameIgnoreCase(String name);
+
+  @Query(
+      "SELECT new me.jangluzniewicz.webstore.categories.repositories.CategoryVersionView(c.id,"
+          + " c.version) FROM CategoryEntity c WHERE c.id = :id")
+  Optional<CategoryVersionView> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,3 @@
+package me.jangluzniewicz.webstore.categories.repositories;
+
+public record CategoryVersionView(Long id, Long version) {}
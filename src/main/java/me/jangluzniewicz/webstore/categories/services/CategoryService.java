@@ -1,21 +1,33 @@
 package me.jangluzniewicz.webstore.categories.services;
 
-import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
 import me.jangluzniewicz.webstore.categories.controllers.CategoryRequest;
+import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
+import me.jangluzniewicz.webstore.categories.events.CategoryChangedEvent;
 import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
 import me.jangluzniewicz.webstore.categories.mappers.CategoryMapper;
 import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.categories.repositories.CategoryProjection;
 import me.jangluzniewicz.webstore.categories.repositories.CategoryRepository;
+import me.jangluzniewicz.webstore.categories.repositories.CategoryVersionView;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.commons.services.ImageUploadTemplate;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.annotation.Validated;
 
 @Service
@@ -24,63 +36,82 @@ public class CategoryService implements ICategory {
   private final CategoryRepository categoryRepository;
   private final CategoryMapper categoryMapper;
   private final IAwsS3 awsS3;
+  private final IPaging pagingService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ImageUploadTemplate imageUploadTemplate;
 
   public CategoryService(
-      CategoryRepository categoryRepository, CategoryMapper categoryMapper, IAwsS3 awsS3) {
+      CategoryRepository categoryRepository,
+      CategoryMapper categoryMapper,
+      IAwsS3 awsS3,
+      IPaging pagingService,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager) {
     this.categoryRepository = categoryRepository;
     this.categoryMapper = categoryMapper;
     this.awsS3 = awsS3;
+    this.pagingService = pagingService;
+    this.eventPublisher = eventPublisher;
+    this.imageUploadTemplate = new ImageUploadTemplate(awsS3, transactionManager);
   }
 
   @Override
-  @Transactional
   public IdResponse createNewCategory(CategoryRequest categoryRequest) {
     if (categoryRepository.existsByNameIgnoreCase(categoryRequest.getName())) {
       throw new NotUniqueException(
           "Category with name " + categoryRequest.getName() + " already exists");
     }
-    Category category = Category.builder().name(categoryRequest.getName()).build();
-    if (categoryRequest.getImage() != null) {
-      category.setImageUri(awsS3.uploadFile("", categoryRequest.getImage()));
-    }
-    return new IdResponse(categoryRepository.save(categoryMapper.toEntity(category)).getId());
+    String imageUri = imageUploadTemplate.upload(categoryRequest.getImage());
+    Category category =
+        Category.builder().name(categoryRequest.getName()).imageUri(imageUri).build();
+    return new IdResponse(
+        imageUploadTemplate.saveOrDiscard(
+            imageUri, () -> categoryRepository.save(categoryMapper.toEntity(category)).getId()));
   }
 
   @Override
   public Optional<Category> getCategoryById(Long id) {
     return categoryRepository
         .findById(id)
-        .map(
-            categoryEntity -> {
-              var category = categoryMapper.fromEntity(categoryEntity);
-              category.setImageUrl(
-                  category.getImageUri() != null && !category.getImageUri().isEmpty()
-                      ? awsS3.getSignedUrl(category.getImageUri())
-                      : "");
-              return category;
-            });
+        .map(categoryEntity -> withSignedUrls(categoryMapper.fromEntity(categoryEntity)));
   }
 
   @Override
-  public PagedResponse<Category> getAllCategories(Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<Category> categories =
-        categoryRepository
-            .findAll(pageable)
-            .map(
-                categoryEntity -> {
-                  var category = categoryMapper.fromEntity(categoryEntity);
-                  category.setImageUrl(
-                      category.getImageUri() != null && !category.getImageUri().isEmpty()
-                          ? awsS3.getSignedUrl(category.getImageUri())
-                          : "");
-                  return category;
-                });
-    return new PagedResponse<>(categories.getTotalPages(), categories.toList());
+  public Optional<CategoryVersionView> getCategoryVersion(Long id) {
+    return categoryRepository.findVersionById(id);
+  }
+
+  @Override
+  public Map<Long, Category> getCategoriesByIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return categoryRepository.findAllById(ids).stream()
+        .map(categoryMapper::fromEntity)
+        .collect(Collectors.toMap(Category::getId, Function.identity()));
+  }
+
+  @Override
+  public PagedResponse<Category> getAllCategories(
+      Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService
+        .findPage(CategoryEntity.class, null, PageRequest.of(page, size, Sort.by("id")), pagingMode)
+        .map(categoryEntity -> withSignedUrls(categoryMapper.fromEntity(categoryEntity)));
+  }
+
+  @Override
+  public PagedResponse<CategoryVersionView> getAllCategoryVersions(
+      Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService.findPage(
+        CategoryEntity.class,
+        CategoryVersionView.class,
+        CategoryProjection.versionView(),
+        null,
+        PageRequest.of(page, size, Sort.by("id")),
+        pagingMode);
   }
 
   @Override
-  @Transactional
   public void updateCategory(Long id, CategoryRequest categoryRequest) {
     Category category =
         getCategoryById(id)
@@ -91,13 +122,21 @@ public class CategoryService implements ICategory {
           "Category with name " + categoryRequest.getName() + " already exists");
     }
     category.setName(categoryRequest.getName());
-    if (categoryRequest.getImage() != null) {
-      category.setImageUri(
-          category.getImageUri() != null
-              ? awsS3.updateFile(category.getImageUri(), categoryRequest.getImage())
-              : awsS3.uploadFile("", categoryRequest.getImage()));
+    String previousImageUri = category.getImageUri();
+    String imageUri = imageUploadTemplate.upload(categoryRequest.getImage());
+    if (imageUri != null) {
+      category.setImageUri(imageUri);
     }
-    categoryRepository.save(categoryMapper.toEntity(category));
+    imageUploadTemplate.saveOrDiscard(
+        imageUri,
+        () -> {
+          categoryRepository.save(categoryMapper.toEntity(category));
+          if (imageUri != null && previousImageUri != null) {
+            awsS3.deleteFiles(List.of(previousImageUri));
+          }
+          eventPublisher.publishEvent(new CategoryChangedEvent(id));
+          return id;
+        });
   }
 
   @Override
@@ -107,8 +146,17 @@ public class CategoryService implements ICategory {
             .findById(id)
             .orElseThrow(() -> new NotFoundException("Category with id " + id + " not found"));
     if (category.getImageUri() != null) {
-      awsS3.deleteFile(category.getImageUri());
+      awsS3.deleteFiles(List.of(category.getImageUri()));
     }
     categoryRepository.deleteById(id);
+    eventPublisher.publishEvent(new CategoryChangedEvent(id));
+  }
+
+  private Category withSignedUrls(Category category) {
+    boolean hasImage = category.getImageUri() != null && !category.getImageUri().isEmpty();
+    category.setImageUrl(hasImage ? awsS3.getSignedUrl(category.getImageUri()) : "");
+    category.setImageVariantUrls(
+        hasImage ? awsS3.getSignedVariantUrls(category.getImageUri()) : Map.of());
+    return category;
   }
 }
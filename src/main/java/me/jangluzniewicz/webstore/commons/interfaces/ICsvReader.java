@@ -1,8 +1,12 @@
 package me.jangluzniewicz.webstore.commons.interfaces;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
+import me.jangluzniewicz.webstore.commons.models.CsvRow;
+import me.jangluzniewicz.webstore.commons.models.CsvRowError;
 
 /**
  * Interface for reading CSV data and converting it to model objects.
@@ -18,4 +22,36 @@ public interface ICsvReader<T> {
    * @return a list of model objects parsed from the CSV data.
    */
   List<T> csvToModel(@NotNull InputStream inputStream);
+
+  /**
+   * Converts CSV data from an input stream to model objects row by row and hands them to the
+   * consumer in chunks, so that only one chunk is held in memory at a time. Chunks consumed before
+   * an invalid row is reached are not rolled back.
+   *
+   * @param inputStream the input stream containing the CSV data; must not be null.
+   * @param chunkSize the maximum number of model objects per chunk; must be a positive number.
+   * @param chunkConsumer the consumer receiving each chunk of model objects; must not be null.
+   * @return the number of rows read.
+   */
+  long csvToModel(
+      @NotNull InputStream inputStream,
+      @NotNull @Min(1) Integer chunkSize,
+      @NotNull Consumer<List<T>> chunkConsumer);
+
+  /**
+   * Converts CSV data from an input stream to model objects row by row and hands them to the
+   * consumer in chunks, together with their row numbers. Invalid rows are reported to the error
+   * consumer and skipped instead of aborting the whole file.
+   *
+   * @param inputStream the input stream containing the CSV data; must not be null.
+   * @param chunkSize the maximum number of rows per chunk; must be a positive number.
+   * @param chunkConsumer the consumer receiving each chunk of valid rows; must not be null.
+   * @param rowErrorConsumer the consumer receiving the errors of invalid rows; must not be null.
+   * @return the number of rows read, including invalid ones.
+   */
+  long csvToRows(
+      @NotNull InputStream inputStream,
+      @NotNull @Min(1) Integer chunkSize,
+      @NotNull Consumer<List<CsvRow<T>>> chunkConsumer,
+      @NotNull Consumer<CsvRowError> rowErrorConsumer);
 }
@@ -0,0 +1,42 @@
+package me.jangluzniewicz.webstore.commons.interfaces;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.io.OutputStream;
+import java.util.List;
+import me.jangluzniewicz.webstore.commons.models.ExportColumn;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Interface for streaming rows selected from entities to an output stream. */
+public interface IExport {
+
+  /**
+   * Writes the rows selected by a projection from the entities matching the given specification to
+   * the output stream as they are read from the database, so that memory use does not depend on the
+   * number of rows. The output stream is flushed periodically but not closed.
+   *
+   * @param entityClass the class of the queried entities; must not be null.
+   * @param resultClass the class of the selected rows; must not be null.
+   * @param projection the selection of the columns that make up a row; must not be null.
+   * @param specification the filter criteria, or null to export all entities.
+   * @param sort the order of the rows; must not be null.
+   * @param format the format of the output; must not be null.
+   * @param columns the exported columns in output order; must not be empty.
+   * @param outputStream the stream the rows are written to; must not be null.
+   * @param <E> the type of the queried entities.
+   * @param <R> the type of the selected rows.
+   * @return the number of rows written.
+   */
+  <E, R> long export(
+      @NotNull Class<E> entityClass,
+      @NotNull Class<R> resultClass,
+      @NotNull Projection<E, R> projection,
+      Specification<E> specification,
+      @NotNull Sort sort,
+      @NotNull ExportFormat format,
+      @NotEmpty List<ExportColumn<R>> columns,
+      @NotNull OutputStream outputStream);
+}
@@ -0,0 +1,79 @@
+package me.jangluzniewicz.webstore.commons.interfaces;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Interface for retrieving pages of entities with a selectable counting strategy. */
+public interface IPaging {
+
+  /**
+   * Retrieves a page of entities matching the given specification.
+   *
+   * @param entityClass the class of the entities to be retrieved; must not be null.
+   * @param specification the filter criteria, or null to retrieve all entities. A specification
+   *     that produces no predicate is treated as unfiltered.
+   * @param pageable the page number, page size and sort order; must not be null.
+   * @param pagingMode the strategy used to compute the totals; must not be null. {@link
+   *     PagingMode#ESTIMATED} falls back to {@link PagingMode#CAPPED} when no estimate is
+   *     available, and the response reports the mode that was actually used.
+   * @param <E> the type of the entities.
+   * @return a {@link PagedResponse} containing the entities of the requested page.
+   */
+  <E> PagedResponse<E> findPage(
+      @NotNull Class<E> entityClass,
+      Specification<E> specification,
+      @NotNull Pageable pageable,
+      @NotNull PagingMode pagingMode);
+
+  /**
+   * Retrieves a page of rows selected by a projection from the entities matching the given
+   * specification, without loading the entities themselves.
+   *
+   * @param entityClass the class of the queried entities; must not be null.
+   * @param resultClass the class of the selected rows; must not be null.
+   * @param projection the selection of the columns that make up a row; must not be null.
+   * @param specification the filter criteria, or null to retrieve all entities. A specification
+   *     that produces no predicate is treated as unfiltered.
+   * @param pageable the page number, page size and sort order; must not be null.
+   * @param pagingMode the strategy used to compute the totals; must not be null.
+   * @param <E> the type of the queried entities.
+   * @param <R> the type of the selected rows.
+   * @return a {@link PagedResponse} containing the rows of the requested page.
+   */
+  <E, R> PagedResponse<R> findPage(
+      @NotNull Class<E> entityClass,
+      @NotNull Class<R> resultClass,
+      @NotNull Projection<E, R> projection,
+      Specification<E> specification,
+      @NotNull Pageable pageable,
+      @NotNull PagingMode pagingMode);
+
+  /**
+   * Retrieves the first rows selected by a projection from the entities matching the given
+   * specification, without loading the entities themselves.
+   *
+   * @param entityClass the class of the queried entities; must not be null.
+   * @param resultClass the class of the selected rows; must not be null.
+   * @param projection the selection of the columns that make up a row; must not be null.
+   * @param specification the filter criteria, or null to retrieve all entities.
+   * @param sort the order of the rows; must not be null.
+   * @param limit the maximum number of rows to retrieve; must be a positive number.
+   * @param <E> the type of the queried entities.
+   * @param <R> the type of the selected rows.
+   * @return the selected rows in the requested order.
+   */
+  <E, R> List<R> findFirst(
+      @NotNull Class<E> entityClass,
+      @NotNull Class<R> resultClass,
+      @NotNull Projection<E, R> projection,
+      Specification<E> specification,
+      @NotNull Sort sort,
+      @NotNull @Min(1) Integer limit);
+}
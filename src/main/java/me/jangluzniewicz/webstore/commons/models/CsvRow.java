@@ -0,0 +1,13 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+@AllArgsConstructor
+@Getter
+public class CsvRow<T> {
+  private long rowNumber;
+
+  @NonNull private T value;
+}
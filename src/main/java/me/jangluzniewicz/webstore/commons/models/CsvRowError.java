@@ -0,0 +1,18 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+@Schema(description = "Error concerning a single row of a CSV file")
+@AllArgsConstructor
+@Getter
+public class CsvRowError {
+  @Schema(description = "Number of the row, starting from 1", example = "42")
+  private long rowNumber;
+
+  @NonNull
+  @Schema(description = "Reason why the row was rejected", example = "Category with id 7 not found")
+  private String message;
+}
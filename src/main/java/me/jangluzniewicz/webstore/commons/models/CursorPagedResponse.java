@@ -0,0 +1,20 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.*;
+
+@Schema(description = "Cursor-paginated response containing a list of items")
+@AllArgsConstructor
+@Getter
+public class CursorPagedResponse<T> {
+  @Schema(
+      description = "Opaque cursor of the next page; null when there are no more items",
+      example = "UFJJQ0U6QVNDOjQyOjI5OS45OQ",
+      nullable = true)
+  private String nextCursor;
+
+  @NonNull
+  @Schema(description = "List of items on the current page")
+  private List<T> content;
+}
@@ -0,0 +1,46 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds a strong entity tag from the values that make up a response, such as entity IDs and
+ * versions, so that a conditional request can be answered without serializing the response.
+ */
+public final class EntityTag {
+  private static final int LENGTH = 16;
+  private final MessageDigest digest;
+
+  private EntityTag() {
+    try {
+      this.digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static EntityTag builder() {
+    return new EntityTag();
+  }
+
+  public EntityTag add(Object value) {
+    digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    return this;
+  }
+
+  public EntityTag addPage(PagedResponse<?> page) {
+    return add(page.getPagingMode())
+        .add(page.getTotalPages())
+        .add(page.getTotalElements())
+        .add(page.getTotalElementsCapped())
+        .add(page.getHasNext())
+        .add(page.getContent().size());
+  }
+
+  public String build() {
+    return "\"" + HexFormat.of().formatHex(digest.digest(), 0, LENGTH) + "\"";
+  }
+}
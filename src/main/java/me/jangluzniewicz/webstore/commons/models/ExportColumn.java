@@ -0,0 +1,11 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import java.util.function.Function;
+
+/**
+ * Column of a bulk export: the header of a CSV column or the field name of an NDJSON object, and
+ * the function reading its value from an exported row.
+ *
+ * @param <R> the type of the exported rows.
+ */
+public record ExportColumn<R>(String name, Function<R, Object> value) {}
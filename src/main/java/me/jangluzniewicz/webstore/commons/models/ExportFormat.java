@@ -0,0 +1,33 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Arrays;
+
+@Schema(description = "Format of a bulk export")
+public enum ExportFormat {
+  CSV("csv", "text/csv"),
+  NDJSON("ndjson", "application/x-ndjson");
+
+  private final String value;
+  private final String mediaType;
+
+  ExportFormat(String value, String mediaType) {
+    this.value = value;
+    this.mediaType = mediaType;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  public static ExportFormat fromString(String value) {
+    return Arrays.stream(values())
+        .filter(format -> format.value.equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Invalid export format: " + value));
+  }
+}
@@ -2,6 +2,7 @@ package me.jangluzniewicz.webstore.commons.models;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
+import java.util.function.Function;
 import lombok.*;
 
 @Schema(description = "Paginated response containing a list of items")
@@ -9,10 +10,42 @@ import lombok.*;
 @Getter
 public class PagedResponse<T> {
   @NonNull
-  @Schema(description = "Total number of pages", example = "5")
+  @Schema(description = "Paging mode that computed the totals", example = "EXACT")
+  private PagingMode pagingMode;
+
+  @Schema(
+      description = "Total number of pages; null when the paging mode does not count items",
+      example = "5",
+      nullable = true)
   private Integer totalPages;
 
+  @Schema(
+      description =
+          "Total number of items; a lower bound when totalElementsCapped is true, an estimate in"
+              + " ESTIMATED mode and null in SLICE mode",
+      example = "87",
+      nullable = true)
+  private Long totalElements;
+
+  @NonNull
+  @Schema(description = "Whether more items exist than the count cap", example = "false")
+  private Boolean totalElementsCapped;
+
+  @NonNull
+  @Schema(description = "Whether a next page exists", example = "true")
+  private Boolean hasNext;
+
   @NonNull
   @Schema(description = "List of items on the current page")
   private List<T> content;
+
+  public <R> PagedResponse<R> map(Function<? super T, ? extends R> mapper) {
+    return new PagedResponse<>(
+        pagingMode,
+        totalPages,
+        totalElements,
+        totalElementsCapped,
+        hasNext,
+        content.stream().<R>map(mapper).toList());
+  }
 }
@@ -0,0 +1,29 @@
+package me.jangluzniewicz.webstore.commons.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Arrays;
+
+@Schema(description = "Strategy used to compute the totals of a paginated response")
+public enum PagingMode {
+  EXACT("exact"),
+  SLICE("slice"),
+  CAPPED("capped"),
+  ESTIMATED("estimated");
+
+  private final String value;
+
+  PagingMode(String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public static PagingMode fromString(String value) {
+    return Arrays.stream(values())
+        .filter(mode -> mode.value.equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Invalid paging mode: " + value));
+  }
+}
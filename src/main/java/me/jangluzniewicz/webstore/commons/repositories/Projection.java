@@ -0,0 +1,18 @@
+package me.jangluzniewicz.webstore.commons.repositories;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Selects the columns of a criteria query rooted at an entity, typically through {@link
+ * CriteriaBuilder#construct}, so that rows are read straight into a response model without loading
+ * managed entities.
+ *
+ * @param <E> the type of the queried entity.
+ * @param <R> the type of the selected rows.
+ */
+@FunctionalInterface
+public interface Projection<E, R> {
+  Selection<? extends R> toSelection(Root<E> root, CriteriaBuilder criteriaBuilder);
+}
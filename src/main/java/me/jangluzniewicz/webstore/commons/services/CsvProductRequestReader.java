@@ -9,8 +9,11 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import me.jangluzniewicz.webstore.commons.interfaces.ICsvReader;
+import me.jangluzniewicz.webstore.commons.models.CsvRow;
+import me.jangluzniewicz.webstore.commons.models.CsvRowError;
 import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
 import org.springframework.stereotype.Service;
@@ -28,41 +31,81 @@ public class CsvProductRequestReader implements ICsvReader<ProductRequest> {
   @Override
   public List<ProductRequest> csvToModel(InputStream inputStream) {
     List<ProductRequest> productRequests = new ArrayList<>();
+    csvToModel(inputStream, Integer.MAX_VALUE, productRequests::addAll);
+    return productRequests;
+  }
+
+  @Override
+  public long csvToModel(
+      InputStream inputStream, Integer chunkSize, Consumer<List<ProductRequest>> chunkConsumer) {
+    return csvToRows(
+        inputStream,
+        chunkSize,
+        rows -> chunkConsumer.accept(rows.stream().map(CsvRow::getValue).toList()),
+        rowError -> {
+          throw new CsvReaderException(rowError.getMessage());
+        });
+  }
+
+  @Override
+  public long csvToRows(
+      InputStream inputStream,
+      Integer chunkSize,
+      Consumer<List<CsvRow<ProductRequest>>> chunkConsumer,
+      Consumer<CsvRowError> rowErrorConsumer) {
+    long rowsRead = 0;
+    List<CsvRow<ProductRequest>> chunk = new ArrayList<>();
     try (CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-      List<String[]> rows = reader.readAll();
-      if (rows.isEmpty()) {
-        throw new CsvReaderException("Empty CSV file");
-      }
-      for (String[] row : rows) {
-        if (row.length < 5) {
-          throw new CsvReaderException("To few columns in row: " + String.join(",", row));
-        }
+      String[] row;
+      while ((row = reader.readNext()) != null) {
+        rowsRead++;
         try {
-          ProductRequest productRequest =
-              new ProductRequest(
-                  null,
-                  row[0],
-                  row[1],
-                  BigDecimal.valueOf(Double.parseDouble(row[2])),
-                  BigDecimal.valueOf(Double.parseDouble(row[3])),
-                  Long.parseLong(row[4]));
-          Set<ConstraintViolation<ProductRequest>> violations = validator.validate(productRequest);
-          if (!violations.isEmpty()) {
-            String message =
-                violations.stream()
-                    .map(ConstraintViolation::getMessage)
-                    .collect(Collectors.joining(", "));
-            throw new CsvReaderException(
-                "Validation errors in row: " + String.join(",", row) + " - " + message);
-          }
-          productRequests.add(productRequest);
-        } catch (NumberFormatException e) {
-          throw new CsvReaderException("Error while parsing row: " + String.join(",", row));
+          chunk.add(new CsvRow<>(rowsRead, toProductRequest(row)));
+        } catch (CsvReaderException e) {
+          rowErrorConsumer.accept(new CsvRowError(rowsRead, e.getMessage()));
+        }
+        if (chunk.size() == chunkSize) {
+          chunkConsumer.accept(chunk);
+          chunk = new ArrayList<>();
         }
       }
     } catch (CsvException | IOException e) {
       throw new CsvReaderException("Error while reading CSV file");
     }
-    return productRequests;
+    if (rowsRead == 0) {
+      throw new CsvReaderException("Empty CSV file");
+    }
+    if (!chunk.isEmpty()) {
+      chunkConsumer.accept(chunk);
+    }
+    return rowsRead;
+  }
+
+  private ProductRequest toProductRequest(String[] row) {
+    if (row.length < 5) {
+      throw new CsvReaderException("To few columns in row: " + String.join(",", row));
+    }
+    try {
+      ProductRequest productRequest =
+          new ProductRequest(
+              null,
+              row[0],
+              row[1],
+              BigDecimal.valueOf(Double.parseDouble(row[2])),
+              BigDecimal.valueOf(Double.parseDouble(row[3])),
+              Long.parseLong(row[4]));
+      Set<ConstraintViolation<ProductRequest>> violations = validator.validate(productRequest);
+      if (!violations.isEmpty()) {
+        String message =
+            violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", "));
+        throw new CsvReaderException(
+            "Validation errors in row: " + String.join(",", row) + " - " + message);
+      }
+      return productRequest;
+    } catch (NumberFormatException e) {
+      throw new CsvReaderException("Error while parsing row: " + String.join(",", row));
+    }
   }
 }
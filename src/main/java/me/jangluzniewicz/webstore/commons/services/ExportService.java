@@ -0,0 +1,175 @@
+package me.jangluzniewicz.webstore.commons.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.models.ExportColumn;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Streams projection rows from a read-only query straight into CSV or NDJSON. The JDBC driver
+ * fetches {@code fetchSize} rows per round trip and no entity is loaded into the persistence
+ * context, so an export runs in constant memory regardless of its size. The output is flushed every
+ * {@code flushInterval} rows so that the client starts receiving data right away.
+ */
+@Service
+@Validated
+public class ExportService implements IExport {
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+  private final int fetchSize;
+  private final int flushInterval;
+
+  public ExportService(
+      EntityManager entityManager,
+      ObjectMapper objectMapper,
+      @Value("${export.fetch-size}") int fetchSize,
+      @Value("${export.flush-interval}") int flushInterval) {
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+    this.fetchSize = fetchSize;
+    this.flushInterval = flushInterval;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public <E, R> long export(
+      Class<E> entityClass,
+      Class<R> resultClass,
+      Projection<E, R> projection,
+      Specification<E> specification,
+      Sort sort,
+      ExportFormat format,
+      List<ExportColumn<R>> columns,
+      OutputStream outputStream) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<R> query = criteriaBuilder.createQuery(resultClass);
+    Root<E> root = query.from(entityClass);
+    Predicate predicate =
+        specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query
+        .select(projection.toSelection(root, criteriaBuilder))
+        .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+    long rowsWritten = 0;
+    try (Stream<R> rows =
+        entityManager
+            .createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()) {
+      RowWriter writer =
+          switch (format) {
+            case CSV -> new CsvRowWriter(outputStream);
+            case NDJSON -> new NdjsonRowWriter(objectMapper, outputStream);
+          };
+      writer.writeHeader(columns.stream().map(ExportColumn::name).toList());
+      Iterator<R> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        R row = iterator.next();
+        writer.writeRow(columns.stream().map(column -> column.value().apply(row)).toList());
+        if (++rowsWritten % flushInterval == 0) {
+          writer.flush();
+        }
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return rowsWritten;
+  }
+
+  private interface RowWriter {
+    void writeHeader(List<String> names) throws IOException;
+
+    void writeRow(List<Object> values) throws IOException;
+
+    void flush() throws IOException;
+  }
+
+  private static class CsvRowWriter implements RowWriter {
+    private final CSVWriter writer;
+
+    CsvRowWriter(OutputStream outputStream) {
+      this.writer =
+          new CSVWriter(
+              new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void writeHeader(List<String> names) {
+      writer.writeNext(names.toArray(new String[0]), false);
+    }
+
+    @Override
+    public void writeRow(List<Object> values) {
+      writer.writeNext(
+          values.stream()
+              .map(value -> value != null ? value.toString() : "")
+              .toArray(String[]::new),
+          false);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+  }
+
+  private static class NdjsonRowWriter implements RowWriter {
+    private final JsonGenerator generator;
+    private List<String> names;
+
+    NdjsonRowWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+      this.generator = objectMapper.createGenerator(outputStream);
+      this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeHeader(List<String> names) {
+      this.names = names;
+    }
+
+    @Override
+    public void writeRow(List<Object> values) throws IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < names.size(); i++) {
+        generator.writeFieldName(names.get(i));
+        generator.writeObject(values.get(i));
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      generator.flush();
+    }
+  }
+}
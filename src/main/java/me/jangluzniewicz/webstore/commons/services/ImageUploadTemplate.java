@@ -0,0 +1,50 @@
+package me.jangluzniewicz.webstore.commons.services;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Uploads an image before the row referencing it is written, so no transaction is held open while
+ * the upload runs, and deletes the uploaded image again when the row cannot be saved.
+ */
+public class ImageUploadTemplate {
+  private final IAwsS3 awsS3;
+  private final TransactionTemplate transactionTemplate;
+
+  public ImageUploadTemplate(IAwsS3 awsS3, PlatformTransactionManager transactionManager) {
+    this.awsS3 = awsS3;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** Returns the key of the uploaded image, or null when there is no image. */
+  public String upload(MultipartFile image) {
+    if (image == null) {
+      return null;
+    }
+    try {
+      return awsS3.uploadFileAsync("", image).join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  /** Saves in a transaction and deletes the freshly uploaded image when the save fails. */
+  public <T> T saveOrDiscard(String imageUri, Supplier<T> save) {
+    try {
+      return transactionTemplate.execute(_ -> save.get());
+    } catch (RuntimeException e) {
+      if (imageUri != null) {
+        try {
+          awsS3.deleteFile(imageUri);
+        } catch (RuntimeException deleteException) {
+          e.addSuppressed(deleteException);
+        }
+      }
+      throw e;
+    }
+  }
+}
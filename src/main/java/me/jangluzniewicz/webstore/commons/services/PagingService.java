@@ -0,0 +1,236 @@
+package me.jangluzniewicz.webstore.commons.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import javax.sql.DataSource;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Retrieves pages through the criteria API so that the count query can be skipped (SLICE), bounded
+ * (CAPPED) or replaced by the row estimate kept in the PostgreSQL statistics (ESTIMATED). Every
+ * mode fetches one row more than the page size to tell whether a next page exists, which also
+ * yields the exact total for free whenever the last page is requested. Rows are either the entities
+ * themselves or the columns chosen by a {@link Projection}, in which case no entity is loaded.
+ */
+@Service
+@Validated
+public class PagingService implements IPaging {
+  private static final String ESTIMATE_QUERY =
+      "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(:table)";
+  private final EntityManager entityManager;
+  private final int countCap;
+  private final boolean estimatesSupported;
+
+  public PagingService(
+      EntityManager entityManager,
+      DataSource dataSource,
+      @Value("${paging.count-cap}") int countCap) {
+    this.entityManager = entityManager;
+    this.countCap = countCap;
+    this.estimatesSupported = isPostgreSql(dataSource);
+  }
+
+  @Override
+  public <E> PagedResponse<E> findPage(
+      Class<E> entityClass,
+      Specification<E> specification,
+      Pageable pageable,
+      PagingMode pagingMode) {
+    return findPage(
+        entityClass, entityClass, (root, _) -> root, specification, pageable, pagingMode);
+  }
+
+  @Override
+  public <E, R> PagedResponse<R> findPage(
+      Class<E> entityClass,
+      Class<R> resultClass,
+      Projection<E, R> projection,
+      Specification<E> specification,
+      Pageable pageable,
+      PagingMode pagingMode) {
+    int size = pageable.getPageSize();
+    long offset = pageable.getOffset();
+    List<R> rows =
+        fetch(
+            entityClass,
+            resultClass,
+            projection,
+            specification,
+            pageable.getSort(),
+            pageable.getOffset(),
+            size + 1);
+    boolean hasNext = rows.size() > size;
+    List<R> content = hasNext ? rows.subList(0, size) : rows;
+    long seen = offset + content.size() + (hasNext ? 1 : 0);
+    boolean totalKnown = !hasNext && (!content.isEmpty() || offset == 0);
+    return switch (pagingMode) {
+      case EXACT ->
+          page(
+              PagingMode.EXACT,
+              totalKnown ? seen : count(entityClass, specification),
+              false,
+              hasNext,
+              size,
+              content);
+      case SLICE -> new PagedResponse<>(PagingMode.SLICE, null, null, false, hasNext, content);
+      case CAPPED -> capped(entityClass, specification, totalKnown, seen, hasNext, size, content);
+      case ESTIMATED -> {
+        long estimate = totalKnown ? -1 : estimate(entityClass, specification);
+        yield estimate < 0
+            ? capped(entityClass, specification, totalKnown, seen, hasNext, size, content)
+            : page(PagingMode.ESTIMATED, Math.max(estimate, seen), false, hasNext, size, content);
+      }
+    };
+  }
+
+  @Override
+  public <E, R> List<R> findFirst(
+      Class<E> entityClass,
+      Class<R> resultClass,
+      Projection<E, R> projection,
+      Specification<E> specification,
+      Sort sort,
+      Integer limit) {
+    return fetch(entityClass, resultClass, projection, specification, sort, 0, limit);
+  }
+
+  private <E, R> PagedResponse<R> capped(
+      Class<E> entityClass,
+      Specification<E> specification,
+      boolean totalKnown,
+      long seen,
+      boolean hasNext,
+      int size,
+      List<R> content) {
+    if (totalKnown || seen > countCap) {
+      return page(PagingMode.CAPPED, seen, !totalKnown, hasNext, size, content);
+    }
+    long counted = countUpTo(entityClass, specification, countCap + 1);
+    return counted > countCap
+        ? page(PagingMode.CAPPED, countCap, true, hasNext, size, content)
+        : page(PagingMode.CAPPED, counted, false, hasNext, size, content);
+  }
+
+  private static <R> PagedResponse<R> page(
+      PagingMode pagingMode,
+      long totalElements,
+      boolean totalElementsCapped,
+      boolean hasNext,
+      int size,
+      List<R> content) {
+    return new PagedResponse<>(
+        pagingMode,
+        (int) ((totalElements + size - 1) / size),
+        totalElements,
+        totalElementsCapped,
+        hasNext,
+        content);
+  }
+
+  private <E, R> List<R> fetch(
+      Class<E> entityClass,
+      Class<R> resultClass,
+      Projection<E, R> projection,
+      Specification<E> specification,
+      Sort sort,
+      long offset,
+      int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<R> query = criteriaBuilder.createQuery(resultClass);
+    Root<E> root = query.from(entityClass);
+    where(specification, root, query, criteriaBuilder);
+    query
+        .select(projection.toSelection(root, criteriaBuilder))
+        .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+    return entityManager
+        .createQuery(query)
+        .setFirstResult((int) offset)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  private <E> long count(Class<E> entityClass, Specification<E> specification) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+    Root<E> root = query.from(entityClass);
+    where(specification, root, query, criteriaBuilder);
+    query.select(criteriaBuilder.count(root));
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  private <E> long countUpTo(Class<E> entityClass, Specification<E> specification, int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+    Root<E> root = query.from(entityClass);
+    where(specification, root, query, criteriaBuilder);
+    query.select(criteriaBuilder.literal(1));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList().size();
+  }
+
+  private <E> long estimate(Class<E> entityClass, Specification<E> specification) {
+    Table table = entityClass.getAnnotation(Table.class);
+    if (!estimatesSupported || table == null || !isUnfiltered(entityClass, specification)) {
+      return -1;
+    }
+    List<?> result =
+        entityManager
+            .createNativeQuery(ESTIMATE_QUERY)
+            .setParameter("table", table.name())
+            .getResultList();
+    return result.isEmpty() || result.getFirst() == null
+        ? -1
+        : ((Number) result.getFirst()).longValue();
+  }
+
+  private <E> boolean isUnfiltered(Class<E> entityClass, Specification<E> specification) {
+    if (specification == null) {
+      return true;
+    }
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<E> query = criteriaBuilder.createQuery(entityClass);
+    return specification.toPredicate(query.from(entityClass), query, criteriaBuilder) == null;
+  }
+
+  private static boolean isPostgreSql(DataSource dataSource) {
+    try {
+      return "PostgreSQL"
+          .equals(
+              JdbcUtils.extractDatabaseMetaData(
+                  dataSource, DatabaseMetaData::getDatabaseProductName));
+    } catch (MetaDataAccessException e) {
+      return false;
+    }
+  }
+
+  private static <E> void where(
+      Specification<E> specification,
+      Root<E> root,
+      CriteriaQuery<?> query,
+      CriteriaBuilder criteriaBuilder) {
+    if (specification == null) {
+      return;
+    }
+    Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+  }
+}
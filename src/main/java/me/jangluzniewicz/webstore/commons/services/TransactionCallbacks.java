@@ -0,0 +1,27 @@
+package me.jangluzniewicz.webstore.commons.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Actions deferred until the surrounding transaction has committed. */
+public final class TransactionCallbacks {
+  private TransactionCallbacks() {}
+
+  /**
+   * Runs {@code action} once the current transaction commits, or right away when no transaction
+   * synchronization is active. The action is dropped when the transaction rolls back.
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
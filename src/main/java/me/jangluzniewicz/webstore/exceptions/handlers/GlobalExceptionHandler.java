@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import me.jangluzniewicz.webstore.exceptions.*;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -243,6 +244,21 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ApiError> handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException e, HttpServletRequest request) {
+    String url = request.getRequestURL().toString();
+    ApiError apiError =
+        ApiError.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.CONFLICT.value())
+            .error(HttpStatus.CONFLICT.name())
+            .message("Resource was modified concurrently")
+            .path(url)
+            .build();
+    return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler(HttpMessageNotReadableException.class)
   public ResponseEntity<ApiError> handleHttpMessageNotReadableException(
       HttpMessageNotReadableException e, HttpServletRequest request) {
@@ -12,17 +12,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.orders.interfaces.IOrder;
 import me.jangluzniewicz.webstore.orders.models.Order;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
 import me.jangluzniewicz.webstore.security.interfaces.ISecurity;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Orders", description = "Operations related to orders")
 @RestController
@@ -49,15 +55,54 @@ public class OrderController {
               schema = @Schema(implementation = PagedResponse.class)))
   @PreAuthorize("hasRole('ADMIN')")
   @GetMapping
-  public ResponseEntity<PagedResponse<Order>> getOrders(
+  public ResponseEntity<PagedResponse<OrderSummary>> getOrders(
       @Valid @ModelAttribute OrderFilterRequest filterRequest,
       @Parameter(in = ParameterIn.QUERY, description = "Page number", example = "0")
           @RequestParam(defaultValue = "0")
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
-    return ResponseEntity.ok(orderService.getFilteredOrders(filterRequest, page, size));
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging) {
+    return ResponseEntity.ok(
+        orderService.getFilteredOrders(filterRequest, page, size, PagingMode.fromString(paging)));
+  }
+
+  @Operation(
+      summary = "Export orders",
+      description =
+          "Streams all orders matching the filter criteria as CSV or NDJSON without paging (ADMIN only)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Exported orders",
+      content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")})
+  @ApiResponse(responseCode = "400", description = "Invalid export format", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportOrders(
+      @Valid @ModelAttribute OrderFilterRequest filterRequest,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Export format (csv or ndjson)",
+              example = "csv")
+          @RequestParam(defaultValue = "csv")
+          String format) {
+    ExportFormat exportFormat = ExportFormat.fromString(format);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment()
+                .filename("orders." + exportFormat.getValue())
+                .build()
+                .toString())
+        .body(outputStream -> orderService.exportOrders(filterRequest, exportFormat, outputStream));
   }
 
   @Operation(
@@ -99,15 +144,22 @@ public class OrderController {
               schema = @Schema(implementation = PagedResponse.class)))
   @PreAuthorize("isAuthenticated()")
   @GetMapping("/current")
-  public ResponseEntity<PagedResponse<Order>> getCurrentUserOrders(
+  public ResponseEntity<PagedResponse<OrderSummary>> getCurrentUserOrders(
       @Parameter(in = ParameterIn.QUERY, description = "Page number", example = "0")
           @RequestParam(defaultValue = "0")
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging) {
     return ResponseEntity.ok(
-        orderService.getOrdersByCustomerId(authService.getCurrentUser().getId(), page, size));
+        orderService.getOrdersByCustomerId(
+            authService.getCurrentUser().getId(), page, size, PagingMode.fromString(paging)));
   }
 
   @Operation(
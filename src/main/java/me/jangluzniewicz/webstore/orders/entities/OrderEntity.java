@@ -8,7 +8,6 @@ import lombok.*;
 import me.jangluzniewicz.webstore.orderstatuses.entities.OrderStatusEntity;
 import me.jangluzniewicz.webstore.users.entities.UserEntity;
 import org.hibernate.annotations.DynamicInsert;
-import org.hibernate.annotations.Formula;
 
 @Entity
 @DynamicInsert
@@ -53,7 +52,6 @@ public class OrderEntity {
   @JoinColumn(name = "order_id")
   private List<OrderItemEntity> items;
 
-  @Formula(
-      "(SELECT COALESCE(SUM(oi.price * oi.quantity), 0.00) FROM order_items oi WHERE oi.order_id = id)")
+  @Column(nullable = false)
   private BigDecimal total;
 }
@@ -2,14 +2,18 @@ package me.jangluzniewicz.webstore.orders.interfaces;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import java.io.OutputStream;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.orders.controllers.ChangeOrderStatusRequest;
 import me.jangluzniewicz.webstore.orders.controllers.OrderFilterRequest;
 import me.jangluzniewicz.webstore.orders.controllers.OrderRequest;
 import me.jangluzniewicz.webstore.orders.controllers.RatingRequest;
 import me.jangluzniewicz.webstore.orders.models.Order;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
 
 /** Interface for managing orders. */
 public interface IOrder {
@@ -38,21 +42,25 @@ public interface IOrder {
    *     number.
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of orders per page; must be a positive number.
-   * @return a {@link PagedResponse} containing the paginated list of orders.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the paginated list of order summaries.
    */
-  PagedResponse<Order> getOrdersByCustomerId(
+  PagedResponse<OrderSummary> getOrdersByCustomerId(
       @NotNull @Min(1) Long customerId,
       @NotNull @Min(0) Integer page,
-      @NotNull @Min(1) Integer size);
+      @NotNull @Min(1) Integer size,
+      @NotNull PagingMode pagingMode);
 
   /**
    * Retrieves all orders with pagination.
    *
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of orders per page; must be a positive number.
-   * @return a {@link PagedResponse} containing the paginated list of orders.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the paginated list of order summaries.
    */
-  PagedResponse<Order> getAllOrders(@NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size);
+  PagedResponse<OrderSummary> getAllOrders(
+      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size, @NotNull PagingMode pagingMode);
 
   /**
    * Retrieves filtered orders with pagination.
@@ -60,12 +68,27 @@ public interface IOrder {
    * @param filter the filter criteria for retrieving orders; must not be null.
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of orders per page; must be a positive number.
-   * @return a {@link PagedResponse} containing the paginated list of filtered orders.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the paginated list of filtered order summaries.
    */
-  PagedResponse<Order> getFilteredOrders(
+  PagedResponse<OrderSummary> getFilteredOrders(
       @NotNull OrderFilterRequest filter,
       @NotNull @Min(0) Integer page,
-      @NotNull @Min(1) Integer size);
+      @NotNull @Min(1) Integer size,
+      @NotNull PagingMode pagingMode);
+
+  /**
+   * Streams the filtered orders to an output stream without paging.
+   *
+   * @param filter the filter criteria for exporting orders; must not be null.
+   * @param format the format of the export; must not be null.
+   * @param outputStream the stream the orders are written to; must not be null.
+   * @return the number of exported orders.
+   */
+  long exportOrders(
+      @NotNull OrderFilterRequest filter,
+      @NotNull ExportFormat format,
+      @NotNull OutputStream outputStream);
 
   /**
    * Updates an existing order.
@@ -2,9 +2,10 @@ package me.jangluzniewicz.webstore.orders.mappers;
 
 import me.jangluzniewicz.webstore.orders.entities.OrderItemEntity;
 import me.jangluzniewicz.webstore.orders.models.OrderItem;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
 import org.mapstruct.Mapper;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ProductMapper.class)
 public interface OrderItemMapper {
   OrderItem fromEntity(OrderItemEntity entity);
 
@@ -0,0 +1,70 @@
+package me.jangluzniewicz.webstore.orders.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.*;
+import me.jangluzniewicz.webstore.orderstatuses.models.OrderStatus;
+
+@Schema(description = "Model representing an order in an order listing")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class OrderSummary {
+  @Schema(description = "Unique identifier of the order", example = "1")
+  private Long id;
+
+  @Schema(description = "Date and time when the order was placed", example = "2025-03-15T10:00:00")
+  private LocalDateTime orderDate;
+
+  @Schema(
+      description = "Date and time when the order status was last changed",
+      example = "2025-03-15T12:00:00")
+  private LocalDateTime statusChangeDate;
+
+  @Schema(description = "Unique identifier of the customer who placed the order", example = "1")
+  private Long customerId;
+
+  @Schema(description = "Email address of the user", example = "customer@customer.com")
+  private String email;
+
+  @Schema(description = "Phone number of the user", example = "+12345678901")
+  private String phoneNumber;
+
+  @Schema(description = "Current status of the order")
+  private OrderStatus status;
+
+  @Schema(description = "Rating value given to the order", example = "5", nullable = true)
+  private Integer rating;
+
+  @Schema(description = "Total amount of the order", example = "599.98")
+  private BigDecimal total;
+
+  /** Builds a listing row from the columns selected by a projection query. */
+  public OrderSummary(
+      Long id,
+      LocalDateTime orderDate,
+      LocalDateTime statusChangeDate,
+      Long customerId,
+      String email,
+      String phoneNumber,
+      Long statusId,
+      String statusName,
+      Integer rating,
+      BigDecimal total) {
+    this(
+        id,
+        orderDate,
+        statusChangeDate,
+        customerId,
+        email,
+        phoneNumber,
+        statusId != null ? new OrderStatus(statusId, statusName) : null,
+        rating,
+        total);
+  }
+}
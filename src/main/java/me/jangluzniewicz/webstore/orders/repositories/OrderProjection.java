@@ -0,0 +1,30 @@
+package me.jangluzniewicz.webstore.orders.repositories;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import me.jangluzniewicz.webstore.orders.entities.OrderEntity;
+import me.jangluzniewicz.webstore.orders.entities.RatingEntity;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
+import me.jangluzniewicz.webstore.orderstatuses.entities.OrderStatusEntity;
+
+public class OrderProjection {
+  public static Projection<OrderEntity, OrderSummary> summary() {
+    return ((root, criteriaBuilder) -> {
+      Join<OrderEntity, OrderStatusEntity> status = root.join("status", JoinType.LEFT);
+      Join<OrderEntity, RatingEntity> rating = root.join("rating", JoinType.LEFT);
+      return criteriaBuilder.construct(
+          OrderSummary.class,
+          root.get("id"),
+          root.get("orderDate"),
+          root.get("statusChangeDate"),
+          root.get("customer").get("id"),
+          root.get("email"),
+          root.get("phoneNumber"),
+          status.get("id"),
+          status.get("name"),
+          rating.get("rating"),
+          root.get("total"));
+    });
+  }
+}
@@ -1,14 +1,31 @@
 package me.jangluzniewicz.webstore.orders.repositories;
 
 import me.jangluzniewicz.webstore.orders.entities.OrderEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface OrderRepository
     extends JpaRepository<OrderEntity, Long>, JpaSpecificationExecutor<OrderEntity> {
-  Page<OrderEntity> findAllByCustomerIdOrderByOrderDateAscIdAsc(Long customerId, Pageable pageable);
+  String TOTAL =
+      "(SELECT COALESCE(SUM(oi.price * oi.quantity), 0.00) FROM order_items oi "
+          + "WHERE oi.order_id = orders.id)";
 
   boolean existsByRatingIsNotNullAndId(Long id);
+
+  @Query("SELECT COALESCE(MAX(o.id), 0) FROM OrderEntity o")
+  long findMaxId();
+
+  /** Corrects the totals that drifted from their items within the id range {@code (from, to]}. */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE orders SET total = "
+              + TOTAL
+              + " WHERE id > :from AND id <= :to AND total <> "
+              + TOTAL,
+      nativeQuery = true)
+  int reconcileTotals(@Param("from") long from, @Param("to") long to);
 }
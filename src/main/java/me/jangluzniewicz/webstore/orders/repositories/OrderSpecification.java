@@ -23,7 +23,14 @@ public class OrderSpecification {
         predicates.add(
             criteriaBuilder.lessThanOrEqualTo(root.get("orderDate"), filter.getOrderDateBefore()));
       }
-      return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+      return predicates.isEmpty()
+          ? null
+          : criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     });
   }
+
+  public static Specification<OrderEntity> byCustomerId(Long customerId) {
+    return ((root, _, criteriaBuilder) ->
+        criteriaBuilder.equal(root.get("customer").get("id"), customerId));
+  }
 }
@@ -1,9 +1,18 @@
 package me.jangluzniewicz.webstore.orders.services;
 
 import jakarta.transaction.Transactional;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.ExportColumn;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.ConflictException;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.OrderStatusNotAllowedException;
@@ -13,28 +22,43 @@ import me.jangluzniewicz.webstore.orders.interfaces.IOrder;
 import me.jangluzniewicz.webstore.orders.mappers.OrderMapper;
 import me.jangluzniewicz.webstore.orders.models.Order;
 import me.jangluzniewicz.webstore.orders.models.OrderItem;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
 import me.jangluzniewicz.webstore.orders.models.Rating;
+import me.jangluzniewicz.webstore.orders.repositories.OrderProjection;
 import me.jangluzniewicz.webstore.orders.repositories.OrderRepository;
 import me.jangluzniewicz.webstore.orders.repositories.OrderSpecification;
 import me.jangluzniewicz.webstore.orderstatuses.interfaces.IOrderStatus;
 import me.jangluzniewicz.webstore.products.interfaces.IProduct;
 import me.jangluzniewicz.webstore.products.models.Product;
 import me.jangluzniewicz.webstore.users.interfaces.IUser;
-import org.springframework.data.domain.Page;
+import me.jangluzniewicz.webstore.users.models.User;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 @Service
 @Validated
 public class OrderService implements IOrder {
+  private static final List<ExportColumn<OrderSummary>> EXPORT_COLUMNS =
+      List.of(
+          new ExportColumn<>("id", OrderSummary::getId),
+          new ExportColumn<>("orderDate", OrderSummary::getOrderDate),
+          new ExportColumn<>("statusChangeDate", OrderSummary::getStatusChangeDate),
+          new ExportColumn<>("customerId", OrderSummary::getCustomerId),
+          new ExportColumn<>("email", OrderSummary::getEmail),
+          new ExportColumn<>("phoneNumber", OrderSummary::getPhoneNumber),
+          new ExportColumn<>(
+              "status", order -> order.getStatus() != null ? order.getStatus().getName() : null),
+          new ExportColumn<>("rating", OrderSummary::getRating),
+          new ExportColumn<>("total", OrderSummary::getTotal));
   private final OrderRepository orderRepository;
   private final IOrderStatus orderStatusService;
   private final IUser userService;
   private final IProduct productService;
   private final OrderMapper orderMapper;
+  private final IPaging pagingService;
+  private final IExport exportService;
   private static final Long ORDER_STATUS_COMPLETED_ID = 4L;
   private static final Long ORDER_STATUS_CANCELLED_ID = 3L;
 
@@ -43,45 +67,43 @@ public class OrderService implements IOrder {
       IUser userService,
       IProduct productService,
       IOrderStatus orderStatusService,
-      OrderMapper orderMapper) {
+      OrderMapper orderMapper,
+      IPaging pagingService,
+      IExport exportService) {
     this.orderRepository = orderRepository;
     this.userService = userService;
     this.productService = productService;
     this.orderStatusService = orderStatusService;
     this.orderMapper = orderMapper;
+    this.pagingService = pagingService;
+    this.exportService = exportService;
   }
 
   @Override
   @Transactional
   public IdResponse createNewOrder(OrderRequest orderRequest) {
+    User customer =
+        orderRequest.getCustomerId() != null
+            ? userService
+                .getUserById(orderRequest.getCustomerId())
+                .orElseThrow(
+                    () ->
+                        new NotFoundException(
+                            "User with id " + orderRequest.getCustomerId() + " not found"))
+            : userService
+                .getUserByEmail("GUEST")
+                .orElseThrow(() -> new NotFoundException("Guest user not found"));
+    Map<Long, Product> products = findProducts(orderRequest);
     Order order =
         Order.builder()
-            .customer(
-                orderRequest.getCustomerId() != null
-                    ? userService
-                        .getUserById(orderRequest.getCustomerId())
-                        .orElseThrow(
-                            () ->
-                                new NotFoundException(
-                                    "User with id " + orderRequest.getCustomerId() + " not found"))
-                    : userService
-                        .getUserByEmail("GUEST")
-                        .orElseThrow(() -> new NotFoundException("Guest user not found")))
+            .customer(customer)
             .email(orderRequest.getEmail())
             .phoneNumber(orderRequest.getPhoneNumber())
             .items(
                 orderRequest.getItems().stream()
                     .map(
                         orderItemRequest -> {
-                          Product product =
-                              productService
-                                  .getProductById(orderItemRequest.getProductId())
-                                  .orElseThrow(
-                                      () ->
-                                          new NotFoundException(
-                                              "Product with id "
-                                                  + orderItemRequest.getProductId()
-                                                  + " not found"));
+                          Product product = products.get(orderItemRequest.getProductId());
                           return OrderItem.builder()
                               .product(product)
                               .price(product.getPrice())
@@ -90,6 +112,7 @@ public class OrderService implements IOrder {
                         })
                     .toList())
             .build();
+    order.setTotal(total(order.getItems()));
     return new IdResponse(orderRepository.save(orderMapper.toEntity(order)).getId());
   }
 
@@ -99,30 +122,53 @@ public class OrderService implements IOrder {
   }
 
   @Override
-  public PagedResponse<Order> getOrdersByCustomerId(Long customerId, Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<Order> orders =
-        orderRepository
-            .findAllByCustomerIdOrderByOrderDateAscIdAsc(customerId, pageable)
-            .map(orderMapper::fromEntity);
-    return new PagedResponse<>(orders.getTotalPages(), orders.toList());
+  public PagedResponse<OrderSummary> getOrdersByCustomerId(
+      Long customerId, Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService.findPage(
+        OrderEntity.class,
+        OrderSummary.class,
+        OrderProjection.summary(),
+        OrderSpecification.byCustomerId(customerId),
+        PageRequest.of(page, size, Sort.by("orderDate", "id")),
+        pagingMode);
   }
 
   @Override
-  public PagedResponse<Order> getAllOrders(Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<Order> orders = orderRepository.findAll(pageable).map(orderMapper::fromEntity);
-    return new PagedResponse<>(orders.getTotalPages(), orders.toList());
+  public PagedResponse<OrderSummary> getAllOrders(
+      Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService.findPage(
+        OrderEntity.class,
+        OrderSummary.class,
+        OrderProjection.summary(),
+        null,
+        PageRequest.of(page, size, Sort.by("id")),
+        pagingMode);
   }
 
   @Override
-  public PagedResponse<Order> getFilteredOrders(
-      OrderFilterRequest filter, Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Specification<OrderEntity> specification = OrderSpecification.filterBy(filter);
-    Page<Order> orders =
-        orderRepository.findAll(specification, pageable).map(orderMapper::fromEntity);
-    return new PagedResponse<>(orders.getTotalPages(), orders.toList());
+  public PagedResponse<OrderSummary> getFilteredOrders(
+      OrderFilterRequest filter, Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService.findPage(
+        OrderEntity.class,
+        OrderSummary.class,
+        OrderProjection.summary(),
+        OrderSpecification.filterBy(filter),
+        PageRequest.of(page, size, Sort.by("id")),
+        pagingMode);
+  }
+
+  @Override
+  public long exportOrders(
+      OrderFilterRequest filter, ExportFormat format, OutputStream outputStream) {
+    return exportService.export(
+        OrderEntity.class,
+        OrderSummary.class,
+        OrderProjection.summary(),
+        OrderSpecification.filterBy(filter),
+        Sort.by("id"),
+        format,
+        EXPORT_COLUMNS,
+        outputStream);
   }
 
   @Override
@@ -138,19 +184,12 @@ public class OrderService implements IOrder {
                 () ->
                     new NotFoundException(
                         "User with id " + orderRequest.getCustomerId() + " not found")));
+    Map<Long, Product> products = findProducts(orderRequest);
     order.setItems(
         orderRequest.getItems().stream()
             .map(
                 orderItemRequest -> {
-                  Product product =
-                      productService
-                          .getProductById(orderItemRequest.getProductId())
-                          .orElseThrow(
-                              () ->
-                                  new NotFoundException(
-                                      "Product with id "
-                                          + orderItemRequest.getProductId()
-                                          + " not found"));
+                  Product product = products.get(orderItemRequest.getProductId());
                   return OrderItem.builder()
                       .id(orderItemRequest.getId())
                       .product(product)
@@ -159,6 +198,7 @@ public class OrderService implements IOrder {
                       .build();
                 })
             .toList());
+    order.setTotal(total(order.getItems()));
     orderRepository.save(orderMapper.toEntity(order));
   }
 
@@ -221,6 +261,25 @@ public class OrderService implements IOrder {
         .getId();
   }
 
+  /** Resolves all products of the order at once, reporting every missing one in one error. */
+  private Map<Long, Product> findProducts(OrderRequest orderRequest) {
+    List<Long> ids =
+        orderRequest.getItems().stream().map(OrderItemRequest::getProductId).distinct().toList();
+    Map<Long, Product> products = productService.getProductsByIds(ids, false);
+    List<Long> missingIds = ids.stream().filter(id -> !products.containsKey(id)).sorted().toList();
+    if (!missingIds.isEmpty()) {
+      throw new NotFoundException("Products with ids " + missingIds + " not found");
+    }
+    return products;
+  }
+
+  /** Sums the item prices captured when the order was placed, which later price changes keep. */
+  private static BigDecimal total(List<OrderItem> items) {
+    return items.stream()
+        .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+
   private boolean orderStatusCannotBeChanged(Order order) {
     Long currentStatusId = order.getStatus().getId();
     return currentStatusId.equals(ORDER_STATUS_COMPLETED_ID)
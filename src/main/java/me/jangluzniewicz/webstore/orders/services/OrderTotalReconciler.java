@@ -0,0 +1,53 @@
+package me.jangluzniewicz.webstore.orders.services;
+
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.orders.repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Corrects stored order totals that no longer match the prices and quantities of their items. Order
+ * totals are frozen when the order is placed, so a mismatch only arises from writes bypassing
+ * {@link OrderService}; the scheduled pass walks all orders in id ranges of {@code batch-size}.
+ */
+@Component
+@Slf4j
+public class OrderTotalReconciler {
+  private final OrderRepository orderRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+
+  public OrderTotalReconciler(
+      OrderRepository orderRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${totals.reconciliation.batch-size}") int batchSize) {
+    this.orderRepository = orderRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Corrects every drifted order total.
+   *
+   * @return the number of corrected orders.
+   */
+  @Scheduled(cron = "${totals.reconciliation.cron}")
+  public int reconcile() {
+    long maxId = orderRepository.findMaxId();
+    int corrected = 0;
+    for (long from = 0; from < maxId; from += batchSize) {
+      long lower = from;
+      Integer count =
+          transactionTemplate.execute(
+              _ -> orderRepository.reconcileTotals(lower, lower + batchSize));
+      corrected += count != null ? count : 0;
+    }
+    if (corrected > 0) {
+      log.warn("Corrected {} drifted order totals", corrected);
+    }
+    return corrected;
+  }
+}
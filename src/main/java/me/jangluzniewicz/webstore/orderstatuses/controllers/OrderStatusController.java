@@ -13,6 +13,7 @@ import jakarta.validation.Valid;
 import java.net.URI;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.orderstatuses.interfaces.IOrderStatus;
 import me.jangluzniewicz.webstore.orderstatuses.models.OrderStatus;
@@ -48,8 +49,15 @@ public class OrderStatusController {
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
-    return ResponseEntity.ok(orderStatusService.getAllOrderStatuses(page, size));
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging) {
+    return ResponseEntity.ok(
+        orderStatusService.getAllOrderStatuses(page, size, PagingMode.fromString(paging)));
   }
 
   @Operation(
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.orderstatuses.controllers.OrderStatusRequest;
 import me.jangluzniewicz.webstore.orderstatuses.models.OrderStatus;
 
@@ -33,10 +34,11 @@ public interface IOrderStatus {
    *
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of order statuses per page; must be a positive number.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
    * @return a {@link PagedResponse} containing the paginated list of order statuses.
    */
   PagedResponse<OrderStatus> getAllOrderStatuses(
-      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size);
+      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size, @NotNull PagingMode pagingMode);
 
   /**
    * Updates an existing order status.
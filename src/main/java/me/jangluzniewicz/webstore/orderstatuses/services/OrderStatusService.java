@@ -2,18 +2,22 @@ package me.jangluzniewicz.webstore.orderstatuses.services;
 
 import jakarta.transaction.Transactional;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.orderstatuses.controllers.OrderStatusRequest;
+import me.jangluzniewicz.webstore.orderstatuses.entities.OrderStatusEntity;
 import me.jangluzniewicz.webstore.orderstatuses.interfaces.IOrderStatus;
 import me.jangluzniewicz.webstore.orderstatuses.mappers.OrderStatusMapper;
 import me.jangluzniewicz.webstore.orderstatuses.models.OrderStatus;
 import me.jangluzniewicz.webstore.orderstatuses.repositories.OrderStatusRepository;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -22,11 +26,15 @@ import org.springframework.validation.annotation.Validated;
 public class OrderStatusService implements IOrderStatus {
   private final OrderStatusRepository orderStatusRepository;
   private final OrderStatusMapper orderStatusMapper;
+  private final IPaging pagingService;
 
   public OrderStatusService(
-      OrderStatusRepository orderStatusRepository, OrderStatusMapper orderStatusMapper) {
+      OrderStatusRepository orderStatusRepository,
+      OrderStatusMapper orderStatusMapper,
+      IPaging pagingService) {
     this.orderStatusRepository = orderStatusRepository;
     this.orderStatusMapper = orderStatusMapper;
+    this.pagingService = pagingService;
   }
 
   @Override
@@ -42,20 +50,23 @@ public class OrderStatusService implements IOrderStatus {
   }
 
   @Override
+  @Cacheable(value = "order-statuses", key = "#id", unless = "#result == null")
   public Optional<OrderStatus> getOrderStatusById(Long id) {
     return orderStatusRepository.findById(id).map(orderStatusMapper::fromEntity);
   }
 
   @Override
-  public PagedResponse<OrderStatus> getAllOrderStatuses(Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<OrderStatus> orderStatuses =
-        orderStatusRepository.findAll(pageable).map(orderStatusMapper::fromEntity);
-    return new PagedResponse<>(orderStatuses.getTotalPages(), orderStatuses.toList());
+  public PagedResponse<OrderStatus> getAllOrderStatuses(
+      Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService
+        .findPage(
+            OrderStatusEntity.class, null, PageRequest.of(page, size, Sort.by("id")), pagingMode)
+        .map(orderStatusMapper::fromEntity);
   }
 
   @Override
   @Transactional
+  @CacheEvict(value = "order-statuses", key = "#id")
   public void updateOrderStatus(Long id, OrderStatusRequest orderStatusRequest) {
     OrderStatus orderStatus =
         getOrderStatusById(id)
@@ -71,6 +82,7 @@ public class OrderStatusService implements IOrderStatus {
 
   @Override
   @Transactional
+  @CacheEvict(value = "order-statuses", key = "#id")
   public void deleteOrderStatus(Long id) {
     if (!orderStatusRepository.existsById(id)) {
       throw new NotFoundException("Order status with id " + id + " not found");
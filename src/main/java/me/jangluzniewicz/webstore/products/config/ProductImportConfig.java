@@ -0,0 +1,30 @@
+package me.jangluzniewicz.webstore.products.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ProductImportConfig {
+  private final Integer poolSize;
+  private final Integer queueCapacity;
+
+  public ProductImportConfig(
+      @Value("${products.import.executor.pool-size}") Integer poolSize,
+      @Value("${products.import.executor.queue-capacity}") Integer queueCapacity) {
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor productImportExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("product-import-");
+    executor.setWaitForTasksToCompleteOnShutdown(false);
+    return executor;
+  }
+}
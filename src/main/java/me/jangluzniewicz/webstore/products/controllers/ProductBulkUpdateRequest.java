@@ -0,0 +1,45 @@
+package me.jangluzniewicz.webstore.products.controllers;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Schema(
+    description =
+        "Payload for changing the price, category or weight of several products at once. Exactly"
+            + " one of ids and filter selects the products")
+@AllArgsConstructor
+@Getter
+public class ProductBulkUpdateRequest {
+  @Schema(description = "IDs of the products to update", example = "[1, 2, 3]", nullable = true)
+  private List<@NotNull @Min(value = 1, message = "ids must be positive numbers") Long> ids;
+
+  @Schema(description = "Filter selecting the products to update", nullable = true)
+  @Valid
+  private ProductFilterRequest filter;
+
+  @Schema(description = "New price of the products", example = "49.99", nullable = true)
+  @DecimalMin(value = "0.0", message = "price cannot be negative")
+  private BigDecimal price;
+
+  @Schema(
+      description = "Change of the current prices in percent, rounded to cents",
+      example = "5",
+      nullable = true)
+  @DecimalMin(value = "-100.0", message = "priceChangePercent cannot be lower than -100")
+  private BigDecimal priceChangePercent;
+
+  @Schema(description = "New weight of the products", example = "1.5", nullable = true)
+  @DecimalMin(value = "0.0", message = "weight cannot be negative")
+  private BigDecimal weight;
+
+  @Schema(description = "ID of the new category of the products", example = "2", nullable = true)
+  @Min(value = 1, message = "categoryId must be a positive number")
+  private Long categoryId;
+}
@@ -3,6 +3,7 @@ package me.jangluzniewicz.webstore.products.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -11,47 +12,231 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.commons.models.CursorPagedResponse;
+import me.jangluzniewicz.webstore.commons.models.EntityTag;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.products.interfaces.IProduct;
+import me.jangluzniewicz.webstore.products.interfaces.IProductBulk;
+import me.jangluzniewicz.webstore.products.interfaces.IProductImport;
+import me.jangluzniewicz.webstore.products.models.FacetedProductPage;
 import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductBulkResult;
+import me.jangluzniewicz.webstore.products.models.ProductFacets;
+import me.jangluzniewicz.webstore.products.models.ProductImportJob;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import me.jangluzniewicz.webstore.products.repositories.ProductVersionView;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Products", description = "Operations related to products")
 @RestController
 @RequestMapping("/products")
 public class ProductController {
+  private static final int MAX_IDS = 100;
   private final IProduct productService;
+  private final IProductImport productImportService;
+  private final IProductBulk productBulkService;
+  private final IAwsS3 awsS3;
 
-  public ProductController(IProduct productService) {
+  public ProductController(
+      IProduct productService,
+      IProductImport productImportService,
+      IProductBulk productBulkService,
+      IAwsS3 awsS3) {
     this.productService = productService;
+    this.productImportService = productImportService;
+    this.productBulkService = productBulkService;
+    this.awsS3 = awsS3;
   }
 
   @Operation(
       summary = "Get products",
-      description = "Returns a paginated list of products based on provided filter criteria")
+      description =
+          "Returns a paginated list of products based on provided filter criteria, optionally"
+              + " with the product counts per category and price bucket")
   @ApiResponse(
       responseCode = "200",
       description = "List of products",
       content =
           @Content(
               mediaType = MediaType.APPLICATION_JSON_VALUE,
-              schema = @Schema(implementation = PagedResponse.class)))
+              schema = @Schema(implementation = FacetedProductPage.class)))
+  @ApiResponse(
+      responseCode = "304",
+      description = "Not modified since the ETag given in If-None-Match",
+      content = @Content)
   @GetMapping
-  public ResponseEntity<PagedResponse<Product>> getProducts(
+  public ResponseEntity<PagedResponse<ProductSummary>> getProducts(
       @Valid @ModelAttribute ProductFilterRequest filterRequest,
       @Parameter(in = ParameterIn.QUERY, description = "Page number", example = "0")
           @RequestParam(defaultValue = "0")
           Integer page,
+      @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
+          @RequestParam(defaultValue = "20")
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description =
+                  "Whether to include product counts per category and price bucket; omitted when"
+                      + " they cannot be computed for the filter",
+              example = "false")
+          @RequestParam(defaultValue = "false")
+          Boolean facets,
+      WebRequest webRequest) {
+    PagingMode pagingMode = PagingMode.fromString(paging);
+    Optional<ProductFacets> productFacets =
+        facets ? productService.getProductFacets(filterRequest) : Optional.empty();
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        && webRequest.checkNotModified(
+            pageTag(
+                productService.getFilteredProductVersions(filterRequest, page, size, pagingMode),
+                productFacets))) {
+      return null;
+    }
+    PagedResponse<ProductSummary> productPage =
+        productService.getFilteredProducts(filterRequest, page, size, pagingMode);
+    PagedResponse<ProductSummary> response =
+        productFacets
+            .<PagedResponse<ProductSummary>>map(
+                facetsFound -> new FacetedProductPage(productPage, facetsFound))
+            .orElse(productPage);
+    return ResponseEntity.ok()
+        .eTag(pageTag(productPage.map(ProductController::versionOf), productFacets))
+        .body(response);
+  }
+
+  @Operation(
+      summary = "Get products by cursor",
+      description =
+          "Returns a cursor-paginated list of products based on provided filter criteria. Pass an"
+              + " empty cursor to retrieve the first page and the returned nextCursor to retrieve"
+              + " the following ones")
+  @ApiResponse(
+      responseCode = "200",
+      description = "List of products",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = CursorPagedResponse.class)))
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPagedResponse<ProductSummary>> getProductsByCursor(
+      @Valid @ModelAttribute ProductFilterRequest filterRequest,
+      @Parameter(in = ParameterIn.QUERY, description = "Cursor of the page", example = "")
+          @RequestParam
+          String cursor,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Sort key (id, price or name)",
+              example = "price")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(in = ParameterIn.QUERY, description = "Sort direction", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
           Integer size) {
-    return ResponseEntity.ok(productService.getFilteredProducts(filterRequest, page, size));
+    return ResponseEntity.ok(
+        productService.getFilteredProductsByCursor(
+            filterRequest,
+            cursor,
+            ProductSortKey.fromString(sort),
+            Sort.Direction.fromString(direction),
+            size));
+  }
+
+  @Operation(
+      summary = "Get products by IDs",
+      description =
+          "Returns the products with the given IDs in the requested order, resolved in a single"
+              + " query; IDs of products that do not exist are skipped")
+  @ApiResponse(
+      responseCode = "200",
+      description = "List of found products",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              array = @ArraySchema(schema = @Schema(implementation = Product.class))))
+  @ApiResponse(responseCode = "400", description = "Too many IDs", content = @Content)
+  @ApiResponse(
+      responseCode = "304",
+      description = "Not modified since the ETag given in If-None-Match",
+      content = @Content)
+  @GetMapping(params = "ids")
+  public ResponseEntity<List<Product>> getProductsByIds(
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "IDs of the products, at most " + MAX_IDS,
+              example = "1,2,3")
+          @RequestParam
+          List<Long> ids) {
+    if (ids.size() > MAX_IDS) {
+      throw new IllegalArgumentException("At most " + MAX_IDS + " ids can be requested at once");
+    }
+    Map<Long, Product> found = productService.getProductsByIds(ids, true);
+    List<Product> products =
+        ids.stream().distinct().map(found::get).filter(Objects::nonNull).toList();
+    EntityTag entityTag = EntityTag.builder().add(awsS3.getUrlGeneration());
+    products.forEach(product -> addProduct(entityTag, versionOf(product)));
+    return ResponseEntity.ok().eTag(entityTag.build()).body(products);
+  }
+
+  @Operation(
+      summary = "Export products",
+      description =
+          "Streams all products matching the filter criteria as CSV or NDJSON without paging (ADMIN only)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Exported products",
+      content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")})
+  @ApiResponse(responseCode = "400", description = "Invalid export format", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @Valid @ModelAttribute ProductFilterRequest filterRequest,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Export format (csv or ndjson)",
+              example = "csv")
+          @RequestParam(defaultValue = "csv")
+          String format) {
+    ExportFormat exportFormat = ExportFormat.fromString(format);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment()
+                .filename("products." + exportFormat.getValue())
+                .build()
+                .toString())
+        .body(
+            outputStream ->
+                productService.exportProducts(filterRequest, exportFormat, outputStream));
   }
 
   @Operation(
@@ -65,14 +250,28 @@ public class ProductController {
               mediaType = MediaType.APPLICATION_JSON_VALUE,
               schema = @Schema(implementation = Product.class)))
   @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+  @ApiResponse(
+      responseCode = "304",
+      description = "Not modified since the ETag given in If-None-Match",
+      content = @Content)
   @GetMapping("/{id}")
   public ResponseEntity<Product> getProduct(
       @Parameter(in = ParameterIn.PATH, description = "Product ID", required = true, example = "1")
           @PathVariable
-          Long id) {
+          Long id,
+      WebRequest webRequest) {
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+      ProductVersionView version =
+          productService
+              .getProductVersion(id)
+              .orElseThrow(() -> new NotFoundException("Product not found"));
+      if (webRequest.checkNotModified(productTag(version))) {
+        return null;
+      }
+    }
     return productService
         .getProductById(id)
-        .map(ResponseEntity::ok)
+        .map(product -> ResponseEntity.ok().eTag(productTag(versionOf(product))).body(product))
         .orElseThrow(() -> new NotFoundException("Product not found"));
   }
 
@@ -104,19 +303,78 @@ public class ProductController {
   @Operation(
       summary = "Import products from CSV",
       description =
-          "Creates multiple products by importing data from a CSV file (requires ADMIN role)",
+          "Starts a background job creating multiple products from a CSV file (requires ADMIN"
+              + " role)",
       security = @SecurityRequirement(name = "bearerAuth"))
-  @ApiResponse(responseCode = "204", description = "Products created from CSV", content = @Content)
+  @ApiResponse(
+      responseCode = "202",
+      description = "Import job started",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = ProductImportJob.class)))
+  @ApiResponse(
+      responseCode = "409",
+      description = "Too many imports in progress",
+      content = @Content)
   @PreAuthorize("hasRole('ADMIN')")
   @PostMapping("/import/csv")
-  public ResponseEntity<Void> createProductsFromCsv(
+  public ResponseEntity<ProductImportJob> createProductsFromCsv(
       @Parameter(
               in = ParameterIn.QUERY,
               description = "CSV file containing product data",
               required = true)
           @RequestParam("file")
           MultipartFile file) {
-    productService.createNewProductsFromCsv(file);
+    ProductImportJob job = productImportService.startCsvImport(file);
+    return ResponseEntity.accepted()
+        .location(URI.create("/products/import/" + job.getId()))
+        .body(job);
+  }
+
+  @Operation(
+      summary = "Get import job",
+      description =
+          "Returns the progress and the rejected rows of a product import job (requires ADMIN"
+              + " role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Import job found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = ProductImportJob.class)))
+  @ApiResponse(responseCode = "404", description = "Import job not found", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/import/{jobId}")
+  public ResponseEntity<ProductImportJob> getImportJob(
+      @Parameter(in = ParameterIn.PATH, description = "Import job ID", required = true)
+          @PathVariable
+          UUID jobId) {
+    return productImportService
+        .getImportJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElseThrow(() -> new NotFoundException("Import job not found"));
+  }
+
+  @Operation(
+      summary = "Cancel import job",
+      description = "Cancels a queued or running product import job (requires ADMIN role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(responseCode = "204", description = "Import job cancelled", content = @Content)
+  @ApiResponse(responseCode = "404", description = "Import job not found", content = @Content)
+  @ApiResponse(
+      responseCode = "409",
+      description = "Import job has already finished",
+      content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @DeleteMapping("/import/{jobId}")
+  public ResponseEntity<Void> cancelImportJob(
+      @Parameter(in = ParameterIn.PATH, description = "Import job ID", required = true)
+          @PathVariable
+          UUID jobId) {
+    productImportService.cancelImportJob(jobId);
     return ResponseEntity.noContent().build();
   }
 
@@ -143,6 +401,64 @@ public class ProductController {
     return ResponseEntity.noContent().build();
   }
 
+  @Operation(
+      summary = "Update products in bulk",
+      description =
+          "Changes the price, category or weight of the products selected by IDs or by a filter"
+              + " in one transaction (requires ADMIN role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Outcome for every selected product",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = ProductBulkResult.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "Invalid selection or too many products",
+      content = @Content)
+  @ApiResponse(responseCode = "404", description = "Category not found", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @PatchMapping
+  public ResponseEntity<ProductBulkResult> updateProducts(
+      @RequestBody(
+              description = "Bulk update payload",
+              required = true,
+              content = @Content(schema = @Schema(implementation = ProductBulkUpdateRequest.class)))
+          @Valid
+          @org.springframework.web.bind.annotation.RequestBody
+          ProductBulkUpdateRequest request) {
+    return ResponseEntity.ok(productBulkService.updateProducts(request));
+  }
+
+  @Operation(
+      summary = "Delete products in bulk",
+      description =
+          "Deletes the products with the given IDs in one transaction; products that are part of"
+              + " an order or a cart are kept and reported as conflicts (requires ADMIN role)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Outcome for every requested product",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = ProductBulkResult.class)))
+  @ApiResponse(responseCode = "400", description = "Too many products", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @DeleteMapping
+  public ResponseEntity<ProductBulkResult> deleteProducts(
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "IDs of the products to delete",
+              required = true,
+              example = "1,2,3")
+          @RequestParam
+          List<Long> ids) {
+    return ResponseEntity.ok(productBulkService.deleteProducts(ids));
+  }
+
   @Operation(
       summary = "Delete product",
       description = "Deletes a product by its ID (requires ADMIN role)",
@@ -162,4 +478,44 @@ public class ProductController {
     productService.deleteProduct(id);
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Tags a product by its version and its category's, and by the generation of the signed image
+   * URLs, so the tag can be computed without loading the product or signing its URLs.
+   */
+  private String productTag(ProductVersionView version) {
+    return addProduct(EntityTag.builder().add(awsS3.getUrlGeneration()), version).build();
+  }
+
+  private String pageTag(
+      PagedResponse<ProductVersionView> page, Optional<ProductFacets> productFacets) {
+    EntityTag entityTag = EntityTag.builder().add(awsS3.getUrlGeneration()).addPage(page);
+    page.getContent().forEach(version -> addProduct(entityTag, version));
+    productFacets.ifPresent(entityTag::add);
+    return entityTag.build();
+  }
+
+  private static EntityTag addProduct(EntityTag entityTag, ProductVersionView version) {
+    return entityTag
+        .add(version.id())
+        .add(version.version())
+        .add(version.categoryId())
+        .add(version.categoryVersion());
+  }
+
+  private static ProductVersionView versionOf(Product product) {
+    return new ProductVersionView(
+        product.getId(),
+        product.getVersion(),
+        product.getCategory().getId(),
+        product.getCategory().getVersion());
+  }
+
+  private static ProductVersionView versionOf(ProductSummary product) {
+    return new ProductVersionView(
+        product.getId(),
+        product.getVersion(),
+        product.getCategory().getId(),
+        product.getCategory().getVersion());
+  }
 }
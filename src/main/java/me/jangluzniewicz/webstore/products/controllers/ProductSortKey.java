@@ -0,0 +1,28 @@
+package me.jangluzniewicz.webstore.products.controllers;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Arrays;
+
+@Schema(description = "Attribute by which products can be sorted")
+public enum ProductSortKey {
+  ID("id"),
+  PRICE("price"),
+  NAME("name");
+
+  private final String property;
+
+  ProductSortKey(String property) {
+    this.property = property;
+  }
+
+  public String getProperty() {
+    return property;
+  }
+
+  public static ProductSortKey fromString(String value) {
+    return Arrays.stream(values())
+        .filter(sortKey -> sortKey.property.equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Invalid sort key: " + value));
+  }
+}
@@ -16,7 +16,8 @@ import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
 @Table(name = "products")
 public class ProductEntity {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @Column(name = "image_uri")
@@ -39,4 +40,8 @@ public class ProductEntity {
   @JoinColumn(name = "category_id", nullable = false)
   @NonNull
   private CategoryEntity category;
+
+  @Version
+  @Column(nullable = false)
+  private Long version;
 }
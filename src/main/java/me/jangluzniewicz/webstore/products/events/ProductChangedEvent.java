@@ -0,0 +1,11 @@
+package me.jangluzniewicz.webstore.products.events;
+
+import java.util.Collection;
+
+/**
+ * Published when products are created, updated or deleted.
+ *
+ * @param productIds the IDs of the changed products.
+ * @param categoryIds the IDs of the categories the products belonged to before or after the change.
+ */
+public record ProductChangedEvent(Collection<Long> productIds, Collection<Long> categoryIds) {}
@@ -2,13 +2,23 @@ package me.jangluzniewicz.webstore.products.interfaces;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.models.CursorPagedResponse;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
 import me.jangluzniewicz.webstore.products.models.Product;
-import org.springframework.web.multipart.MultipartFile;
+import me.jangluzniewicz.webstore.products.models.ProductFacets;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import me.jangluzniewicz.webstore.products.repositories.ProductVersionView;
+import org.springframework.data.domain.Sort;
 
 /** Interface for managing products. */
 public interface IProduct {
@@ -22,13 +32,6 @@ public interface IProduct {
    */
   IdResponse createNewProduct(@NotNull ProductRequest productRequest);
 
-  /**
-   * Creates new products from a CSV file.
-   *
-   * @param file the CSV file containing the product details; must not be null.
-   */
-  void createNewProductsFromCsv(@NotNull MultipartFile file);
-
   /**
    * Updates an existing product.
    *
@@ -46,17 +49,108 @@ public interface IProduct {
    */
   Optional<Product> getProductById(@NotNull @Min(1) Long id);
 
+  /**
+   * Retrieves the versions that identify the current state of a product without loading it.
+   *
+   * @param id the ID of the product; must be a positive number.
+   * @return an {@link Optional} containing the {@link ProductVersionView} if found, or empty if not
+   *     found.
+   */
+  Optional<ProductVersionView> getProductVersion(@NotNull @Min(1) Long id);
+
+  /**
+   * Retrieves products by their IDs in a single query, fetching their categories with them.
+   *
+   * @param ids the IDs of the products to be retrieved; must not be null.
+   * @param signUrls whether to sign the image URLs of the products; references resolved for carts
+   *     and orders do not need them.
+   * @return a {@link Map} of the found products keyed by their IDs; IDs of products that do not
+   *     exist are absent from the map.
+   */
+  Map<Long, Product> getProductsByIds(@NotNull Collection<@NotNull Long> ids, boolean signUrls);
+
+  /**
+   * Retrieves products by their IDs from the product cache, loading the missing ones in a single
+   * query. The products may lag behind committed changes made on other instances, so they are meant
+   * for display only.
+   *
+   * @param ids the IDs of the products to be retrieved; must not be null.
+   * @param signUrls whether to sign the image URLs of the products.
+   * @return a {@link Map} of the found products keyed by their IDs; IDs of products that do not
+   *     exist are absent from the map.
+   */
+  Map<Long, Product> getCachedProductsByIds(
+      @NotNull Collection<@NotNull Long> ids, boolean signUrls);
+
   /**
    * Retrieves filtered products with pagination.
    *
    * @param filter the filter criteria for retrieving products; must not be null.
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of products per page; must be a positive number.
-   * @return a {@link PagedResponse} containing the paginated list of filtered products.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the paginated list of filtered product summaries.
    */
-  PagedResponse<Product> getFilteredProducts(
+  PagedResponse<ProductSummary> getFilteredProducts(
       @NotNull ProductFilterRequest filter,
       @NotNull @Min(0) Integer page,
+      @NotNull @Min(1) Integer size,
+      @NotNull PagingMode pagingMode);
+
+  /**
+   * Retrieves the versions of the filtered products on a page, selecting the same products and
+   * totals as {@link #getFilteredProducts} without mapping them or signing their URLs.
+   *
+   * @param filter the filter criteria for retrieving products; must not be null.
+   * @param page the page number to retrieve; must be a non-negative number.
+   * @param size the number of products per page; must be a positive number.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the versions of the products on the page.
+   */
+  PagedResponse<ProductVersionView> getFilteredProductVersions(
+      @NotNull ProductFilterRequest filter,
+      @NotNull @Min(0) Integer page,
+      @NotNull @Min(1) Integer size,
+      @NotNull PagingMode pagingMode);
+
+  /**
+   * Counts the products matching the filter per category and per price bucket.
+   *
+   * @param filter the filter criteria of the counted products; must not be null.
+   * @return an {@link Optional} containing the {@link ProductFacets}, or empty if the facets cannot
+   *     be computed for this filter.
+   */
+  Optional<ProductFacets> getProductFacets(@NotNull ProductFilterRequest filter);
+
+  /**
+   * Streams the filtered products to an output stream without paging.
+   *
+   * @param filter the filter criteria for exporting products; must not be null.
+   * @param format the format of the export; must not be null.
+   * @param outputStream the stream the products are written to; must not be null.
+   * @return the number of exported products.
+   */
+  long exportProducts(
+      @NotNull ProductFilterRequest filter,
+      @NotNull ExportFormat format,
+      @NotNull OutputStream outputStream);
+
+  /**
+   * Retrieves filtered products using keyset (cursor) pagination.
+   *
+   * @param filter the filter criteria for retrieving products; must not be null.
+   * @param cursor the cursor returned with the previous page, or null to retrieve the first page.
+   * @param sortKey the attribute by which products are sorted; must not be null.
+   * @param direction the sort direction; must not be null.
+   * @param size the number of products per page; must be a positive number.
+   * @return a {@link CursorPagedResponse} containing the product summaries and the cursor of the
+   *     next page.
+   */
+  CursorPagedResponse<ProductSummary> getFilteredProductsByCursor(
+      @NotNull ProductFilterRequest filter,
+      String cursor,
+      @NotNull ProductSortKey sortKey,
+      @NotNull Sort.Direction direction,
       @NotNull @Min(1) Integer size);
 
   /**
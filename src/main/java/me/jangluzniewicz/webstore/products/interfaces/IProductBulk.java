@@ -0,0 +1,26 @@
+package me.jangluzniewicz.webstore.products.interfaces;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import me.jangluzniewicz.webstore.products.controllers.ProductBulkUpdateRequest;
+import me.jangluzniewicz.webstore.products.models.ProductBulkResult;
+
+/** Interface for changing many products with set-based statements. */
+public interface IProductBulk {
+  /**
+   * Changes the price, category or weight of the products selected by IDs or by a filter.
+   *
+   * @param request the products to update and the changes to apply; must not be null.
+   * @return a {@link ProductBulkResult} with the outcome for every selected or requested product.
+   */
+  ProductBulkResult updateProducts(@NotNull ProductBulkUpdateRequest request);
+
+  /**
+   * Deletes the products with the given IDs. Products that are part of an order or a cart are kept
+   * and reported as conflicts.
+   *
+   * @param ids the IDs of the products to delete; must not be null.
+   * @return a {@link ProductBulkResult} with the outcome for every requested product.
+   */
+  ProductBulkResult deleteProducts(@NotNull List<@NotNull Long> ids);
+}
@@ -0,0 +1,34 @@
+package me.jangluzniewicz.webstore.products.interfaces;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.Optional;
+import java.util.UUID;
+import me.jangluzniewicz.webstore.products.models.ProductImportJob;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface IProductImport {
+  /**
+   * Starts a background job creating new products from a CSV file.
+   *
+   * @param file the CSV file containing the product details; must not be null.
+   * @return a {@link ProductImportJob} describing the queued job.
+   */
+  ProductImportJob startCsvImport(@NotNull MultipartFile file);
+
+  /**
+   * Retrieves the current progress of an import job.
+   *
+   * @param id the ID of the import job; must not be null.
+   * @return an {@link Optional} containing the {@link ProductImportJob} if found, or empty if not
+   *     found.
+   */
+  Optional<ProductImportJob> getImportJob(@NotNull UUID id);
+
+  /**
+   * Cancels an import job. A running job stops after the chunk it is currently importing, keeping
+   * the products created so far.
+   *
+   * @param id the ID of the import job; must not be null.
+   */
+  void cancelImportJob(@NotNull UUID id);
+}
@@ -1,11 +1,15 @@
 package me.jangluzniewicz.webstore.products.mappers;
 
+import me.jangluzniewicz.webstore.categories.mappers.CategoryMapper;
 import me.jangluzniewicz.webstore.products.entities.ProductEntity;
 import me.jangluzniewicz.webstore.products.models.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = CategoryMapper.class)
 public interface ProductMapper {
+  @Mapping(target = "imageUrl", ignore = true)
+  @Mapping(target = "imageVariantUrls", ignore = true)
   Product fromEntity(ProductEntity entity);
 
   ProductEntity toEntity(Product model);
@@ -0,0 +1,20 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Number of products in a category matching the other filter criteria")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class CategoryFacet {
+  @Schema(description = "Unique identifier of the category", example = "1")
+  private Long categoryId;
+
+  @Schema(description = "Number of matching products", example = "42")
+  private Long count;
+}
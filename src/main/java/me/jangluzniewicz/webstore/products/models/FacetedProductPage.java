@@ -0,0 +1,23 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+
+@Schema(description = "Paginated list of products together with the facet counts of the filter")
+@Getter
+public class FacetedProductPage extends PagedResponse<ProductSummary> {
+  @Schema(description = "Facet counts of the filter")
+  private final ProductFacets facets;
+
+  public FacetedProductPage(PagedResponse<ProductSummary> page, ProductFacets facets) {
+    super(
+        page.getPagingMode(),
+        page.getTotalPages(),
+        page.getTotalElements(),
+        page.getTotalElementsCapped(),
+        page.getHasNext(),
+        page.getContent());
+    this.facets = facets;
+  }
+}
@@ -0,0 +1,27 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import lombok.*;
+
+@Schema(description = "Number of products in a price bucket matching the other filter criteria")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class PriceFacet {
+  @Schema(description = "Inclusive lower bound of the bucket", example = "100.00")
+  private BigDecimal priceFrom;
+
+  @Schema(
+      description = "Exclusive upper bound of the bucket; null for the last bucket",
+      example = "250.00",
+      nullable = true)
+  private BigDecimal priceTo;
+
+  @Schema(description = "Number of matching products", example = "17")
+  private Long count;
+}
@@ -3,6 +3,7 @@ package me.jangluzniewicz.webstore.products.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
+import java.util.Map;
 import lombok.*;
 import me.jangluzniewicz.webstore.categories.models.Category;
 
@@ -14,7 +15,7 @@ import me.jangluzniewicz.webstore.categories.models.Category;
 @Setter
 @ToString
 @EqualsAndHashCode
-@Builder
+@Builder(toBuilder = true)
 public class Product {
   @Schema(description = "Unique identifier of the product", example = "1")
   private Long id;
@@ -26,6 +27,11 @@ public class Product {
   @Schema(description = "Image URL of the product")
   private String imageUrl;
 
+  @Schema(
+      description = "Image URLs of the resized variants, by variant name",
+      example = "{\"thumbnail\": \"https://...\"}")
+  private Map<String, String> imageVariantUrls;
+
   @NonNull
   @Schema(description = "Name of the product", example = "Mountain Bike")
   private String name;
@@ -46,4 +52,8 @@ public class Product {
   @NonNull
   @Schema(description = "Category to which the product belongs")
   private Category category;
+
+  @JsonIgnore
+  @Schema(description = "Version of the product, incremented on every update")
+  private Long version;
 }
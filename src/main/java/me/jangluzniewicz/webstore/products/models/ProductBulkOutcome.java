@@ -0,0 +1,20 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Outcome of a bulk operation for a single product")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class ProductBulkOutcome {
+  @Schema(description = "Unique identifier of the product", example = "1")
+  private Long id;
+
+  @Schema(description = "Outcome for the product", example = "UPDATED")
+  private ProductBulkStatus status;
+}
@@ -0,0 +1,18 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.*;
+
+@Schema(description = "Per-product outcomes of a bulk update or delete")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class ProductBulkResult {
+  @Schema(description = "Outcome for every requested product, ordered by product ID")
+  private List<ProductBulkOutcome> results;
+}
@@ -0,0 +1,11 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a bulk operation for a single product")
+public enum ProductBulkStatus {
+  UPDATED,
+  DELETED,
+  NOT_FOUND,
+  CONFLICT
+}
@@ -0,0 +1,25 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.*;
+
+@Schema(
+    description =
+        "Product counts per category and price bucket. Each facet applies every filter criterion"
+            + " except its own, so that the counts show how many products selecting another value"
+            + " would return")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class ProductFacets {
+  @Schema(description = "Counts per category; categories without matching products are omitted")
+  private List<CategoryFacet> categories;
+
+  @Schema(description = "Counts per price bucket in ascending order")
+  private List<PriceFacet> prices;
+}
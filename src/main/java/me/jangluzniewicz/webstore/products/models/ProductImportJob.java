@@ -0,0 +1,66 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.*;
+import me.jangluzniewicz.webstore.commons.models.CsvRowError;
+
+@Schema(description = "Model representing the progress of a product import job")
+@AllArgsConstructor
+@Getter
+@ToString
+@Builder
+public class ProductImportJob {
+  @NonNull
+  @Schema(
+      description = "Unique identifier of the job",
+      example = "3f6c1d2e-8a4b-4c1e-9f0a-5b7d2e1c4a90")
+  private UUID id;
+
+  @NonNull
+  @Schema(description = "Current status of the job", example = "RUNNING")
+  private ProductImportStatus status;
+
+  @Schema(description = "Name of the imported file", example = "products.csv", nullable = true)
+  private String fileName;
+
+  @NonNull
+  @Schema(description = "Number of rows read so far", example = "1500")
+  private Long rowsProcessed;
+
+  @NonNull
+  @Schema(description = "Number of products created so far", example = "1498")
+  private Long rowsImported;
+
+  @NonNull
+  @Schema(description = "Number of rows rejected so far", example = "2")
+  private Long rowsFailed;
+
+  @NonNull
+  @Schema(description = "Average number of rows processed per second", example = "850.5")
+  private Double rowsPerSecond;
+
+  @NonNull
+  @Schema(description = "Details of the rejected rows, limited to the first reported errors")
+  private List<CsvRowError> failedRows;
+
+  @NonNull
+  @Schema(
+      description = "IDs of the categories referenced by rows but not found",
+      example = "[7, 12]")
+  private List<Long> unknownCategoryIds;
+
+  @Schema(
+      description = "Reason why the whole job failed",
+      example = "Error while reading CSV file",
+      nullable = true)
+  private String error;
+
+  @Schema(description = "Time when the job started", nullable = true)
+  private LocalDateTime startedAt;
+
+  @Schema(description = "Time when the job finished", nullable = true)
+  private LocalDateTime finishedAt;
+}
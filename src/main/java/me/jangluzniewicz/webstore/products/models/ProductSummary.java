@@ -0,0 +1,78 @@
+package me.jangluzniewicz.webstore.products.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.Map;
+import lombok.*;
+import me.jangluzniewicz.webstore.categories.models.Category;
+
+@Schema(description = "Model representing a product in a product listing")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder(toBuilder = true)
+public class ProductSummary {
+  @Schema(description = "Unique identifier of the product", example = "1")
+  private Long id;
+
+  @JsonIgnore
+  @Schema(description = "Image URI of the product")
+  private String imageUri;
+
+  @Schema(description = "Image URL of the product")
+  private String imageUrl;
+
+  @Schema(
+      description = "Image URLs of the resized variants, by variant name",
+      example = "{\"thumbnail\": \"https://...\"}")
+  private Map<String, String> imageVariantUrls;
+
+  @Schema(description = "Name of the product", example = "Mountain Bike")
+  private String name;
+
+  @Schema(description = "Price of the product", example = "299.99")
+  private BigDecimal price;
+
+  @Schema(description = "Weight of the product", example = "15.5")
+  private BigDecimal weight;
+
+  @Schema(description = "Category to which the product belongs")
+  private Category category;
+
+  @JsonIgnore
+  @Schema(description = "Version of the product, incremented on every update")
+  private Long version;
+
+  /** Builds a listing row from the columns selected by a projection query. */
+  public ProductSummary(
+      Long id,
+      String imageUri,
+      String name,
+      BigDecimal price,
+      BigDecimal weight,
+      Long version,
+      Long categoryId,
+      String categoryImageUri,
+      String categoryName,
+      Long categoryVersion) {
+    this(
+        id,
+        imageUri,
+        null,
+        null,
+        name,
+        price,
+        weight,
+        Category.builder()
+            .id(categoryId)
+            .imageUri(categoryImageUri)
+            .name(categoryName)
+            .version(categoryVersion)
+            .build(),
+        version);
+  }
+}
@@ -0,0 +1,3 @@
+package me.jangluzniewicz.webstore.products.repositories;
+
+public record ProductBulkView(Long id, Long categoryId, String imageUri) {}
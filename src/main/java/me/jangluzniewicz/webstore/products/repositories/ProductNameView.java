@@ -0,0 +1,7 @@
+package me.jangluzniewicz.webstore.products.repositories;
+
+public interface ProductNameView {
+  Long getId();
+
+  String getName();
+}
@@ -0,0 +1,66 @@
+package me.jangluzniewicz.webstore.products.repositories;
+
+import jakarta.persistence.criteria.Path;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+
+public class ProductProjection {
+  public static Projection<ProductEntity, ProductSummary> summary() {
+    return ((root, criteriaBuilder) -> {
+      Path<Object> category = root.get("category");
+      return criteriaBuilder.construct(
+          ProductSummary.class,
+          root.get("id"),
+          root.get("imageUri"),
+          root.get("name"),
+          root.get("price"),
+          root.get("weight"),
+          root.get("version"),
+          category.get("id"),
+          category.get("imageUri"),
+          category.get("name"),
+          category.get("version"));
+    });
+  }
+
+  public static Projection<ProductEntity, ProductFacetView> facetView() {
+    return ((root, criteriaBuilder) ->
+        criteriaBuilder.construct(
+            ProductFacetView.class,
+            root.get("id"),
+            root.get("category").get("id"),
+            root.get("price")));
+  }
+
+  public static Projection<ProductEntity, ProductSnapshotView> snapshotView() {
+    return ((root, criteriaBuilder) ->
+        criteriaBuilder.construct(
+            ProductSnapshotView.class,
+            root.get("id"),
+            root.get("category").get("id"),
+            root.get("price"),
+            root.get("name")));
+  }
+
+  public static Projection<ProductEntity, ProductVersionView> versionView() {
+    return ((root, criteriaBuilder) -> {
+      Path<Object> category = root.get("category");
+      return criteriaBuilder.construct(
+          ProductVersionView.class,
+          root.get("id"),
+          root.get("version"),
+          category.get("id"),
+          category.get("version"));
+    });
+  }
+
+  public static Projection<ProductEntity, ProductBulkView> bulkView() {
+    return ((root, criteriaBuilder) ->
+        criteriaBuilder.construct(
+            ProductBulkView.class,
+            root.get("id"),
+            root.get("category").get("id"),
+            root.get("imageUri")));
+  }
+}
@@ -1,8 +1,31 @@
 package me.jangluzniewicz.webstore.products.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProductRepository
-    extends JpaRepository<ProductEntity, Long>, JpaSpecificationExecutor<ProductEntity> {}
+    extends JpaRepository<ProductEntity, Long>, JpaSpecificationExecutor<ProductEntity> {
+  List<ProductNameView> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  @EntityGraph(attributePaths = "category")
+  List<ProductEntity> findByIdIn(Collection<Long> ids);
+
+  @Query(
+      "SELECT new me.jangluzniewicz.webstore.products.repositories.ProductVersionView(p.id,"
+          + " p.version, p.category.id, p.category.version) FROM ProductEntity p WHERE p.id = :id")
+  Optional<ProductVersionView> findVersionById(@Param("id") Long id);
+
+  @Query("SELECT DISTINCT i.product.id FROM OrderItemEntity i WHERE i.product.id IN :ids")
+  List<Long> findIdsInOrders(@Param("ids") Collection<Long> ids);
+
+  @Query("SELECT DISTINCT i.product.id FROM CartItemEntity i WHERE i.product.id IN :ids")
+  List<Long> findIdsInCarts(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,5 @@
+package me.jangluzniewicz.webstore.products.repositories;
+
+import java.math.BigDecimal;
+
+public record ProductSnapshotView(Long id, Long categoryId, BigDecimal price, String name) {}
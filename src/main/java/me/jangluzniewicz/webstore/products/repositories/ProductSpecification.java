@@ -1,25 +1,48 @@
 package me.jangluzniewicz.webstore.products.repositories;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
 import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 public class ProductSpecification {
   public static Specification<ProductEntity> filterBy(ProductFilterRequest filter) {
+    return filterBy(filter, null);
+  }
+
+  /**
+   * Same as {@link #filterBy(ProductFilterRequest)}, but narrowed to the ids of the products whose
+   * name is already known to match. The name criterion is still checked, so an id whose product was
+   * renamed since it was resolved no longer matches.
+   */
+  public static Specification<ProductEntity> filterBy(
+      ProductFilterRequest filter, Collection<Long> nameMatchIds) {
     return ((root, _, criteriaBuilder) -> {
       List<Predicate> predicates = new ArrayList<>();
       if (filter.getCategoryId() != null) {
         predicates.add(
             criteriaBuilder.equal(root.get("category").get("id"), filter.getCategoryId()));
       }
+      if (nameMatchIds != null) {
+        predicates.add(
+            nameMatchIds.isEmpty()
+                ? criteriaBuilder.disjunction()
+                : root.get("id").in(nameMatchIds));
+      }
       if (filter.getName() != null) {
         predicates.add(
             criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("name")),
-                "%" + filter.getName().toLowerCase() + "%"));
+                "%" + filter.getName().toLowerCase(Locale.ROOT) + "%"));
       }
       if (filter.getPriceFrom() != null) {
         predicates.add(
@@ -28,7 +51,55 @@ public class ProductSpecification {
       if (filter.getPriceTo() != null) {
         predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), filter.getPriceTo()));
       }
-      return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+      return predicates.isEmpty()
+          ? null
+          : criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    });
+  }
+
+  public static Specification<ProductEntity> byIds(Collection<Long> ids) {
+    return ((root, _, _) -> root.get("id").in(ids));
+  }
+
+  public static Specification<ProductEntity> after(
+      ProductSortKey sortKey, Sort.Direction direction, Long id, Object value) {
+    return ((root, _, criteriaBuilder) -> {
+      Predicate idAfter = after(criteriaBuilder, root.get("id"), direction, id);
+      return switch (sortKey) {
+        case ID -> idAfter;
+        case PRICE ->
+            after(criteriaBuilder, root.get("price"), direction, (BigDecimal) value, idAfter);
+        case NAME -> after(criteriaBuilder, root.get("name"), direction, (String) value, idAfter);
+      };
     });
   }
+
+  private static <V extends Comparable<? super V>> Predicate after(
+      CriteriaBuilder criteriaBuilder, Path<V> path, Sort.Direction direction, V value) {
+    return direction.isAscending()
+        ? criteriaBuilder.greaterThan(path, value)
+        : criteriaBuilder.lessThan(path, value);
+  }
+
+  /**
+   * Builds {@code path >= value AND (path > value OR (path = value AND idAfter))} for ascending
+   * order. The leading conjunct is redundant, but PostgreSQL cannot start an index range scan on
+   * the OR alone, so without it every page would scan the index from its beginning.
+   */
+  private static <V extends Comparable<? super V>> Predicate after(
+      CriteriaBuilder criteriaBuilder,
+      Path<V> path,
+      Sort.Direction direction,
+      V value,
+      Predicate idAfter) {
+    Predicate notBefore =
+        direction.isAscending()
+            ? criteriaBuilder.greaterThanOrEqualTo(path, value)
+            : criteriaBuilder.lessThanOrEqualTo(path, value);
+    return criteriaBuilder.and(
+        notBefore,
+        criteriaBuilder.or(
+            after(criteriaBuilder, path, direction, value),
+            criteriaBuilder.and(criteriaBuilder.equal(path, value), idAfter)));
+  }
 }
@@ -0,0 +1,3 @@
+package me.jangluzniewicz.webstore.products.repositories;
+
+public record ProductVersionView(Long id, Long version, Long categoryId, Long categoryVersion) {}
@@ -0,0 +1,361 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of non-negative int ids in the style of Roaring bitmaps. Ids are split into
+ * chunks of 65536 by their high 16 bits; a chunk holding few ids stores them as a sorted {@code
+ * char} array and switches to a 1024-word bitset once it exceeds {@value #ARRAY_MAX} ids, so both
+ * sparse and dense sets stay compact and intersections run chunk by chunk. Not thread-safe.
+ */
+public class IdBitmap {
+  private static final int ARRAY_MAX = 4096;
+  private static final int WORDS = 1024;
+  private int[] keys = new int[4];
+  private Container[] containers = new Container[4];
+  private int size;
+
+  public static IdBitmap of(Iterable<Long> ids) {
+    IdBitmap bitmap = new IdBitmap();
+    ids.forEach(id -> bitmap.add(id.intValue()));
+    return bitmap;
+  }
+
+  public void add(int id) {
+    int key = id >>> 16;
+    int index = Arrays.binarySearch(keys, 0, size, key);
+    if (index >= 0) {
+      containers[index] = containers[index].add((char) id);
+      return;
+    }
+    insert(-index - 1, key, new ArrayContainer().add((char) id));
+  }
+
+  public void remove(int id) {
+    int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+    if (index < 0) {
+      return;
+    }
+    Container container = containers[index].remove((char) id);
+    if (container.cardinality() == 0) {
+      System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+      System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+      containers[--size] = null;
+    } else {
+      containers[index] = container;
+    }
+  }
+
+  public boolean contains(int id) {
+    int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+    return index >= 0 && containers[index].contains((char) id);
+  }
+
+  public long cardinality() {
+    long cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  public IdBitmap and(IdBitmap other) {
+    IdBitmap result = new IdBitmap();
+    for (int i = 0, j = 0; i < size && j < other.size; ) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        Container container = containers[i++].and(other.containers[j++]);
+        if (container.cardinality() > 0) {
+          result.insert(result.size, keys[i - 1], container);
+        }
+      }
+    }
+    return result;
+  }
+
+  public long andCardinality(IdBitmap other) {
+    long cardinality = 0;
+    for (int i = 0, j = 0; i < size && j < other.size; ) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        cardinality += containers[i++].andCardinality(other.containers[j++]);
+      }
+    }
+    return cardinality;
+  }
+
+  public IdBitmap or(IdBitmap other) {
+    IdBitmap result = new IdBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+        result.insert(result.size, keys[i], containers[i++].copy());
+      } else if (i == size || keys[i] > other.keys[j]) {
+        result.insert(result.size, other.keys[j], other.containers[j++].copy());
+      } else {
+        result.insert(result.size, keys[i], containers[i++].or(other.containers[j++]));
+      }
+    }
+    return result;
+  }
+
+  public void forEach(IntConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      int high = keys[i] << 16;
+      containers[i].forEach(low -> consumer.accept(high | low));
+    }
+  }
+
+  private void insert(int index, int key, Container container) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      containers = Arrays.copyOf(containers, size * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private sealed interface Container permits ArrayContainer, BitmapContainer {
+    Container add(char value);
+
+    Container remove(char value);
+
+    boolean contains(char value);
+
+    int cardinality();
+
+    Container and(Container other);
+
+    int andCardinality(Container other);
+
+    Container or(Container other);
+
+    Container copy();
+
+    void forEach(IntConsumer consumer);
+  }
+
+  private static final class ArrayContainer implements Container {
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == ARRAY_MAX) {
+        return toBitmap().add(value);
+      }
+      int insertion = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+      }
+      System.arraycopy(values, insertion, values, insertion + 1, cardinality - insertion);
+      values[insertion] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public Container and(Container other) {
+      char[] result = new char[cardinality];
+      int count = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i])) {
+          result[count++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    public int andCardinality(Container other) {
+      int count = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i])) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    @Override
+    public Container or(Container other) {
+      Container result = other.copy();
+      for (int i = 0; i < cardinality; i++) {
+        result = result.add(values[i]);
+      }
+      return result;
+    }
+
+    @Override
+    public Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+    }
+
+    @Override
+    public void forEach(IntConsumer consumer) {
+      for (int i = 0; i < cardinality; i++) {
+        consumer.accept(values[i]);
+      }
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer(new long[WORDS], 0);
+      for (int i = 0; i < cardinality; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static final class BitmapContainer implements Container {
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      long word = words[value >>> 6];
+      long updated = word | (1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      long word = words[value >>> 6];
+      long updated = word & ~(1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality--;
+      }
+      return cardinality > ARRAY_MAX ? this : toArray();
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public Container and(Container other) {
+      if (other instanceof BitmapContainer bitmap) {
+        long[] result = new long[WORDS];
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+          result[i] = words[i] & bitmap.words[i];
+          count += Long.bitCount(result[i]);
+        }
+        BitmapContainer container = new BitmapContainer(result, count);
+        return count > ARRAY_MAX ? container : container.toArray();
+      }
+      return other.and(this);
+    }
+
+    @Override
+    public int andCardinality(Container other) {
+      if (other instanceof BitmapContainer bitmap) {
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+          count += Long.bitCount(words[i] & bitmap.words[i]);
+        }
+        return count;
+      }
+      return other.andCardinality(this);
+    }
+
+    @Override
+    public Container or(Container other) {
+      BitmapContainer result = (BitmapContainer) copy();
+      if (other instanceof BitmapContainer bitmap) {
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+          result.words[i] |= bitmap.words[i];
+          count += Long.bitCount(result.words[i]);
+        }
+        result.cardinality = count;
+        return result;
+      }
+      other.forEach(value -> result.add((char) value));
+      return result;
+    }
+
+    @Override
+    public Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    public void forEach(IntConsumer consumer) {
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          consumer.accept((i << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[Math.max(cardinality, 4)];
+      int[] count = {0};
+      forEach(value -> values[count[0]++] = (char) value);
+      return new ArrayContainer(values, cardinality);
+    }
+  }
+}
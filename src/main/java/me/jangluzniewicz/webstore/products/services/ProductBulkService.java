@@ -0,0 +1,257 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import static me.jangluzniewicz.webstore.commons.services.TransactionCallbacks.afterCommit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
+import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.controllers.ProductBulkUpdateRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.interfaces.IProductBulk;
+import me.jangluzniewicz.webstore.products.models.ProductBulkOutcome;
+import me.jangluzniewicz.webstore.products.models.ProductBulkResult;
+import me.jangluzniewicz.webstore.products.models.ProductBulkStatus;
+import me.jangluzniewicz.webstore.products.repositories.ProductBulkView;
+import me.jangluzniewicz.webstore.products.repositories.ProductProjection;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import me.jangluzniewicz.webstore.products.repositories.ProductSpecification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Updates and deletes many products in one transaction with set-based statements. The affected rows
+ * are read once as narrow projections and then changed by one {@code UPDATE} or {@code DELETE} per
+ * batch of {@code batch-size} ids, without loading or merging entities. Images of deleted products
+ * are removed in batches after commit.
+ */
+@Service
+@Validated
+public class ProductBulkService implements IProductBulk {
+  private final ProductRepository productRepository;
+  private final ICategory categoryService;
+  private final IAwsS3 awsS3;
+  private final IPaging pagingService;
+  private final ProductNameIndex productNameIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+  private final Integer maxSize;
+  private final Integer batchSize;
+
+  public ProductBulkService(
+      ProductRepository productRepository,
+      ICategory categoryService,
+      IAwsS3 awsS3,
+      IPaging pagingService,
+      ProductNameIndex productNameIndex,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager,
+      EntityManager entityManager,
+      @Value("${products.bulk.max-size}") Integer maxSize,
+      @Value("${products.bulk.batch-size}") Integer batchSize) {
+    this.productRepository = productRepository;
+    this.categoryService = categoryService;
+    this.awsS3 = awsS3;
+    this.pagingService = pagingService;
+    this.productNameIndex = productNameIndex;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.entityManager = entityManager;
+    this.maxSize = maxSize;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public ProductBulkResult updateProducts(ProductBulkUpdateRequest request) {
+    boolean byIds = request.getIds() != null;
+    if (byIds == (request.getFilter() != null)) {
+      throw new IllegalArgumentException("Exactly one of ids and filter must be given");
+    }
+    if (request.getPrice() != null && request.getPriceChangePercent() != null) {
+      throw new IllegalArgumentException("price and priceChangePercent cannot be combined");
+    }
+    if (request.getPrice() == null
+        && request.getPriceChangePercent() == null
+        && request.getWeight() == null
+        && request.getCategoryId() == null) {
+      throw new IllegalArgumentException("At least one change must be given");
+    }
+    List<Long> requested = byIds ? distinct(request.getIds()) : null;
+    if (request.getCategoryId() != null
+        && !categoryService
+            .getCategoriesByIds(List.of(request.getCategoryId()))
+            .containsKey(request.getCategoryId())) {
+      throw new NotFoundException("Category with id " + request.getCategoryId() + " not found");
+    }
+    return transactionTemplate.execute(
+        _ -> {
+          List<ProductBulkView> products =
+              byIds ? findByIds(requested) : findByFilter(request.getFilter());
+          List<Long> ids = products.stream().map(ProductBulkView::id).toList();
+          partition(ids).forEach(batch -> update(batch, request));
+          Set<Long> categoryIds = categoryIds(products);
+          if (request.getCategoryId() != null) {
+            categoryIds.add(request.getCategoryId());
+          }
+          if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ids, categoryIds));
+          }
+          return result(byIds ? requested : ids, ids, ProductBulkStatus.UPDATED, Set.of());
+        });
+  }
+
+  @Override
+  public ProductBulkResult deleteProducts(List<Long> ids) {
+    List<Long> requested = distinct(ids);
+    return transactionTemplate.execute(
+        _ -> {
+          List<ProductBulkView> products = findByIds(requested);
+          Set<Long> referenced = new HashSet<>();
+          partition(products.stream().map(ProductBulkView::id).toList())
+              .forEach(
+                  batch -> {
+                    referenced.addAll(productRepository.findIdsInOrders(batch));
+                    referenced.addAll(productRepository.findIdsInCarts(batch));
+                  });
+          List<ProductBulkView> deleted =
+              products.stream().filter(product -> !referenced.contains(product.id())).toList();
+          List<Long> deletedIds = deleted.stream().map(ProductBulkView::id).toList();
+          partition(deletedIds).forEach(productRepository::deleteAllByIdInBatch);
+          awsS3.deleteFiles(
+              deleted.stream()
+                  .map(ProductBulkView::imageUri)
+                  .filter(imageUri -> imageUri != null && !imageUri.isEmpty())
+                  .toList());
+          if (!deletedIds.isEmpty()) {
+            afterCommit(() -> deletedIds.forEach(productNameIndex::remove));
+            eventPublisher.publishEvent(new ProductChangedEvent(deletedIds, categoryIds(deleted)));
+          }
+          return result(requested, deletedIds, ProductBulkStatus.DELETED, referenced);
+        });
+  }
+
+  private List<Long> distinct(List<Long> ids) {
+    List<Long> distinctIds = ids.stream().distinct().sorted().toList();
+    if (distinctIds.size() > maxSize) {
+      throw new IllegalArgumentException("At most " + maxSize + " products can be changed at once");
+    }
+    return distinctIds;
+  }
+
+  private List<ProductBulkView> findByIds(List<Long> ids) {
+    List<ProductBulkView> products = new ArrayList<>();
+    partition(ids)
+        .forEach(
+            batch ->
+                products.addAll(
+                    pagingService.findFirst(
+                        ProductEntity.class,
+                        ProductBulkView.class,
+                        ProductProjection.bulkView(),
+                        ProductSpecification.byIds(batch),
+                        Sort.by("id"),
+                        batch.size())));
+    return products;
+  }
+
+  private List<ProductBulkView> findByFilter(ProductFilterRequest filter) {
+    List<ProductBulkView> products =
+        pagingService.findFirst(
+            ProductEntity.class,
+            ProductBulkView.class,
+            ProductProjection.bulkView(),
+            ProductSpecification.filterBy(filter),
+            Sort.by("id"),
+            maxSize + 1);
+    if (products.size() > maxSize) {
+      throw new IllegalArgumentException(
+          "Filter matches more than " + maxSize + " products; narrow it down");
+    }
+    return products;
+  }
+
+  /** Applies the changes of {@code request} to {@code ids} with a single {@code UPDATE}. */
+  private void update(List<Long> ids, ProductBulkUpdateRequest request) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<ProductEntity> update =
+        criteriaBuilder.createCriteriaUpdate(ProductEntity.class);
+    Root<ProductEntity> root = update.from(ProductEntity.class);
+    Path<BigDecimal> price = root.get("price");
+    if (request.getPrice() != null) {
+      update.set(price, request.getPrice());
+    } else if (request.getPriceChangePercent() != null) {
+      BigDecimal factor = BigDecimal.ONE.add(request.getPriceChangePercent().movePointLeft(2));
+      update.set(
+          price,
+          criteriaBuilder.function(
+              "round",
+              BigDecimal.class,
+              criteriaBuilder.prod(price, factor),
+              criteriaBuilder.literal(2)));
+    }
+    if (request.getWeight() != null) {
+      update.set(root.<BigDecimal>get("weight"), request.getWeight());
+    }
+    if (request.getCategoryId() != null) {
+      update.set(
+          root.<CategoryEntity>get("category"),
+          entityManager.getReference(CategoryEntity.class, request.getCategoryId()));
+    }
+    Path<Long> version = root.get("version");
+    update.set(version, criteriaBuilder.sum(version, 1L));
+    update.where(root.get("id").in(ids));
+    entityManager.createQuery(update).executeUpdate();
+  }
+
+  private List<List<Long>> partition(List<Long> ids) {
+    List<List<Long>> batches = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += batchSize) {
+      batches.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+    }
+    return batches;
+  }
+
+  private static Set<Long> categoryIds(Collection<ProductBulkView> products) {
+    return products.stream()
+        .map(ProductBulkView::categoryId)
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private static ProductBulkResult result(
+      List<Long> requested, List<Long> changed, ProductBulkStatus status, Set<Long> conflicts) {
+    Set<Long> changedIds = new HashSet<>(changed);
+    return new ProductBulkResult(
+        requested.stream()
+            .map(
+                id ->
+                    new ProductBulkOutcome(
+                        id,
+                        changedIds.contains(id)
+                            ? status
+                            : conflicts.contains(id)
+                                ? ProductBulkStatus.CONFLICT
+                                : ProductBulkStatus.NOT_FOUND))
+            .toList());
+  }
+}
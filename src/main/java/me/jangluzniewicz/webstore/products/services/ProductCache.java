@@ -0,0 +1,233 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import me.jangluzniewicz.webstore.cache.services.GenerationStore;
+import me.jangluzniewicz.webstore.categories.events.CategoryChangedEvent;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Read cache of products by id and of filtered product pages. Cache keys carry generation tokens
+ * from the {@link GenerationStore} that are advanced once a change is committed, so an entry loaded
+ * before the change is never reachable afterwards, on this instance or any other, even when its
+ * loader finishes after the invalidation. Product pages are invalidated per category: a change
+ * advances the generation of the old and new category and of the pages that do not filter by
+ * category. Category changes advance the epoch shared by all keys, because products embed their
+ * category.
+ *
+ * <p>Reads bypass the cache while the tokens cannot be read from Redis, and while a committed
+ * change has not yet advanced them; failed advances are retried every {@code retry-interval}.
+ */
+@Slf4j
+@Component
+public class ProductCache {
+  private static final int STRIPES = 1024;
+  private static final String PREFIX = "{products}:generation:";
+  private static final String EPOCH = PREFIX + "epoch";
+  private static final String ALL_CATEGORIES = PREFIX + "categories";
+  private final Cache products;
+  private final Cache productPages;
+  private final GenerationStore generationStore;
+  private final Set<String> pendingAdvances = new HashSet<>();
+  private volatile boolean advancesPending;
+
+  public ProductCache(CacheManager cacheManager, GenerationStore generationStore) {
+    this.products = cacheManager.getCache("products");
+    this.productPages = cacheManager.getCache("product-pages");
+    this.generationStore = generationStore;
+  }
+
+  private record ProductKey(Long id, String generation, String epoch) {}
+
+  private record PageKey(
+      Long categoryId,
+      String name,
+      BigDecimal priceFrom,
+      BigDecimal priceTo,
+      int page,
+      int size,
+      PagingMode pagingMode,
+      String generation,
+      String epoch) {}
+
+  public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+    Optional<List<String>> tokens = tokens(List.of(productGeneration(id)));
+    if (tokens.isEmpty()) {
+      return loader.apply(id);
+    }
+    ProductKey key = new ProductKey(id, tokens.get().get(0), tokens.get().get(1));
+    Product cached = products.get(key, Product.class);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<Product> product = loader.apply(id);
+    product.ifPresent(value -> products.put(key, value));
+    return product;
+  }
+
+  /**
+   * Looks up several products at once, loading all misses with one call of {@code batchLoader}.
+   * Products absent from the loaded map are absent from the result.
+   */
+  public Map<Long, Product> getProducts(
+      Collection<Long> ids, Function<Collection<Long>, Map<Long, Product>> batchLoader) {
+    Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+    List<String> generations =
+        uniqueIds.stream().map(ProductCache::productGeneration).distinct().toList();
+    Optional<List<String>> tokens = tokens(generations);
+    if (tokens.isEmpty()) {
+      return batchLoader.apply(uniqueIds);
+    }
+    String epoch = tokens.get().getLast();
+    Map<String, String> tokensByGeneration = new HashMap<>();
+    for (int i = 0; i < generations.size(); i++) {
+      tokensByGeneration.put(generations.get(i), tokens.get().get(i));
+    }
+    Map<Long, Product> found = new HashMap<>();
+    Map<Long, ProductKey> missing = new HashMap<>();
+    for (Long id : uniqueIds) {
+      ProductKey key = new ProductKey(id, tokensByGeneration.get(productGeneration(id)), epoch);
+      Product cached = products.get(key, Product.class);
+      if (cached != null) {
+        found.put(id, cached);
+      } else {
+        missing.put(id, key);
+      }
+    }
+    if (!missing.isEmpty()) {
+      Set<Long> missingIds = missing.keySet();
+      batchLoader
+          .apply(missingIds)
+          .forEach(
+              (id, product) -> {
+                products.put(missing.get(id), product);
+                found.put(id, product);
+              });
+    }
+    return found;
+  }
+
+  public PagedResponse<ProductSummary> getPage(
+      ProductFilterRequest filter,
+      int page,
+      int size,
+      PagingMode pagingMode,
+      Supplier<PagedResponse<ProductSummary>> loader) {
+    String generation =
+        filter.getCategoryId() != null
+            ? categoryGeneration(filter.getCategoryId())
+            : ALL_CATEGORIES;
+    Optional<List<String>> tokens = tokens(List.of(generation));
+    if (tokens.isEmpty()) {
+      return loader.get();
+    }
+    PageKey key =
+        new PageKey(
+            filter.getCategoryId(),
+            filter.getName() != null ? filter.getName().toLowerCase(Locale.ROOT) : null,
+            filter.getPriceFrom() != null ? filter.getPriceFrom().stripTrailingZeros() : null,
+            filter.getPriceTo() != null ? filter.getPriceTo().stripTrailingZeros() : null,
+            page,
+            size,
+            pagingMode,
+            tokens.get().get(0),
+            tokens.get().get(1));
+    @SuppressWarnings("unchecked")
+    PagedResponse<ProductSummary> cached = productPages.get(key, PagedResponse.class);
+    if (cached != null) {
+      return cached;
+    }
+    PagedResponse<ProductSummary> response = loader.get();
+    productPages.put(key, response);
+    return response;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    Set<String> generations = new HashSet<>();
+    event.productIds().forEach(id -> generations.add(productGeneration(id)));
+    event.categoryIds().forEach(id -> generations.add(categoryGeneration(id)));
+    generations.add(ALL_CATEGORIES);
+    advance(generations);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCategoryChanged(CategoryChangedEvent event) {
+    advance(List.of(EPOCH));
+    products.clear();
+    productPages.clear();
+  }
+
+  /** Advances the generations whose advance failed, so that reads can use the cache again. */
+  @Scheduled(fixedDelayString = "${products.cache.retry-interval}")
+  public synchronized void retryAdvances() {
+    if (pendingAdvances.isEmpty()) {
+      return;
+    }
+    try {
+      generationStore.advance(pendingAdvances);
+      pendingAdvances.clear();
+      advancesPending = false;
+    } catch (RuntimeException e) {
+      log.warn("Error advancing {} product cache generations", pendingAdvances.size(), e);
+    }
+  }
+
+  private synchronized void advance(Collection<String> generations) {
+    pendingAdvances.addAll(generations);
+    advancesPending = true;
+    retryAdvances();
+  }
+
+  /**
+   * Reads the tokens of {@code generations} followed by the epoch, or nothing when the cache must
+   * be bypassed.
+   */
+  private Optional<List<String>> tokens(List<String> generations) {
+    if (advancesPending) {
+      return Optional.empty();
+    }
+    List<String> keys = new ArrayList<>(generations);
+    keys.add(EPOCH);
+    try {
+      return Optional.of(generationStore.current(keys));
+    } catch (RuntimeException e) {
+      log.debug("Error reading product cache generations", e);
+      return Optional.empty();
+    }
+  }
+
+  private static String productGeneration(Long id) {
+    return PREFIX + "product:" + stripe(id);
+  }
+
+  private static String categoryGeneration(Long id) {
+    return PREFIX + "category:" + stripe(id);
+  }
+
+  private static int stripe(Long id) {
+    return Long.hashCode(id) & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,428 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.repositories.ProductProjection;
+import me.jangluzniewicz.webstore.products.repositories.ProductSnapshotView;
+import me.jangluzniewicz.webstore.products.repositories.ProductSpecification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Columnar snapshot of the catalog kept off-heap in {@link MemorySegment}s: product ids in
+ * ascending order, category ids, prices in cents and dictionary codes of the lower-cased names. A
+ * {@link ProductFilterRequest} is answered by a single scan over these primitive columns, so the
+ * ids and the exact total of a filtered page are known without querying the database and the scan
+ * allocates almost nothing on the heap.
+ *
+ * <p>Committed {@link ProductChangedEvent}s patch the snapshot: the stale row is marked as deleted
+ * in place and the current row is kept in a small on-heap delta that is merged into every scan.
+ * Once the delta grows beyond {@code maxDelta} rows the snapshot is rebuilt in the background.
+ * Events only reach the instance that committed the change, so the snapshot is also rebuilt every
+ * {@code products.snapshot.rebuild-interval} to pick up writes made by other instances.
+ */
+@Component
+public class ProductCatalogSnapshot {
+  private static final int BATCH_SIZE = 10_000;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long DELETED = 0;
+  private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+  private final IPaging pagingService;
+  private final boolean enabled;
+  private final int maxDelta;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<Long, Change> delta = new TreeMap<>();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private long changes;
+  private volatile Columns columns;
+
+  public record IdPage(List<Long> ids, long totalElements, boolean hasNext) {}
+
+  /** A row superseding the snapshot; {@code product} is null when the product was deleted. */
+  private record Change(ProductSnapshotView product, long sequence) {}
+
+  @Autowired
+  public ProductCatalogSnapshot(
+      IPaging pagingService,
+      @Value("${products.snapshot.enabled}") boolean enabled,
+      @Value("${products.snapshot.max-delta}") int maxDelta) {
+    this.pagingService = pagingService;
+    this.enabled = enabled;
+    this.maxDelta = maxDelta;
+  }
+
+  public ProductCatalogSnapshot(List<ProductSnapshotView> products) {
+    this(null, true, Integer.MAX_VALUE);
+    ColumnsBuilder builder = new ColumnsBuilder();
+    products.forEach(builder::append);
+    this.columns = builder.build();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${products.snapshot.rebuild-interval}",
+      fixedDelayString = "${products.snapshot.rebuild-interval}")
+  public void rebuild() {
+    if (!enabled || !rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long sequence;
+      lock.readLock().lock();
+      try {
+        sequence = changes;
+      } finally {
+        lock.readLock().unlock();
+      }
+      ColumnsBuilder builder = new ColumnsBuilder();
+      long lastId = 0;
+      List<ProductSnapshotView> batch;
+      do {
+        batch =
+            pagingService.findFirst(
+                ProductEntity.class,
+                ProductSnapshotView.class,
+                ProductProjection.snapshotView(),
+                ProductSpecification.after(ProductSortKey.ID, Sort.Direction.ASC, lastId, null),
+                Sort.by("id"),
+                BATCH_SIZE);
+        for (ProductSnapshotView product : batch) {
+          builder.append(product);
+          lastId = product.id();
+        }
+      } while (batch.size() == BATCH_SIZE);
+      Columns rebuilt = builder.build();
+      lock.writeLock().lock();
+      try {
+        delta.values().removeIf(change -> change.sequence() <= sequence);
+        delta.keySet().forEach(rebuilt::delete);
+        columns = rebuilt;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      rebuilding.set(false);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (!enabled || event.productIds().isEmpty()) {
+      return;
+    }
+    List<ProductSnapshotView> changed =
+        pagingService.findFirst(
+            ProductEntity.class,
+            ProductSnapshotView.class,
+            ProductProjection.snapshotView(),
+            ProductSpecification.byIds(event.productIds()),
+            Sort.by("id"),
+            event.productIds().size());
+    Set<Long> deleted = new HashSet<>(event.productIds());
+    changed.forEach(product -> deleted.remove(product.id()));
+    changed.forEach(this::put);
+    deleted.forEach(this::remove);
+  }
+
+  public void put(ProductSnapshotView product) {
+    record(product.id(), product);
+  }
+
+  public void remove(Long id) {
+    record(id, null);
+  }
+
+  /**
+   * Finds the ids of the products matching {@code filter}, ordered by id, together with the number
+   * of all matching products.
+   *
+   * @return the requested slice of ids, or empty when the snapshot is not built yet.
+   */
+  public Optional<IdPage> find(ProductFilterRequest filter, long offset, int limit) {
+    Columns current = columns;
+    if (current == null) {
+      return Optional.empty();
+    }
+    long categoryId = filter.getCategoryId() != null ? filter.getCategoryId() : DELETED;
+    long priceFrom =
+        filter.getPriceFrom() != null ? cents(filter.getPriceFrom(), RoundingMode.CEILING) : 0;
+    long priceTo =
+        filter.getPriceTo() != null
+            ? cents(filter.getPriceTo(), RoundingMode.FLOOR)
+            : Long.MAX_VALUE;
+    String name = filter.getName() != null ? filter.getName().toLowerCase(Locale.ROOT) : null;
+    IdCollector collector = new IdCollector(offset, limit);
+    lock.readLock().lock();
+    try {
+      current = columns;
+      long[] names =
+          name != null ? current.matchingNames(name.getBytes(StandardCharsets.UTF_8)) : null;
+      List<Long> changed = new ArrayList<>();
+      delta.forEach(
+          (id, change) -> {
+            if (change.product() != null && matches(change.product(), filter, name)) {
+              changed.add(id);
+            }
+          });
+      int next = 0;
+      for (int row = 0; row < current.size; row++) {
+        long rowCategoryId = current.categoryIds.getAtIndex(ValueLayout.JAVA_LONG, row);
+        if (rowCategoryId == DELETED || (categoryId != DELETED && rowCategoryId != categoryId)) {
+          continue;
+        }
+        long price = current.prices.getAtIndex(ValueLayout.JAVA_LONG, row);
+        if (price < priceFrom || price > priceTo) {
+          continue;
+        }
+        if (names != null) {
+          int code = current.nameCodes.getAtIndex(ValueLayout.JAVA_INT, row);
+          if ((names[code >>> 6] & (1L << code)) == 0) {
+            continue;
+          }
+        }
+        long id = current.ids.getAtIndex(ValueLayout.JAVA_LONG, row);
+        while (next < changed.size() && changed.get(next) < id) {
+          collector.accept(changed.get(next++));
+        }
+        collector.accept(id);
+      }
+      while (next < changed.size()) {
+        collector.accept(changed.get(next++));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return Optional.of(
+        new IdPage(collector.ids, collector.total, collector.total > offset + limit));
+  }
+
+  private void record(Long id, ProductSnapshotView product) {
+    boolean rebuild;
+    lock.writeLock().lock();
+    try {
+      Columns current = columns;
+      if (current != null) {
+        current.delete(id);
+      }
+      delta.put(id, new Change(product, ++changes));
+      rebuild = current != null && delta.size() > maxDelta;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (rebuild && enabled && !rebuilding.get()) {
+      Thread.ofVirtual().start(this::rebuild);
+    }
+  }
+
+  private static boolean matches(
+      ProductSnapshotView product, ProductFilterRequest filter, String name) {
+    return (filter.getCategoryId() == null || filter.getCategoryId().equals(product.categoryId()))
+        && (filter.getPriceFrom() == null || product.price().compareTo(filter.getPriceFrom()) >= 0)
+        && (filter.getPriceTo() == null || product.price().compareTo(filter.getPriceTo()) <= 0)
+        && (name == null || product.name().toLowerCase(Locale.ROOT).contains(name));
+  }
+
+  private static long cents(BigDecimal price, RoundingMode roundingMode) {
+    BigDecimal cents = price.movePointRight(2).setScale(0, roundingMode);
+    return cents.compareTo(MAX_CENTS) > 0 ? Long.MAX_VALUE : cents.longValue();
+  }
+
+  private static class IdCollector {
+    private final long offset;
+    private final int limit;
+    private final List<Long> ids = new ArrayList<>();
+    private long total;
+
+    IdCollector(long offset, int limit) {
+      this.offset = offset;
+      this.limit = limit;
+    }
+
+    void accept(long id) {
+      if (total >= offset && total < offset + limit) {
+        ids.add(id);
+      }
+      total++;
+    }
+  }
+
+  /**
+   * Columns of one snapshot generation; only the category ids change, when rows are deleted. Each
+   * segment belongs to its own automatic arena, so the memory is released once a rebuilt generation
+   * replaces this one and no scan references it any more.
+   */
+  private static final class Columns {
+    private final MemorySegment ids;
+    private final MemorySegment categoryIds;
+    private final MemorySegment prices;
+    private final MemorySegment nameCodes;
+    private final MemorySegment names;
+    private final MemorySegment nameOffsets;
+    private final int size;
+    private final int dictionarySize;
+
+    Columns(
+        MemorySegment ids,
+        MemorySegment categoryIds,
+        MemorySegment prices,
+        MemorySegment nameCodes,
+        MemorySegment names,
+        MemorySegment nameOffsets,
+        int size,
+        int dictionarySize) {
+      this.ids = ids;
+      this.categoryIds = categoryIds;
+      this.prices = prices;
+      this.nameCodes = nameCodes;
+      this.names = names;
+      this.nameOffsets = nameOffsets;
+      this.size = size;
+      this.dictionarySize = dictionarySize;
+    }
+
+    /** Marks the row of {@code id} as deleted by clearing its category id. */
+    void delete(long id) {
+      int low = 0;
+      int high = size - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        long middleId = ids.getAtIndex(ValueLayout.JAVA_LONG, middle);
+        if (middleId < id) {
+          low = middle + 1;
+        } else if (middleId > id) {
+          high = middle - 1;
+        } else {
+          categoryIds.setAtIndex(ValueLayout.JAVA_LONG, middle, DELETED);
+          return;
+        }
+      }
+    }
+
+    /**
+     * Tests every dictionary entry once for containing {@code needle}, so the row scan only has to
+     * look up a bit per row.
+     */
+    long[] matchingNames(byte[] needle) {
+      long[] matching = new long[(dictionarySize + 63) >>> 6];
+      for (int code = 0; code < dictionarySize; code++) {
+        int start = nameOffsets.getAtIndex(ValueLayout.JAVA_INT, code);
+        int end = nameOffsets.getAtIndex(ValueLayout.JAVA_INT, code + 1);
+        if (contains(start, end, needle)) {
+          matching[code >>> 6] |= 1L << code;
+        }
+      }
+      return matching;
+    }
+
+    private boolean contains(int start, int end, byte[] needle) {
+      for (int position = start; position <= end - needle.length; position++) {
+        int i = 0;
+        while (i < needle.length && names.get(ValueLayout.JAVA_BYTE, position + i) == needle[i]) {
+          i++;
+        }
+        if (i == needle.length) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class ColumnsBuilder {
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private MemorySegment ids = allocateLongs(INITIAL_CAPACITY);
+    private MemorySegment categoryIds = allocateLongs(INITIAL_CAPACITY);
+    private MemorySegment prices = allocateLongs(INITIAL_CAPACITY);
+    private MemorySegment nameCodes = allocateInts(INITIAL_CAPACITY);
+    private MemorySegment names = allocate(INITIAL_CAPACITY * 16L, 1);
+    private MemorySegment nameOffsets = allocateInts(INITIAL_CAPACITY + 1);
+    private int size;
+    private int namesSize;
+
+    void append(ProductSnapshotView product) {
+      if (size == ids.byteSize() / Long.BYTES) {
+        int capacity = size * 2;
+        ids = grow(ids, allocateLongs(capacity));
+        categoryIds = grow(categoryIds, allocateLongs(capacity));
+        prices = grow(prices, allocateLongs(capacity));
+        nameCodes = grow(nameCodes, allocateInts(capacity));
+      }
+      ids.setAtIndex(ValueLayout.JAVA_LONG, size, product.id());
+      categoryIds.setAtIndex(ValueLayout.JAVA_LONG, size, product.categoryId());
+      prices.setAtIndex(ValueLayout.JAVA_LONG, size, cents(product.price(), RoundingMode.HALF_UP));
+      nameCodes.setAtIndex(
+          ValueLayout.JAVA_INT, size, code(product.name().toLowerCase(Locale.ROOT)));
+      size++;
+    }
+
+    Columns build() {
+      return new Columns(
+          ids, categoryIds, prices, nameCodes, names, nameOffsets, size, dictionary.size());
+    }
+
+    private int code(String name) {
+      Integer existing = dictionary.get(name);
+      if (existing != null) {
+        return existing;
+      }
+      int code = dictionary.size();
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      while (namesSize + bytes.length > names.byteSize()) {
+        names = grow(names, allocate(names.byteSize() * 2, 1));
+      }
+      if (code + 2 > nameOffsets.byteSize() / Integer.BYTES) {
+        nameOffsets = grow(nameOffsets, allocateInts((code + 1) * 2));
+      }
+      MemorySegment.copy(MemorySegment.ofArray(bytes), 0, names, namesSize, bytes.length);
+      namesSize += bytes.length;
+      nameOffsets.setAtIndex(ValueLayout.JAVA_INT, code + 1, namesSize);
+      dictionary.put(name, code);
+      return code;
+    }
+
+    private static MemorySegment allocateLongs(int count) {
+      return allocate((long) count * Long.BYTES, Long.BYTES);
+    }
+
+    private static MemorySegment allocateInts(int count) {
+      return allocate((long) count * Integer.BYTES, Integer.BYTES);
+    }
+
+    private static MemorySegment allocate(long byteSize, long byteAlignment) {
+      return Arena.ofAuto().allocate(byteSize, byteAlignment);
+    }
+
+    private static MemorySegment grow(MemorySegment from, MemorySegment to) {
+      MemorySegment.copy(from, 0, to, 0, from.byteSize());
+      return to;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import org.springframework.data.domain.Sort;
+
+record ProductCursor(ProductSortKey sortKey, Sort.Direction direction, Long id, Object value) {
+  private static final String SEPARATOR = ":";
+
+  static ProductCursor after(
+      ProductSummary product, ProductSortKey sortKey, Sort.Direction direction) {
+    Object value =
+        switch (sortKey) {
+          case ID -> null;
+          case PRICE -> product.getPrice();
+          case NAME -> product.getName();
+        };
+    return new ProductCursor(sortKey, direction, product.getId(), value);
+  }
+
+  static ProductCursor decode(String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(SEPARATOR, 4);
+      ProductSortKey sortKey = ProductSortKey.valueOf(parts[0]);
+      Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+      Long id = Long.parseLong(parts[2]);
+      Object value =
+          switch (sortKey) {
+            case ID -> null;
+            case PRICE -> new BigDecimal(parts[3]);
+            case NAME -> parts[3];
+          };
+      return new ProductCursor(sortKey, direction, id, value);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  String encode() {
+    String raw =
+        String.join(
+            SEPARATOR,
+            sortKey.name(),
+            direction.name(),
+            id.toString(),
+            value != null ? value.toString() : "");
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
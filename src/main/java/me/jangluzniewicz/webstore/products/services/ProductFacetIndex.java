@@ -0,0 +1,344 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.models.CategoryFacet;
+import me.jangluzniewicz.webstore.products.models.PriceFacet;
+import me.jangluzniewicz.webstore.products.models.ProductFacets;
+import me.jangluzniewicz.webstore.products.repositories.ProductFacetView;
+import me.jangluzniewicz.webstore.products.repositories.ProductProjection;
+import me.jangluzniewicz.webstore.products.repositories.ProductSpecification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory facet index keeping an {@link IdBitmap} of product ids per category and per price
+ * bucket. Facet counts for a filter are intersections of these bitmaps with the bitmap of the
+ * name-filter result from {@link ProductNameIndex}, so no query reaches the database. The index is
+ * built on startup and refreshed after every committed {@link ProductChangedEvent} by reloading the
+ * category and price of the changed products.
+ *
+ * <p>Changes committed by other instances are picked up by a rebuild every {@code
+ * rebuild-interval}, which builds new bitmaps without holding the lock and swaps them in, replaying
+ * the local changes made meanwhile. The first price bucket must start at 0, so that every product
+ * falls into a bucket.
+ */
+@Component
+public class ProductFacetIndex {
+  private static final int BATCH_SIZE = 10_000;
+  private final IPaging pagingService;
+  private final ProductNameIndex productNameIndex;
+  private final boolean enabled;
+  private final List<BigDecimal> bucketBounds;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private Index index;
+  private List<Update> updatesDuringRebuild;
+  private volatile boolean ready;
+
+  /** A local change; {@code product} is null when the product was deleted. */
+  private record Update(Long id, ProductFacetView product) {}
+
+  @Autowired
+  public ProductFacetIndex(
+      IPaging pagingService,
+      ProductNameIndex productNameIndex,
+      @Value("${products.facets.enabled}") boolean enabled,
+      @Value("${products.facets.price-buckets}") List<BigDecimal> bucketBounds) {
+    this.pagingService = pagingService;
+    this.productNameIndex = productNameIndex;
+    this.enabled = enabled;
+    this.bucketBounds = bucketBounds.stream().sorted().toList();
+    if (this.bucketBounds.isEmpty() || this.bucketBounds.getFirst().signum() > 0) {
+      throw new IllegalArgumentException("The first price bucket must start at 0");
+    }
+    this.index = new Index();
+  }
+
+  public ProductFacetIndex(ProductNameIndex productNameIndex, List<BigDecimal> bucketBounds) {
+    this(null, productNameIndex, true, bucketBounds);
+    this.ready = true;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${products.facets.rebuild-interval}",
+      fixedDelayString = "${products.facets.rebuild-interval}")
+  public void rebuild() {
+    if (!enabled || !rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      lock.writeLock().lock();
+      try {
+        updatesDuringRebuild = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      Index rebuilt = new Index();
+      boolean complete = true;
+      long lastId = 0;
+      List<ProductFacetView> batch;
+      do {
+        batch =
+            pagingService.findFirst(
+                ProductEntity.class,
+                ProductFacetView.class,
+                ProductProjection.facetView(),
+                ProductSpecification.after(ProductSortKey.ID, Sort.Direction.ASC, lastId, null),
+                Sort.by("id"),
+                BATCH_SIZE);
+        for (ProductFacetView product : batch) {
+          if (!rebuilt.add(product)) {
+            complete = false;
+            break;
+          }
+          lastId = product.id();
+        }
+      } while (complete && batch.size() == BATCH_SIZE);
+      lock.writeLock().lock();
+      try {
+        for (Update update : updatesDuringRebuild) {
+          complete &= rebuilt.apply(update);
+        }
+        updatesDuringRebuild = null;
+        index = rebuilt;
+        ready = complete;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      rebuilding.set(false);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (!enabled || event.productIds().isEmpty()) {
+      return;
+    }
+    List<ProductFacetView> changed =
+        pagingService.findFirst(
+            ProductEntity.class,
+            ProductFacetView.class,
+            ProductProjection.facetView(),
+            ProductSpecification.byIds(event.productIds()),
+            Sort.by("id"),
+            event.productIds().size());
+    Set<Long> deleted = new HashSet<>(event.productIds());
+    List<Update> updates = new ArrayList<>();
+    changed.forEach(
+        product -> {
+          deleted.remove(product.id());
+          updates.add(new Update(product.id(), product));
+        });
+    deleted.forEach(id -> updates.add(new Update(id, null)));
+    update(updates);
+  }
+
+  public void put(ProductFacetView product) {
+    update(List.of(new Update(product.id(), product)));
+  }
+
+  public void remove(Long id) {
+    update(List.of(new Update(id, null)));
+  }
+
+  /**
+   * Counts the products matching {@code filter} per category and per price bucket.
+   *
+   * @return the facet counts, or empty when the index is not built or the name criterion cannot be
+   *     answered by {@link ProductNameIndex}.
+   */
+  public Optional<ProductFacets> facets(ProductFilterRequest filter) {
+    if (!ready) {
+      return Optional.empty();
+    }
+    IdBitmap names = null;
+    if (filter.getName() != null) {
+      Optional<List<Long>> ids = productNameIndex.resolve(filter.getName(), Integer.MAX_VALUE);
+      if (ids.isEmpty()) {
+        return Optional.empty();
+      }
+      names = IdBitmap.of(ids.get());
+    }
+    lock.readLock().lock();
+    try {
+      if (!ready) {
+        return Optional.empty();
+      }
+      IdBitmap category =
+          filter.getCategoryId() != null
+              ? index.categories.getOrDefault(filter.getCategoryId(), new IdBitmap())
+              : null;
+      IdBitmap prices =
+          filter.getPriceFrom() != null || filter.getPriceTo() != null
+              ? index.priceRange(filter.getPriceFrom(), filter.getPriceTo())
+              : null;
+      IdBitmap categoryBase = and(names, prices);
+      List<CategoryFacet> categoryFacets = new ArrayList<>();
+      index.categories.forEach(
+          (categoryId, bitmap) -> {
+            long count = count(bitmap, categoryBase);
+            if (count > 0) {
+              categoryFacets.add(new CategoryFacet(categoryId, count));
+            }
+          });
+      IdBitmap priceBase = and(names, category);
+      List<PriceFacet> priceFacets = new ArrayList<>();
+      for (int i = 0; i < index.priceBuckets.length; i++) {
+        priceFacets.add(
+            new PriceFacet(
+                bucketBounds.get(i), upperBound(i), count(index.priceBuckets[i], priceBase)));
+      }
+      return Optional.of(new ProductFacets(categoryFacets, priceFacets));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void update(List<Update> updates) {
+    lock.writeLock().lock();
+    try {
+      for (Update update : updates) {
+        if (!index.apply(update)) {
+          ready = false;
+        }
+      }
+      if (updatesDuringRebuild != null) {
+        updatesDuringRebuild.addAll(updates);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the index of the bucket holding {@code price}; prices below 0 fall into the first. */
+  private int bucket(BigDecimal price) {
+    for (int i = bucketBounds.size() - 1; i > 0; i--) {
+      if (price.compareTo(bucketBounds.get(i)) >= 0) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  private BigDecimal upperBound(int bucket) {
+    return bucket + 1 < bucketBounds.size() ? bucketBounds.get(bucket + 1) : null;
+  }
+
+  private static IdBitmap and(IdBitmap first, IdBitmap second) {
+    if (first == null) {
+      return second;
+    }
+    return second == null ? first : first.and(second);
+  }
+
+  private static long count(IdBitmap bitmap, IdBitmap base) {
+    return base == null ? bitmap.cardinality() : bitmap.andCardinality(base);
+  }
+
+  private class Index {
+    private final Map<Long, IdBitmap> categories = new TreeMap<>();
+    private final IdBitmap[] priceBuckets = new IdBitmap[bucketBounds.size()];
+    private final Map<Integer, ProductFacetView> products = new HashMap<>();
+
+    Index() {
+      for (int i = 0; i < priceBuckets.length; i++) {
+        priceBuckets[i] = new IdBitmap();
+      }
+    }
+
+    /** Applies {@code update} and returns false when the id does not fit the index. */
+    boolean apply(Update update) {
+      if (update.id() > Integer.MAX_VALUE) {
+        return update.product() == null;
+      }
+      remove(update.id().intValue());
+      return update.product() == null || add(update.product());
+    }
+
+    boolean add(ProductFacetView product) {
+      if (product.id() > Integer.MAX_VALUE) {
+        return false;
+      }
+      int id = product.id().intValue();
+      products.put(id, product);
+      categories.computeIfAbsent(product.categoryId(), _ -> new IdBitmap()).add(id);
+      priceBuckets[bucket(product.price())].add(id);
+      return true;
+    }
+
+    void remove(int id) {
+      ProductFacetView product = products.remove(id);
+      if (product == null) {
+        return;
+      }
+      IdBitmap category = categories.get(product.categoryId());
+      if (category != null) {
+        category.remove(id);
+        if (category.cardinality() == 0) {
+          categories.remove(product.categoryId());
+        }
+      }
+      priceBuckets[bucket(product.price())].remove(id);
+    }
+
+    /**
+     * Builds the bitmap of the products priced within {@code [from, to]}. Buckets lying entirely
+     * inside the range are taken as a whole; only the members of the buckets cut by a bound are
+     * checked one by one.
+     */
+    private IdBitmap priceRange(BigDecimal from, BigDecimal to) {
+      IdBitmap result = new IdBitmap();
+      for (int i = 0; i < priceBuckets.length; i++) {
+        BigDecimal lower = bucketBounds.get(i);
+        BigDecimal upper = upperBound(i);
+        boolean overlaps =
+            (to == null || lower.compareTo(to) <= 0)
+                && (from == null || upper == null || upper.compareTo(from) > 0);
+        if (!overlaps) {
+          continue;
+        }
+        boolean covered =
+            (from == null || lower.compareTo(from) >= 0)
+                && (to == null || (upper != null && upper.compareTo(to) <= 0));
+        if (covered) {
+          result = result.or(priceBuckets[i]);
+        } else {
+          IdBitmap partial = result;
+          priceBuckets[i].forEach(
+              id -> {
+                BigDecimal price = products.get(id).price();
+                if ((from == null || price.compareTo(from) >= 0)
+                    && (to == null || price.compareTo(to) <= 0)) {
+                  partial.add(id);
+                }
+              });
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
+import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.commons.interfaces.ICsvReader;
+import me.jangluzniewicz.webstore.commons.models.CsvRow;
+import me.jangluzniewicz.webstore.commons.models.CsvRowError;
+import me.jangluzniewicz.webstore.exceptions.ConflictException;
+import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.interfaces.IProductImport;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductImportJob;
+import me.jangluzniewicz.webstore.products.models.ProductImportStatus;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Runs CSV product imports as background jobs on a dedicated bounded executor. Every chunk of rows
+ * is saved in its own transaction, whose persistence context is closed on commit so that saved
+ * entities do not pile up across chunks; when a chunk fails, its rows are saved one by one so that
+ * a single bad row is reported instead of aborting the whole file. Finished jobs are kept for
+ * {@code retention} so that clients can read the final report.
+ */
+@Service
+@Validated
+public class ProductImportService implements IProductImport {
+  private final ProductRepository productRepository;
+  private final ProductMapper productMapper;
+  private final ICategory categoryService;
+  private final ICsvReader<ProductRequest> csvReader;
+  private final ProductNameIndex productNameIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final AsyncTaskExecutor productImportExecutor;
+  private final Integer chunkSize;
+  private final Integer maxReportedErrors;
+  private final Duration retention;
+  private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+  public ProductImportService(
+      ProductRepository productRepository,
+      ProductMapper productMapper,
+      ICategory categoryService,
+      ICsvReader<ProductRequest> csvReader,
+      ProductNameIndex productNameIndex,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager,
+      AsyncTaskExecutor productImportExecutor,
+      @Value("${products.import.chunk-size}") Integer chunkSize,
+      @Value("${products.import.max-reported-errors}") Integer maxReportedErrors,
+      @Value("${products.import.retention}") Duration retention) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.categoryService = categoryService;
+    this.csvReader = csvReader;
+    this.productNameIndex = productNameIndex;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.productImportExecutor = productImportExecutor;
+    this.chunkSize = chunkSize;
+    this.maxReportedErrors = maxReportedErrors;
+    this.retention = retention;
+  }
+
+  @Override
+  public ProductImportJob startCsvImport(MultipartFile file) {
+    final String TYPE = "text/csv";
+    if (!TYPE.equals(file.getContentType())) {
+      throw new IllegalArgumentException("File must be of type text/csv");
+    }
+    purgeFinishedJobs();
+    Path path;
+    try {
+      path = Files.createTempFile("product-import-", ".csv");
+      file.transferTo(path);
+    } catch (IOException e) {
+      throw new CsvReaderException("Error while reading CSV file");
+    }
+    ImportJob job = new ImportJob(UUID.randomUUID(), file.getOriginalFilename());
+    jobs.put(job.id, job);
+    try {
+      productImportExecutor.execute(() -> run(job, path));
+    } catch (TaskRejectedException e) {
+      jobs.remove(job.id);
+      deleteQuietly(path);
+      throw new ConflictException("Too many product imports in progress");
+    }
+    return job.snapshot();
+  }
+
+  @Override
+  public Optional<ProductImportJob> getImportJob(UUID id) {
+    purgeFinishedJobs();
+    return Optional.ofNullable(jobs.get(id)).map(ImportJob::snapshot);
+  }
+
+  @Override
+  public void cancelImportJob(UUID id) {
+    ImportJob job = jobs.get(id);
+    if (job == null) {
+      throw new NotFoundException("Import job with id " + id + " not found");
+    }
+    if (!job.cancel()) {
+      throw new ConflictException("Import job with id " + id + " has already finished");
+    }
+  }
+
+  private void run(ImportJob job, Path path) {
+    try {
+      if (!job.start()) {
+        return;
+      }
+      try (InputStream inputStream = Files.newInputStream(path)) {
+        csvReader.csvToRows(inputStream, chunkSize, rows -> importChunk(job, rows), job::rejectRow);
+        job.finish(ProductImportStatus.COMPLETED, null);
+      } catch (CancellationException e) {
+        job.finish(ProductImportStatus.CANCELLED, null);
+      } catch (IOException | UncheckedIOException | CsvReaderException e) {
+        job.finish(ProductImportStatus.FAILED, "Error while reading CSV file");
+      } catch (RuntimeException e) {
+        job.finish(ProductImportStatus.FAILED, e.getMessage());
+      }
+    } finally {
+      deleteQuietly(path);
+    }
+  }
+
+  private void importChunk(ImportJob job, List<CsvRow<ProductRequest>> rows) {
+    if (job.cancelled) {
+      throw new CancellationException();
+    }
+    Map<Long, Category> categories =
+        categoryService.getCategoriesByIds(
+            rows.stream().map(row -> row.getValue().getCategoryId()).collect(Collectors.toSet()));
+    List<CsvRow<ProductRequest>> validRows = new ArrayList<>();
+    for (CsvRow<ProductRequest> row : rows) {
+      Long categoryId = row.getValue().getCategoryId();
+      if (categories.containsKey(categoryId)) {
+        validRows.add(row);
+      } else {
+        job.reportUnknownCategory(row.getRowNumber(), categoryId);
+      }
+    }
+    List<ProductEntity> savedEntities;
+    try {
+      List<ProductEntity> productEntities =
+          validRows.stream().map(row -> toEntity(row.getValue(), categories)).toList();
+      savedEntities = transactionTemplate.execute(_ -> productRepository.saveAll(productEntities));
+    } catch (RuntimeException e) {
+      savedEntities = importRowByRow(job, validRows, categories);
+    }
+    job.rowsImported.addAndGet(savedEntities.size());
+    job.rowsProcessed.addAndGet(rows.size());
+    savedEntities.forEach(
+        productEntity -> productNameIndex.put(productEntity.getId(), productEntity.getName()));
+    eventPublisher.publishEvent(
+        new ProductChangedEvent(
+            savedEntities.stream().map(ProductEntity::getId).toList(), categories.keySet()));
+  }
+
+  private List<ProductEntity> importRowByRow(
+      ImportJob job, List<CsvRow<ProductRequest>> rows, Map<Long, Category> categories) {
+    List<ProductEntity> savedEntities = new ArrayList<>();
+    for (CsvRow<ProductRequest> row : rows) {
+      try {
+        savedEntities.add(
+            transactionTemplate.execute(
+                _ -> productRepository.save(toEntity(row.getValue(), categories))));
+      } catch (RuntimeException e) {
+        job.reportRowError(new CsvRowError(row.getRowNumber(), "Product could not be saved"));
+      }
+    }
+    return savedEntities;
+  }
+
+  private ProductEntity toEntity(ProductRequest productRequest, Map<Long, Category> categories) {
+    return productMapper.toEntity(
+        Product.builder()
+            .name(productRequest.getName())
+            .description(productRequest.getDescription())
+            .price(productRequest.getPrice())
+            .weight(productRequest.getWeight())
+            .category(categories.get(productRequest.getCategoryId()))
+            .build());
+  }
+
+  private void purgeFinishedJobs() {
+    LocalDateTime threshold = LocalDateTime.now().minus(retention);
+    jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {
+      // the file lives in the temporary directory and is cleaned up by the system
+    }
+  }
+
+  private class ImportJob {
+    private final UUID id;
+    private final String fileName;
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<CsvRowError> failedRows = new CopyOnWriteArrayList<>();
+    private final Set<Long> unknownCategoryIds = new ConcurrentSkipListSet<>();
+    private volatile ProductImportStatus status = ProductImportStatus.QUEUED;
+    private volatile boolean cancelled;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    ImportJob(UUID id, String fileName) {
+      this.id = id;
+      this.fileName = fileName;
+    }
+
+    synchronized boolean start() {
+      if (status != ProductImportStatus.QUEUED) {
+        return false;
+      }
+      status = ProductImportStatus.RUNNING;
+      startedAt = LocalDateTime.now();
+      startedNanos = System.nanoTime();
+      return true;
+    }
+
+    synchronized void finish(ProductImportStatus finalStatus, String finalError) {
+      error = finalError;
+      finishedNanos = System.nanoTime();
+      finishedAt = LocalDateTime.now();
+      status = finalStatus;
+    }
+
+    synchronized boolean cancel() {
+      if (status.isFinished()) {
+        return false;
+      }
+      cancelled = true;
+      if (status == ProductImportStatus.QUEUED) {
+        finishedAt = LocalDateTime.now();
+        status = ProductImportStatus.CANCELLED;
+      }
+      return true;
+    }
+
+    void rejectRow(CsvRowError rowError) {
+      rowsProcessed.incrementAndGet();
+      reportRowError(rowError);
+    }
+
+    void reportUnknownCategory(long rowNumber, Long categoryId) {
+      unknownCategoryIds.add(categoryId);
+      reportRowError(new CsvRowError(rowNumber, "Category with id " + categoryId + " not found"));
+    }
+
+    void reportRowError(CsvRowError rowError) {
+      rowsFailed.incrementAndGet();
+      if (failedRows.size() < maxReportedErrors) {
+        failedRows.add(rowError);
+      }
+    }
+
+    ProductImportJob snapshot() {
+      long processed = rowsProcessed.get();
+      double rowsPerSecond = 0;
+      if (startedAt != null) {
+        long end = finishedAt != null && finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double seconds = (end - startedNanos) / 1_000_000_000.0;
+        rowsPerSecond = seconds > 0 ? processed / seconds : 0;
+      }
+      return ProductImportJob.builder()
+          .id(id)
+          .status(status)
+          .fileName(fileName)
+          .rowsProcessed(processed)
+          .rowsImported(rowsImported.get())
+          .rowsFailed(rowsFailed.get())
+          .rowsPerSecond(rowsPerSecond)
+          .failedRows(List.copyOf(failedRows))
+          .unknownCategoryIds(List.copyOf(unknownCategoryIds))
+          .error(error)
+          .startedAt(startedAt)
+          .finishedAt(finishedAt)
+          .build();
+    }
+  }
+}
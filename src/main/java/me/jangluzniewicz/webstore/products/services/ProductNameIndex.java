@@ -0,0 +1,304 @@
+package me.jangluzniewicz.webstore.products.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import me.jangluzniewicz.webstore.products.repositories.ProductNameView;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over lower-cased product names. Each trigram maps to a sorted list of
+ * product ids, so a substring query is answered by intersecting the posting lists of its trigrams
+ * and checking the remaining candidates against the indexed names. Queries shorter than a trigram,
+ * queries matching more than {@code maxCandidates} products and queries issued before the index is
+ * built are left to the database.
+ *
+ * <p>Local writes update the index after commit. Writes committed by other instances are picked up
+ * by a rebuild every {@code rebuild-interval}, which scans the catalog without holding the lock and
+ * swaps the new index in, replaying the local updates made during the scan.
+ */
+@Component
+public class ProductNameIndex {
+  private static final int GRAM = 3;
+  private static final int BATCH_SIZE = 10_000;
+  private final ProductRepository productRepository;
+  private final boolean enabled;
+  private final int maxCandidates;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private Index index = new Index();
+  private List<Update> updatesDuringRebuild;
+  private volatile boolean ready;
+
+  /** A local update; {@code name} is null when the product was deleted. */
+  private record Update(Long id, String name) {}
+
+  @Autowired
+  public ProductNameIndex(
+      ProductRepository productRepository,
+      @Value("${products.name-index.enabled}") boolean enabled,
+      @Value("${products.name-index.max-candidates}") int maxCandidates) {
+    this.productRepository = productRepository;
+    this.enabled = enabled;
+    this.maxCandidates = maxCandidates;
+  }
+
+  public ProductNameIndex(int maxCandidates) {
+    this(null, true, maxCandidates);
+    this.ready = true;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${products.name-index.rebuild-interval}",
+      fixedDelayString = "${products.name-index.rebuild-interval}")
+  public void rebuild() {
+    if (!enabled || !rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      lock.writeLock().lock();
+      try {
+        updatesDuringRebuild = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      Index rebuilt = new Index();
+      boolean complete = true;
+      long lastId = 0;
+      List<ProductNameView> batch;
+      do {
+        batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BATCH_SIZE));
+        for (ProductNameView product : batch) {
+          if (!rebuilt.add(product.getId(), product.getName())) {
+            complete = false;
+            break;
+          }
+          lastId = product.getId();
+        }
+      } while (complete && batch.size() == BATCH_SIZE);
+      lock.writeLock().lock();
+      try {
+        for (Update update : updatesDuringRebuild) {
+          complete &= rebuilt.apply(update);
+        }
+        updatesDuringRebuild = null;
+        index = rebuilt;
+        ready = complete;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      rebuilding.set(false);
+    }
+  }
+
+  public void put(Long id, String name) {
+    update(new Update(id, name));
+  }
+
+  public void remove(Long id) {
+    update(new Update(id, null));
+  }
+
+  /**
+   * Resolves the ids of the products whose name contains {@code query}, ignoring case.
+   *
+   * @return the matching ids in ascending order, or empty when the query has to be answered by the
+   *     database.
+   */
+  public Optional<List<Long>> resolve(String query) {
+    return resolve(query, maxCandidates);
+  }
+
+  /**
+   * Same as {@link #resolve(String)}, but gives up only when more than {@code limit} products
+   * match.
+   */
+  public Optional<List<Long>> resolve(String query, int limit) {
+    String needle = query.toLowerCase(Locale.ROOT);
+    if (!ready || needle.length() < GRAM) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      return ready ? index.resolve(needle, limit) : Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.names.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void update(Update update) {
+    lock.writeLock().lock();
+    try {
+      if (!index.apply(update)) {
+        ready = false;
+      }
+      if (updatesDuringRebuild != null) {
+        updatesDuringRebuild.add(update);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static long[] trigrams(String value) {
+    if (value.length() < GRAM) {
+      return new long[0];
+    }
+    long[] trigrams = new long[value.length() - GRAM + 1];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] =
+          ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+    }
+    Arrays.sort(trigrams);
+    int distinct = 0;
+    for (int i = 0; i < trigrams.length; i++) {
+      if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+        trigrams[distinct++] = trigrams[i];
+      }
+    }
+    return Arrays.copyOf(trigrams, distinct);
+  }
+
+  private static class Index {
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+
+    /** Applies {@code update} and returns false when the id does not fit the index. */
+    boolean apply(Update update) {
+      if (update.id() > Integer.MAX_VALUE) {
+        return update.name() == null;
+      }
+      remove(update.id().intValue());
+      return update.name() == null || add(update.id(), update.name());
+    }
+
+    boolean add(Long id, String name) {
+      if (id > Integer.MAX_VALUE) {
+        return false;
+      }
+      String lowerCaseName = name.toLowerCase(Locale.ROOT);
+      names.put(id.intValue(), lowerCaseName);
+      for (long trigram : trigrams(lowerCaseName)) {
+        postings.computeIfAbsent(trigram, _ -> new PostingList()).add(id.intValue());
+      }
+      return true;
+    }
+
+    Optional<List<Long>> resolve(String needle, int limit) {
+      long[] trigrams = trigrams(needle);
+      PostingList[] lists = new PostingList[trigrams.length];
+      for (int i = 0; i < trigrams.length; i++) {
+        lists[i] = postings.get(trigrams[i]);
+        if (lists[i] == null) {
+          return Optional.of(List.of());
+        }
+      }
+      Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+      int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+      int count = candidates.length;
+      for (int i = 1; i < lists.length && count > 0; i++) {
+        count = lists[i].retainAll(candidates, count);
+      }
+      List<Long> ids = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        if (names.get(candidates[i]).contains(needle)) {
+          if (ids.size() == limit) {
+            return Optional.empty();
+          }
+          ids.add((long) candidates[i]);
+        }
+      }
+      return Optional.of(ids);
+    }
+
+    private void remove(int id) {
+      String name = names.remove(id);
+      if (name == null) {
+        return;
+      }
+      for (long trigram : trigrams(name)) {
+        PostingList list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+          postings.remove(trigram);
+        }
+      }
+    }
+  }
+
+  private static class PostingList {
+    private int[] ids = new int[4];
+    private int size;
+
+    void add(int id) {
+      if (size > 0 && ids[size - 1] < id) {
+        append(id);
+        return;
+      }
+      int index = Arrays.binarySearch(ids, 0, size, id);
+      if (index >= 0) {
+        return;
+      }
+      int insertion = -index - 1;
+      append(id);
+      System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion - 1);
+      ids[insertion] = id;
+    }
+
+    boolean remove(int id) {
+      int index = Arrays.binarySearch(ids, 0, size, id);
+      if (index < 0) {
+        return false;
+      }
+      System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+      size--;
+      return true;
+    }
+
+    /** Keeps in {@code candidates} only the ids present in this list and returns their count. */
+    int retainAll(int[] candidates, int count) {
+      int kept = 0;
+      int position = 0;
+      for (int i = 0; i < count && position < size; i++) {
+        position = Arrays.binarySearch(ids, position, size, candidates[i]);
+        if (position >= 0) {
+          candidates[kept++] = candidates[i];
+        } else {
+          position = -position - 1;
+        }
+      }
+      return kept;
+    }
+
+    private void append(int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+  }
+}
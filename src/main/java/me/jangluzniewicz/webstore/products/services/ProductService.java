@@ -1,117 +1,139 @@
 package me.jangluzniewicz.webstore.products.services;
 
+import static me.jangluzniewicz.webstore.commons.services.TransactionCallbacks.afterCommit;
+
 import jakarta.transaction.Transactional;
-import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
 import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
-import me.jangluzniewicz.webstore.commons.interfaces.ICsvReader;
+import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.CursorPagedResponse;
+import me.jangluzniewicz.webstore.commons.models.ExportColumn;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
-import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import me.jangluzniewicz.webstore.commons.services.ImageUploadTemplate;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
 import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
 import me.jangluzniewicz.webstore.products.interfaces.IProduct;
 import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
 import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductFacets;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import me.jangluzniewicz.webstore.products.repositories.ProductProjection;
 import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
 import me.jangluzniewicz.webstore.products.repositories.ProductSpecification;
-import org.springframework.data.domain.Page;
+import me.jangluzniewicz.webstore.products.repositories.ProductVersionView;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @Validated
 public class ProductService implements IProduct {
+  private static final List<ExportColumn<ProductSummary>> EXPORT_COLUMNS =
+      List.of(
+          new ExportColumn<>("id", ProductSummary::getId),
+          new ExportColumn<>("name", ProductSummary::getName),
+          new ExportColumn<>("price", ProductSummary::getPrice),
+          new ExportColumn<>("weight", ProductSummary::getWeight),
+          new ExportColumn<>("categoryId", product -> product.getCategory().getId()),
+          new ExportColumn<>("categoryName", product -> product.getCategory().getName()));
   private final ProductRepository productRepository;
   private final ProductMapper productMapper;
   private final ICategory categoryService;
-  private final ICsvReader<ProductRequest> csvReader;
   private final IAwsS3 awsS3;
+  private final IPaging pagingService;
+  private final IExport exportService;
+  private final ProductNameIndex productNameIndex;
+  private final ProductFacetIndex productFacetIndex;
+  private final ProductCatalogSnapshot productCatalogSnapshot;
+  private final ProductCache productCache;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ImageUploadTemplate imageUploadTemplate;
 
   public ProductService(
       ProductRepository productRepository,
       ProductMapper productMapper,
       ICategory categoryService,
-      ICsvReader<ProductRequest> csvReader,
-      IAwsS3 awsS3) {
+      IAwsS3 awsS3,
+      IPaging pagingService,
+      IExport exportService,
+      ProductNameIndex productNameIndex,
+      ProductFacetIndex productFacetIndex,
+      ProductCatalogSnapshot productCatalogSnapshot,
+      ProductCache productCache,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager) {
     this.productRepository = productRepository;
     this.productMapper = productMapper;
     this.categoryService = categoryService;
-    this.csvReader = csvReader;
     this.awsS3 = awsS3;
+    this.pagingService = pagingService;
+    this.exportService = exportService;
+    this.productNameIndex = productNameIndex;
+    this.productFacetIndex = productFacetIndex;
+    this.productCatalogSnapshot = productCatalogSnapshot;
+    this.productCache = productCache;
+    this.eventPublisher = eventPublisher;
+    this.imageUploadTemplate = new ImageUploadTemplate(awsS3, transactionManager);
   }
 
+  /**
+   * Uploads the image before the product row is written, so no transaction is held open while the
+   * upload runs. The uploaded image is deleted again when the product cannot be saved.
+   */
   @Override
-  @Transactional
   public IdResponse createNewProduct(ProductRequest productRequest) {
+    Category category = findCategory(productRequest.getCategoryId());
+    String imageUri = imageUploadTemplate.upload(productRequest.getImage());
     Product product =
         Product.builder()
             .name(productRequest.getName())
             .description(productRequest.getDescription())
             .price(productRequest.getPrice())
             .weight(productRequest.getWeight())
-            .category(
-                categoryService
-                    .getCategoryById(productRequest.getCategoryId())
-                    .orElseThrow(
-                        () ->
-                            new NotFoundException(
-                                "Category with id "
-                                    + productRequest.getCategoryId()
-                                    + " not found")))
+            .category(category)
+            .imageUri(imageUri)
             .build();
-    if (productRequest.getImage() != null) {
-      product.setImageUri(awsS3.uploadFile("", productRequest.getImage()));
-    }
-    return new IdResponse(productRepository.save(productMapper.toEntity(product)).getId());
-  }
-
-  @Override
-  public void createNewProductsFromCsv(MultipartFile file) {
-    final String TYPE = "text/csv";
-    if (!TYPE.equals(file.getContentType())) {
-      throw new IllegalArgumentException("File must be of type text/csv");
-    }
-    List<ProductRequest> productRequests;
-    try {
-      productRequests = csvReader.csvToModel(file.getInputStream());
-    } catch (IOException e) {
-      throw new CsvReaderException("Error while reading CSV file");
-    }
-    List<ProductEntity> productEntities =
-        productRequests.stream()
-            .map(
-                productRequest ->
-                    Product.builder()
-                        .name(productRequest.getName())
-                        .description(productRequest.getDescription())
-                        .price(productRequest.getPrice())
-                        .weight(productRequest.getWeight())
-                        .category(
-                            categoryService
-                                .getCategoryById(productRequest.getCategoryId())
-                                .orElseThrow(
-                                    () ->
-                                        new NotFoundException(
-                                            "Category with id "
-                                                + productRequest.getCategoryId()
-                                                + " not found")))
-                        .build())
-            .map(productMapper::toEntity)
-            .toList();
-    productRepository.saveAll(productEntities);
+    Long id =
+        imageUploadTemplate.saveOrDiscard(
+            imageUri,
+            () -> {
+              ProductEntity productEntity = productRepository.save(productMapper.toEntity(product));
+              afterCommit(
+                  () -> productNameIndex.put(productEntity.getId(), productEntity.getName()));
+              eventPublisher.publishEvent(
+                  new ProductChangedEvent(
+                      List.of(productEntity.getId()), List.of(productRequest.getCategoryId())));
+              return productEntity.getId();
+            });
+    return new IdResponse(id);
   }
 
+  /**
+   * Uploads a new image before the product row is updated and releases the previous one in the same
+   * transaction. The new image is deleted again when the product cannot be saved.
+   */
   @Override
-  @Transactional
   public void updateProduct(Long id, ProductRequest productRequest) {
     Product product =
         getProductById(id)
@@ -120,55 +142,147 @@ public class ProductService implements IProduct {
     product.setDescription(productRequest.getDescription());
     product.setPrice(productRequest.getPrice());
     product.setWeight(productRequest.getWeight());
-    product.setCategory(
-        categoryService
-            .getCategoryById(productRequest.getCategoryId())
-            .orElseThrow(
-                () ->
-                    new NotFoundException(
-                        "Category with id " + productRequest.getCategoryId() + " not found")));
-    if (productRequest.getImage() != null) {
-      product.setImageUri(
-          product.getImageUri() != null
-              ? awsS3.updateFile(product.getImageUri(), productRequest.getImage())
-              : awsS3.uploadFile("", productRequest.getImage()));
+    Long previousCategoryId = product.getCategory().getId();
+    product.setCategory(findCategory(productRequest.getCategoryId()));
+    String previousImageUri = product.getImageUri();
+    String imageUri = imageUploadTemplate.upload(productRequest.getImage());
+    if (imageUri != null) {
+      product.setImageUri(imageUri);
     }
-    productRepository.save(productMapper.toEntity(product));
+    imageUploadTemplate.saveOrDiscard(
+        imageUri,
+        () -> {
+          productRepository.save(productMapper.toEntity(product));
+          if (imageUri != null && previousImageUri != null) {
+            awsS3.deleteFiles(List.of(previousImageUri));
+          }
+          afterCommit(() -> productNameIndex.put(id, productRequest.getName()));
+          eventPublisher.publishEvent(
+              new ProductChangedEvent(
+                  List.of(id), List.of(previousCategoryId, productRequest.getCategoryId())));
+          return id;
+        });
   }
 
   @Override
   public Optional<Product> getProductById(Long id) {
-    return productRepository
-        .findById(id)
-        .map(
-            productEntity -> {
-              var product = productMapper.fromEntity(productEntity);
-              product.setImageUrl(
-                  product.getImageUri() != null && !product.getImageUri().isEmpty()
-                      ? awsS3.getSignedUrl(product.getImageUri())
-                      : "");
-              return product;
-            });
+    return productCache
+        .getProduct(id, key -> productRepository.findById(key).map(productMapper::fromEntity))
+        .map(this::withSignedUrl);
   }
 
   @Override
-  public PagedResponse<Product> getFilteredProducts(
-      ProductFilterRequest filter, Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Specification<ProductEntity> specification = ProductSpecification.filterBy(filter);
-    Page<Product> products =
-        productRepository
-            .findAll(specification, pageable)
-            .map(
-                productEntity -> {
-                  var product = productMapper.fromEntity(productEntity);
-                  product.setImageUrl(
-                      product.getImageUri() != null && !product.getImageUri().isEmpty()
-                          ? awsS3.getSignedUrl(product.getImageUri())
-                          : "");
-                  return product;
-                });
-    return new PagedResponse<>(products.getTotalPages(), products.toList());
+  public Optional<ProductVersionView> getProductVersion(Long id) {
+    return productRepository.findVersionById(id);
+  }
+
+  @Override
+  public Map<Long, Product> getProductsByIds(Collection<Long> ids, boolean signUrls) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return productRepository.findByIdIn(ids).stream()
+        .map(productMapper::fromEntity)
+        .map(product -> signUrls ? withSignedUrl(product) : product)
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  }
+
+  @Override
+  public Map<Long, Product> getCachedProductsByIds(Collection<Long> ids, boolean signUrls) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Map<Long, Product> products =
+        productCache.getProducts(ids, missingIds -> getProductsByIds(missingIds, false));
+    if (!signUrls) {
+      return products;
+    }
+    return products.values().stream()
+        .map(this::withSignedUrl)
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  }
+
+  @Override
+  public PagedResponse<ProductSummary> getFilteredProducts(
+      ProductFilterRequest filter, Integer page, Integer size, PagingMode pagingMode) {
+    return productCache
+        .getPage(
+            filter,
+            page,
+            size,
+            pagingMode,
+            () ->
+                findPage(
+                    filter,
+                    page,
+                    size,
+                    pagingMode,
+                    ProductSummary.class,
+                    ProductProjection.summary()))
+        .map(this::withSignedUrl);
+  }
+
+  @Override
+  public PagedResponse<ProductVersionView> getFilteredProductVersions(
+      ProductFilterRequest filter, Integer page, Integer size, PagingMode pagingMode) {
+    return findPage(
+        filter, page, size, pagingMode, ProductVersionView.class, ProductProjection.versionView());
+  }
+
+  @Override
+  public Optional<ProductFacets> getProductFacets(ProductFilterRequest filter) {
+    return productFacetIndex.facets(filter);
+  }
+
+  @Override
+  public long exportProducts(
+      ProductFilterRequest filter, ExportFormat format, OutputStream outputStream) {
+    return exportService.export(
+        ProductEntity.class,
+        ProductSummary.class,
+        ProductProjection.summary(),
+        filterBy(filter),
+        Sort.by("id"),
+        format,
+        EXPORT_COLUMNS,
+        outputStream);
+  }
+
+  @Override
+  public CursorPagedResponse<ProductSummary> getFilteredProductsByCursor(
+      ProductFilterRequest filter,
+      String cursor,
+      ProductSortKey sortKey,
+      Sort.Direction direction,
+      Integer size) {
+    Specification<ProductEntity> specification = filterBy(filter);
+    if (cursor != null && !cursor.isEmpty()) {
+      ProductCursor after = ProductCursor.decode(cursor);
+      if (after.sortKey() != sortKey || after.direction() != direction) {
+        throw new IllegalArgumentException("Cursor does not match the requested sort order");
+      }
+      specification =
+          specification.and(
+              ProductSpecification.after(sortKey, direction, after.id(), after.value()));
+    }
+    Sort sort =
+        sortKey == ProductSortKey.ID
+            ? Sort.by(direction, "id")
+            : Sort.by(direction, sortKey.getProperty(), "id");
+    List<ProductSummary> products =
+        pagingService.findFirst(
+            ProductEntity.class,
+            ProductSummary.class,
+            ProductProjection.summary(),
+            specification,
+            sort,
+            size + 1);
+    boolean hasNext = products.size() > size;
+    List<ProductSummary> pageProducts = hasNext ? products.subList(0, size) : products;
+    String nextCursor =
+        hasNext ? ProductCursor.after(pageProducts.getLast(), sortKey, direction).encode() : null;
+    return new CursorPagedResponse<>(
+        nextCursor, pageProducts.stream().map(this::withSignedUrl).toList());
   }
 
   @Override
@@ -179,8 +293,110 @@ public class ProductService implements IProduct {
             .findById(id)
             .orElseThrow(() -> new NotFoundException("Product with id " + id + " not found"));
     if (product.getImageUri() != null) {
-      awsS3.deleteFile(product.getImageUri());
+      awsS3.deleteFiles(List.of(product.getImageUri()));
     }
     productRepository.deleteById(id);
+    afterCommit(() -> productNameIndex.remove(id));
+    eventPublisher.publishEvent(
+        new ProductChangedEvent(List.of(id), List.of(product.getCategory().getId())));
+  }
+
+  private Category findCategory(Long categoryId) {
+    Category category = categoryService.getCategoriesByIds(List.of(categoryId)).get(categoryId);
+    if (category == null) {
+      throw new NotFoundException("Category with id " + categoryId + " not found");
+    }
+    return category;
+  }
+
+  private Specification<ProductEntity> filterBy(ProductFilterRequest filter) {
+    if (filter.getName() == null) {
+      return ProductSpecification.filterBy(filter);
+    }
+    return productNameIndex
+        .resolve(filter.getName())
+        .map(ids -> ProductSpecification.filterBy(filter, ids))
+        .orElseGet(() -> ProductSpecification.filterBy(filter));
+  }
+
+  /**
+   * Resolves a page of filtered products through the catalog snapshot when it can answer the
+   * filter, and with a paged query otherwise.
+   */
+  private <R> PagedResponse<R> findPage(
+      ProductFilterRequest filter,
+      int page,
+      int size,
+      PagingMode pagingMode,
+      Class<R> resultClass,
+      Projection<ProductEntity, R> projection) {
+    return productCatalogSnapshot
+        .find(filter, (long) page * size, size)
+        .map(idPage -> toPage(idPage, size, pagingMode, resultClass, projection))
+        .orElseGet(
+            () ->
+                pagingService.findPage(
+                    ProductEntity.class,
+                    resultClass,
+                    projection,
+                    filterBy(filter),
+                    PageRequest.of(page, size, Sort.by("id")),
+                    pagingMode));
+  }
+
+  /**
+   * Loads the rows of a page whose ids and total were resolved by the catalog snapshot. The total
+   * is exact whatever the paging mode, except that SLICE still reports none.
+   */
+  private <R> PagedResponse<R> toPage(
+      ProductCatalogSnapshot.IdPage idPage,
+      int size,
+      PagingMode pagingMode,
+      Class<R> resultClass,
+      Projection<ProductEntity, R> projection) {
+    List<R> content =
+        idPage.ids().isEmpty()
+            ? List.of()
+            : pagingService.findFirst(
+                ProductEntity.class,
+                resultClass,
+                projection,
+                ProductSpecification.byIds(idPage.ids()),
+                Sort.by("id"),
+                idPage.ids().size());
+    if (pagingMode == PagingMode.SLICE) {
+      return new PagedResponse<>(PagingMode.SLICE, null, null, false, idPage.hasNext(), content);
+    }
+    return new PagedResponse<>(
+        pagingMode,
+        (int) ((idPage.totalElements() + size - 1) / size),
+        idPage.totalElements(),
+        false,
+        idPage.hasNext(),
+        content);
+  }
+
+  private Product withSignedUrl(Product product) {
+    return product.toBuilder()
+        .imageUrl(signedUrl(product.getImageUri()))
+        .imageVariantUrls(signedVariantUrls(product.getImageUri()))
+        .build();
+  }
+
+  private ProductSummary withSignedUrl(ProductSummary product) {
+    return product.toBuilder()
+        .imageUrl(signedUrl(product.getImageUri()))
+        .imageVariantUrls(signedVariantUrls(product.getImageUri()))
+        .build();
+  }
+
+  private String signedUrl(String imageUri) {
+    return imageUri != null && !imageUri.isEmpty() ? awsS3.getSignedUrl(imageUri) : "";
+  }
+
+  private Map<String, String> signedVariantUrls(String imageUri) {
+    return imageUri != null && !imageUri.isEmpty()
+        ? awsS3.getSignedVariantUrls(imageUri)
+        : Map.of();
   }
 }
@@ -13,6 +13,7 @@ import jakarta.validation.Valid;
 import java.net.URI;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.roles.interfaces.IRole;
 import me.jangluzniewicz.webstore.roles.models.Role;
@@ -46,8 +47,14 @@ public class RoleController {
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
-    return ResponseEntity.ok(roleService.getAllRoles(page, size));
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging) {
+    return ResponseEntity.ok(roleService.getAllRoles(page, size, PagingMode.fromString(paging)));
   }
 
   @Operation(summary = "Get role by ID", description = "Returns a role based on the provided ID")
@@ -1,18 +1,20 @@
 package me.jangluzniewicz.webstore.roles.services;
 
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.roles.controllers.RoleRequest;
+import me.jangluzniewicz.webstore.roles.entities.RoleEntity;
 import me.jangluzniewicz.webstore.roles.interfaces.IRole;
 import me.jangluzniewicz.webstore.roles.mappers.RoleMapper;
 import me.jangluzniewicz.webstore.roles.models.Role;
 import me.jangluzniewicz.webstore.roles.repositories.RoleRepository;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -22,10 +24,12 @@ import org.springframework.validation.annotation.Validated;
 public class RoleService implements IRole {
   private final RoleRepository roleRepository;
   private final RoleMapper roleMapper;
+  private final IPaging pagingService;
 
-  public RoleService(RoleRepository roleRepository, RoleMapper roleMapper) {
+  public RoleService(RoleRepository roleRepository, RoleMapper roleMapper, IPaging pagingService) {
     this.roleRepository = roleRepository;
     this.roleMapper = roleMapper;
+    this.pagingService = pagingService;
   }
 
   @Override
@@ -44,10 +48,10 @@ public class RoleService implements IRole {
   }
 
   @Override
-  public PagedResponse<Role> getAllRoles(Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<Role> roles = roleRepository.findAll(pageable).map(roleMapper::fromEntity);
-    return new PagedResponse<>(roles.getTotalPages(), roles.toList());
+  public PagedResponse<Role> getAllRoles(Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService
+        .findPage(RoleEntity.class, null, PageRequest.of(page, size, Sort.by("id")), pagingMode)
+        .map(roleMapper::fromEntity);
   }
 
   @Override
@@ -10,14 +10,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.users.interfaces.IUser;
 import me.jangluzniewicz.webstore.users.models.User;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Users", description = "Operations related to users")
 @RestController
@@ -42,14 +48,50 @@ public class UserController {
               schema = @Schema(implementation = PagedResponse.class)))
   @PreAuthorize("hasRole('ADMIN')")
   @GetMapping
-  public ResponseEntity<PagedResponse<User>> getUsers(
+  public ResponseEntity<PagedResponse<UserSummary>> getUsers(
       @Parameter(in = ParameterIn.QUERY, description = "Page number", example = "0")
           @RequestParam(defaultValue = "0")
           Integer page,
       @Parameter(in = ParameterIn.QUERY, description = "Page size", example = "20")
           @RequestParam(defaultValue = "20")
-          Integer size) {
-    return ResponseEntity.ok(userService.getAllUsers(page, size));
+          Integer size,
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Paging mode (exact, slice, capped or estimated)",
+              example = "exact")
+          @RequestParam(defaultValue = "exact")
+          String paging) {
+    return ResponseEntity.ok(userService.getAllUsers(page, size, PagingMode.fromString(paging)));
+  }
+
+  @Operation(
+      summary = "Export users",
+      description = "Streams all users as CSV or NDJSON without paging (ADMIN only)",
+      security = @SecurityRequirement(name = "bearerAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "Exported users",
+      content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")})
+  @ApiResponse(responseCode = "400", description = "Invalid export format", content = @Content)
+  @PreAuthorize("hasRole('ADMIN')")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportUsers(
+      @Parameter(
+              in = ParameterIn.QUERY,
+              description = "Export format (csv or ndjson)",
+              example = "csv")
+          @RequestParam(defaultValue = "csv")
+          String format) {
+    ExportFormat exportFormat = ExportFormat.fromString(format);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment()
+                .filename("users." + exportFormat.getValue())
+                .build()
+                .toString())
+        .body(outputStream -> userService.exportUsers(exportFormat, outputStream));
   }
 
   @Operation(
@@ -2,13 +2,17 @@ package me.jangluzniewicz.webstore.users.interfaces;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import java.io.OutputStream;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.users.controllers.ChangeUserPasswordRequest;
 import me.jangluzniewicz.webstore.users.controllers.CreateUserRequest;
 import me.jangluzniewicz.webstore.users.controllers.UpdateUserRequest;
 import me.jangluzniewicz.webstore.users.models.User;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
 
 /** Interface for managing users. */
 public interface IUser {
@@ -43,9 +47,20 @@ public interface IUser {
    *
    * @param page the page number to retrieve; must be a non-negative number.
    * @param size the number of users per page; must be a positive number.
-   * @return a {@link PagedResponse} containing the paginated list of users.
+   * @param pagingMode the strategy used to compute the totals of the page; must not be null.
+   * @return a {@link PagedResponse} containing the paginated list of user summaries.
    */
-  PagedResponse<User> getAllUsers(@NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size);
+  PagedResponse<UserSummary> getAllUsers(
+      @NotNull @Min(0) Integer page, @NotNull @Min(1) Integer size, @NotNull PagingMode pagingMode);
+
+  /**
+   * Streams all users to an output stream without paging.
+   *
+   * @param format the format of the export; must not be null.
+   * @param outputStream the stream the users are written to; must not be null.
+   * @return the number of exported users.
+   */
+  long exportUsers(@NotNull ExportFormat format, @NotNull OutputStream outputStream);
 
   /**
    * Updates an existing user.
@@ -0,0 +1,32 @@
+package me.jangluzniewicz.webstore.users.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import me.jangluzniewicz.webstore.roles.models.Role;
+
+@Schema(description = "Model representing a user in a user listing")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class UserSummary {
+  @Schema(description = "Unique identifier of the user", example = "1")
+  private Long id;
+
+  @Schema(description = "Role assigned to the user")
+  private Role role;
+
+  @Schema(description = "Email address of the user", example = "user@example.com")
+  private String email;
+
+  @Schema(description = "Phone number of the user", example = "+12345678901")
+  private String phoneNumber;
+
+  /** Builds a listing row from the columns selected by a projection query. */
+  public UserSummary(Long id, Long roleId, String roleName, String email, String phoneNumber) {
+    this(id, new Role(roleId, roleName), email, phoneNumber);
+  }
+}
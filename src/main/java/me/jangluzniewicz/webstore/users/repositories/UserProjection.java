@@ -0,0 +1,21 @@
+package me.jangluzniewicz.webstore.users.repositories;
+
+import jakarta.persistence.criteria.Path;
+import me.jangluzniewicz.webstore.commons.repositories.Projection;
+import me.jangluzniewicz.webstore.users.entities.UserEntity;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
+
+public class UserProjection {
+  public static Projection<UserEntity, UserSummary> summary() {
+    return ((root, criteriaBuilder) -> {
+      Path<Object> role = root.get("role");
+      return criteriaBuilder.construct(
+          UserSummary.class,
+          root.get("id"),
+          role.get("id"),
+          role.get("name"),
+          root.get("email"),
+          root.get("phoneNumber"));
+    });
+  }
+}
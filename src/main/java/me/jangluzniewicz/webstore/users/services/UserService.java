@@ -1,22 +1,31 @@
 package me.jangluzniewicz.webstore.users.services;
 
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.ExportColumn;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
 import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.roles.interfaces.IRole;
 import me.jangluzniewicz.webstore.users.controllers.ChangeUserPasswordRequest;
 import me.jangluzniewicz.webstore.users.controllers.CreateUserRequest;
 import me.jangluzniewicz.webstore.users.controllers.UpdateUserRequest;
+import me.jangluzniewicz.webstore.users.entities.UserEntity;
 import me.jangluzniewicz.webstore.users.interfaces.IUser;
 import me.jangluzniewicz.webstore.users.mappers.UserMapper;
 import me.jangluzniewicz.webstore.users.models.User;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
+import me.jangluzniewicz.webstore.users.repositories.UserProjection;
 import me.jangluzniewicz.webstore.users.repositories.UserRepository;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -26,23 +35,35 @@ import org.springframework.validation.annotation.Validated;
 @Service
 @Validated
 public class UserService implements IUser {
+  private static final List<ExportColumn<UserSummary>> EXPORT_COLUMNS =
+      List.of(
+          new ExportColumn<>("id", UserSummary::getId),
+          new ExportColumn<>("email", UserSummary::getEmail),
+          new ExportColumn<>("phoneNumber", UserSummary::getPhoneNumber),
+          new ExportColumn<>("role", user -> user.getRole().getName()));
   private final UserRepository userRepository;
   private final IRole roleService;
   private final PasswordEncoder passwordEncoder;
   private final UserMapper userMapper;
   private final ICart cartService;
+  private final IPaging pagingService;
+  private final IExport exportService;
 
   public UserService(
       UserRepository userRepository,
       PasswordEncoder passwordEncoder,
       UserMapper userMapper,
       IRole roleService,
-      ICart cartService) {
+      ICart cartService,
+      IPaging pagingService,
+      IExport exportService) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
     this.userMapper = userMapper;
     this.roleService = roleService;
     this.cartService = cartService;
+    this.pagingService = pagingService;
+    this.exportService = exportService;
   }
 
   @Override
@@ -121,10 +142,27 @@ public class UserService implements IUser {
   }
 
   @Override
-  public PagedResponse<User> getAllUsers(Integer page, Integer size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<User> users = userRepository.findAll(pageable).map(userMapper::fromEntity);
-    return new PagedResponse<>(users.getTotalPages(), users.toList());
+  public PagedResponse<UserSummary> getAllUsers(Integer page, Integer size, PagingMode pagingMode) {
+    return pagingService.findPage(
+        UserEntity.class,
+        UserSummary.class,
+        UserProjection.summary(),
+        null,
+        PageRequest.of(page, size, Sort.by("id")),
+        pagingMode);
+  }
+
+  @Override
+  public long exportUsers(ExportFormat format, OutputStream outputStream) {
+    return exportService.export(
+        UserEntity.class,
+        UserSummary.class,
+        UserProjection.summary(),
+        null,
+        Sort.by("id"),
+        format,
+        EXPORT_COLUMNS,
+        outputStream);
   }
 
   @Override
@@ -0,0 +1,98 @@
+package me.jangluzniewicz.webstore.aws.benchmarks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import me.jangluzniewicz.webstore.aws.services.PresignedUrlCache;
+import me.jangluzniewicz.webstore.aws.services.PresignedUrlCache.SignedUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+/**
+ * Time to hand out the image URLs of one 100-product listing page. {@code signEveryUrl} presigns
+ * every URL as {@code S3Service} did before {@link PresignedUrlCache}; {@code reuseCachedUrls} goes
+ * through the cache, which signs each key once per signature lifetime.
+ *
+ * <p>Measured on JDK 21.0.1, 1 vCPU:
+ *
+ * <pre>
+ * Benchmark                                   Mode  Cnt      Score      Error  Units
+ * PresignedUrlCacheBenchmark.reuseCachedUrls  avgt    5      9.062 ±    4.123  us/op
+ * PresignedUrlCacheBenchmark.signEveryUrl     avgt    5  13453.624 ± 6652.032  us/op
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PresignedUrlCacheBenchmark {
+  private static final Duration SIGNATURE_DURATION = Duration.ofMinutes(10);
+  private static final int PAGE_SIZE = 100;
+
+  private S3Presigner s3Presigner;
+  private PresignedUrlCache presignedUrlCache;
+  private List<String> keys;
+
+  @Setup
+  public void setUp() {
+    s3Presigner =
+        S3Presigner.builder()
+            .endpointOverride(URI.create("http://localhost:9000"))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+            .region(Region.EU_CENTRAL_1)
+            .build();
+    presignedUrlCache = new PresignedUrlCache(10_000, Duration.ofMinutes(1));
+    keys = IntStream.range(0, PAGE_SIZE).mapToObj(i -> "products/" + i + "_image.png").toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    s3Presigner.close();
+  }
+
+  @Benchmark
+  public void signEveryUrl(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(presign(key).url());
+    }
+  }
+
+  @Benchmark
+  public void reuseCachedUrls(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(presignedUrlCache.get(key, this::presign));
+    }
+  }
+
+  private SignedUrl presign(String key) {
+    GetObjectPresignRequest presignRequest =
+        GetObjectPresignRequest.builder()
+            .signatureDuration(SIGNATURE_DURATION)
+            .getObjectRequest(GetObjectRequest.builder().bucket("web-store").key(key).build())
+            .build();
+    PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(presignRequest);
+    return new SignedUrl(presigned.url().toString(), presigned.expiration());
+  }
+}
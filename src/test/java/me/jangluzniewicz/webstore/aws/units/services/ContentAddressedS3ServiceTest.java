@@ -0,0 +1,269 @@
+package me.jangluzniewicz.webstore.aws.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+import me.jangluzniewicz.webstore.aws.config.ImageVariantProperties;
+import me.jangluzniewicz.webstore.aws.repositories.ImageReferenceRepository;
+import me.jangluzniewicz.webstore.aws.services.ContentAddressedS3Service;
+import me.jangluzniewicz.webstore.aws.services.ImageResizer;
+import me.jangluzniewicz.webstore.aws.services.ImageVariantRegistry;
+import me.jangluzniewicz.webstore.aws.services.PresignedUrlCache;
+import me.jangluzniewicz.webstore.exceptions.AwsException;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+class ContentAddressedS3ServiceTest extends UnitTest {
+  private static final String CONTENT_HASH =
+      "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+  @Mock private S3Client s3Client;
+  @Mock private S3AsyncClient s3AsyncClient;
+  @Mock private S3Presigner s3Presigner;
+  @Mock private ImageReferenceRepository imageReferenceRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+  @Mock private ImageVariantRegistry imageVariantRegistry;
+
+  private ContentAddressedS3Service contentAddressedS3Service;
+  private MockMultipartFile file;
+
+  @BeforeEach
+  void setUp() {
+    contentAddressedS3Service = withVariants(Map.of());
+    file =
+        new MockMultipartFile(
+            "image", "image.png", "image/png", "hello".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void uploadFile_whenContentIsNew_thenStoreItUnderItsHash() {
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(1L);
+
+    assertEquals(CONTENT_HASH, contentAddressedS3Service.uploadFile("", file));
+    verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+  }
+
+  @Test
+  void uploadFile_whenVariantsAreConfigured_thenRenderThemFromStoredObject() throws IOException {
+    ContentAddressedS3Service service = withVariants(Map.of("thumbnail", 10));
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(1L);
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(png(40, 20)))));
+
+    service.uploadFile("", file);
+
+    verify(s3Client).getObject(any(GetObjectRequest.class));
+    verify(s3Client, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    verify(imageVariantRegistry).record(CONTENT_HASH, Set.of("thumbnail"));
+  }
+
+  @Test
+  void uploadFile_whenContentIsKnown_thenOnlyAddReference() {
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(2L);
+
+    assertEquals(CONTENT_HASH, contentAddressedS3Service.uploadFile("", file));
+    verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+  }
+
+  @Test
+  void uploadFileAsync_whenContentIsNew_thenStreamItUnderItsHash() {
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(1L);
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+    assertEquals(CONTENT_HASH, contentAddressedS3Service.uploadFileAsync("", file).join());
+  }
+
+  @Test
+  void uploadFileAsync_whenContentIsKnown_thenOnlyAddReference() {
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(2L);
+
+    assertEquals(CONTENT_HASH, contentAddressedS3Service.uploadFileAsync("", file).join());
+    verify(s3AsyncClient, never())
+        .putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+  }
+
+  @Test
+  void uploadFileAsync_whenUploadFails_thenReleaseReference() {
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(1L);
+    when(imageReferenceRepository.removeReference(CONTENT_HASH)).thenReturn(1);
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("upload failed")));
+
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class,
+            () -> contentAddressedS3Service.uploadFileAsync("", file).join());
+    assertInstanceOf(AwsException.class, exception.getCause());
+    verify(imageReferenceRepository).deleteIfUnreferenced(CONTENT_HASH);
+  }
+
+  @Test
+  void uploadFileAsync_whenDuplicateJoinsUploadThatFails_thenFailBothAndReleaseBothReferences() {
+    CompletableFuture<PutObjectResponse> put = new CompletableFuture<>();
+    when(imageReferenceRepository.addReference(CONTENT_HASH)).thenReturn(1L, 2L);
+    when(imageReferenceRepository.removeReference(CONTENT_HASH)).thenReturn(1);
+    when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+        .thenReturn(put);
+
+    CompletableFuture<String> first = contentAddressedS3Service.uploadFileAsync("", file);
+    CompletableFuture<String> duplicate = contentAddressedS3Service.uploadFileAsync("", file);
+    assertFalse(duplicate.isDone());
+    put.completeExceptionally(new IllegalStateException("upload failed"));
+
+    assertThrows(CompletionException.class, first::join);
+    assertThrows(CompletionException.class, duplicate::join);
+    verify(s3AsyncClient).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    verify(imageReferenceRepository, times(2)).deleteIfUnreferenced(CONTENT_HASH);
+  }
+
+  @Test
+  void deleteFile_whenLastReferenceIsRemoved_thenDeleteObject() {
+    when(imageReferenceRepository.removeReference(CONTENT_HASH)).thenReturn(1);
+    when(imageReferenceRepository.deleteIfUnreferenced(CONTENT_HASH)).thenReturn(1);
+
+    contentAddressedS3Service.deleteFile(CONTENT_HASH);
+
+    verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  @Test
+  void deleteFile_whenReferencesRemain_thenKeepObject() {
+    when(imageReferenceRepository.removeReference(CONTENT_HASH)).thenReturn(1);
+    when(imageReferenceRepository.deleteIfUnreferenced(CONTENT_HASH)).thenReturn(0);
+
+    contentAddressedS3Service.deleteFile(CONTENT_HASH);
+
+    verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  @Test
+  void updateFile_whenContentIsNew_thenReturnNewKeyAndReleaseOldOne() {
+    when(imageReferenceRepository.addReference(anyString())).thenReturn(1L);
+    when(imageReferenceRepository.removeReference("images/old")).thenReturn(1);
+    when(imageReferenceRepository.deleteIfUnreferenced("images/old")).thenReturn(1);
+
+    assertEquals(
+        "images/" + CONTENT_HASH, contentAddressedS3Service.updateFile("images/old", file));
+    verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  @Test
+  void getSignedUrl_whenPublicUrlIsSet_thenReturnStableUrl() {
+    assertEquals(
+        "https://cdn.example.com/" + CONTENT_HASH,
+        contentAddressedS3Service.getSignedUrl(CONTENT_HASH));
+  }
+
+  @Test
+  void getSignedVariantUrls_whenVariantIsNotStored_thenReturnOriginalInItsPlace() {
+    ContentAddressedS3Service service =
+        withVariants(new LinkedHashMap<>(Map.of("thumbnail", 10, "medium", 20)));
+    when(imageVariantRegistry.find(CONTENT_HASH)).thenReturn(Set.of("thumbnail"));
+
+    Map<String, String> urls = service.getSignedVariantUrls(CONTENT_HASH);
+
+    assertEquals("https://cdn.example.com/" + CONTENT_HASH + "_thumbnail", urls.get("thumbnail"));
+    assertEquals("https://cdn.example.com/" + CONTENT_HASH, urls.get("medium"));
+  }
+
+  @Test
+  void backfillVariants_whenVariantIsStoredButNotRecorded_thenRecordItWithoutRendering() {
+    ContentAddressedS3Service service = withVariants(Map.of("thumbnail", 10));
+    when(imageVariantRegistry.find(CONTENT_HASH)).thenReturn(Set.of());
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(HeadObjectResponse.builder().build());
+
+    service.backfillVariants(CONTENT_HASH);
+
+    verify(imageVariantRegistry).record(CONTENT_HASH, List.of("thumbnail"));
+    verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  void backfillVariants_whenVariantIsMissing_thenRenderAndRecordIt() throws IOException {
+    ContentAddressedS3Service service = withVariants(Map.of("thumbnail", 10));
+    when(imageVariantRegistry.find(CONTENT_HASH)).thenReturn(Set.of());
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenThrow(NoSuchKeyException.builder().build());
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(png(40, 20)))));
+
+    service.backfillVariants(CONTENT_HASH);
+
+    verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    verify(imageVariantRegistry).record(CONTENT_HASH, Set.of("thumbnail"));
+  }
+
+  private ContentAddressedS3Service withVariants(Map<String, Integer> sizes) {
+    return new ContentAddressedS3Service(
+        s3Client,
+        s3AsyncClient,
+        Executors.newVirtualThreadPerTaskExecutor(),
+        s3Presigner,
+        new PresignedUrlCache(10, Duration.ofMinutes(1)),
+        new ImageResizer(new ImageVariantProperties(sizes)),
+        imageVariantRegistry,
+        new TaskExecutorAdapter(new SyncTaskExecutor()),
+        imageReferenceRepository,
+        transactionManager,
+        "bucket",
+        "https://cdn.example.com",
+        Duration.ofDays(365));
+  }
+
+  private static byte[] png(int width, int height) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+    return output.toByteArray();
+  }
+}
@@ -0,0 +1,86 @@
+package me.jangluzniewicz.webstore.aws.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import me.jangluzniewicz.webstore.aws.config.ImageVariantProperties;
+import me.jangluzniewicz.webstore.aws.services.ImageResizer;
+import me.jangluzniewicz.webstore.aws.services.ImageResizer.ImageVariant;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ImageResizerTest extends UnitTest {
+  private ImageResizer imageResizer;
+
+  @BeforeEach
+  void setUp() {
+    Map<String, Integer> sizes = new LinkedHashMap<>();
+    sizes.put("thumbnail", 200);
+    sizes.put("medium", 800);
+    imageResizer = new ImageResizer(new ImageVariantProperties(sizes));
+  }
+
+  @Test
+  void resize_whenImageIsOpaque_thenRenderJpegVariantsKeepingAspectRatio() throws IOException {
+    Map<String, ImageVariant> variants =
+        imageResizer.resize(encode(BufferedImage.TYPE_INT_RGB, 1600, 900, "jpg"));
+
+    assertEquals(List.of("thumbnail", "medium"), List.copyOf(variants.keySet()));
+    assertDimensions(variants.get("thumbnail"), 200, 113);
+    assertDimensions(variants.get("medium"), 800, 450);
+    assertEquals("image/jpeg", variants.get("thumbnail").contentType());
+  }
+
+  @Test
+  void resize_whenImageHasTransparency_thenRenderPngVariants() throws IOException {
+    Map<String, ImageVariant> variants =
+        imageResizer.resize(encode(BufferedImage.TYPE_INT_ARGB, 300, 600, "png"));
+
+    assertDimensions(variants.get("thumbnail"), 100, 200);
+    assertEquals("image/png", variants.get("thumbnail").contentType());
+  }
+
+  @Test
+  void resize_whenImageIsSmallerThanVariant_thenDoNotUpscale() throws IOException {
+    Map<String, ImageVariant> variants =
+        imageResizer.resize(encode(BufferedImage.TYPE_INT_RGB, 120, 80, "png"));
+
+    assertDimensions(variants.get("thumbnail"), 120, 80);
+    assertDimensions(variants.get("medium"), 120, 80);
+  }
+
+  @Test
+  void resize_whenContentIsNotAnImage_thenReturnNoVariants() throws IOException {
+    assertTrue(imageResizer.resize("not an image".getBytes(StandardCharsets.UTF_8)).isEmpty());
+  }
+
+  private static byte[] encode(int type, int width, int height, String format) throws IOException {
+    BufferedImage image = new BufferedImage(width, height, type);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(Color.ORANGE);
+    graphics.fillRect(0, 0, width / 2, height / 2);
+    graphics.dispose();
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    ImageIO.write(image, format, content);
+    return content.toByteArray();
+  }
+
+  private static void assertDimensions(ImageVariant variant, int width, int height)
+      throws IOException {
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(variant.content()));
+    assertEquals(width, image.getWidth());
+    assertEquals(height, image.getHeight());
+  }
+}
@@ -0,0 +1,45 @@
+package me.jangluzniewicz.webstore.aws.units.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import me.jangluzniewicz.webstore.aws.config.ImageVariantProperties;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.aws.repositories.ImageVariantRepository;
+import me.jangluzniewicz.webstore.aws.services.ImageResizer;
+import me.jangluzniewicz.webstore.aws.services.ImageVariantBackfill;
+import me.jangluzniewicz.webstore.exceptions.AwsException;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class ImageVariantBackfillTest extends UnitTest {
+  @Mock private IAwsS3 awsS3;
+  @Mock private ImageVariantRepository imageVariantRepository;
+
+  @Test
+  void backfill_whenKeysSpanSeveralBatches_thenBackfillEachAndContinueAfterFailures() {
+    ImageVariantBackfill backfill =
+        new ImageVariantBackfill(
+            awsS3,
+            imageVariantRepository,
+            new ImageResizer(new ImageVariantProperties(Map.of("thumbnail", 200))),
+            2);
+    when(imageVariantRepository.findKeysMissingVariants(eq(""), any(), eq(1), anyInt()))
+        .thenReturn(List.of("a", "b"));
+    when(imageVariantRepository.findKeysMissingVariants(eq("b"), any(), eq(1), anyInt()))
+        .thenReturn(List.of("c"));
+    doThrow(new AwsException("Error")).when(awsS3).backfillVariants("a");
+
+    backfill.backfill();
+
+    verify(awsS3).backfillVariants("b");
+    verify(awsS3).backfillVariants("c");
+  }
+}
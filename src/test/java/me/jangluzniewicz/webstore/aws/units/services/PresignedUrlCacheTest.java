@@ -0,0 +1,141 @@
+package me.jangluzniewicz.webstore.aws.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import me.jangluzniewicz.webstore.aws.services.PresignedUrlCache;
+import me.jangluzniewicz.webstore.aws.services.PresignedUrlCache.SignedUrl;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PresignedUrlCacheTest extends UnitTest {
+  private static final Duration SIGNATURE_DURATION = Duration.ofMinutes(10);
+  private static final Duration SAFETY_MARGIN = Duration.ofMinutes(1);
+  private static final int PAGE_SIZE = 100;
+
+  private MutableClock clock;
+  private AtomicInteger signings;
+  private Function<String, SignedUrl> signer;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    signings = new AtomicInteger();
+    signer =
+        key ->
+            new SignedUrl(
+                "https://bucket/" + key + "?sig=" + signings.incrementAndGet(),
+                clock.instant().plus(SIGNATURE_DURATION));
+  }
+
+  @Test
+  void generation_whenMarginElapses_thenChangeWhileHandedOutUrlIsStillValid() {
+    PresignedUrlCache cache = new PresignedUrlCache(10, SAFETY_MARGIN, clock);
+    cache.get("image.png", signer);
+    clock.advance(Duration.ofMinutes(8).plusSeconds(30));
+    long generation = cache.generation();
+    String url = cache.get("image.png", signer);
+
+    clock.advance(Duration.ofSeconds(30));
+
+    assertNotEquals(generation, cache.generation());
+    assertTrue(url.endsWith("sig=1"));
+  }
+
+  @Test
+  void get_whenUrlIsFresh_thenReturnCachedUrl() {
+    PresignedUrlCache cache = new PresignedUrlCache(10, SAFETY_MARGIN, clock);
+
+    String first = cache.get("image.png", signer);
+    clock.advance(Duration.ofMinutes(8));
+    String second = cache.get("image.png", signer);
+
+    assertEquals(first, second);
+    assertEquals(1, signings.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  void get_whenUrlIsWithinSafetyMargin_thenSignAgain() {
+    PresignedUrlCache cache = new PresignedUrlCache(10, SAFETY_MARGIN, clock);
+
+    String first = cache.get("image.png", signer);
+    clock.advance(Duration.ofMinutes(9).plusSeconds(1));
+    String second = cache.get("image.png", signer);
+
+    assertNotEquals(first, second);
+    assertEquals(2, signings.get());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  void get_whenCacheExceedsMaxSize_thenEvictEntries() {
+    PresignedUrlCache cache = new PresignedUrlCache(10, SAFETY_MARGIN, clock);
+
+    IntStream.range(0, 25).forEach(i -> cache.get("image-" + i + ".png", signer));
+
+    assertTrue(cache.size() <= 10);
+    assertTrue(cache.getEvictions() >= 15);
+  }
+
+  @Test
+  void get_whenListingPageIsRequestedRepeatedly_thenSignOncePerImage() {
+    PresignedUrlCache cache = new PresignedUrlCache(1000, SAFETY_MARGIN, clock);
+
+    for (int request = 0; request < 50; request++) {
+      IntStream.range(0, PAGE_SIZE).forEach(i -> cache.get("product-" + i + ".png", signer));
+      clock.advance(Duration.ofSeconds(5));
+    }
+
+    assertEquals(PAGE_SIZE, signings.get());
+    assertEquals(49L * PAGE_SIZE, cache.getHits());
+  }
+
+  @Test
+  void invalidate_whenKeyIsCached_thenSignAgain() {
+    PresignedUrlCache cache = new PresignedUrlCache(10, SAFETY_MARGIN, clock);
+
+    cache.get("image.png", signer);
+    cache.invalidate("image.png");
+    cache.get("image.png", signer);
+
+    assertEquals(2, signings.get());
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
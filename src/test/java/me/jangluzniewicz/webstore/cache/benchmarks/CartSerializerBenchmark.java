@@ -0,0 +1,118 @@
+package me.jangluzniewicz.webstore.cache.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import me.jangluzniewicz.webstore.cache.services.CompactRedisSerializer;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * Encode and decode time of a cart of 10 items with 5000-character product descriptions, as cached
+ * in Redis by {@link GenericJackson2JsonRedisSerializer} before and by {@link
+ * CompactRedisSerializer} with the configured 512-byte compression threshold now. The encoded sizes
+ * are printed once per fork. The descriptions are drawn from eight words, so they deflate better
+ * than real ones.
+ *
+ * <p>Measured on JDK 21.0.1, 1 vCPU, with 54,792 bytes of JSON against 8,846 compact bytes. The
+ * compact form trades encode and decode time for a sixth of the Redis memory and network bytes:
+ *
+ * <pre>
+ * Benchmark                              Mode  Cnt    Score     Error  Units
+ * CartSerializerBenchmark.decodeCompact  avgt    5  190.425 ±  12.089  us/op
+ * CartSerializerBenchmark.decodeJson     avgt    5  127.013 ±  34.672  us/op
+ * CartSerializerBenchmark.encodeCompact  avgt    5  629.991 ± 392.765  us/op
+ * CartSerializerBenchmark.encodeJson     avgt    5  164.870 ±   8.359  us/op
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CartSerializerBenchmark {
+  private static final int ITEMS = 10;
+  private static final int DESCRIPTION_LENGTH = 5000;
+  private static final int COMPRESSION_THRESHOLD = 512;
+
+  private GenericJackson2JsonRedisSerializer jsonSerializer;
+  private CompactRedisSerializer compactSerializer;
+  private Cart cart;
+  private byte[] json;
+  private byte[] compact;
+
+  @Setup
+  public void setUp() {
+    jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    compactSerializer = new CompactRedisSerializer(Cart.class, COMPRESSION_THRESHOLD);
+    cart = cart();
+    json = jsonSerializer.serialize(cart);
+    compact = compactSerializer.serialize(cart);
+    System.out.printf("json: %d bytes, compact: %d bytes%n", json.length, compact.length);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() {
+    return jsonSerializer.serialize(cart);
+  }
+
+  @Benchmark
+  public byte[] encodeCompact() {
+    return compactSerializer.serialize(cart);
+  }
+
+  @Benchmark
+  public Object decodeJson() {
+    return jsonSerializer.deserialize(json);
+  }
+
+  @Benchmark
+  public Object decodeCompact() {
+    return compactSerializer.deserialize(compact);
+  }
+
+  private static Cart cart() {
+    Random random = new Random(42);
+    return CartTestDataBuilder.builder()
+        .items(
+            IntStream.rangeClosed(1, ITEMS)
+                .mapToObj(
+                    id ->
+                        CartItemTestDataBuilder.builder()
+                            .id((long) id)
+                            .productBuilder(
+                                ProductTestDataBuilder.builder()
+                                    .id((long) id)
+                                    .description(description(random))
+                                    .build())
+                            .build())
+                .toList())
+        .build()
+        .buildCart();
+  }
+
+  private static String description(Random random) {
+    List<String> words =
+        List.of("wireless", "battery", "noise", "comfort", "sound", "bass", "hours", "fold");
+    StringBuilder description = new StringBuilder();
+    while (description.length() < DESCRIPTION_LENGTH) {
+      description.append(words.get(random.nextInt(words.size()))).append(' ');
+    }
+    return description.substring(0, DESCRIPTION_LENGTH);
+  }
+}
@@ -0,0 +1,28 @@
+package me.jangluzniewicz.webstore.cache.e2e.controllers;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.stream.Stream;
+import me.jangluzniewicz.webstore.utils.e2e.config.E2ETest;
+import me.jangluzniewicz.webstore.utils.e2e.security.WithCustomUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpStatus;
+
+public class CacheControllerTest extends E2ETest {
+  private static final String BASE_URL = "/caches";
+
+  @ParameterizedTest
+  @MethodSource("provideGetCacheStatisticsTestData")
+  @DisplayName("GET /caches/statistics")
+  @WithCustomUser(roles = {"ADMIN"})
+  void getCacheStatisticsTests(String url, HttpStatus expectedStatus) throws Exception {
+    performGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideGetCacheStatisticsTestData() {
+    return Stream.of(Arguments.of(BASE_URL + "/statistics", HttpStatus.OK));
+  }
+}
@@ -0,0 +1,108 @@
+package me.jangluzniewicz.webstore.cache.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import me.jangluzniewicz.webstore.cache.services.CompactRedisSerializer;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class CompactRedisSerializerTest extends UnitTest {
+  private static final int COMPRESSION_THRESHOLD = 512;
+  private final CompactRedisSerializer serializer =
+      new CompactRedisSerializer(Cart.class, COMPRESSION_THRESHOLD);
+  private final GenericJackson2JsonRedisSerializer jsonSerializer =
+      new GenericJackson2JsonRedisSerializer();
+
+  @Test
+  void serialize_whenCartHasLongDescriptions_thenRoundTripInFractionOfJsonSize() {
+    Cart cart = cart(10, 5000);
+
+    byte[] compact = serializer.serialize(cart);
+
+    assertEquals(cart, serializer.deserialize(compact));
+    assertTrue(
+        compact.length * 3 < jsonSerializer.serialize(cart).length,
+        "compact " + compact.length + " bytes, json " + jsonSerializer.serialize(cart).length);
+  }
+
+  @Test
+  void serialize_whenValueIsBelowThreshold_thenRoundTripUncompressed() {
+    Cart cart = CartTestDataBuilder.builder().build().buildCart();
+
+    byte[] compact = serializer.serialize(cart);
+
+    assertTrue(compact.length < COMPRESSION_THRESHOLD);
+    assertEquals(cart, serializer.deserialize(compact));
+  }
+
+  @Test
+  void serialize_whenValueTypeUnknown_thenRoundTripWithTypeHints() {
+    CompactRedisSerializer untypedSerializer =
+        new CompactRedisSerializer(null, COMPRESSION_THRESHOLD);
+    Cart cart = cart(2, 1000);
+
+    assertEquals(cart, untypedSerializer.deserialize(untypedSerializer.serialize(cart)));
+  }
+
+  @Test
+  void serialize_whenNullValue_thenRoundTripNullValue() {
+    assertSame(
+        NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+  }
+
+  @Test
+  void deserialize_whenValueWrittenByJsonSerializer_thenReadIt() {
+    Cart cart = cart(2, 100);
+
+    assertEquals(cart, serializer.deserialize(jsonSerializer.serialize(cart)));
+  }
+
+  @Test
+  void deserialize_whenFormatVersionUnknown_thenThrowSerializationException() {
+    assertThrows(
+        SerializationException.class, () -> serializer.deserialize(new byte[] {9, 0, 1, 2}));
+  }
+
+  private static Cart cart(int items, int descriptionLength) {
+    Random random = new Random(42);
+    return CartTestDataBuilder.builder()
+        .items(
+            IntStream.rangeClosed(1, items)
+                .mapToObj(
+                    id ->
+                        CartItemTestDataBuilder.builder()
+                            .id((long) id)
+                            .productBuilder(
+                                ProductTestDataBuilder.builder()
+                                    .id((long) id)
+                                    .description(description(random, descriptionLength))
+                                    .build())
+                            .build())
+                .toList())
+        .build()
+        .buildCart();
+  }
+
+  private static String description(Random random, int length) {
+    List<String> words =
+        List.of("wireless", "battery", "noise", "comfort", "sound", "bass", "hours", "fold");
+    StringBuilder description = new StringBuilder();
+    while (description.length() < length) {
+      description.append(words.get(random.nextInt(words.size()))).append(' ');
+    }
+    return description.substring(0, length);
+  }
+}
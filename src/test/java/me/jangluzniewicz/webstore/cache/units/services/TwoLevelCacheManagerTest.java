@@ -0,0 +1,215 @@
+package me.jangluzniewicz.webstore.cache.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties.Policy;
+import me.jangluzniewicz.webstore.cache.config.TwoLevelCacheProperties.Serializer;
+import me.jangluzniewicz.webstore.cache.interfaces.IVersioned;
+import me.jangluzniewicz.webstore.cache.models.CacheStatistics;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCache;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCacheManager;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class TwoLevelCacheManagerTest extends UnitTest {
+  private static final Policy DEFAULTS =
+      new Policy(
+          100L,
+          Duration.ofMinutes(1),
+          null,
+          Duration.ofMinutes(10),
+          true,
+          Serializer.JSON,
+          null,
+          512);
+
+  private ConcurrentMapCacheManager remoteCacheManager;
+  private TwoLevelCacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    remoteCacheManager = new ConcurrentMapCacheManager();
+    cacheManager =
+        new TwoLevelCacheManager(
+            remoteCacheManager,
+            new TwoLevelCacheProperties(
+                DEFAULTS,
+                Map.of(
+                    "carts",
+                    new Policy(0L, null, null, null, null, null, null, null),
+                    "order-statuses",
+                    new Policy(null, null, null, null, false, null, null, null))));
+    cacheManager.initializeCaches();
+  }
+
+  @Test
+  void get_whenValueIsInRemoteTier_thenCopyToLocalTier() {
+    remoteCacheManager.getCache("products").put(1L, "Bicycle");
+    Cache cache = cacheManager.getCache("products");
+
+    assertEquals("Bicycle", cache.get(1L, String.class));
+    assertEquals("Bicycle", cache.get(1L, String.class));
+
+    CacheStatistics statistics = statistics("products");
+    assertEquals(1, statistics.getLocalHits());
+    assertEquals(1, statistics.getLocalMisses());
+    assertEquals(1, statistics.getRemoteHits());
+  }
+
+  @Test
+  void get_whenValueIsMissing_thenLoadAndStoreInBothTiers() {
+    Cache cache = cacheManager.getCache("products");
+
+    assertEquals("Bicycle", cache.get(1L, () -> "Bicycle"));
+
+    assertEquals("Bicycle", remoteCacheManager.getCache("products").get(1L, String.class));
+    assertEquals(1, statistics("products").getRemoteMisses());
+  }
+
+  @Test
+  void evict_whenValueIsCached_thenRemoveFromBothTiers() {
+    Cache cache = cacheManager.getCache("products");
+    cache.put(1L, "Bicycle");
+
+    cache.evict(1L);
+
+    assertNull(cache.get(1L));
+    assertNull(remoteCacheManager.getCache("products").get(1L));
+  }
+
+  @Test
+  void get_whenLocalTierIsDisabled_thenAlwaysReadRemoteTier() {
+    Cache cache = cacheManager.getCache("carts");
+    cache.put(1L, "Cart");
+    remoteCacheManager.getCache("carts").put(1L, "Updated cart");
+
+    assertEquals("Updated cart", cache.get(1L, String.class));
+    assertEquals(0, statistics("carts").getLocalSize());
+  }
+
+  @Test
+  void put_whenRemoteTierIsDisabled_thenKeepValueLocally() {
+    Cache cache = cacheManager.getCache("order-statuses");
+
+    cache.put(1L, "PENDING");
+
+    assertEquals("PENDING", cache.get(1L, String.class));
+    assertTrue(remoteCacheManager.getCacheNames().stream().noneMatch("order-statuses"::equals));
+  }
+
+  @Test
+  void put_whenValueIsNull_thenCacheNullValue() {
+    Cache cache = cacheManager.getCache("products");
+
+    cache.put(1L, null);
+
+    assertNotNull(cache.get(1L));
+    assertNull(cache.get(1L).get());
+  }
+
+  @Test
+  void putIfNewer_whenOlderVersionIsCached_thenReplaceIt() {
+    TwoLevelCache cache = cacheManager.getCache("order-statuses");
+    cache.put(1L, new VersionedValue("PENDING", 1L));
+
+    assertTrue(cache.putIfNewer(1L, new VersionedValue("COMPLETED", 2L)));
+
+    assertEquals("COMPLETED", cache.get(1L, VersionedValue.class).name());
+  }
+
+  @Test
+  void putIfNewer_whenNewerVersionIsCached_thenKeepIt() {
+    TwoLevelCache cache = cacheManager.getCache("order-statuses");
+    cache.put(1L, new VersionedValue("COMPLETED", 2L));
+
+    cache.putIfNewer(1L, new VersionedValue("PENDING", 1L));
+
+    assertEquals("COMPLETED", cache.get(1L, VersionedValue.class).name());
+  }
+
+  @Test
+  void getCacheStatistics_whenLocalTierIsFull_thenReportEvictions() {
+    Cache cache = cacheManager.getCache("products");
+
+    for (long i = 0; i < 500; i++) {
+      cache.put(i, "Product " + i);
+    }
+
+    CacheStatistics statistics = statistics("products");
+    assertTrue(statistics.getLocalSize() <= 100);
+    assertEquals(500 - statistics.getLocalSize(), statistics.getLocalEvictions());
+  }
+
+  @Test
+  void getCacheStatistics_whenRemoteTierIsEvictedAndCleared_thenReportThem() {
+    TwoLevelCache cache = cacheManager.getCache("products");
+
+    cache.evict(1L);
+    cache.evictUpTo(2L, 3L);
+    cache.clear();
+
+    CacheStatistics statistics = statistics("products");
+    assertEquals(2L, statistics.getRemoteEvictions());
+    assertEquals(1L, statistics.getRemoteClears());
+  }
+
+  @Test
+  void get_whenKeyIsMissedConcurrently_thenLoadItOnce() throws Exception {
+    Cache cache = cacheManager.getCache("products");
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Callable<String> loader =
+        () -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          release.await();
+          return "Bicycle";
+        };
+    List<Future<String>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      results.add(executor.submit(() -> cache.get(1L, loader)));
+      loading.await();
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(() -> cache.get(1L, loader)));
+      }
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("Bicycle", result.get());
+      }
+    }
+
+    assertEquals(1, loads.get());
+  }
+
+  private CacheStatistics statistics(String name) {
+    return cacheManager.getCacheStatistics().stream()
+        .filter(statistics -> statistics.getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private record VersionedValue(String name, Long version) implements IVersioned {
+    @Override
+    public Long getVersion() {
+      return version;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.stream.Stream;
 import me.jangluzniewicz.webstore.utils.e2e.config.E2ETest;
 import me.jangluzniewicz.webstore.utils.e2e.security.WithCustomUser;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemQuantityRequestTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemRequestTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.carts.CartRequestTestDataBuilder;
 import org.junit.jupiter.api.DisplayName;
@@ -86,4 +87,54 @@ public class CartControllerTest extends E2ETest {
         Arguments.of(validCartRequest, HttpStatus.NO_CONTENT),
         Arguments.of(notFoundCartRequest, HttpStatus.NOT_FOUND));
   }
+
+  @ParameterizedTest
+  @MethodSource("provideSetItemQuantityTestData")
+  @DisplayName("PUT /carts/current/items/{productId}")
+  @WithCustomUser(id = VALID_USER_ID)
+  void setItemQuantityTests(String url, String quantityRequest, HttpStatus expectedStatus)
+      throws Exception {
+    performPut(url, quantityRequest).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideSetItemQuantityTestData() {
+    String validQuantityRequest = CartItemQuantityRequestTestDataBuilder.builder().build().toJson();
+    String invalidQuantityRequest =
+        CartItemQuantityRequestTestDataBuilder.builder().quantity(0).build().toJson();
+    return Stream.of(
+        Arguments.of(BASE_URL + "/current/items/1", validQuantityRequest, HttpStatus.NO_CONTENT),
+        Arguments.of(BASE_URL + "/current/items/2", validQuantityRequest, HttpStatus.NO_CONTENT),
+        Arguments.of(
+            BASE_URL + "/current/items/" + INVALID_PRODUCT_ID,
+            validQuantityRequest,
+            HttpStatus.NOT_FOUND),
+        Arguments.of(
+            BASE_URL + "/current/items/1", invalidQuantityRequest, HttpStatus.BAD_REQUEST));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideRemoveItemFromCartTestData")
+  @DisplayName("DELETE /carts/current/items/{productId}")
+  @WithCustomUser(id = VALID_USER_ID)
+  void removeItemFromCartTests(String url, HttpStatus expectedStatus) throws Exception {
+    performDelete(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideRemoveItemFromCartTestData() {
+    return Stream.of(
+        Arguments.of(BASE_URL + "/current/items/1", HttpStatus.NO_CONTENT),
+        Arguments.of(BASE_URL + "/current/items/2", HttpStatus.NOT_FOUND));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideGetCircuitBreakerTestData")
+  @DisplayName("GET /carts/circuit-breaker")
+  @WithCustomUser(roles = {"ADMIN"})
+  void getCircuitBreakerTests(String url, HttpStatus expectedStatus) throws Exception {
+    performGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideGetCircuitBreakerTestData() {
+    return Stream.of(Arguments.of(BASE_URL + "/circuit-breaker", HttpStatus.OK));
+  }
 }
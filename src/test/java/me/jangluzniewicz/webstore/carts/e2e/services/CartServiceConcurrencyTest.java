@@ -0,0 +1,90 @@
+package me.jangluzniewicz.webstore.carts.e2e.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.models.CartItem;
+import me.jangluzniewicz.webstore.utils.e2e.config.E2ETest;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemRequestTestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceConcurrencyTest extends E2ETest {
+  private static final long CUSTOMER_ID = 2L;
+  private static final long PRODUCT_ID = 2L;
+  private static final int ADDERS = 64;
+
+  @Autowired
+  @Qualifier("cartServiceNoCache")
+  private ICart cartService;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    cartService.removeProductFromCart(CUSTOMER_ID, PRODUCT_ID);
+  }
+
+  @Test
+  void addProductToCart_whenAddedConcurrently_thenLoseNoIncrements() throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> adders = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(ADDERS)) {
+      for (int i = 0; i < ADDERS; i++) {
+        adders.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  cartService.addProductToCart(
+                      CUSTOMER_ID,
+                      CartItemRequestTestDataBuilder.builder()
+                          .productId(PRODUCT_ID)
+                          .quantity(1)
+                          .build()
+                          .buildCartItemRequest());
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> adder : adders) {
+        adder.get();
+      }
+    }
+
+    Cart cart =
+        new TransactionTemplate(transactionManager)
+            .execute(_ -> cartService.getCartByCustomerId(CUSTOMER_ID).orElseThrow());
+    CartItem item =
+        cart.getItems().stream()
+            .filter(cartItem -> cartItem.getProduct().getId().equals(PRODUCT_ID))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(ADDERS, item.getQuantity());
+    assertEquals(
+        0,
+        cart.getItems().stream()
+            .map(
+                cartItem ->
+                    cartItem
+                        .getProduct()
+                        .getPrice()
+                        .multiply(BigDecimal.valueOf(cartItem.getQuantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .compareTo(cart.getTotal()));
+  }
+}
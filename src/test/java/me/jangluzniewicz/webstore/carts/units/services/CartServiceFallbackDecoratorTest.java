@@ -0,0 +1,338 @@
+package me.jangluzniewicz.webstore.carts.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
+import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
+import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.services.CartServiceFallbackDecorator;
+import me.jangluzniewicz.webstore.carts.services.CircuitBreaker;
+import me.jangluzniewicz.webstore.commons.models.IdResponse;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+class CartServiceFallbackDecoratorTest extends UnitTest {
+  private static final int WINDOW_SIZE = 20;
+  private static final int MINIMUM_CALLS = 10;
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(10);
+  private static final Long CUSTOMER_ID = 2L;
+
+  private MutableClock clock;
+  private RedisStandIn redis;
+  private CountingCartService database;
+  private CircuitBreaker circuitBreaker;
+  private CartServiceFallbackDecorator cartService;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    redis = new RedisStandIn(clock);
+    database = new CountingCartService();
+    circuitBreaker =
+        new CircuitBreaker(
+            WINDOW_SIZE,
+            MINIMUM_CALLS,
+            50,
+            80,
+            Duration.ofSeconds(1),
+            OPEN_DURATION,
+            e -> e instanceof RedisConnectionFailureException,
+            _ -> {},
+            clock);
+    cartService = new CartServiceFallbackDecorator(redis, database, circuitBreaker);
+  }
+
+  @Test
+  void getCartByCustomerId_whenRedisKilledMidLoad_thenOpenAndServeFromDatabase() throws Exception {
+    int calls = 2000;
+    int killAfter = 500;
+    int threads = 8;
+    AtomicInteger issued = new AtomicInteger();
+    List<Future<Optional<Cart>>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      for (int i = 0; i < calls; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  synchronized (issued) {
+                    if (issued.incrementAndGet() == killAfter) {
+                      redis.kill();
+                    }
+                  }
+                  return cartService.getCartByCustomerId(CUSTOMER_ID);
+                }));
+      }
+      for (Future<Optional<Cart>> result : results) {
+        assertTrue(result.get().isPresent());
+      }
+    }
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertEquals(1, circuitBreaker.getTransitions(CircuitBreaker.State.OPEN));
+    assertTrue(redis.failedCalls.get() <= WINDOW_SIZE + threads);
+    assertEquals(calls - redis.succeededCalls.get(), database.calls.get());
+    assertTrue(circuitBreaker.getNotPermittedCalls() >= calls - killAfter - WINDOW_SIZE - threads);
+  }
+
+  @Test
+  void getCartByCustomerId_whenOpen_thenSkipRedisUntilOpenDurationElapses() {
+    redis.kill();
+    openCircuit();
+    int failedCalls = redis.failedCalls.get();
+
+    clock.advance(OPEN_DURATION.minusMillis(1));
+    cartService.getCartByCustomerId(CUSTOMER_ID);
+
+    assertEquals(failedCalls, redis.failedCalls.get());
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  void getCartByCustomerId_whenHalfOpenProbeSucceeds_thenClose() {
+    redis.kill();
+    openCircuit();
+    redis.revive();
+    clock.advance(OPEN_DURATION);
+
+    assertTrue(cartService.getCartByCustomerId(CUSTOMER_ID).isPresent());
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    assertEquals(1, redis.succeededCalls.get());
+    assertEquals(1, circuitBreaker.getTransitions(CircuitBreaker.State.HALF_OPEN));
+    assertEquals(1, circuitBreaker.getTransitions(CircuitBreaker.State.CLOSED));
+  }
+
+  @Test
+  void getCartByCustomerId_whenHalfOpenProbeFails_thenOpenAgain() {
+    redis.kill();
+    openCircuit();
+    clock.advance(OPEN_DURATION);
+
+    assertTrue(cartService.getCartByCustomerId(CUSTOMER_ID).isPresent());
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertEquals(2, circuitBreaker.getTransitions(CircuitBreaker.State.OPEN));
+  }
+
+  @Test
+  void getCartByCustomerId_whenHalfOpenProbeInFlight_thenOtherCallsTakeFallback() throws Exception {
+    redis.kill();
+    openCircuit();
+    redis.revive();
+    clock.advance(OPEN_DURATION);
+    CountDownLatch probeStarted = new CountDownLatch(1);
+    CountDownLatch releaseProbe = new CountDownLatch(1);
+    redis.block(probeStarted, releaseProbe);
+    int databaseCalls = database.calls.get();
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      Future<Optional<Cart>> probe =
+          executor.submit(() -> cartService.getCartByCustomerId(CUSTOMER_ID));
+      probeStarted.await();
+      cartService.getCartByCustomerId(CUSTOMER_ID);
+      assertEquals(databaseCalls + 1, database.calls.get());
+      releaseProbe.countDown();
+      assertTrue(probe.get().isPresent());
+    }
+
+    assertEquals(1, redis.succeededCalls.get());
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void getCartByCustomerId_whenRedisSlow_thenOpen() {
+    redis.slowDown(Duration.ofSeconds(2));
+
+    for (int i = 0; i < MINIMUM_CALLS; i++) {
+      assertTrue(cartService.getCartByCustomerId(CUSTOMER_ID).isPresent());
+    }
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertEquals(MINIMUM_CALLS, redis.succeededCalls.get());
+    assertEquals(0, database.calls.get());
+  }
+
+  @Test
+  void getCartByCustomerId_whenFewFailures_thenStayClosed() {
+    for (int i = 0; i < WINDOW_SIZE; i++) {
+      if (i % 4 == 0) {
+        redis.kill();
+      }
+      cartService.getCartByCustomerId(CUSTOMER_ID);
+      redis.revive();
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    assertEquals(25f, circuitBreaker.getFailureRate());
+  }
+
+  @Test
+  void getCartByCustomerId_whenBusinessExceptionThrown_thenRethrowWithoutFallback() {
+    redis.failWith(new NotFoundException("Cart not found"));
+
+    assertThrows(NotFoundException.class, () -> cartService.getCartByCustomerId(CUSTOMER_ID));
+    assertEquals(0, database.calls.get());
+    assertEquals(0f, circuitBreaker.getFailureRate());
+  }
+
+  @Test
+  void getCircuitBreakerStatistics_whenOpen_thenReturnStateAndCounters() {
+    redis.kill();
+    openCircuit();
+    cartService.getCartByCustomerId(CUSTOMER_ID);
+
+    var statistics = cartService.getCircuitBreakerStatistics();
+
+    assertEquals("OPEN", statistics.getState());
+    assertEquals(1L, statistics.getOpenedCount());
+    assertEquals(1L, statistics.getNotPermittedCalls());
+  }
+
+  private void openCircuit() {
+    for (int i = 0; i < MINIMUM_CALLS; i++) {
+      cartService.getCartByCustomerId(CUSTOMER_ID);
+    }
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+  }
+
+  /** Stands in for the Redis-backed cart service; a killed instance refuses every connection. */
+  private static class RedisStandIn extends CountingCartService {
+    private final MutableClock clock;
+    private final AtomicInteger succeededCalls = new AtomicInteger();
+    private final AtomicInteger failedCalls = new AtomicInteger();
+    private volatile RuntimeException failure;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile CountDownLatch started;
+    private volatile CountDownLatch release;
+
+    RedisStandIn(MutableClock clock) {
+      this.clock = clock;
+    }
+
+    void kill() {
+      failure = new RedisConnectionFailureException("Connection refused");
+    }
+
+    void revive() {
+      failure = null;
+    }
+
+    void failWith(RuntimeException failure) {
+      this.failure = failure;
+    }
+
+    void slowDown(Duration latency) {
+      this.latency = latency;
+    }
+
+    void block(CountDownLatch started, CountDownLatch release) {
+      this.started = started;
+      this.release = release;
+    }
+
+    @Override
+    public Optional<Cart> getCartByCustomerId(Long customerId) {
+      if (started != null) {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      clock.advance(latency);
+      RuntimeException current = failure;
+      if (current != null) {
+        failedCalls.incrementAndGet();
+        throw current;
+      }
+      succeededCalls.incrementAndGet();
+      return Optional.of(CartTestDataBuilder.builder().build().buildCart());
+    }
+  }
+
+  private static class CountingCartService implements ICart {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public IdResponse createNewCart(Long customerId) {
+      calls.incrementAndGet();
+      return new IdResponse(1L);
+    }
+
+    @Override
+    public Optional<Cart> getCartByCustomerId(Long customerId) {
+      calls.incrementAndGet();
+      return Optional.of(CartTestDataBuilder.builder().build().buildCart());
+    }
+
+    @Override
+    public void updateCart(Long customerId, CartRequest cartRequest) {
+      calls.incrementAndGet();
+    }
+
+    @Override
+    public void addProductToCart(Long customerId, CartItemRequest cartItemRequest) {
+      calls.incrementAndGet();
+    }
+
+    @Override
+    public void setProductQuantity(Long customerId, Long productId, Integer quantity) {
+      calls.incrementAndGet();
+    }
+
+    @Override
+    public void removeProductFromCart(Long customerId, Long productId) {
+      calls.incrementAndGet();
+    }
+
+    @Override
+    public void emptyCart(Long customerId) {
+      calls.incrementAndGet();
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private final AtomicLong millis =
+        new AtomicLong(Instant.parse("2025-01-01T00:00:00Z").toEpochMilli());
+
+    void advance(Duration duration) {
+      millis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis.get());
+    }
+  }
+}
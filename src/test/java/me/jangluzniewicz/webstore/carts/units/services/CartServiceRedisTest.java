@@ -0,0 +1,161 @@
+package me.jangluzniewicz.webstore.carts.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
+import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
+import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.carts.services.CartServiceRedis;
+import me.jangluzniewicz.webstore.carts.services.RedisCartStore;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.interfaces.IProduct;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartEntityTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemEntityTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductEntityTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CartServiceRedisTest extends UnitTest {
+  @Mock private CartRepository cartRepository;
+  @Mock private CartMapper cartMapper;
+  @Mock private IProduct productService;
+  @Mock private IAwsS3 awsS3;
+  @Mock private RedisCartStore store;
+  @Mock private PlatformTransactionManager transactionManager;
+  private CartServiceRedis cartService;
+
+  private final Long CUSTOMER_ID = 2L;
+
+  @BeforeEach
+  void setUp() {
+    cartService =
+        new CartServiceRedis(
+            cartRepository, cartMapper, productService, awsS3, store, transactionManager);
+  }
+
+  @Test
+  void getCartByCustomerId_whenCartIsInRedis_thenHydrateExistingProductsInOrder() {
+    Map<Long, Integer> items = new LinkedHashMap<>();
+    items.put(5L, 1);
+    items.put(3L, 2);
+    items.put(9L, 1);
+    when(store.find(CUSTOMER_ID)).thenReturn(Optional.of(new RedisCartStore.StoredCart(1L, items)));
+    when(productService.getCachedProductsByIds(items.keySet(), true))
+        .thenReturn(Map.of(3L, product(3L, "10.00"), 5L, product(5L, "2.50")));
+
+    Cart cart = cartService.getCartByCustomerId(CUSTOMER_ID).orElseThrow();
+
+    assertEquals(
+        List.of(3L, 5L), cart.getItems().stream().map(item -> item.getProduct().getId()).toList());
+    assertEquals(new BigDecimal("22.50"), cart.getTotal());
+    verify(cartRepository, never()).findByCustomerId(CUSTOMER_ID);
+  }
+
+  @Test
+  void getCartByCustomerId_whenCartIsNotInRedis_thenLoadItFromDatabase() {
+    when(store.find(CUSTOMER_ID)).thenReturn(Optional.empty());
+    when(cartRepository.findByCustomerId(CUSTOMER_ID))
+        .thenReturn(
+            Optional.of(
+                CartEntityTestDataBuilder.builder()
+                    .items(
+                        List.of(
+                            CartItemEntityTestDataBuilder.builder()
+                                .productBuilder(
+                                    ProductEntityTestDataBuilder.builder().id(3L).build())
+                                .quantity(2)
+                                .build()))
+                    .build()
+                    .buildCartEntity()));
+    when(productService.getCachedProductsByIds(Set.of(3L), true))
+        .thenReturn(Map.of(3L, product(3L, "10.00")));
+
+    Cart cart = cartService.getCartByCustomerId(CUSTOMER_ID).orElseThrow();
+
+    assertEquals(new BigDecimal("20.00"), cart.getTotal());
+    verify(store).load(CUSTOMER_ID, new RedisCartStore.StoredCart(1L, Map.of(3L, 2)));
+  }
+
+  @Test
+  void addProductToCart_whenCartIsNotInRedis_thenLoadItAndIncrementAgain() {
+    CartItemRequest request =
+        CartItemRequestTestDataBuilder.builder().build().buildCartItemRequest();
+    when(productService.getProductsByIds(List.of(request.getProductId()), false))
+        .thenReturn(Map.of(request.getProductId(), product(request.getProductId(), "10.00")));
+    when(store.increment(CUSTOMER_ID, request.getProductId(), request.getQuantity()))
+        .thenReturn(false, true);
+    when(cartRepository.findByCustomerId(CUSTOMER_ID))
+        .thenReturn(Optional.of(CartEntityTestDataBuilder.builder().build().buildCartEntity()));
+
+    cartService.addProductToCart(CUSTOMER_ID, request);
+
+    verify(store).load(CUSTOMER_ID, new RedisCartStore.StoredCart(1L, Map.of()));
+  }
+
+  @Test
+  void addProductToCart_whenCartDoesNotExist_thenThrowNotFoundException() {
+    CartItemRequest request =
+        CartItemRequestTestDataBuilder.builder().build().buildCartItemRequest();
+    when(productService.getProductsByIds(List.of(request.getProductId()), false))
+        .thenReturn(Map.of(request.getProductId(), product(request.getProductId(), "10.00")));
+    when(store.increment(CUSTOMER_ID, request.getProductId(), request.getQuantity()))
+        .thenReturn(false);
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> cartService.addProductToCart(CUSTOMER_ID, request));
+  }
+
+  @Test
+  void updateCart_whenProductRepeated_thenReplaceWithSummedQuantity() {
+    CartRequest request =
+        CartRequestTestDataBuilder.builder()
+            .items(
+                List.of(
+                    CartItemRequestTestDataBuilder.builder().productId(3L).quantity(1).build(),
+                    CartItemRequestTestDataBuilder.builder().productId(3L).quantity(2).build()))
+            .build()
+            .buildCartRequest();
+    when(productService.getProductsByIds(List.of(3L, 3L), false))
+        .thenReturn(Map.of(3L, product(3L, "10.00")));
+    when(store.replace(CUSTOMER_ID, Map.of(3L, 3))).thenReturn(true);
+
+    cartService.updateCart(CUSTOMER_ID, request);
+
+    verify(store).replace(CUSTOMER_ID, Map.of(3L, 3));
+  }
+
+  @Test
+  void removeProductFromCart_whenProductNotInCart_thenThrowNotFoundException() {
+    when(store.remove(CUSTOMER_ID, 3L)).thenReturn(0L);
+
+    assertThrows(NotFoundException.class, () -> cartService.removeProductFromCart(CUSTOMER_ID, 3L));
+  }
+
+  private static Product product(Long id, String price) {
+    return ProductTestDataBuilder.builder()
+        .id(id)
+        .price(new BigDecimal(price))
+        .build()
+        .buildProduct();
+  }
+}
@@ -5,9 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.carts.controllers.CartItemRequest;
 import me.jangluzniewicz.webstore.carts.controllers.CartRequest;
@@ -15,6 +19,7 @@ import me.jangluzniewicz.webstore.carts.entities.CartEntity;
 import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
 import me.jangluzniewicz.webstore.carts.models.Cart;
 import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.carts.repositories.LockedCart;
 import me.jangluzniewicz.webstore.carts.services.CartServiceNoCache;
 import me.jangluzniewicz.webstore.exceptions.ConflictException;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
@@ -25,6 +30,7 @@ import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder
 import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
@@ -85,23 +91,24 @@ class CartServiceTest extends UnitTest {
   }
 
   @Test
-  void addProductToCart_whenCartAndProductExist_thenAddProduct() {
-    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
-    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
-    CartEntity cartWithItemEntity =
-        CartEntityTestDataBuilder.builder()
-            .items(List.of(CartItemEntityTestDataBuilder.builder().build()))
-            .build()
-            .buildCartEntity();
-    when(cartRepository.save(any())).thenReturn(cartWithItemEntity);
+  void addProductToCart_whenCartAndProductExist_thenUpsertItemAndRefreshTotal() {
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart()));
+
+    cartService.addProductToCart(CUSTOMER_ID, cartItemRequest);
 
-    assertDoesNotThrow(() -> cartService.addProductToCart(CUSTOMER_ID, cartItemRequest));
+    verify(cartRepository)
+        .addItemQuantity(cartEntity.getId(), product.getId(), cartItemRequest.getQuantity());
+    verify(cartRepository).refreshTotal(cartEntity.getId());
+    verify(cartRepository, never()).save(any());
   }
 
   @Test
   void addProductToCart_whenCartDoesNotExist_thenThrowNotFoundException() {
-    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.empty());
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.empty());
 
     assertThrows(
         NotFoundException.class, () -> cartService.addProductToCart(CUSTOMER_ID, cartItemRequest));
@@ -109,12 +116,44 @@ class CartServiceTest extends UnitTest {
 
   @Test
   void addProductToCart_whenProductDoesNotExist_thenThrowNotFoundException() {
-    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
-    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
-    when(productService.getProductById(product.getId())).thenReturn(Optional.empty());
+    when(productService.getProductsByIds(List.of(product.getId()), false)).thenReturn(Map.of());
 
     assertThrows(
         NotFoundException.class, () -> cartService.addProductToCart(CUSTOMER_ID, cartItemRequest));
+    verify(cartRepository, never()).lockByCustomerId(CUSTOMER_ID);
+  }
+
+  @Test
+  void setProductQuantity_whenCartAndProductExist_thenUpsertQuantityAndRefreshTotal() {
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart()));
+
+    cartService.setProductQuantity(CUSTOMER_ID, product.getId(), 5);
+
+    verify(cartRepository).setItemQuantity(cartEntity.getId(), product.getId(), 5);
+    verify(cartRepository).refreshTotal(cartEntity.getId());
+  }
+
+  @Test
+  void removeProductFromCart_whenProductInCart_thenDeleteItemAndRefreshTotal() {
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart()));
+    when(cartRepository.deleteItem(cartEntity.getId(), product.getId())).thenReturn(1);
+
+    cartService.removeProductFromCart(CUSTOMER_ID, product.getId());
+
+    verify(cartRepository).refreshTotal(cartEntity.getId());
+  }
+
+  @Test
+  void removeProductFromCart_whenProductNotInCart_thenThrowNotFoundException() {
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart()));
+    when(cartRepository.deleteItem(cartEntity.getId(), product.getId())).thenReturn(0);
+
+    assertThrows(
+        NotFoundException.class,
+        () -> cartService.removeProductFromCart(CUSTOMER_ID, product.getId()));
+    verify(cartRepository, never()).refreshTotal(any());
   }
 
   @Test
@@ -144,16 +183,40 @@ class CartServiceTest extends UnitTest {
   void updateCart_whenProductDoesNotExist_thenThrowNotFoundException() {
     when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
     when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
-    when(productService.getProductById(product.getId())).thenReturn(Optional.empty());
+    when(productService.getProductsByIds(List.of(product.getId()), false)).thenReturn(Map.of());
 
     assertThrows(NotFoundException.class, () -> cartService.updateCart(CUSTOMER_ID, cartRequest));
   }
 
+  @Test
+  void updateCart_whenProductRepeated_thenStoreOneItemWithTotalOfItems() {
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
+    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
+    when(productService.getProductsByIds(List.of(product.getId(), product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+
+    cartService.updateCart(
+        CUSTOMER_ID,
+        CartRequestTestDataBuilder.builder()
+            .items(
+                List.of(
+                    CartItemRequestTestDataBuilder.builder().build(),
+                    CartItemRequestTestDataBuilder.builder().build()))
+            .build()
+            .buildCartRequest());
+
+    ArgumentCaptor<Cart> captor = ArgumentCaptor.forClass(Cart.class);
+    verify(cartMapper).toEntity(captor.capture());
+    assertEquals(1, captor.getValue().getItems().size());
+    assertEquals(new BigDecimal("199.98"), captor.getValue().getTotal());
+  }
+
   @Test
   void updateCart_whenCartAndProductExist_thenUpdateCart() {
     when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
     when(cartMapper.fromEntity(any())).thenReturn(cart);
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
     CartEntity updatedEntity =
         CartEntityTestDataBuilder.builder()
             .items(List.of(CartItemEntityTestDataBuilder.builder().build()))
@@ -163,4 +226,18 @@ class CartServiceTest extends UnitTest {
 
     assertDoesNotThrow(() -> cartService.updateCart(CUSTOMER_ID, cartRequest));
   }
+
+  private LockedCart lockedCart() {
+    return new LockedCart() {
+      @Override
+      public Long getId() {
+        return cartEntity.getId();
+      }
+
+      @Override
+      public Long getVersion() {
+        return 0L;
+      }
+    };
+  }
 }
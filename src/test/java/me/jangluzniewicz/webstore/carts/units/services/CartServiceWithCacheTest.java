@@ -0,0 +1,159 @@
+package me.jangluzniewicz.webstore.carts.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCache;
+import me.jangluzniewicz.webstore.cache.services.TwoLevelCacheManager;
+import me.jangluzniewicz.webstore.carts.entities.CartEntity;
+import me.jangluzniewicz.webstore.carts.mappers.CartMapper;
+import me.jangluzniewicz.webstore.carts.models.Cart;
+import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.carts.repositories.LockedCart;
+import me.jangluzniewicz.webstore.carts.services.CartServiceWithCache;
+import me.jangluzniewicz.webstore.products.interfaces.IProduct;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartEntityTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartItemRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.carts.CartTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+class CartServiceWithCacheTest extends UnitTest {
+  @Mock private CartRepository cartRepository;
+  @Mock private CartMapper cartMapper;
+  @Mock private IProduct productService;
+  @Mock private IAwsS3 awsS3;
+  @Mock private TwoLevelCacheManager cacheManager;
+  @Mock private TwoLevelCache carts;
+  private CartServiceWithCache cartService;
+
+  private CartEntity cartEntity;
+  private Cart cart;
+  private final Long CUSTOMER_ID = 2L;
+
+  @BeforeEach
+  void setUp() {
+    when(cacheManager.getCache("carts")).thenReturn(carts);
+    cartService =
+        new CartServiceWithCache(cartRepository, cartMapper, productService, awsS3, cacheManager);
+    cartEntity = CartEntityTestDataBuilder.builder().build().buildCartEntity();
+    cart = CartTestDataBuilder.builder().build().buildCart();
+  }
+
+  @Test
+  void getCartByCustomerId_whenCartIsCached_thenSkipRepository() {
+    when(carts.get(CUSTOMER_ID)).thenReturn(new SimpleValueWrapper(cart));
+
+    assertEquals(Optional.of(cart), cartService.getCartByCustomerId(CUSTOMER_ID));
+    verify(cartRepository, never()).findByCustomerId(CUSTOMER_ID);
+  }
+
+  @Test
+  void getCartByCustomerId_whenCartIsNotCached_thenLoadAndCacheUnlessNewerIsCached() {
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
+    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
+
+    assertEquals(Optional.of(cart), cartService.getCartByCustomerId(CUSTOMER_ID));
+    verify(carts).putIfNewer(CUSTOMER_ID, cart);
+  }
+
+  @Test
+  void emptyCart_whenSaved_thenWriteSavedCartThrough() {
+    Cart saved = CartTestDataBuilder.builder().version(1L).build().buildCart();
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
+    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart, saved);
+    when(cartMapper.toEntity(any())).thenReturn(cartEntity);
+    when(cartRepository.save(cartEntity)).thenReturn(cartEntity);
+
+    cartService.emptyCart(CUSTOMER_ID);
+
+    verify(cartRepository).flush();
+    verify(carts).putIfNewer(CUSTOMER_ID, saved);
+    verify(carts, never()).evict(any());
+  }
+
+  @Test
+  void emptyCart_whenCacheWriteFails_thenEvictUpToReplacedVersionAndKeepSavedCart() {
+    Cart saved = CartTestDataBuilder.builder().version(4L).build().buildCart();
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
+    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart, saved);
+    when(cartMapper.toEntity(any())).thenReturn(cartEntity);
+    when(cartRepository.save(cartEntity)).thenReturn(cartEntity);
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .when(carts)
+        .putIfNewer(CUSTOMER_ID, saved);
+
+    cartService.emptyCart(CUSTOMER_ID);
+
+    verify(carts).evictUpTo(CUSTOMER_ID, 3L);
+  }
+
+  @Test
+  void addProductToCart_whenItemsChanged_thenEvictUpToReplacedVersionWithoutReloading() {
+    Product product = ProductTestDataBuilder.builder().build().buildProduct();
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart(3L)));
+
+    cartService.addProductToCart(
+        CUSTOMER_ID, CartItemRequestTestDataBuilder.builder().build().buildCartItemRequest());
+
+    verify(carts).evictUpTo(CUSTOMER_ID, 3L);
+    verify(cartRepository, never()).findById(any());
+    verify(cartMapper, never()).fromEntity(any());
+  }
+
+  @Test
+  void getCartByCustomerId_whenEvictionFailed_thenBypassCacheUntilRetrySucceeds() {
+    Product product = ProductTestDataBuilder.builder().build().buildProduct();
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(cartRepository.lockByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(lockedCart(3L)));
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .doNothing()
+        .when(carts)
+        .evictUpTo(CUSTOMER_ID, 3L);
+    when(cartRepository.findByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(cartEntity));
+    when(cartMapper.fromEntity(cartEntity)).thenReturn(cart);
+    cartService.addProductToCart(
+        CUSTOMER_ID, CartItemRequestTestDataBuilder.builder().build().buildCartItemRequest());
+
+    assertEquals(Optional.of(cart), cartService.getCartByCustomerId(CUSTOMER_ID));
+    verify(carts, never()).get(CUSTOMER_ID);
+
+    cartService.retryEvictions();
+    when(carts.get(CUSTOMER_ID)).thenReturn(new SimpleValueWrapper(cart));
+
+    assertEquals(Optional.of(cart), cartService.getCartByCustomerId(CUSTOMER_ID));
+    verify(carts, times(2)).evictUpTo(CUSTOMER_ID, 3L);
+  }
+
+  private static LockedCart lockedCart(Long version) {
+    return new LockedCart() {
+      @Override
+      public Long getId() {
+        return 1L;
+      }
+
+      @Override
+      public Long getVersion() {
+        return version;
+      }
+    };
+  }
+}
@@ -0,0 +1,94 @@
+package me.jangluzniewicz.webstore.carts.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import me.jangluzniewicz.webstore.carts.repositories.CartRepository;
+import me.jangluzniewicz.webstore.carts.services.CartTotalReconciler;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CartTotalReconcilerTest extends UnitTest {
+  @Mock private CartRepository cartRepository;
+  @Mock private CacheManager cacheManager;
+  @Mock private Cache carts;
+  @Mock private PlatformTransactionManager transactionManager;
+  private CartTotalReconciler cartTotalReconciler;
+
+  @BeforeEach
+  void setUp() {
+    cartTotalReconciler =
+        new CartTotalReconciler(cartRepository, cacheManager, transactionManager, 10, 2);
+  }
+
+  @Test
+  void onProductChanged_whenProductsChanged_thenRefreshAndEvictCartsHoldingThemInBatches() {
+    when(cartRepository.findCustomerIdsByProductIds(List.of(1L, 2L)))
+        .thenReturn(List.of(2L, 3L, 4L));
+    when(cacheManager.getCache("carts")).thenReturn(carts);
+
+    cartTotalReconciler.onProductChanged(new ProductChangedEvent(List.of(1L, 2L), List.of(1L)));
+
+    verify(cartRepository).refreshTotals(List.of(2L, 3L));
+    verify(cartRepository).refreshTotals(List.of(4L));
+    verify(carts).evict(2L);
+    verify(carts).evict(4L);
+  }
+
+  @Test
+  void onProductChanged_whenNoCartHoldsProducts_thenSkipRefresh() {
+    when(cartRepository.findCustomerIdsByProductIds(List.of(1L))).thenReturn(List.of());
+
+    cartTotalReconciler.onProductChanged(new ProductChangedEvent(List.of(1L), List.of(1L)));
+
+    verify(cartRepository, never()).refreshTotals(anyList());
+  }
+
+  @Test
+  void onProductChanged_whenRefreshFails_thenLeaveItToReconciliation() {
+    when(cartRepository.findCustomerIdsByProductIds(List.of(1L))).thenReturn(List.of(2L));
+    when(cartRepository.refreshTotals(List.of(2L))).thenThrow(new IllegalStateException("down"));
+
+    assertDoesNotThrow(
+        () ->
+            cartTotalReconciler.onProductChanged(
+                new ProductChangedEvent(List.of(1L), List.of(1L))));
+    verifyNoInteractions(cacheManager);
+  }
+
+  @Test
+  void onProductChanged_whenNoProductsChanged_thenSkipRefresh() {
+    cartTotalReconciler.onProductChanged(new ProductChangedEvent(List.of(), List.of()));
+
+    verifyNoInteractions(cartRepository);
+  }
+
+  @Test
+  void reconcile_whenCartsSpanSeveralBatches_thenReconcileEveryIdRange() {
+    when(cartRepository.findMaxId()).thenReturn(25L);
+    when(cartRepository.reconcileTotals(0, 10)).thenReturn(1);
+    when(cartRepository.reconcileTotals(10, 20)).thenReturn(0);
+    when(cartRepository.reconcileTotals(20, 30)).thenReturn(2);
+
+    assertEquals(3, cartTotalReconciler.reconcile());
+  }
+
+  @Test
+  void reconcile_whenNoCarts_thenReconcileNothing() {
+    when(cartRepository.findMaxId()).thenReturn(0L);
+
+    assertEquals(0, cartTotalReconciler.reconcile());
+  }
+}
@@ -0,0 +1,133 @@
+package me.jangluzniewicz.webstore.carts.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import me.jangluzniewicz.webstore.carts.services.CartServiceRedis;
+import me.jangluzniewicz.webstore.carts.services.CartWriteBehindWorker;
+import me.jangluzniewicz.webstore.carts.services.RedisCartStore;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CartWriteBehindWorkerTest extends UnitTest {
+  private static final int BATCH_SIZE = 3;
+  private static final Duration CLAIM_IDLE = Duration.ofSeconds(30);
+  private static final int MAX_DELIVERIES = 5;
+  @Mock private RedisCartStore store;
+  @Mock private CartServiceRedis cartService;
+  @Mock private PlatformTransactionManager transactionManager;
+  private CartWriteBehindWorker worker;
+
+  @BeforeEach
+  void setUp() {
+    worker =
+        new CartWriteBehindWorker(
+            store, cartService, transactionManager, BATCH_SIZE, CLAIM_IDLE, MAX_DELIVERIES);
+  }
+
+  private static final RedisCartStore.Claim NOTHING_CLAIMED =
+      new RedisCartStore.Claim("0-0", List.of(), 0);
+
+  @Test
+  void flush_whenCartChangedTwice_thenWriteItOnceAndAcknowledgeBothChanges() {
+    when(store.claimAbandoned(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(NOTHING_CLAIMED);
+    when(store.readChanges(anyString(), any(Integer.class)))
+        .thenReturn(List.of(change("1-0", 2L), change("2-0", 2L)));
+    when(store.versions(List.of(2L))).thenReturn(List.of("2"));
+
+    assertEquals(2, worker.flush());
+
+    verify(cartService).writeBehind(2L);
+    verify(store).acknowledge(List.of(RecordId.of("1-0"), RecordId.of("2-0")));
+    verify(store).expireIfUnchanged(2L, "2");
+  }
+
+  @Test
+  void flush_whenBatchIsFull_thenReadUntilStreamIsDrained() {
+    when(store.claimAbandoned(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(NOTHING_CLAIMED);
+    when(store.readChanges(anyString(), any(Integer.class)))
+        .thenReturn(
+            List.of(change("1-0", 1L), change("2-0", 2L), change("3-0", 3L)),
+            List.of(change("4-0", 4L)));
+
+    assertEquals(4, worker.flush());
+
+    verify(store, times(2)).acknowledge(any());
+  }
+
+  @Test
+  void flush_whenOneCartFails_thenWriteOthersAndLeaveItsChangePending() {
+    when(store.claimAbandoned(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(NOTHING_CLAIMED);
+    when(store.readChanges(anyString(), any(Integer.class)))
+        .thenReturn(List.of(change("1-0", 1L), change("2-0", 2L)));
+    when(store.versions(List.of(1L, 2L))).thenReturn(List.of("1", "1"));
+    doThrow(new OptimisticLockingFailureException("Cart changed"))
+        .when(cartService)
+        .writeBehind(1L);
+
+    assertEquals(1, worker.flush());
+
+    verify(store).acknowledge(List.of(RecordId.of("2-0")));
+    verify(store, never()).acknowledge(List.of(RecordId.of("1-0")));
+    verify(store).expireIfUnchanged(2L, "1");
+    verify(store, never()).expireIfUnchanged(eq(1L), any());
+  }
+
+  @Test
+  void flush_whenChangesWereAbandoned_thenClaimAndWriteThemUntilCursorWraps() {
+    when(store.claimAbandoned(anyString(), any(), eq("0-0"), anyInt(), anyInt()))
+        .thenReturn(new RedisCartStore.Claim("5-0", List.of(change("1-0", 1L)), 1));
+    when(store.claimAbandoned(anyString(), any(), eq("5-0"), anyInt(), anyInt()))
+        .thenReturn(new RedisCartStore.Claim("0-0", List.of(change("6-0", 2L)), 0));
+    when(store.readChanges(anyString(), any(Integer.class))).thenReturn(List.of());
+    when(store.versions(any())).thenReturn(List.of("1"));
+
+    assertEquals(2, worker.flush());
+
+    verify(cartService).writeBehind(1L);
+    verify(cartService).writeBehind(2L);
+  }
+
+  @Test
+  void flush_whenRedisIsDown_thenRetryCreatingGroupOnNextFlush() {
+    doThrow(new RedisConnectionFailureException("Connection refused"))
+        .doNothing()
+        .when(store)
+        .createGroup();
+    when(store.claimAbandoned(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(NOTHING_CLAIMED);
+    when(store.readChanges(anyString(), any(Integer.class))).thenReturn(List.of());
+
+    assertEquals(0, worker.flush());
+    assertEquals(0, worker.flush());
+
+    verify(store, times(2)).createGroup();
+  }
+
+  private static MapRecord<String, Object, Object> change(String id, Long customerId) {
+    return MapRecord.<String, Object, Object>create(
+            "carts:changes", Map.of("customerId", customerId.toString()))
+        .withId(RecordId.of(id));
+  }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 public class CategoryControllerTest extends E2ETest {
@@ -27,10 +28,33 @@ public class CategoryControllerTest extends E2ETest {
   static Stream<Arguments> provideGetCategoryTestData() {
     return Stream.of(
         Arguments.of(BASE_URL, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=slice", HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + VALID_CATEGORY_ID, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_CATEGORY_ID, HttpStatus.NOT_FOUND));
   }
 
+  @ParameterizedTest
+  @MethodSource("provideConditionalGetCategoryTestData")
+  @DisplayName("GET /categories with If-None-Match")
+  void conditionalGetCategoryTests(String url, boolean currentETag, HttpStatus expectedStatus)
+      throws Exception {
+    String eTag =
+        currentETag
+            ? performGet(url).andReturn().getResponse().getHeader(HttpHeaders.ETAG)
+            : "\"stale\"";
+    performGetIfNoneMatch(url, eTag).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideConditionalGetCategoryTestData() {
+    return Stream.of(
+        Arguments.of(BASE_URL, true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL, false, HttpStatus.OK),
+        Arguments.of(BASE_URL + "/" + VALID_CATEGORY_ID, true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL + "?paging=slice&size=1", true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL + "/" + VALID_CATEGORY_ID, false, HttpStatus.OK),
+        Arguments.of(BASE_URL + "/" + INVALID_CATEGORY_ID, false, HttpStatus.NOT_FOUND));
+  }
+
   @ParameterizedTest
   @MethodSource("provideCreateCategoryTestData")
   @DisplayName("POST /categories")
@@ -5,9 +5,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.categories.controllers.CategoryRequest;
 import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
@@ -15,6 +17,9 @@ import me.jangluzniewicz.webstore.categories.mappers.CategoryMapper;
 import me.jangluzniewicz.webstore.categories.models.Category;
 import me.jangluzniewicz.webstore.categories.repositories.CategoryRepository;
 import me.jangluzniewicz.webstore.categories.services.CategoryService;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.utils.testdata.categories.CategoryEntityTestDataBuilder;
@@ -25,12 +30,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 class CategoryServiceTest extends UnitTest {
   @Mock private CategoryRepository categoryRepository;
   @Mock private CategoryMapper categoryMapper;
+  @Mock private IPaging pagingService;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private PlatformTransactionManager transactionManager;
   @InjectMocks private CategoryService categoryService;
 
   private CategoryEntity categoryEntity;
@@ -80,13 +89,31 @@ class CategoryServiceTest extends UnitTest {
     assertTrue(categoryService.getCategoryById(categoryEntity.getId()).isEmpty());
   }
 
+  @Test
+  void getCategoriesByIds_whenSomeExist_thenReturnFoundCategories() {
+    when(categoryRepository.findAllById(List.of(categoryEntity.getId(), 99L)))
+        .thenReturn(List.of(categoryEntity));
+    when(categoryMapper.fromEntity(categoryEntity)).thenReturn(category);
+
+    assertEquals(
+        Map.of(category.getId(), category),
+        categoryService.getCategoriesByIds(List.of(categoryEntity.getId(), 99L)));
+  }
+
+  @Test
+  void getCategoriesByIds_whenNoIdsGiven_thenReturnEmptyMap() {
+    assertTrue(categoryService.getCategoriesByIds(List.of()).isEmpty());
+  }
+
   @Test
   void getAllCategories_whenExists_thenReturnPagedResponse() {
-    when(categoryRepository.findAll(any(Pageable.class)))
-        .thenReturn(new PageImpl<>(List.of(categoryEntity)));
+    when(pagingService.findPage(
+            eq(CategoryEntity.class), any(), any(Pageable.class), eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(PagingMode.EXACT, 1, 1L, false, false, List.of(categoryEntity)));
     when(categoryMapper.fromEntity(categoryEntity)).thenReturn(category);
 
-    assertEquals(1, categoryService.getAllCategories(0, 10).getTotalPages());
+    assertEquals(1, categoryService.getAllCategories(0, 10, PagingMode.EXACT).getTotalPages());
   }
 
   @Test
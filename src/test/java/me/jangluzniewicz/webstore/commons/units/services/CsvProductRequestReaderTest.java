@@ -9,8 +9,10 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import me.jangluzniewicz.webstore.commons.models.CsvRowError;
 import me.jangluzniewicz.webstore.commons.services.CsvProductRequestReader;
 import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
@@ -37,6 +39,44 @@ class CsvProductRequestReaderTest extends UnitTest {
     assertEquals(2, productRequests.size());
   }
 
+  @Test
+  void csvToModel_whenChunkSizeGiven_thenPassRowsInChunks() {
+    String csv =
+        """
+        Headphones,Best sound quality,1200.0,0.2,1
+        Keyboard,RGB backlight,200.0,0.5,1
+        Mouse,Wireless,100.0,0.1,1
+        """;
+    InputStream inputStream = new ByteArrayInputStream(csv.getBytes());
+    when(validator.validate(any(ProductRequest.class))).thenReturn(Set.of());
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    long rowsRead =
+        csvProductRequestReader.csvToModel(inputStream, 2, chunk -> chunkSizes.add(chunk.size()));
+    assertEquals(3, rowsRead);
+    assertEquals(List.of(2, 1), chunkSizes);
+  }
+
+  @Test
+  void csvToModel_whenInvalidRowAfterFirstChunk_thenThrowCsvReaderExceptionAfterFirstChunk() {
+    String csv =
+        """
+        Headphones,Best sound quality,1200.0,0.2,1
+        Keyboard,RGB backlight,200.0,0.5,1
+        Mouse,Wireless,100.0,0.1,invalid
+        """;
+    InputStream inputStream = new ByteArrayInputStream(csv.getBytes());
+    when(validator.validate(any(ProductRequest.class))).thenReturn(Set.of());
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    assertThrows(
+        CsvReaderException.class,
+        () ->
+            csvProductRequestReader.csvToModel(
+                inputStream, 2, chunk -> chunkSizes.add(chunk.size())));
+    assertEquals(List.of(2), chunkSizes);
+  }
+
   @Test
   void csvToModel_whenEmptyCsvGiven_thenThrowCsvReaderException() {
     String csv = "";
@@ -73,4 +113,30 @@ class CsvProductRequestReaderTest extends UnitTest {
 
     assertThrows(CsvReaderException.class, () -> csvProductRequestReader.csvToModel(inputStream));
   }
+
+  @Test
+  void csvToRows_whenInvalidRowInChunk_thenReportRowErrorAndSkipRow() {
+    String csv =
+        """
+        Headphones,Best sound quality,1200.0,0.2,1
+        Keyboard,RGB backlight,200.0,0.5,invalid
+        Mouse,Wireless,100.0,0.1,1
+        """;
+    InputStream inputStream = new ByteArrayInputStream(csv.getBytes());
+    when(validator.validate(any(ProductRequest.class))).thenReturn(Set.of());
+    List<Long> rowNumbers = new ArrayList<>();
+    List<CsvRowError> rowErrors = new ArrayList<>();
+
+    long rowsRead =
+        csvProductRequestReader.csvToRows(
+            inputStream,
+            2,
+            chunk -> chunk.forEach(row -> rowNumbers.add(row.getRowNumber())),
+            rowErrors::add);
+
+    assertEquals(3, rowsRead);
+    assertEquals(List.of(1L, 3L), rowNumbers);
+    assertEquals(1, rowErrors.size());
+    assertEquals(2, rowErrors.getFirst().getRowNumber());
+  }
 }
@@ -0,0 +1,135 @@
+package me.jangluzniewicz.webstore.orders.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to read one 100-row order listing page from an in-memory H2 database in PostgreSQL mode,
+ * with 10,000 orders of 5 items each. {@code computeTotals} sums the items of every row with the
+ * correlated subquery of the former {@code @Formula} on {@code OrderEntity.total}; {@code
+ * readStoredTotals} reads the {@code total} column. Both use the index on {@code
+ * order_items.order_id}, which PostgreSQL did not have before the totals were stored. H2 is kept
+ * from reusing the result of an unchanged query, so that every invocation runs the query.
+ *
+ * <p>Measured on JDK 21.0.1, 1 vCPU:
+ *
+ * <pre>
+ * Benchmark                               Mode  Cnt    Score     Error  Units
+ * OrderListingBenchmark.computeTotals     avgt    5  410.805 ± 214.477  us/op
+ * OrderListingBenchmark.readStoredTotals  avgt    5   28.534 ±   0.377  us/op
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderListingBenchmark {
+  private static final int ORDERS = 10_000;
+  private static final int ITEMS_PER_ORDER = 5;
+  private static final int PAGE_SIZE = 100;
+  private static final String LISTING =
+      "SELECT o.id, o.order_date, o.customer_id, o.order_status_id, %s AS total FROM orders o"
+          + " ORDER BY o.id DESC LIMIT "
+          + PAGE_SIZE;
+
+  private Connection connection;
+  private PreparedStatement computedTotals;
+  private PreparedStatement storedTotals;
+
+  @Setup
+  public void setUp() throws SQLException {
+    connection =
+        DriverManager.getConnection(
+            "jdbc:h2:mem:orders;MODE=PostgreSQL;OPTIMIZE_REUSE_RESULTS=FALSE");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE orders (id BIGINT PRIMARY KEY,"
+              + " order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, customer_id BIGINT,"
+              + " order_status_id BIGINT DEFAULT 1, total DECIMAL(12, 2) DEFAULT 0.00 NOT NULL)");
+      statement.execute(
+          "CREATE TABLE order_items (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+              + " order_id BIGINT, product_id BIGINT NOT NULL, quantity INT NOT NULL,"
+              + " price DECIMAL(10, 2) NOT NULL)");
+      statement.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+    }
+    try (PreparedStatement order =
+            connection.prepareStatement("INSERT INTO orders (id, customer_id) VALUES (?, ?)");
+        PreparedStatement item =
+            connection.prepareStatement(
+                "INSERT INTO order_items (order_id, product_id, quantity, price)"
+                    + " VALUES (?, ?, ?, ?)")) {
+      for (long id = 1; id <= ORDERS; id++) {
+        order.setLong(1, id);
+        order.setLong(2, id % 100);
+        order.addBatch();
+        for (int i = 1; i <= ITEMS_PER_ORDER; i++) {
+          item.setLong(1, id);
+          item.setLong(2, i);
+          item.setInt(3, i);
+          item.setBigDecimal(4, new BigDecimal("19.99"));
+          item.addBatch();
+        }
+      }
+      order.executeBatch();
+      item.executeBatch();
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "UPDATE orders SET total = (SELECT COALESCE(SUM(oi.price * oi.quantity), 0.00)"
+              + " FROM order_items oi WHERE oi.order_id = orders.id)");
+    }
+    computedTotals =
+        connection.prepareStatement(
+            LISTING.formatted(
+                "(SELECT COALESCE(SUM(oi.price * oi.quantity), 0.00) FROM order_items oi"
+                    + " WHERE oi.order_id = o.id)"));
+    storedTotals = connection.prepareStatement(LISTING.formatted("o.total"));
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public void computeTotals(Blackhole blackhole) throws SQLException {
+    readPage(computedTotals, blackhole);
+  }
+
+  @Benchmark
+  public void readStoredTotals(Blackhole blackhole) throws SQLException {
+    readPage(storedTotals, blackhole);
+  }
+
+  private static void readPage(PreparedStatement listing, Blackhole blackhole) throws SQLException {
+    try (ResultSet rows = listing.executeQuery()) {
+      while (rows.next()) {
+        blackhole.consume(rows.getLong(1));
+        blackhole.consume(rows.getTimestamp(2));
+        blackhole.consume(rows.getLong(3));
+        blackhole.consume(rows.getLong(4));
+        blackhole.consume(rows.getBigDecimal(5));
+      }
+    }
+  }
+}
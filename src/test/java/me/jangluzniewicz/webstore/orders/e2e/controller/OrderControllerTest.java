@@ -38,7 +38,26 @@ public class OrderControllerTest extends E2ETest {
         Arguments.of(BASE_URL, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + VALID_ORDER_WITH_NOT_APPROVED_STATUS_ID, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_ORDER_ID, HttpStatus.NOT_FOUND),
-        Arguments.of(BASE_URL + "?" + filterParams, HttpStatus.OK));
+        Arguments.of(BASE_URL + "?" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=capped&size=1", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=estimated&" + filterParams, HttpStatus.OK));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideExportOrdersTestData")
+  @DisplayName("GET /orders/export (ADMIN)")
+  @WithCustomUser(roles = {"ADMIN"})
+  void exportOrdersTests(String url, HttpStatus expectedStatus) throws Exception {
+    performStreamingGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideExportOrdersTestData() {
+    String filterParams = OrderFilterRequestTestDataBuilder.builder().build().toRequestParams();
+    return Stream.of(
+        Arguments.of(BASE_URL + "/export", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=ndjson", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=ndjson&" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=xml", HttpStatus.BAD_REQUEST));
   }
 
   @ParameterizedTest
@@ -66,7 +85,9 @@ public class OrderControllerTest extends E2ETest {
   }
 
   static Stream<Arguments> provideCurrentUserGetOrderTestData() {
-    return Stream.of(Arguments.of(BASE_URL + "/current", HttpStatus.OK));
+    return Stream.of(
+        Arguments.of(BASE_URL + "/current", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/current?paging=slice&size=1", HttpStatus.OK));
   }
 
   @ParameterizedTest
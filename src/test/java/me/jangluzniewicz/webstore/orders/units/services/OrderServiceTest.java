@@ -2,11 +2,20 @@ package me.jangluzniewicz.webstore.orders.units.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.ConflictException;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.OrderStatusNotAllowedException;
@@ -17,6 +26,7 @@ import me.jangluzniewicz.webstore.orders.controllers.RatingRequest;
 import me.jangluzniewicz.webstore.orders.entities.OrderEntity;
 import me.jangluzniewicz.webstore.orders.mappers.OrderMapper;
 import me.jangluzniewicz.webstore.orders.models.Order;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
 import me.jangluzniewicz.webstore.orders.repositories.OrderRepository;
 import me.jangluzniewicz.webstore.orders.services.OrderService;
 import me.jangluzniewicz.webstore.orderstatuses.interfaces.IOrderStatus;
@@ -33,12 +43,11 @@ import me.jangluzniewicz.webstore.utils.testdata.users.UserTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 
 class OrderServiceTest extends UnitTest {
   @Mock private OrderRepository orderRepository;
@@ -46,6 +55,8 @@ class OrderServiceTest extends UnitTest {
   @Mock private IUser userService;
   @Mock private IProduct productService;
   @Mock private OrderMapper orderMapper;
+  @Mock private IPaging pagingService;
+  @Mock private IExport exportService;
   @InjectMocks private OrderService orderService;
 
   private User user;
@@ -82,12 +93,27 @@ class OrderServiceTest extends UnitTest {
   @Test
   void createNewOrder_whenUserExistsAndProductExists_thenReturnIdResponse() {
     when(userService.getUserById(orderRequest1.getCustomerId())).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
     when(orderRepository.save(any())).thenReturn(orderEntity);
 
     assertEquals(orderEntity.getId(), orderService.createNewOrder(orderRequest1).getId());
   }
 
+  @Test
+  void createNewOrder_whenOrderPlaced_thenStoreTotalAtCurrentPrices() {
+    when(userService.getUserById(orderRequest1.getCustomerId())).thenReturn(Optional.of(user));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
+    when(orderRepository.save(any())).thenReturn(orderEntity);
+
+    orderService.createNewOrder(orderRequest1);
+
+    ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+    verify(orderMapper).toEntity(captor.capture());
+    assertEquals(product.getPrice(), captor.getValue().getTotal());
+  }
+
   @Test
   void createNewOrder_whenUserDoesNotExist_thenThrowNotFoundException() {
     when(userService.getUserById(orderRequest1.getCustomerId())).thenReturn(Optional.empty());
@@ -98,7 +124,7 @@ class OrderServiceTest extends UnitTest {
   @Test
   void createNewOrder_whenProductDoesNotExist_thenThrowNotFoundException() {
     when(userService.getUserById(orderRequest1.getCustomerId())).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.empty());
+    when(productService.getProductsByIds(List.of(product.getId()), false)).thenReturn(Map.of());
 
     assertThrows(NotFoundException.class, () -> orderService.createNewOrder(orderRequest1));
   }
@@ -109,7 +135,8 @@ class OrderServiceTest extends UnitTest {
         OrderRequestTestDataBuilder.builder().customerId(null).build().buildOrderRequest();
 
     when(userService.getUserByEmail("GUEST")).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
     when(orderRepository.save(any())).thenReturn(orderEntity);
 
     assertEquals(orderEntity.getId(), orderService.createNewOrder(guestOrderRequest).getId());
@@ -132,32 +159,89 @@ class OrderServiceTest extends UnitTest {
 
   @Test
   void getOrdersByCustomerId_whenOrdersExist_thenReturnPagedResponse() {
-    Page<OrderEntity> page = new PageImpl<>(List.of(orderEntity));
-    when(orderRepository.findAllByCustomerIdOrderByOrderDateAscIdAsc(
-            anyLong(), any(Pageable.class)))
-        .thenReturn(page);
-    when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
-
-    assertEquals(1, orderService.getOrdersByCustomerId(user.getId(), 0, 10).getTotalPages());
+    when(pagingService.findPage(
+            eq(OrderEntity.class),
+            eq(OrderSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(
+                PagingMode.EXACT,
+                1,
+                1L,
+                false,
+                false,
+                List.of(OrderSummaryTestDataBuilder.builder().build().buildOrderSummary())));
+
+    assertEquals(
+        1,
+        orderService.getOrdersByCustomerId(user.getId(), 0, 10, PagingMode.EXACT).getTotalPages());
   }
 
   @Test
   void getAllOrders_whenOrdersExist_thenReturnPagedResponse() {
-    Page<OrderEntity> page = new PageImpl<>(List.of(orderEntity));
-    when(orderRepository.findAll(any(Pageable.class))).thenReturn(page);
-    when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
-
-    assertEquals(1, orderService.getAllOrders(0, 10).getTotalPages());
+    when(pagingService.findPage(
+            eq(OrderEntity.class),
+            eq(OrderSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(
+                PagingMode.EXACT,
+                1,
+                1L,
+                false,
+                false,
+                List.of(OrderSummaryTestDataBuilder.builder().build().buildOrderSummary())));
+
+    assertEquals(1, orderService.getAllOrders(0, 10, PagingMode.EXACT).getTotalPages());
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   void getFilteredOrders_whenOrdersExist_thenReturnPagedResponse() {
-    Page<OrderEntity> page = new PageImpl<>(List.of(orderEntity));
-    when(orderRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
-    when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
+    when(pagingService.findPage(
+            eq(OrderEntity.class),
+            eq(OrderSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(
+                PagingMode.EXACT,
+                1,
+                1L,
+                false,
+                false,
+                List.of(OrderSummaryTestDataBuilder.builder().build().buildOrderSummary())));
+
+    assertEquals(
+        1,
+        orderService
+            .getFilteredOrders(orderFilterRequest, 0, 10, PagingMode.EXACT)
+            .getTotalPages());
+  }
 
-    assertEquals(1, orderService.getFilteredOrders(orderFilterRequest, 0, 10).getTotalPages());
+  @Test
+  void exportOrders_whenCalled_thenExportSummaries() {
+    OutputStream outputStream = new ByteArrayOutputStream();
+    when(exportService.export(
+            eq(OrderEntity.class),
+            eq(OrderSummary.class),
+            any(),
+            any(),
+            any(Sort.class),
+            eq(ExportFormat.NDJSON),
+            any(),
+            eq(outputStream)))
+        .thenReturn(1L);
+
+    assertEquals(
+        1L, orderService.exportOrders(orderFilterRequest, ExportFormat.NDJSON, outputStream));
   }
 
   @Test
@@ -304,7 +388,8 @@ class OrderServiceTest extends UnitTest {
     when(orderRepository.findById(orderEntity.getId())).thenReturn(Optional.of(orderEntity));
     when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
     when(userService.getUserById(orderRequest2.getCustomerId())).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
     OrderEntity updatedOrderEntity =
         OrderEntityTestDataBuilder.builder()
             .items(List.of(OrderItemEntityTestDataBuilder.builder().quantity(3).build()))
@@ -320,7 +405,8 @@ class OrderServiceTest extends UnitTest {
     when(orderRepository.findById(orderEntity.getId())).thenReturn(Optional.of(orderEntity));
     when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
     when(userService.getUserById(orderRequest2.getCustomerId())).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.of(product));
+    when(productService.getProductsByIds(List.of(product.getId()), false))
+        .thenReturn(Map.of(product.getId(), product));
     when(orderRepository.save(any())).thenReturn(orderEntity);
 
     assertDoesNotThrow(() -> orderService.updateOrder(orderEntity.getId(), orderRequest1));
@@ -351,7 +437,7 @@ class OrderServiceTest extends UnitTest {
     when(orderRepository.findById(orderEntity.getId())).thenReturn(Optional.of(orderEntity));
     when(orderMapper.fromEntity(orderEntity)).thenReturn(order);
     when(userService.getUserById(orderRequest2.getCustomerId())).thenReturn(Optional.of(user));
-    when(productService.getProductById(product.getId())).thenReturn(Optional.empty());
+    when(productService.getProductsByIds(List.of(product.getId()), false)).thenReturn(Map.of());
 
     assertThrows(
         NotFoundException.class,
@@ -27,6 +27,7 @@ public class OrderStatusControllerTest extends E2ETest {
   static Stream<Arguments> provideGetOrderStatusTestData() {
     return Stream.of(
         Arguments.of(BASE_URL, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=slice", HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + VALID_ORDER_STATUS_ID, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_ORDER_STATUS_ID, HttpStatus.NOT_FOUND));
   }
@@ -5,10 +5,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.orderstatuses.controllers.OrderStatusRequest;
@@ -25,12 +29,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 class OrderStatusServiceTest extends UnitTest {
   @Mock private OrderStatusRepository orderStatusRepository;
   @Mock private OrderStatusMapper orderStatusMapper;
+  @Mock private IPaging pagingService;
   @InjectMocks private OrderStatusService orderStatusService;
 
   private OrderStatusEntity orderStatusEntity;
@@ -90,11 +94,14 @@ class OrderStatusServiceTest extends UnitTest {
 
   @Test
   void getAllOrderStatuses_whenOrderStatusesExist_thenReturnPagedResponse() {
-    when(orderStatusRepository.findAll(any(Pageable.class)))
-        .thenReturn(new PageImpl<>(List.of(orderStatusEntity)));
+    when(pagingService.findPage(
+            eq(OrderStatusEntity.class), any(), any(Pageable.class), eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(PagingMode.EXACT, 1, 1L, false, false, List.of(orderStatusEntity)));
     when(orderStatusMapper.fromEntity(orderStatusEntity)).thenReturn(orderStatus);
 
-    assertEquals(1, orderStatusService.getAllOrderStatuses(0, 10).getTotalPages());
+    assertEquals(
+        1, orderStatusService.getAllOrderStatuses(0, 10, PagingMode.EXACT).getTotalPages());
   }
 
   @Test
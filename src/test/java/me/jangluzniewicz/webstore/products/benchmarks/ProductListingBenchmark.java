@@ -0,0 +1,160 @@
+package me.jangluzniewicz.webstore.products.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import me.jangluzniewicz.webstore.categories.entities.CategoryEntity;
+import me.jangluzniewicz.webstore.categories.mappers.CategoryMapperImpl;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapperImpl;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import me.jangluzniewicz.webstore.products.repositories.ProductProjection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Time and allocation to read one 100-row product listing page through Hibernate, with criteria
+ * queries like {@code PagingService}. The in-memory H2 database is reached over a local TCP server,
+ * so that rows are copied over a socket as they would be from PostgreSQL; the server runs in the
+ * benchmark JVM and its allocations are counted too, and it does not reuse the results of unchanged
+ * queries. {@code loadEntitiesAndMap} loads managed entities, descriptions included, and maps them
+ * with {@link ProductMapper} as the listing did before it used projections; {@code
+ * projectSummaries} selects the {@link ProductProjection#summary()} columns straight into {@link
+ * ProductSummary}. Run with {@code -prof gc}; dividing {@code gc.alloc.rate.norm} by 100 gives the
+ * allocation per row.
+ *
+ * <p>Measured on JDK 21.0.1, 1 vCPU:
+ *
+ * <pre>
+ * Benchmark                                                      Mode  Cnt       Score       Error  Units
+ * ProductListingBenchmark.loadEntitiesAndMap                     avgt    5   37612.546 ± 10875.463  us/op
+ * ProductListingBenchmark.loadEntitiesAndMap:gc.alloc.rate.norm  avgt    5  919371.457 ± 11434.254   B/op
+ * ProductListingBenchmark.projectSummaries                       avgt    5   14171.009 ± 12049.792  us/op
+ * ProductListingBenchmark.projectSummaries:gc.alloc.rate.norm    avgt    5  619405.745 ±  2982.317   B/op
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductListingBenchmark {
+  private static final int PAGE_SIZE = 100;
+  private static final int PRODUCTS = 1_000;
+  private static final int CATEGORIES = 10;
+
+  private Server server;
+  private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+  private EntityManagerFactory entityManagerFactory;
+  private AnnotationConfigApplicationContext mappers;
+  private ProductMapper productMapper;
+
+  @Setup
+  public void setUp() throws SQLException {
+    DriverManager.getConnection(
+            "jdbc:h2:mem:listing;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE")
+        .close();
+    server = Server.createTcpServer("-tcpPort", "0").start();
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL(
+        "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:listing;MODE=PostgreSQL");
+    entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+    entityManagerFactoryBean.setDataSource(dataSource);
+    entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    entityManagerFactoryBean.setPackagesToScan(
+        "me.jangluzniewicz.webstore.products.entities",
+        "me.jangluzniewicz.webstore.categories.entities");
+    entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+    entityManagerFactoryBean.afterPropertiesSet();
+    entityManagerFactory = entityManagerFactoryBean.getObject();
+    mappers =
+        new AnnotationConfigApplicationContext(ProductMapperImpl.class, CategoryMapperImpl.class);
+    productMapper = mappers.getBean(ProductMapper.class);
+    populate();
+  }
+
+  @TearDown
+  public void tearDown() {
+    mappers.close();
+    entityManagerFactoryBean.destroy();
+    server.stop();
+  }
+
+  @Benchmark
+  public List<Product> loadEntitiesAndMap() {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+      CriteriaQuery<ProductEntity> query = criteriaBuilder.createQuery(ProductEntity.class);
+      Root<ProductEntity> root = query.from(ProductEntity.class);
+      query.select(root).orderBy(criteriaBuilder.asc(root.get("id")));
+      return entityManager.createQuery(query).setMaxResults(PAGE_SIZE).getResultList().stream()
+          .map(productMapper::fromEntity)
+          .toList();
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  @Benchmark
+  public List<ProductSummary> projectSummaries() {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+      CriteriaQuery<ProductSummary> query = criteriaBuilder.createQuery(ProductSummary.class);
+      Root<ProductEntity> root = query.from(ProductEntity.class);
+      query
+          .select(ProductProjection.summary().toSelection(root, criteriaBuilder))
+          .orderBy(criteriaBuilder.asc(root.get("id")));
+      return entityManager.createQuery(query).setMaxResults(PAGE_SIZE).getResultList();
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  private void populate() {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    entityManager.getTransaction().begin();
+    String description =
+        "Lightweight frame, hydraulic brakes and a 12-speed drivetrain. ".repeat(30);
+    for (int c = 0; c < CATEGORIES; c++) {
+      CategoryEntity category = new CategoryEntity("Category " + c);
+      entityManager.persist(category);
+      for (int p = 0; p < PRODUCTS / CATEGORIES; p++) {
+        ProductEntity product =
+            new ProductEntity("Product " + c + "-" + p, new BigDecimal("299.99"), category);
+        product.setDescription(description);
+        product.setWeight(new BigDecimal("15.5"));
+        product.setImageUri("products/" + c + "-" + p + ".png");
+        entityManager.persist(product);
+      }
+    }
+    entityManager.getTransaction().commit();
+    entityManager.close();
+  }
+}
@@ -3,6 +3,7 @@ package me.jangluzniewicz.webstore.products.e2e.controllers;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import java.util.stream.Stream;
 import me.jangluzniewicz.webstore.utils.e2e.config.E2ETest;
 import me.jangluzniewicz.webstore.utils.e2e.security.WithCustomUser;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 
@@ -32,10 +34,81 @@ public class ProductControllerTest extends E2ETest {
     return Stream.of(
         Arguments.of(BASE_URL, HttpStatus.OK),
         Arguments.of(BASE_URL + "?" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=slice&size=1", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=capped&page=5&size=1", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=estimated&size=1", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=estimated&" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?facets=true", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?facets=true&" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=approximate", HttpStatus.BAD_REQUEST),
+        Arguments.of(BASE_URL + "?cursor=", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?cursor=&sort=price&direction=desc&size=2", HttpStatus.OK),
+        Arguments.of(BASE_URL + "?cursor=&" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?cursor=invalid", HttpStatus.BAD_REQUEST),
+        Arguments.of(BASE_URL + "?cursor=&sort=weight", HttpStatus.BAD_REQUEST),
+        Arguments.of(
+            BASE_URL + "?ids=" + VALID_PRODUCT_ID + "," + INVALID_PRODUCT_ID, HttpStatus.OK),
+        Arguments.of(
+            BASE_URL
+                + "?ids="
+                + String.join(",", Stream.iterate("1", id -> id).limit(101).toList()),
+            HttpStatus.BAD_REQUEST),
         Arguments.of(BASE_URL + "/" + VALID_PRODUCT_ID, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_PRODUCT_ID, HttpStatus.NOT_FOUND));
   }
 
+  @ParameterizedTest
+  @MethodSource("provideExportProductsTestData")
+  @DisplayName("GET /products/export (ADMIN)")
+  @WithCustomUser(roles = {"ADMIN"})
+  void exportProductsTests(String url, HttpStatus expectedStatus) throws Exception {
+    performStreamingGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideExportProductsTestData() {
+    String filterParams = ProductFilterRequestTestDataBuilder.builder().build().toRequestParams();
+    return Stream.of(
+        Arguments.of(BASE_URL + "/export", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=ndjson", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=csv&" + filterParams, HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=xml", HttpStatus.BAD_REQUEST));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideCustomerExportProductsTestData")
+  @DisplayName("GET /products/export (CUSTOMER)")
+  @WithCustomUser
+  void customerExportProductsTests(String url, HttpStatus expectedStatus) throws Exception {
+    performStreamingGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideCustomerExportProductsTestData() {
+    return Stream.of(Arguments.of(BASE_URL + "/export", HttpStatus.FORBIDDEN));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideConditionalGetProductTestData")
+  @DisplayName("GET /products with If-None-Match")
+  void conditionalGetProductTests(String url, boolean currentETag, HttpStatus expectedStatus)
+      throws Exception {
+    String eTag =
+        currentETag
+            ? performGet(url).andReturn().getResponse().getHeader(HttpHeaders.ETAG)
+            : "\"stale\"";
+    performGetIfNoneMatch(url, eTag).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideConditionalGetProductTestData() {
+    return Stream.of(
+        Arguments.of(BASE_URL, true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL, false, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?facets=true", true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL + "?paging=slice&size=1", true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL + "/" + VALID_PRODUCT_ID, true, HttpStatus.NOT_MODIFIED),
+        Arguments.of(BASE_URL + "/" + VALID_PRODUCT_ID, false, HttpStatus.OK),
+        Arguments.of(BASE_URL + "/" + INVALID_PRODUCT_ID, false, HttpStatus.NOT_FOUND));
+  }
+
   @ParameterizedTest
   @MethodSource("provideCreateProductTestData")
   @DisplayName("POST /products")
@@ -71,7 +144,27 @@ public class ProductControllerTest extends E2ETest {
     MockMultipartFile file =
         new MockMultipartFile(
             "file", "products.csv", "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
-    return Stream.of(Arguments.of(file, HttpStatus.NO_CONTENT));
+    return Stream.of(Arguments.of(file, HttpStatus.ACCEPTED));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideImportJobTestData")
+  @DisplayName("GET /products/import/{jobId}")
+  @WithCustomUser(roles = {"ADMIN"})
+  void getImportJobTests(String url, HttpStatus expectedStatus) throws Exception {
+    performGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideImportJobTestData")
+  @DisplayName("DELETE /products/import/{jobId}")
+  @WithCustomUser(roles = {"ADMIN"})
+  void cancelImportJobTests(String url, HttpStatus expectedStatus) throws Exception {
+    performDelete(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideImportJobTestData() {
+    return Stream.of(Arguments.of(BASE_URL + "/import/" + UUID.randomUUID(), HttpStatus.NOT_FOUND));
   }
 
   @ParameterizedTest
@@ -95,6 +188,51 @@ public class ProductControllerTest extends E2ETest {
             BASE_URL + "/" + INVALID_PRODUCT_ID, validProductRequest, HttpStatus.NOT_FOUND));
   }
 
+  @ParameterizedTest
+  @MethodSource("provideBulkUpdateProductsTestData")
+  @DisplayName("PATCH /products")
+  @WithCustomUser(roles = {"ADMIN"})
+  void bulkUpdateProductsTests(String productBulkUpdateRequest, HttpStatus expectedStatus)
+      throws Exception {
+    performPatch(BASE_URL, productBulkUpdateRequest).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideBulkUpdateProductsTestData() {
+    return Stream.of(
+        Arguments.of(
+            "{\"ids\": [%d, %d], \"priceChangePercent\": 5}"
+                .formatted(VALID_PRODUCT_ID, INVALID_PRODUCT_ID),
+            HttpStatus.OK),
+        Arguments.of(
+            "{\"filter\": {\"categoryId\": 1}, \"price\": 10.5, \"weight\": 1, \"categoryId\": 1}",
+            HttpStatus.OK),
+        Arguments.of(
+            "{\"ids\": [%d], \"filter\": {}, \"price\": 10}".formatted(VALID_PRODUCT_ID),
+            HttpStatus.BAD_REQUEST),
+        Arguments.of("{\"ids\": [%d]}".formatted(VALID_PRODUCT_ID), HttpStatus.BAD_REQUEST),
+        Arguments.of(
+            "{\"ids\": [%d], \"priceChangePercent\": -101}".formatted(VALID_PRODUCT_ID),
+            HttpStatus.BAD_REQUEST),
+        Arguments.of(
+            "{\"ids\": [%d], \"categoryId\": 999}".formatted(VALID_PRODUCT_ID),
+            HttpStatus.NOT_FOUND));
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideBulkDeleteProductsTestData")
+  @DisplayName("DELETE /products")
+  @WithCustomUser(roles = {"ADMIN"})
+  void bulkDeleteProductsTests(String url, HttpStatus expectedStatus) throws Exception {
+    performDelete(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideBulkDeleteProductsTestData() {
+    return Stream.of(
+        Arguments.of(
+            BASE_URL + "?ids=" + VALID_PRODUCT_ID + "," + INVALID_PRODUCT_ID, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?ids=abc", HttpStatus.BAD_REQUEST));
+  }
+
   @ParameterizedTest
   @MethodSource("provideDeleteProductTestData")
   @DisplayName("DELETE /products")
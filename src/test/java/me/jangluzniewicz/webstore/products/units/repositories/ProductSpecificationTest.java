@@ -0,0 +1,83 @@
+package me.jangluzniewicz.webstore.products.units.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.repositories.ProductSpecification;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.data.domain.Sort;
+
+class ProductSpecificationTest extends UnitTest {
+  private static final BigDecimal PRICE = new BigDecimal("9.99");
+  @Mock private Root<ProductEntity> root;
+  @Mock private CriteriaQuery<?> query;
+  @Mock private CriteriaBuilder criteriaBuilder;
+  @Mock private Path<Long> id;
+  @Mock private Path<BigDecimal> price;
+
+  @BeforeEach
+  void setUp() {
+    doReturn(id).when(root).get("id");
+    doReturn(price).when(root).get("price");
+  }
+
+  @Test
+  void after_whenSortingAscending_thenBoundOrPredicateWithGreaterThanOrEqual() {
+    Predicate idAfter = mock(Predicate.class);
+    Predicate notBefore = mock(Predicate.class);
+    Predicate priceAfter = mock(Predicate.class);
+    when(criteriaBuilder.greaterThan(id, 5L)).thenReturn(idAfter);
+    when(criteriaBuilder.greaterThanOrEqualTo(price, PRICE)).thenReturn(notBefore);
+    when(criteriaBuilder.greaterThan(price, PRICE)).thenReturn(priceAfter);
+
+    Predicate expected = stubKeyset(notBefore, priceAfter, idAfter);
+
+    assertSame(
+        expected,
+        ProductSpecification.after(ProductSortKey.PRICE, Sort.Direction.ASC, 5L, PRICE)
+            .toPredicate(root, query, criteriaBuilder));
+  }
+
+  @Test
+  void after_whenSortingDescending_thenBoundOrPredicateWithLessThanOrEqual() {
+    Predicate idAfter = mock(Predicate.class);
+    Predicate notBefore = mock(Predicate.class);
+    Predicate priceAfter = mock(Predicate.class);
+    when(criteriaBuilder.lessThan(id, 5L)).thenReturn(idAfter);
+    when(criteriaBuilder.lessThanOrEqualTo(price, PRICE)).thenReturn(notBefore);
+    when(criteriaBuilder.lessThan(price, PRICE)).thenReturn(priceAfter);
+
+    Predicate expected = stubKeyset(notBefore, priceAfter, idAfter);
+
+    assertSame(
+        expected,
+        ProductSpecification.after(ProductSortKey.PRICE, Sort.Direction.DESC, 5L, PRICE)
+            .toPredicate(root, query, criteriaBuilder));
+  }
+
+  /** Stubs {@code notBefore AND (priceAfter OR (price = PRICE AND idAfter))}. */
+  private Predicate stubKeyset(Predicate notBefore, Predicate priceAfter, Predicate idAfter) {
+    Predicate priceEqual = mock(Predicate.class);
+    Predicate tie = mock(Predicate.class);
+    Predicate either = mock(Predicate.class);
+    Predicate keyset = mock(Predicate.class);
+    when(criteriaBuilder.equal(price, PRICE)).thenReturn(priceEqual);
+    when(criteriaBuilder.and(priceEqual, idAfter)).thenReturn(tie);
+    when(criteriaBuilder.or(priceAfter, tie)).thenReturn(either);
+    when(criteriaBuilder.and(notBefore, either)).thenReturn(keyset);
+    return keyset;
+  }
+}
@@ -0,0 +1,90 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import me.jangluzniewicz.webstore.products.services.IdBitmap;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.Test;
+
+class IdBitmapTest extends UnitTest {
+  private static final int RANGE = 300_000;
+
+  @Test
+  void add_whenIdsSpanSeveralChunks_thenContainExactlyThoseIds() {
+    IdBitmap bitmap = IdBitmap.of(List.of(1L, 65_535L, 65_536L, 200_000L));
+
+    assertTrue(bitmap.contains(65_536));
+    assertFalse(bitmap.contains(65_537));
+    assertEquals(4, bitmap.cardinality());
+  }
+
+  @Test
+  void remove_whenDenseChunkShrinks_thenKeepRemainingIds() {
+    IdBitmap bitmap = new IdBitmap();
+    for (int id = 0; id < 10_000; id++) {
+      bitmap.add(id);
+    }
+    for (int id = 0; id < 10_000; id += 2) {
+      bitmap.remove(id);
+    }
+
+    assertEquals(5_000, bitmap.cardinality());
+    assertTrue(bitmap.contains(9_999));
+    assertFalse(bitmap.contains(9_998));
+  }
+
+  @Test
+  void and_whenBitmapsMixSparseAndDenseChunks_thenMatchBitSet() {
+    Random random = new Random(42);
+    BitSet first = randomIds(random, 0.2);
+    BitSet second = randomIds(random, 0.01);
+    BitSet expected = (BitSet) first.clone();
+    expected.and(second);
+
+    IdBitmap result = toBitmap(first).and(toBitmap(second));
+
+    assertEquals(expected, toBitSet(result));
+    assertEquals(expected.cardinality(), toBitmap(first).andCardinality(toBitmap(second)));
+  }
+
+  @Test
+  void or_whenBitmapsMixSparseAndDenseChunks_thenMatchBitSet() {
+    Random random = new Random(7);
+    BitSet first = randomIds(random, 0.05);
+    BitSet second = randomIds(random, 0.002);
+    BitSet expected = (BitSet) first.clone();
+    expected.or(second);
+
+    IdBitmap result = toBitmap(first).or(toBitmap(second));
+
+    assertEquals(expected, toBitSet(result));
+    assertEquals(expected.cardinality(), result.cardinality());
+  }
+
+  private static BitSet randomIds(Random random, double density) {
+    BitSet ids = new BitSet(RANGE);
+    for (int id = 0; id < RANGE; id++) {
+      if (random.nextDouble() < density * (1 + id / 100_000)) {
+        ids.set(id);
+      }
+    }
+    return ids;
+  }
+
+  private static IdBitmap toBitmap(BitSet ids) {
+    IdBitmap bitmap = new IdBitmap();
+    ids.stream().forEach(bitmap::add);
+    return bitmap;
+  }
+
+  private static BitSet toBitSet(IdBitmap bitmap) {
+    BitSet ids = new BitSet(RANGE);
+    bitmap.forEach(ids::set);
+    return ids;
+  }
+}
@@ -0,0 +1,125 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
+import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.controllers.ProductBulkUpdateRequest;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.models.ProductBulkOutcome;
+import me.jangluzniewicz.webstore.products.models.ProductBulkResult;
+import me.jangluzniewicz.webstore.products.models.ProductBulkStatus;
+import me.jangluzniewicz.webstore.products.repositories.ProductBulkView;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import me.jangluzniewicz.webstore.products.services.ProductBulkService;
+import me.jangluzniewicz.webstore.products.services.ProductNameIndex;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductFilterRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ProductBulkServiceTest extends UnitTest {
+  @Mock private ProductRepository productRepository;
+  @Mock private ICategory categoryService;
+  @Mock private IAwsS3 awsS3;
+  @Mock private IPaging pagingService;
+  @Mock private ProductNameIndex productNameIndex;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private PlatformTransactionManager transactionManager;
+  @Mock private EntityManager entityManager;
+  private ProductBulkService productBulkService;
+
+  @BeforeEach
+  void setUp() {
+    productBulkService =
+        new ProductBulkService(
+            productRepository,
+            categoryService,
+            awsS3,
+            pagingService,
+            productNameIndex,
+            eventPublisher,
+            transactionManager,
+            entityManager,
+            3,
+            2);
+  }
+
+  @Test
+  void deleteProducts_whenProductsAreMissingOrReferenced_thenReportOutcomePerId() {
+    when(pagingService.findFirst(
+            eq(ProductEntity.class), eq(ProductBulkView.class), any(), any(), any(), eq(2)))
+        .thenReturn(
+            List.of(new ProductBulkView(1L, 10L, "a.jpg"), new ProductBulkView(2L, 20L, "b.jpg")));
+    when(productRepository.findIdsInOrders(List.of(1L, 2L))).thenReturn(List.of(2L));
+
+    ProductBulkResult result = productBulkService.deleteProducts(List.of(3L, 1L, 2L, 1L));
+
+    assertEquals(
+        List.of(
+            new ProductBulkOutcome(1L, ProductBulkStatus.DELETED),
+            new ProductBulkOutcome(2L, ProductBulkStatus.CONFLICT),
+            new ProductBulkOutcome(3L, ProductBulkStatus.NOT_FOUND)),
+        result.getResults());
+    verify(productRepository).deleteAllByIdInBatch(List.of(1L));
+    verify(awsS3).deleteFiles(List.of("a.jpg"));
+    verify(productNameIndex).remove(1L);
+    verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1L), Set.of(10L)));
+  }
+
+  @Test
+  void deleteProducts_whenTooManyIds_thenThrowIllegalArgumentException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> productBulkService.deleteProducts(List.of(1L, 2L, 3L, 4L)));
+    verify(productRepository, never()).deleteAllByIdInBatch(any());
+  }
+
+  @Test
+  void updateProducts_whenIdsAndFilterAreGiven_thenThrowIllegalArgumentException() {
+    ProductBulkUpdateRequest request =
+        new ProductBulkUpdateRequest(
+            List.of(1L),
+            ProductFilterRequestTestDataBuilder.builder().build().buildProductFilterRequest(),
+            BigDecimal.TEN,
+            null,
+            null,
+            null);
+
+    assertThrows(IllegalArgumentException.class, () -> productBulkService.updateProducts(request));
+  }
+
+  @Test
+  void updateProducts_whenPriceAndPriceChangeAreGiven_thenThrowIllegalArgumentException() {
+    ProductBulkUpdateRequest request =
+        new ProductBulkUpdateRequest(List.of(1L), null, BigDecimal.TEN, BigDecimal.ONE, null, null);
+
+    assertThrows(IllegalArgumentException.class, () -> productBulkService.updateProducts(request));
+  }
+
+  @Test
+  void updateProducts_whenCategoryDoesNotExist_thenThrowNotFoundException() {
+    when(categoryService.getCategoriesByIds(List.of(99L))).thenReturn(Map.of());
+    ProductBulkUpdateRequest request =
+        new ProductBulkUpdateRequest(List.of(1L), null, null, null, null, 99L);
+
+    assertThrows(NotFoundException.class, () -> productBulkService.updateProducts(request));
+  }
+}
@@ -0,0 +1,182 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import me.jangluzniewicz.webstore.categories.events.CategoryChangedEvent;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
+import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
+import me.jangluzniewicz.webstore.products.services.ProductCache;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductSummaryTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import me.jangluzniewicz.webstore.utils.units.fakes.InMemoryGenerationStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class ProductCacheTest extends UnitTest {
+  private InMemoryGenerationStore generationStore;
+  private ProductCache productCache;
+  private Product product;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    generationStore = new InMemoryGenerationStore();
+    productCache = new ProductCache(new ConcurrentMapCacheManager(), generationStore);
+    product = ProductTestDataBuilder.builder().build().buildProduct();
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  void getProduct_whenWriteCommitsWhileLoading_thenNeverServeStaleProduct() {
+    Product updatedProduct =
+        ProductTestDataBuilder.builder().name("Updated").build().buildProduct();
+
+    productCache.getProduct(
+        product.getId(),
+        id -> {
+          productCache.onProductChanged(new ProductChangedEvent(List.of(id), List.of()));
+          return Optional.of(product);
+        });
+    Optional<Product> cached =
+        productCache.getProduct(product.getId(), _ -> Optional.of(updatedProduct));
+
+    assertEquals("Updated", cached.orElseThrow().getName());
+  }
+
+  @Test
+  void getProduct_whenChangeCommittedOnOtherInstance_thenReloadProduct() {
+    ProductCache otherInstance = new ProductCache(new ConcurrentMapCacheManager(), generationStore);
+    productCache.getProduct(product.getId(), this::load);
+
+    otherInstance.onProductChanged(new ProductChangedEvent(List.of(product.getId()), List.of()));
+    productCache.getProduct(product.getId(), this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void getProduct_whenGenerationsUnavailable_thenLoadWithoutCaching() {
+    generationStore.setAvailable(false);
+
+    productCache.getProduct(product.getId(), this::load);
+    productCache.getProduct(product.getId(), this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void getProduct_whenAdvanceFailed_thenBypassCacheUntilRetrySucceeds() {
+    productCache.getProduct(product.getId(), this::load);
+    generationStore.setAvailable(false);
+    productCache.onProductChanged(new ProductChangedEvent(List.of(product.getId()), List.of()));
+    generationStore.setAvailable(true);
+
+    productCache.getProduct(product.getId(), this::load);
+    productCache.retryAdvances();
+    productCache.getProduct(product.getId(), this::load);
+    productCache.getProduct(product.getId(), this::load);
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void getProduct_whenCategoryChanged_thenReloadProduct() {
+    productCache.getProduct(product.getId(), this::load);
+
+    productCache.onCategoryChanged(new CategoryChangedEvent(product.getCategory().getId()));
+    productCache.getProduct(product.getId(), this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void getProducts_whenSomeProductsCached_thenLoadOnlyMissingOnesInOneCall() {
+    Product other = ProductTestDataBuilder.builder().id(2L).build().buildProduct();
+    productCache.getProduct(product.getId(), this::load);
+    List<Collection<Long>> batches = new ArrayList<>();
+
+    Map<Long, Product> products =
+        productCache.getProducts(
+            List.of(product.getId(), other.getId(), 3L),
+            ids -> {
+              batches.add(Set.copyOf(ids));
+              return Map.of(other.getId(), other);
+            });
+
+    assertEquals(Map.of(product.getId(), product, other.getId(), other), products);
+    assertEquals(List.of(Set.of(other.getId(), 3L)), batches);
+  }
+
+  @Test
+  void getPage_whenFilterDiffersOnlyInCaseAndScale_thenReuseCachedPage() {
+    productCache.getPage(filter(1L, "Bike", "10.0"), 0, 20, PagingMode.EXACT, this::loadPage);
+    productCache.getPage(filter(1L, "bike", "10.00"), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void getPage_whenProductOfOtherCategoryChanged_thenKeepCachedPage() {
+    productCache.getPage(filter(1L, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    productCache.onProductChanged(new ProductChangedEvent(List.of(5L), List.of(2L)));
+    productCache.getPage(filter(1L, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void getPage_whenProductOfSameCategoryChanged_thenReloadPage() {
+    productCache.getPage(filter(1L, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    productCache.onProductChanged(new ProductChangedEvent(List.of(5L), List.of(2L, 1L)));
+    productCache.getPage(filter(1L, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void getPage_whenAnyProductChanged_thenReloadPageWithoutCategoryFilter() {
+    productCache.getPage(filter(null, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    productCache.onProductChanged(new ProductChangedEvent(List.of(5L), List.of(2L)));
+    productCache.getPage(filter(null, null, null), 0, 20, PagingMode.EXACT, this::loadPage);
+
+    assertEquals(2, loads.get());
+  }
+
+  private Optional<Product> load(Long id) {
+    loads.incrementAndGet();
+    return Optional.of(product);
+  }
+
+  private PagedResponse<ProductSummary> loadPage() {
+    loads.incrementAndGet();
+    return new PagedResponse<>(
+        PagingMode.EXACT,
+        1,
+        1L,
+        false,
+        false,
+        List.of(ProductSummaryTestDataBuilder.builder().build().buildProductSummary()));
+  }
+
+  private static ProductFilterRequest filter(Long categoryId, String name, String priceFrom) {
+    return new ProductFilterRequest(
+        categoryId, name, priceFrom != null ? new BigDecimal(priceFrom) : null, null);
+  }
+}
@@ -0,0 +1,112 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.repositories.ProductSnapshotView;
+import me.jangluzniewicz.webstore.products.services.ProductCatalogSnapshot;
+import me.jangluzniewicz.webstore.products.services.ProductCatalogSnapshot.IdPage;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductCatalogSnapshotTest extends UnitTest {
+  private ProductCatalogSnapshot productCatalogSnapshot;
+
+  @BeforeEach
+  void setUp() {
+    productCatalogSnapshot =
+        new ProductCatalogSnapshot(
+            List.of(
+                product(1L, 1L, "Mountain Bike", "450.00"),
+                product(2L, 1L, "Road Bike", "99.99"),
+                product(3L, 2L, "Bike Helmet", "49.99"),
+                product(4L, 2L, "Headphones", "50.00")));
+  }
+
+  @Test
+  void find_whenFilterIsEmpty_thenReturnAllIdsInOrder() {
+    IdPage page = productCatalogSnapshot.find(filter(null, null, null, null), 0, 10).orElseThrow();
+
+    assertEquals(List.of(1L, 2L, 3L, 4L), page.ids());
+    assertEquals(4, page.totalElements());
+    assertFalse(page.hasNext());
+  }
+
+  @Test
+  void find_whenAllCriteriaAreSet_thenReturnMatchingIds() {
+    IdPage page =
+        productCatalogSnapshot.find(filter(1L, "BIKE", "99.99", "450"), 0, 10).orElseThrow();
+
+    assertEquals(List.of(1L, 2L), page.ids());
+  }
+
+  @Test
+  void find_whenPriceBoundsAreNotWholeCents_thenRoundThemInward() {
+    IdPage page =
+        productCatalogSnapshot.find(filter(null, null, "49.985", "50.005"), 0, 10).orElseThrow();
+
+    assertEquals(List.of(3L, 4L), page.ids());
+  }
+
+  @Test
+  void find_whenOffsetIsSet_thenReturnRequestedSliceAndTotal() {
+    IdPage page = productCatalogSnapshot.find(filter(null, null, null, null), 1, 2).orElseThrow();
+
+    assertEquals(List.of(2L, 3L), page.ids());
+    assertEquals(4, page.totalElements());
+    assertTrue(page.hasNext());
+  }
+
+  @Test
+  void find_whenProductsChanged_thenMergeChangesInIdOrder() {
+    productCatalogSnapshot.put(product(2L, 2L, "Road Bike", "99.99"));
+    productCatalogSnapshot.put(product(5L, 1L, "Gravel Bike", "1200.00"));
+    productCatalogSnapshot.put(product(3L, 1L, "Bike Helmet", "49.99"));
+    productCatalogSnapshot.remove(1L);
+
+    IdPage page = productCatalogSnapshot.find(filter(1L, null, null, null), 0, 10).orElseThrow();
+
+    assertEquals(List.of(3L, 5L), page.ids());
+    assertEquals(2, page.totalElements());
+  }
+
+  @Test
+  void find_whenSnapshotIsLarge_thenCountEveryMatch() {
+    List<ProductSnapshotView> products = new ArrayList<>();
+    for (long id = 1; id <= 5_000; id++) {
+      products.add(product(id, id % 5 + 1, "Product " + id % 100, String.valueOf(id % 1000)));
+    }
+    ProductCatalogSnapshot snapshot = new ProductCatalogSnapshot(products);
+
+    IdPage page = snapshot.find(filter(3L, "product 7", "10", "500"), 0, 3).orElseThrow();
+
+    long expected =
+        products.stream()
+            .filter(product -> product.categoryId() == 3L)
+            .filter(product -> product.name().toLowerCase().contains("product 7"))
+            .filter(product -> product.price().compareTo(BigDecimal.TEN) >= 0)
+            .filter(product -> product.price().compareTo(BigDecimal.valueOf(500)) <= 0)
+            .count();
+    assertEquals(expected, page.totalElements());
+    assertEquals(3, page.ids().size());
+  }
+
+  private static ProductSnapshotView product(Long id, Long categoryId, String name, String price) {
+    return new ProductSnapshotView(id, categoryId, new BigDecimal(price), name);
+  }
+
+  private static ProductFilterRequest filter(
+      Long categoryId, String name, String priceFrom, String priceTo) {
+    return new ProductFilterRequest(
+        categoryId,
+        name,
+        priceFrom != null ? new BigDecimal(priceFrom) : null,
+        priceTo != null ? new BigDecimal(priceTo) : null);
+  }
+}
@@ -0,0 +1,157 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.models.CategoryFacet;
+import me.jangluzniewicz.webstore.products.models.PriceFacet;
+import me.jangluzniewicz.webstore.products.models.ProductFacets;
+import me.jangluzniewicz.webstore.products.repositories.ProductFacetView;
+import me.jangluzniewicz.webstore.products.services.ProductFacetIndex;
+import me.jangluzniewicz.webstore.products.services.ProductNameIndex;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class ProductFacetIndexTest extends UnitTest {
+  private static final List<BigDecimal> BUCKETS =
+      List.of(BigDecimal.ZERO, BigDecimal.valueOf(50), BigDecimal.valueOf(100));
+  @Mock private IPaging pagingService;
+  private ProductNameIndex productNameIndex;
+  private ProductFacetIndex productFacetIndex;
+
+  @BeforeEach
+  void setUp() {
+    productNameIndex = new ProductNameIndex(100);
+    productFacetIndex = new ProductFacetIndex(productNameIndex, BUCKETS);
+    put(1L, 1L, "Mountain Bike", "450.00");
+    put(2L, 1L, "Road Bike", "99.99");
+    put(3L, 2L, "Bike Helmet", "49.99");
+    put(4L, 2L, "Headphones", "50.00");
+  }
+
+  @Test
+  void facets_whenFilterIsEmpty_thenCountAllProducts() {
+    ProductFacets facets = productFacetIndex.facets(filter(null, null, null, null)).orElseThrow();
+
+    assertEquals(
+        List.of(new CategoryFacet(1L, 2L), new CategoryFacet(2L, 2L)), facets.getCategories());
+    assertEquals(
+        List.of(
+            new PriceFacet(BigDecimal.ZERO, BigDecimal.valueOf(50), 1L),
+            new PriceFacet(BigDecimal.valueOf(50), BigDecimal.valueOf(100), 2L),
+            new PriceFacet(BigDecimal.valueOf(100), null, 1L)),
+        facets.getPrices());
+  }
+
+  @Test
+  void facets_whenFilteringByCategoryAndName_thenCategoryFacetIgnoresCategoryCriterion() {
+    ProductFacets facets = productFacetIndex.facets(filter(1L, "bike", null, null)).orElseThrow();
+
+    assertEquals(
+        List.of(new CategoryFacet(1L, 2L), new CategoryFacet(2L, 1L)), facets.getCategories());
+    assertEquals(
+        List.of(0L, 1L, 1L), facets.getPrices().stream().map(PriceFacet::getCount).toList());
+  }
+
+  @Test
+  void facets_whenPriceRangeCutsBuckets_thenCheckPricesOfCutBuckets() {
+    ProductFacets facets =
+        productFacetIndex.facets(filter(null, null, "50.00", "99.98")).orElseThrow();
+
+    assertEquals(List.of(new CategoryFacet(2L, 1L)), facets.getCategories());
+  }
+
+  @Test
+  void facets_whenProductIsUpdatedOrRemoved_thenCountsFollow() {
+    put(2L, 2L, "Road Bike", "150.00");
+    productFacetIndex.remove(1L);
+
+    ProductFacets facets = productFacetIndex.facets(filter(null, null, null, null)).orElseThrow();
+
+    assertEquals(List.of(new CategoryFacet(2L, 3L)), facets.getCategories());
+    assertEquals(
+        List.of(1L, 1L, 1L), facets.getPrices().stream().map(PriceFacet::getCount).toList());
+  }
+
+  @Test
+  void facets_whenNameCannotBeResolvedByIndex_thenReturnEmpty() {
+    assertTrue(productFacetIndex.facets(filter(null, "bi", null, null)).isEmpty());
+  }
+
+  @Test
+  void rebuild_whenCatalogChangedElsewhere_thenReplaceCounts() {
+    ProductFacetIndex index = new ProductFacetIndex(pagingService, productNameIndex, true, BUCKETS);
+    when(findFirst())
+        .thenReturn(
+            List.of(
+                new ProductFacetView(1L, 1L, new BigDecimal("450.00")),
+                new ProductFacetView(5L, 3L, new BigDecimal("10.00"))));
+
+    index.rebuild();
+
+    ProductFacets facets = index.facets(filter(null, null, null, null)).orElseThrow();
+    assertEquals(
+        List.of(new CategoryFacet(1L, 1L), new CategoryFacet(3L, 1L)), facets.getCategories());
+    assertEquals(
+        List.of(1L, 0L, 1L), facets.getPrices().stream().map(PriceFacet::getCount).toList());
+  }
+
+  @Test
+  void rebuild_whenProductChangesDuringRebuild_thenKeepChange() {
+    ProductFacetIndex index = new ProductFacetIndex(pagingService, productNameIndex, true, BUCKETS);
+    when(findFirst())
+        .thenAnswer(
+            _ -> {
+              index.remove(1L);
+              index.put(new ProductFacetView(2L, 2L, new BigDecimal("75.00")));
+              return List.of(new ProductFacetView(1L, 1L, new BigDecimal("450.00")));
+            });
+
+    index.rebuild();
+
+    ProductFacets facets = index.facets(filter(null, null, null, null)).orElseThrow();
+    assertEquals(List.of(new CategoryFacet(2L, 1L)), facets.getCategories());
+    assertEquals(
+        List.of(0L, 1L, 0L), facets.getPrices().stream().map(PriceFacet::getCount).toList());
+  }
+
+  @Test
+  void constructor_whenFirstBucketStartsAboveZero_thenThrowIllegalArgumentException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new ProductFacetIndex(
+                productNameIndex, List.of(BigDecimal.TEN, BigDecimal.valueOf(50))));
+  }
+
+  private List<ProductFacetView> findFirst() {
+    return pagingService.findFirst(
+        eq(ProductEntity.class), eq(ProductFacetView.class), any(), any(), any(), anyInt());
+  }
+
+  private void put(Long id, Long categoryId, String name, String price) {
+    productNameIndex.put(id, name);
+    productFacetIndex.put(new ProductFacetView(id, categoryId, new BigDecimal(price)));
+  }
+
+  private static ProductFilterRequest filter(
+      Long categoryId, String name, String priceFrom, String priceTo) {
+    return new ProductFilterRequest(
+        categoryId,
+        name,
+        priceFrom != null ? new BigDecimal(priceFrom) : null,
+        priceTo != null ? new BigDecimal(priceTo) : null);
+  }
+}
@@ -0,0 +1,264 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
+import me.jangluzniewicz.webstore.categories.models.Category;
+import me.jangluzniewicz.webstore.commons.interfaces.ICsvReader;
+import me.jangluzniewicz.webstore.commons.models.CsvRow;
+import me.jangluzniewicz.webstore.exceptions.ConflictException;
+import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
+import me.jangluzniewicz.webstore.exceptions.NotFoundException;
+import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
+import me.jangluzniewicz.webstore.products.models.ProductImportJob;
+import me.jangluzniewicz.webstore.products.models.ProductImportStatus;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import me.jangluzniewicz.webstore.products.services.ProductImportService;
+import me.jangluzniewicz.webstore.products.services.ProductNameIndex;
+import me.jangluzniewicz.webstore.utils.testdata.categories.CategoryTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductEntityTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ProductImportServiceTest extends UnitTest {
+  @Mock private ProductRepository productRepository;
+  @Mock private ProductMapper productMapper;
+  @Mock private ICategory categoryService;
+  @Mock private ICsvReader<ProductRequest> csvProductRequestReader;
+  @Mock private ProductNameIndex productNameIndex;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private PlatformTransactionManager transactionManager;
+  private ProductImportService productImportService;
+
+  private MockMultipartFile file;
+  private ProductEntity productEntity;
+  private Category category;
+  private ProductRequest productRequest;
+
+  @BeforeEach
+  void setUp() {
+    productImportService = importService(Runnable::run);
+    file =
+        new MockMultipartFile(
+            "file",
+            "products.csv",
+            "text/csv",
+            "Bicycle,Two wheels,1000,10,1".getBytes(StandardCharsets.UTF_8));
+    productEntity = ProductEntityTestDataBuilder.builder().build().buildProductEntity();
+    category = CategoryTestDataBuilder.builder().build().buildCategory();
+    productRequest = ProductRequestTestDataBuilder.builder().build().buildProductRequest();
+  }
+
+  @Test
+  void startCsvImport_whenCsvFileIsValid_thenCompleteJob() {
+    readCsvAs(List.of(new CsvRow<>(1, productRequest)));
+    when(categoryService.getCategoriesByIds(Set.of(productRequest.getCategoryId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(productMapper.toEntity(any())).thenReturn(productEntity);
+    when(productRepository.saveAll(any())).thenReturn(List.of(productEntity));
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(ProductImportStatus.COMPLETED, job.getStatus());
+    assertEquals(1, job.getRowsProcessed());
+    assertEquals(1, job.getRowsImported());
+    assertEquals(0, job.getRowsFailed());
+    verify(productNameIndex).put(productEntity.getId(), productEntity.getName());
+  }
+
+  @Test
+  void startCsvImport_whenFileIsNotCsv_thenThrowIllegalArgumentException() {
+    MockMultipartFile jsonFile =
+        new MockMultipartFile(
+            "file", "products.json", MediaType.APPLICATION_JSON_VALUE, new byte[0]);
+
+    assertThrows(
+        IllegalArgumentException.class, () -> productImportService.startCsvImport(jsonFile));
+  }
+
+  @Test
+  void startCsvImport_whenCategoryNotFound_thenReportFailedRow() {
+    readCsvAs(List.of(new CsvRow<>(1, productRequest)));
+    when(categoryService.getCategoriesByIds(Set.of(productRequest.getCategoryId())))
+        .thenReturn(Map.of());
+    when(productRepository.saveAll(any())).thenReturn(List.of());
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(ProductImportStatus.COMPLETED, job.getStatus());
+    assertEquals(1, job.getRowsProcessed());
+    assertEquals(0, job.getRowsImported());
+    assertEquals(1, job.getRowsFailed());
+    assertEquals(1, job.getFailedRows().getFirst().getRowNumber());
+    assertEquals(List.of(productRequest.getCategoryId()), job.getUnknownCategoryIds());
+  }
+
+  @Test
+  void startCsvImport_whenRowsShareCategories_thenResolveCategoriesOncePerChunk() {
+    ProductRequest unknownCategoryRequest =
+        ProductRequestTestDataBuilder.builder().categoryId(99L).build().buildProductRequest();
+    readCsvAs(
+        List.of(
+            new CsvRow<>(1, productRequest),
+            new CsvRow<>(2, unknownCategoryRequest),
+            new CsvRow<>(3, productRequest),
+            new CsvRow<>(4, unknownCategoryRequest)));
+    when(categoryService.getCategoriesByIds(Set.of(productRequest.getCategoryId(), 99L)))
+        .thenReturn(Map.of(category.getId(), category));
+    when(productMapper.toEntity(any())).thenReturn(productEntity);
+    when(productRepository.saveAll(any())).thenReturn(List.of(productEntity, productEntity));
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(2, job.getRowsImported());
+    assertEquals(2, job.getRowsFailed());
+    assertEquals(List.of(99L), job.getUnknownCategoryIds());
+    verify(categoryService, times(1)).getCategoriesByIds(any());
+  }
+
+  @Test
+  void startCsvImport_whenChunkCannotBeSaved_thenImportRowByRow() {
+    readCsvAs(List.of(new CsvRow<>(1, productRequest), new CsvRow<>(2, productRequest)));
+    when(categoryService.getCategoriesByIds(Set.of(productRequest.getCategoryId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(productMapper.toEntity(any())).thenReturn(productEntity);
+    when(productRepository.saveAll(any())).thenThrow(IllegalStateException.class);
+    when(productRepository.save(any()))
+        .thenThrow(IllegalStateException.class)
+        .thenReturn(productEntity);
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(ProductImportStatus.COMPLETED, job.getStatus());
+    assertEquals(2, job.getRowsProcessed());
+    assertEquals(1, job.getRowsImported());
+    assertEquals(1, job.getRowsFailed());
+    assertEquals(1, job.getFailedRows().getFirst().getRowNumber());
+  }
+
+  @Test
+  void startCsvImport_whenCsvHasManyChunks_thenSaveEachChunkSeparately() {
+    readCsvAs(
+        List.of(new CsvRow<>(1, productRequest)),
+        List.of(new CsvRow<>(2, productRequest), new CsvRow<>(3, productRequest)));
+    when(categoryService.getCategoriesByIds(Set.of(productRequest.getCategoryId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(productMapper.toEntity(any())).thenReturn(productEntity);
+    when(productRepository.saveAll(any())).thenReturn(List.of(productEntity));
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(3, job.getRowsProcessed());
+    verify(productRepository, times(2)).saveAll(any());
+  }
+
+  @Test
+  void startCsvImport_whenErrorWhileReadingCsv_thenFailJob() {
+    when(csvProductRequestReader.csvToRows(any(), any(), any(), any()))
+        .thenThrow(new CsvReaderException("Empty CSV file"));
+
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertEquals(ProductImportStatus.FAILED, job.getStatus());
+    assertEquals("Error while reading CSV file", job.getError());
+  }
+
+  @Test
+  void startCsvImport_whenExecutorIsFull_thenThrowConflictException() {
+    productImportService =
+        importService(
+            _ -> {
+              throw new TaskRejectedException("Executor is full");
+            });
+
+    assertThrows(ConflictException.class, () -> productImportService.startCsvImport(file));
+  }
+
+  @Test
+  void getImportJob_whenJobDoesNotExist_thenReturnEmpty() {
+    assertTrue(productImportService.getImportJob(UUID.randomUUID()).isEmpty());
+  }
+
+  @Test
+  void cancelImportJob_whenJobIsQueued_thenCancelJob() {
+    List<Runnable> tasks = new ArrayList<>();
+    productImportService = importService(tasks::add);
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    productImportService.cancelImportJob(job.getId());
+    tasks.forEach(Runnable::run);
+
+    assertEquals(
+        ProductImportStatus.CANCELLED,
+        productImportService.getImportJob(job.getId()).orElseThrow().getStatus());
+    verify(csvProductRequestReader, never()).csvToRows(any(), any(), any(), any());
+  }
+
+  @Test
+  void cancelImportJob_whenJobHasFinished_thenThrowConflictException() {
+    readCsvAs(List.of());
+    ProductImportJob job = productImportService.startCsvImport(file);
+
+    assertThrows(ConflictException.class, () -> productImportService.cancelImportJob(job.getId()));
+  }
+
+  @Test
+  void cancelImportJob_whenJobDoesNotExist_thenThrowNotFoundException() {
+    assertThrows(
+        NotFoundException.class, () -> productImportService.cancelImportJob(UUID.randomUUID()));
+  }
+
+  private ProductImportService importService(Executor executor) {
+    return new ProductImportService(
+        productRepository,
+        productMapper,
+        categoryService,
+        csvProductRequestReader,
+        productNameIndex,
+        eventPublisher,
+        transactionManager,
+        new TaskExecutorAdapter(executor),
+        500,
+        100,
+        Duration.ofHours(1));
+  }
+
+  @SafeVarargs
+  private void readCsvAs(List<CsvRow<ProductRequest>>... chunks) {
+    when(csvProductRequestReader.csvToRows(any(), any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<List<CsvRow<ProductRequest>>> chunkConsumer = invocation.getArgument(2);
+              Arrays.stream(chunks).forEach(chunkConsumer);
+              return Arrays.stream(chunks).mapToLong(List::size).sum();
+            });
+  }
+}
@@ -0,0 +1,144 @@
+package me.jangluzniewicz.webstore.products.units.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.LongStream;
+import me.jangluzniewicz.webstore.products.repositories.ProductNameView;
+import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import me.jangluzniewicz.webstore.products.services.ProductNameIndex;
+import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class ProductNameIndexTest extends UnitTest {
+  @Mock private ProductRepository productRepository;
+  private ProductNameIndex productNameIndex;
+
+  @BeforeEach
+  void setUp() {
+    productNameIndex = new ProductNameIndex(100);
+    productNameIndex.put(1L, "Mountain Bike");
+    productNameIndex.put(2L, "Road Bike");
+    productNameIndex.put(3L, "Bike Helmet");
+    productNameIndex.put(4L, "Headphones");
+  }
+
+  @Test
+  void resolve_whenNameContainsQuery_thenReturnMatchingIds() {
+    assertEquals(Optional.of(List.of(1L, 2L, 3L)), productNameIndex.resolve("BIKE"));
+    assertEquals(Optional.of(List.of(1L)), productNameIndex.resolve("tain b"));
+  }
+
+  @Test
+  void resolve_whenTrigramsMatchButSubstringDoesNot_thenReturnEmptyList() {
+    productNameIndex.put(5L, "abcd bcde");
+
+    assertEquals(Optional.of(List.of()), productNameIndex.resolve("abcde"));
+  }
+
+  @Test
+  void resolve_whenQueryIsShorterThanTrigram_thenReturnEmpty() {
+    assertTrue(productNameIndex.resolve("bi").isEmpty());
+  }
+
+  @Test
+  void resolve_whenTooManyProductsMatch_thenReturnEmpty() {
+    LongStream.rangeClosed(10, 200).forEach(id -> productNameIndex.put(id, "Cable " + id));
+
+    assertTrue(productNameIndex.resolve("cable").isEmpty());
+  }
+
+  @Test
+  void put_whenProductIsRenamed_thenReplaceIndexedName() {
+    productNameIndex.put(2L, "Gravel Cycle");
+
+    assertEquals(Optional.of(List.of(1L, 3L)), productNameIndex.resolve("bike"));
+    assertEquals(Optional.of(List.of(2L)), productNameIndex.resolve("gravel"));
+  }
+
+  @Test
+  void remove_whenProductIsDeleted_thenExcludeFromResults() {
+    productNameIndex.remove(3L);
+
+    assertEquals(Optional.of(List.of(1L, 2L)), productNameIndex.resolve("bike"));
+    assertEquals(3, productNameIndex.size());
+  }
+
+  @Test
+  void rebuild_whenProductsChangedOnOtherInstance_thenIndexCurrentNames() {
+    ProductNameIndex index = new ProductNameIndex(productRepository, true, 100);
+    when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+        .thenReturn(List.of(nameView(1L, "Mountain Bike")))
+        .thenReturn(List.of(nameView(1L, "Gravel Cycle"), nameView(2L, "Road Bike")));
+
+    index.rebuild();
+    index.rebuild();
+
+    assertEquals(Optional.of(List.of(2L)), index.resolve("bike"));
+    assertEquals(Optional.of(List.of(1L)), index.resolve("gravel"));
+  }
+
+  @Test
+  void rebuild_whenProductChangesDuringScan_thenServeOldIndexAndReplayChange() {
+    ProductNameIndex index = new ProductNameIndex(productRepository, true, 100);
+    when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+        .thenReturn(List.of(nameView(1L, "Mountain Bike")))
+        .thenAnswer(
+            _ -> {
+              assertEquals(Optional.of(List.of(1L)), index.resolve("bike"));
+              index.put(2L, "Road Bike");
+              return List.of(nameView(1L, "Mountain Bike"));
+            });
+
+    index.rebuild();
+    index.rebuild();
+
+    assertEquals(Optional.of(List.of(1L, 2L)), index.resolve("bike"));
+  }
+
+  @Test
+  void resolve_whenNamesAreRandom_thenMatchSubstringSearch() {
+    ProductNameIndex index = new ProductNameIndex(Integer.MAX_VALUE);
+    Random random = new Random(42);
+    String[] names = new String[5_000];
+    for (int i = 0; i < names.length; i++) {
+      StringBuilder name = new StringBuilder();
+      for (int j = 0; j < 12; j++) {
+        name.append((char) ('a' + random.nextInt(6)));
+      }
+      names[i] = name.toString();
+      index.put((long) i + 1, names[i]);
+    }
+
+    for (String query : List.of("abc", "fed", "aabb", "cafe", "abcab")) {
+      List<Long> expected =
+          LongStream.rangeClosed(1, names.length)
+              .filter(id -> names[(int) id - 1].contains(query))
+              .boxed()
+              .toList();
+      assertEquals(Optional.of(expected), index.resolve(query));
+    }
+  }
+
+  private static ProductNameView nameView(Long id, String name) {
+    return new ProductNameView() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+    };
+  }
+}
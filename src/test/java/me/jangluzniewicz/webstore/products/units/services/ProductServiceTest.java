@@ -2,55 +2,91 @@ package me.jangluzniewicz.webstore.products.units.services;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import me.jangluzniewicz.webstore.aws.interfaces.IAwsS3;
 import me.jangluzniewicz.webstore.categories.interfaces.ICategory;
 import me.jangluzniewicz.webstore.categories.models.Category;
-import me.jangluzniewicz.webstore.commons.interfaces.ICsvReader;
-import me.jangluzniewicz.webstore.exceptions.CsvReaderException;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.CursorPagedResponse;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
+import me.jangluzniewicz.webstore.exceptions.AwsException;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.products.controllers.ProductFilterRequest;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import me.jangluzniewicz.webstore.products.controllers.ProductSortKey;
 import me.jangluzniewicz.webstore.products.entities.ProductEntity;
+import me.jangluzniewicz.webstore.products.events.ProductChangedEvent;
 import me.jangluzniewicz.webstore.products.mappers.ProductMapper;
 import me.jangluzniewicz.webstore.products.models.Product;
+import me.jangluzniewicz.webstore.products.models.ProductSummary;
 import me.jangluzniewicz.webstore.products.repositories.ProductRepository;
+import me.jangluzniewicz.webstore.products.services.ProductCache;
+import me.jangluzniewicz.webstore.products.services.ProductCatalogSnapshot;
+import me.jangluzniewicz.webstore.products.services.ProductFacetIndex;
+import me.jangluzniewicz.webstore.products.services.ProductNameIndex;
 import me.jangluzniewicz.webstore.products.services.ProductService;
 import me.jangluzniewicz.webstore.utils.testdata.categories.CategoryTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.products.ProductEntityTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.products.ProductFilterRequestTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.products.ProductRequestTestDataBuilder;
+import me.jangluzniewicz.webstore.utils.testdata.products.ProductSummaryTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.testdata.products.ProductTestDataBuilder;
 import me.jangluzniewicz.webstore.utils.units.config.UnitTest;
+import me.jangluzniewicz.webstore.utils.units.fakes.InMemoryGenerationStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.mockito.Spy;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.MediaType;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
 class ProductServiceTest extends UnitTest {
   @Mock private ProductRepository productRepository;
   @Mock private ProductMapper productMapper;
   @Mock private ICategory categoryService;
-  @Mock private ICsvReader<ProductRequest> csvProductRequestReader;
+  @Mock private IPaging pagingService;
+  @Mock private IExport exportService;
+  @Mock private ProductNameIndex productNameIndex;
+  @Mock private ProductFacetIndex productFacetIndex;
+  @Mock private ProductCatalogSnapshot productCatalogSnapshot;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private IAwsS3 awsS3;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private ProductCache productCache =
+      new ProductCache(new ConcurrentMapCacheManager(), new InMemoryGenerationStore());
+
   @InjectMocks private ProductService productService;
 
-  @Mock private MultipartFile file;
   private ProductEntity productEntity;
   private Product product;
+  private ProductSummary productSummary;
   private Category category;
   private ProductRequest productRequest;
   private ProductRequest productRequest2;
@@ -60,6 +96,7 @@ class ProductServiceTest extends UnitTest {
   void setUp() {
     productEntity = ProductEntityTestDataBuilder.builder().build().buildProductEntity();
     product = ProductTestDataBuilder.builder().build().buildProduct();
+    productSummary = ProductSummaryTestDataBuilder.builder().build().buildProductSummary();
     category = CategoryTestDataBuilder.builder().build().buildCategory();
     productRequest = ProductRequestTestDataBuilder.builder().build().buildProductRequest();
     productRequest2 =
@@ -73,7 +110,8 @@ class ProductServiceTest extends UnitTest {
 
   @Test
   void createNewProduct_whenCategoryExists_thenReturnIdResponse() {
-    when(categoryService.getCategoryById(category.getId())).thenReturn(Optional.of(category));
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
     when(productRepository.save(any())).thenReturn(productEntity);
 
     assertEquals(productEntity.getId(), productService.createNewProduct(productRequest).getId());
@@ -81,11 +119,63 @@ class ProductServiceTest extends UnitTest {
 
   @Test
   void createNewProduct_whenCategoryDoesNotExist_thenThrowNotFoundException() {
-    when(categoryService.getCategoryById(category.getId())).thenReturn(Optional.empty());
+    when(categoryService.getCategoriesByIds(List.of(category.getId()))).thenReturn(Map.of());
 
     assertThrows(NotFoundException.class, () -> productService.createNewProduct(productRequest));
   }
 
+  @Test
+  void createNewProduct_whenImageIsUploaded_thenSaveProductWithImageUri() {
+    ProductRequest request =
+        ProductRequestTestDataBuilder.builder()
+            .image(new MockMultipartFile("image", new byte[] {1}))
+            .build()
+            .buildProductRequest();
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(awsS3.uploadFileAsync(eq(""), any()))
+        .thenReturn(CompletableFuture.completedFuture("image-key"));
+    when(productRepository.save(any())).thenReturn(productEntity);
+
+    productService.createNewProduct(request);
+
+    verify(productMapper).toEntity(argThat(saved -> "image-key".equals(saved.getImageUri())));
+    verify(awsS3, never()).deleteFile(any());
+  }
+
+  @Test
+  void createNewProduct_whenSaveFails_thenDeleteUploadedImage() {
+    ProductRequest request =
+        ProductRequestTestDataBuilder.builder()
+            .image(new MockMultipartFile("image", new byte[] {1}))
+            .build()
+            .buildProductRequest();
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(awsS3.uploadFileAsync(eq(""), any()))
+        .thenReturn(CompletableFuture.completedFuture("image-key"));
+    when(productRepository.save(any())).thenThrow(new IllegalStateException("save failed"));
+
+    assertThrows(IllegalStateException.class, () -> productService.createNewProduct(request));
+    verify(awsS3).deleteFile("image-key");
+  }
+
+  @Test
+  void createNewProduct_whenUploadFails_thenThrowAwsExceptionWithoutSaving() {
+    ProductRequest request =
+        ProductRequestTestDataBuilder.builder()
+            .image(new MockMultipartFile("image", new byte[] {1}))
+            .build()
+            .buildProductRequest();
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(awsS3.uploadFileAsync(eq(""), any()))
+        .thenReturn(CompletableFuture.failedFuture(new AwsException("upload failed")));
+
+    assertThrows(AwsException.class, () -> productService.createNewProduct(request));
+    verify(productRepository, never()).save(any());
+  }
+
   @Test
   void getProductById_whenProductExists_thenReturnProduct() {
     when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
@@ -94,6 +184,23 @@ class ProductServiceTest extends UnitTest {
     assertTrue(productService.getProductById(productEntity.getId()).isPresent());
   }
 
+  @Test
+  void getProductsByIds_whenSomeProductsExist_thenReturnFoundProductsById() {
+    when(productRepository.findByIdIn(List.of(productEntity.getId(), 999L)))
+        .thenReturn(List.of(productEntity));
+    when(productMapper.fromEntity(productEntity)).thenReturn(product);
+
+    assertEquals(
+        Map.of(product.getId(), product),
+        productService.getProductsByIds(List.of(productEntity.getId(), 999L), false));
+  }
+
+  @Test
+  void getProductsByIds_whenIdsAreEmpty_thenDoNotQuery() {
+    assertTrue(productService.getProductsByIds(List.of(), true).isEmpty());
+    verify(productRepository, never()).findByIdIn(any());
+  }
+
   @Test
   void getProductById_whenProductDoesNotExist_thenReturnEmpty() {
     when(productRepository.findById(productEntity.getId())).thenReturn(Optional.empty());
@@ -102,21 +209,157 @@ class ProductServiceTest extends UnitTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
-  void getFilteredProducts_whenProductsExist_thenReturnPagedResponse() {
-    Page<ProductEntity> page = new PageImpl<>(List.of(productEntity));
-    when(productRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+  void getProductById_whenProductIsCached_thenReadRepositoryOnce() {
+    when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
     when(productMapper.fromEntity(productEntity)).thenReturn(product);
 
+    productService.getProductById(productEntity.getId());
+    productService.getProductById(productEntity.getId());
+
+    verify(productRepository, times(1)).findById(productEntity.getId());
+  }
+
+  @Test
+  void getProductById_whenProductWasUpdated_thenReturnUpdatedProduct() {
+    Product updatedProduct =
+        ProductTestDataBuilder.builder().name("Updated").build().buildProduct();
+    when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
+    when(productMapper.fromEntity(productEntity)).thenReturn(product, updatedProduct);
+
+    productService.getProductById(productEntity.getId());
+    productCache.onProductChanged(
+        new ProductChangedEvent(List.of(productEntity.getId()), List.of(category.getId())));
+
+    assertEquals(
+        "Updated", productService.getProductById(productEntity.getId()).orElseThrow().getName());
+  }
+
+  @Test
+  void getFilteredProducts_whenProductsExist_thenReturnPagedResponse() {
+    when(pagingService.findPage(
+            eq(ProductEntity.class),
+            eq(ProductSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(PagingMode.EXACT, 1, 1L, false, false, List.of(productSummary)));
+
+    assertEquals(
+        1,
+        productService
+            .getFilteredProducts(productFilterRequest, 0, 10, PagingMode.EXACT)
+            .getTotalPages());
+  }
+
+  @Test
+  void getFilteredProducts_whenNameIsResolvedByIndex_thenReturnPagedResponse() {
+    when(productNameIndex.resolve(productFilterRequest.getName()))
+        .thenReturn(Optional.of(List.of(productEntity.getId())));
+    when(pagingService.findPage(
+            eq(ProductEntity.class),
+            eq(ProductSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(PagingMode.EXACT, 1, 1L, false, false, List.of(productSummary)));
+
     assertEquals(
-        1, productService.getFilteredProducts(productFilterRequest, 0, 10).getTotalPages());
+        1,
+        productService
+            .getFilteredProducts(productFilterRequest, 0, 10, PagingMode.EXACT)
+            .getContent()
+            .size());
+  }
+
+  @Test
+  void getFilteredProducts_whenSnapshotResolvesIds_thenLoadOnlyPageRows() {
+    when(productCatalogSnapshot.find(productFilterRequest, 10, 10))
+        .thenReturn(
+            Optional.of(
+                new ProductCatalogSnapshot.IdPage(List.of(productSummary.getId()), 25, true)));
+    when(pagingService.findFirst(
+            eq(ProductEntity.class),
+            eq(ProductSummary.class),
+            any(),
+            any(),
+            any(Sort.class),
+            eq(1)))
+        .thenReturn(List.of(productSummary));
+
+    PagedResponse<ProductSummary> response =
+        productService.getFilteredProducts(productFilterRequest, 1, 10, PagingMode.EXACT);
+
+    assertEquals(25L, response.getTotalElements());
+    assertEquals(3, response.getTotalPages());
+    assertEquals(1, response.getContent().size());
+  }
+
+  @Test
+  void exportProducts_whenCalled_thenExportSummaries() {
+    OutputStream outputStream = new ByteArrayOutputStream();
+    when(exportService.export(
+            eq(ProductEntity.class),
+            eq(ProductSummary.class),
+            any(),
+            any(),
+            any(Sort.class),
+            eq(ExportFormat.CSV),
+            any(),
+            eq(outputStream)))
+        .thenReturn(1L);
+
+    assertEquals(
+        1L, productService.exportProducts(productFilterRequest, ExportFormat.CSV, outputStream));
+  }
+
+  @Test
+  void getFilteredProductsByCursor_whenMoreProductsExist_thenReturnNextCursor() {
+    ProductSummary nextProductSummary =
+        ProductSummaryTestDataBuilder.builder().id(2L).build().buildProductSummary();
+    when(pagingService.findFirst(
+            eq(ProductEntity.class), eq(ProductSummary.class), any(), any(), any(), eq(2)))
+        .thenReturn(List.of(productSummary, nextProductSummary));
+
+    CursorPagedResponse<ProductSummary> response =
+        productService.getFilteredProductsByCursor(
+            productFilterRequest, null, ProductSortKey.PRICE, Sort.Direction.ASC, 1);
+
+    assertEquals(1, response.getContent().size());
+    assertNotNull(response.getNextCursor());
+  }
+
+  @Test
+  void getFilteredProductsByCursor_whenLastPage_thenReturnNullCursor() {
+    when(pagingService.findFirst(
+            eq(ProductEntity.class), eq(ProductSummary.class), any(), any(), any(), eq(11)))
+        .thenReturn(List.of(productSummary));
+
+    assertNull(
+        productService
+            .getFilteredProductsByCursor(
+                productFilterRequest, "", ProductSortKey.ID, Sort.Direction.ASC, 10)
+            .getNextCursor());
+  }
+
+  @Test
+  void getFilteredProductsByCursor_whenCursorIsInvalid_thenThrowIllegalArgumentException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            productService.getFilteredProductsByCursor(
+                productFilterRequest, "invalid", ProductSortKey.ID, Sort.Direction.ASC, 10));
   }
 
   @Test
   void updateProduct_whenProductExistsAndCategoryExists_thenUpdateProduct() {
     when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
     when(productMapper.fromEntity(productEntity)).thenReturn(product);
-    when(categoryService.getCategoryById(category.getId())).thenReturn(Optional.of(category));
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
     ProductEntity updatedEntity =
         ProductEntityTestDataBuilder.builder()
             .name(productRequest2.getName())
@@ -127,6 +370,43 @@ class ProductServiceTest extends UnitTest {
     assertDoesNotThrow(() -> productService.updateProduct(productEntity.getId(), productRequest2));
   }
 
+  @Test
+  void updateProduct_whenProductIsUpdated_thenPublishProductChangedEvent() {
+    when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
+    when(productMapper.fromEntity(productEntity)).thenReturn(product);
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
+
+    productService.updateProduct(productEntity.getId(), productRequest2);
+
+    verify(eventPublisher)
+        .publishEvent(
+            new ProductChangedEvent(
+                List.of(productEntity.getId()),
+                List.of(product.getCategory().getId(), productRequest2.getCategoryId())));
+  }
+
+  @Test
+  void updateProduct_whenImageIsReplaced_thenDeletePreviousImageAfterCommit() {
+    product.setImageUri("previous-key");
+    ProductRequest request =
+        ProductRequestTestDataBuilder.builder()
+            .image(new MockMultipartFile("image", new byte[] {1}))
+            .build()
+            .buildProductRequest();
+    when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
+    when(productMapper.fromEntity(productEntity)).thenReturn(product);
+    when(categoryService.getCategoriesByIds(List.of(category.getId())))
+        .thenReturn(Map.of(category.getId(), category));
+    when(awsS3.uploadFileAsync(eq(""), any()))
+        .thenReturn(CompletableFuture.completedFuture("image-key"));
+
+    productService.updateProduct(productEntity.getId(), request);
+
+    verify(awsS3).deleteFiles(List.of("previous-key"));
+    verify(awsS3, never()).deleteFile(any());
+  }
+
   @Test
   void updateProduct_whenProductDoesNotExist_thenThrowNotFoundException() {
     when(productRepository.findById(productEntity.getId())).thenReturn(Optional.empty());
@@ -140,7 +420,7 @@ class ProductServiceTest extends UnitTest {
   void updateProduct_whenCategoryDoesNotExist_thenThrowNotFoundException() {
     when(productRepository.findById(productEntity.getId())).thenReturn(Optional.of(productEntity));
     when(productMapper.fromEntity(productEntity)).thenReturn(product);
-    when(categoryService.getCategoryById(category.getId())).thenReturn(Optional.empty());
+    when(categoryService.getCategoriesByIds(List.of(category.getId()))).thenReturn(Map.of());
 
     assertThrows(
         NotFoundException.class,
@@ -161,56 +441,4 @@ class ProductServiceTest extends UnitTest {
     assertThrows(
         NotFoundException.class, () -> productService.deleteProduct(productEntity.getId()));
   }
-
-  @Test
-  void createNewProductsFromCsv_whenCsvFileIsValid_thenCreateProducts() throws IOException {
-    when(file.getContentType()).thenReturn("text/csv");
-    String csv =
-        """
-        Bicycle,Two wheels,1000,10,1
-        """;
-    InputStream inputStream = new ByteArrayInputStream(csv.getBytes());
-    when(file.getInputStream()).thenReturn(inputStream);
-    when(csvProductRequestReader.csvToModel(inputStream)).thenReturn(List.of(productRequest));
-    when(categoryService.getCategoryById(productRequest.getCategoryId()))
-        .thenReturn(Optional.of(category));
-    when(productMapper.toEntity(any())).thenReturn(productEntity);
-    when(productRepository.saveAll(any())).thenReturn(List.of(productEntity));
-
-    assertDoesNotThrow(() -> productService.createNewProductsFromCsv(file));
-  }
-
-  @Test
-  void createNewProductsFromCsv_whenCategoryNotFound_thenThrowNotFoundException()
-      throws IOException {
-    when(file.getContentType()).thenReturn("text/csv");
-    String csv =
-        """
-        Bicycle,Two wheels,1000,10,1
-        """;
-    InputStream inputStream = new ByteArrayInputStream(csv.getBytes());
-    when(file.getInputStream()).thenReturn(inputStream);
-    when(csvProductRequestReader.csvToModel(inputStream)).thenReturn(List.of(productRequest));
-    when(categoryService.getCategoryById(productRequest.getCategoryId()))
-        .thenReturn(Optional.empty());
-
-    assertThrows(NotFoundException.class, () -> productService.createNewProductsFromCsv(file));
-  }
-
-  @Test
-  void createNewProductsFromCsv_whenFileIsNotCsv_thenThrowIllegalArgumentException() {
-    when(file.getContentType()).thenReturn(MediaType.APPLICATION_JSON_VALUE);
-
-    assertThrows(
-        IllegalArgumentException.class, () -> productService.createNewProductsFromCsv(file));
-  }
-
-  @Test
-  void createNewProductsFromCsv_whenErrorWhileReadingCsv_thenThrowCsvReaderException()
-      throws IOException {
-    when(file.getContentType()).thenReturn("text/csv");
-    when(file.getInputStream()).thenThrow(IOException.class);
-
-    assertThrows(CsvReaderException.class, () -> productService.createNewProductsFromCsv(file));
-  }
 }
@@ -27,6 +27,7 @@ public class RoleControllerTest extends E2ETest {
   static Stream<Arguments> provideGetRoleTestData() {
     return Stream.of(
         Arguments.of(BASE_URL, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=slice", HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + VALID_ROLE_ID, HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_ROLE_ID, HttpStatus.NOT_FOUND));
   }
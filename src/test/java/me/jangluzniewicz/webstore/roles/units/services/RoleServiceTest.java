@@ -5,10 +5,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.roles.controllers.RoleRequest;
@@ -25,12 +29,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 class RoleServiceTest extends UnitTest {
   @Mock private RoleRepository roleRepository;
   @Mock private RoleMapper roleMapper;
+  @Mock private IPaging pagingService;
   @InjectMocks private RoleService roleService;
 
   private RoleEntity roleEntity;
@@ -78,11 +82,13 @@ class RoleServiceTest extends UnitTest {
 
   @Test
   void getAllRoles_whenRolesExist_thenReturnPagedResponse() {
-    when(roleRepository.findAll(any(Pageable.class)))
-        .thenReturn(new PageImpl<>(List.of(roleEntity)));
+    when(pagingService.findPage(
+            eq(RoleEntity.class), any(), any(Pageable.class), eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(PagingMode.EXACT, 1, 1L, false, false, List.of(roleEntity)));
     when(roleMapper.fromEntity(roleEntity)).thenReturn(role);
 
-    assertEquals(1, roleService.getAllRoles(0, 10).getTotalPages());
+    assertEquals(1, roleService.getAllRoles(0, 10, PagingMode.EXACT).getTotalPages());
   }
 
   @Test
@@ -31,9 +31,25 @@ public class UserControllerTest extends E2ETest {
   static Stream<Arguments> provideAdminGetUsersTestData() {
     return Stream.of(
         Arguments.of(BASE_URL, HttpStatus.OK),
+        Arguments.of(BASE_URL + "?paging=slice", HttpStatus.OK),
         Arguments.of(BASE_URL + "/" + INVALID_USER_ID, HttpStatus.NOT_FOUND));
   }
 
+  @ParameterizedTest
+  @MethodSource("provideExportUsersTestData")
+  @DisplayName("GET /users/export (ADMIN)")
+  @WithCustomUser(roles = {"ADMIN"})
+  void exportUsersTests(String url, HttpStatus expectedStatus) throws Exception {
+    performStreamingGet(url).andExpect(status().is(expectedStatus.value()));
+  }
+
+  static Stream<Arguments> provideExportUsersTestData() {
+    return Stream.of(
+        Arguments.of(BASE_URL + "/export", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=ndjson", HttpStatus.OK),
+        Arguments.of(BASE_URL + "/export?format=xml", HttpStatus.BAD_REQUEST));
+  }
+
   @ParameterizedTest
   @MethodSource("provideAdminUpdateUsersTestData")
   @DisplayName("PUT /users (ADMIN)")
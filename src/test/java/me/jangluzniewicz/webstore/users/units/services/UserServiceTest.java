@@ -5,12 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import me.jangluzniewicz.webstore.carts.interfaces.ICart;
+import me.jangluzniewicz.webstore.commons.interfaces.IExport;
+import me.jangluzniewicz.webstore.commons.interfaces.IPaging;
+import me.jangluzniewicz.webstore.commons.models.ExportFormat;
 import me.jangluzniewicz.webstore.commons.models.IdResponse;
+import me.jangluzniewicz.webstore.commons.models.PagedResponse;
+import me.jangluzniewicz.webstore.commons.models.PagingMode;
 import me.jangluzniewicz.webstore.exceptions.NotFoundException;
 import me.jangluzniewicz.webstore.exceptions.NotUniqueException;
 import me.jangluzniewicz.webstore.roles.interfaces.IRole;
@@ -21,6 +29,7 @@ import me.jangluzniewicz.webstore.users.controllers.UpdateUserRequest;
 import me.jangluzniewicz.webstore.users.entities.UserEntity;
 import me.jangluzniewicz.webstore.users.mappers.UserMapper;
 import me.jangluzniewicz.webstore.users.models.User;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
 import me.jangluzniewicz.webstore.users.repositories.UserRepository;
 import me.jangluzniewicz.webstore.users.services.UserService;
 import me.jangluzniewicz.webstore.utils.testdata.roles.RoleTestDataBuilder;
@@ -30,8 +39,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -41,6 +50,8 @@ class UserServiceTest extends UnitTest {
   @Mock private PasswordEncoder passwordEncoder;
   @Mock private UserMapper userMapper;
   @Mock private ICart cartService;
+  @Mock private IPaging pagingService;
+  @Mock private IExport exportService;
   @InjectMocks private UserService userService;
 
   private UserEntity userEntity;
@@ -246,11 +257,40 @@ class UserServiceTest extends UnitTest {
 
   @Test
   void getAllUsers_whenUsersExist_thenReturnPagedResponse() {
-    when(userRepository.findAll(any(Pageable.class)))
-        .thenReturn(new PageImpl<>(List.of(userEntity)));
-    when(userMapper.fromEntity(userEntity)).thenReturn(user);
+    when(pagingService.findPage(
+            eq(UserEntity.class),
+            eq(UserSummary.class),
+            any(),
+            any(),
+            any(Pageable.class),
+            eq(PagingMode.EXACT)))
+        .thenReturn(
+            new PagedResponse<>(
+                PagingMode.EXACT,
+                1,
+                1L,
+                false,
+                false,
+                List.of(UserSummaryTestDataBuilder.builder().build().buildUserSummary())));
+
+    assertEquals(1, userService.getAllUsers(0, 10, PagingMode.EXACT).getTotalPages());
+  }
 
-    assertEquals(1, userService.getAllUsers(0, 10).getTotalPages());
+  @Test
+  void exportUsers_whenCalled_thenExportSummaries() {
+    OutputStream outputStream = new ByteArrayOutputStream();
+    when(exportService.export(
+            eq(UserEntity.class),
+            eq(UserSummary.class),
+            any(),
+            any(),
+            any(Sort.class),
+            eq(ExportFormat.CSV),
+            any(),
+            eq(outputStream)))
+        .thenReturn(1L);
+
+    assertEquals(1L, userService.exportUsers(ExportFormat.CSV, outputStream));
   }
 
   @Test
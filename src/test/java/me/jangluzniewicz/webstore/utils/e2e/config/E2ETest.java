@@ -6,10 +6,12 @@ import org.junit.jupiter.api.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,18 @@ public abstract class E2ETest {
     return mockMvc.perform(get(url));
   }
 
+  protected ResultActions performGetIfNoneMatch(String url, String eTag) throws Exception {
+    return mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag));
+  }
+
+  protected ResultActions performStreamingGet(String url) throws Exception {
+    ResultActions resultActions = mockMvc.perform(get(url));
+    MvcResult result = resultActions.andReturn();
+    return result.getRequest().isAsyncStarted()
+        ? mockMvc.perform(asyncDispatch(result))
+        : resultActions;
+  }
+
   protected ResultActions performPost(String url, String content) throws Exception {
     return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(content));
   }
@@ -33,6 +47,10 @@ public abstract class E2ETest {
     return mockMvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(content));
   }
 
+  protected ResultActions performPatch(String url, String content) throws Exception {
+    return mockMvc.perform(patch(url).contentType(MediaType.APPLICATION_JSON).content(content));
+  }
+
   protected ResultActions performDelete(String url) throws Exception {
     return mockMvc.perform(delete(url));
   }
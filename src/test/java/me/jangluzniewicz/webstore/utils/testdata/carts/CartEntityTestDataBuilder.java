@@ -12,6 +12,7 @@ public class CartEntityTestDataBuilder {
   @Default private Long id = 1L;
   @Default private Long customerId = 2L;
   @Default private BigDecimal total = BigDecimal.ZERO;
+  @Default private Long version = 0L;
 
   @Default private List<CartItemEntityTestDataBuilder> items = new ArrayList<>();
 
@@ -20,6 +21,7 @@ public class CartEntityTestDataBuilder {
         .id(id)
         .customerId(customerId)
         .total(total)
+        .version(version)
         .items(
             items.stream()
                 .map(CartItemEntityTestDataBuilder::buildCartItemEntity)
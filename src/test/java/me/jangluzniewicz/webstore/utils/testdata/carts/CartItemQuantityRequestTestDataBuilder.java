@@ -0,0 +1,23 @@
+package me.jangluzniewicz.webstore.utils.testdata.carts;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import me.jangluzniewicz.webstore.carts.controllers.CartItemQuantityRequest;
+
+@Builder
+public class CartItemQuantityRequestTestDataBuilder {
+  @Default private Integer quantity = 2;
+
+  public CartItemQuantityRequest buildCartItemQuantityRequest() {
+    return new CartItemQuantityRequest(quantity);
+  }
+
+  public String toJson() {
+    return """
+        {
+          "quantity": %d
+        }
+        """
+        .formatted(quantity);
+  }
+}
@@ -12,6 +12,7 @@ public class CartTestDataBuilder {
   @Default private Long id = 1L;
   @Default private Long customerId = 2L;
   @Default private BigDecimal total = BigDecimal.ZERO;
+  @Default private Long version = 0L;
   @Default private List<CartItemTestDataBuilder> items = new ArrayList<>();
 
   public Cart buildCart() {
@@ -19,6 +20,7 @@ public class CartTestDataBuilder {
         .id(id)
         .customerId(customerId)
         .total(total)
+        .version(version)
         .items(
             items.stream()
                 .map(CartItemTestDataBuilder::buildCartItem)
@@ -0,0 +1,32 @@
+package me.jangluzniewicz.webstore.utils.testdata.orders;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+import lombok.Builder.Default;
+import me.jangluzniewicz.webstore.orders.models.OrderSummary;
+import me.jangluzniewicz.webstore.utils.testdata.order_statuses.OrderStatusTestDataBuilder;
+
+@Builder
+public class OrderSummaryTestDataBuilder {
+  @Default private Long id = 1L;
+  @Default private Long customerId = 2L;
+  @Default private String email = "customer@customer.com";
+  @Default private String phoneNumber = "+12345678901";
+
+  @Default
+  private OrderStatusTestDataBuilder orderStatusBuilder =
+      OrderStatusTestDataBuilder.builder().build();
+
+  @Default private BigDecimal total = BigDecimal.valueOf(199.98);
+
+  public OrderSummary buildOrderSummary() {
+    return OrderSummary.builder()
+        .id(id)
+        .customerId(customerId)
+        .email(email)
+        .phoneNumber(phoneNumber)
+        .status(orderStatusBuilder.buildOrderStatus())
+        .total(total)
+        .build();
+  }
+}
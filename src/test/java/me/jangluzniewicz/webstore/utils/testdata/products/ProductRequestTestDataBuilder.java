@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Builder.Default;
 import me.jangluzniewicz.webstore.products.controllers.ProductRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 @Builder
 public class ProductRequestTestDataBuilder {
@@ -12,9 +13,10 @@ public class ProductRequestTestDataBuilder {
   @Default private BigDecimal price = BigDecimal.valueOf(99.99);
   @Default private BigDecimal weight = BigDecimal.valueOf(0.5);
   @Default private Long categoryId = 1L;
+  private MultipartFile image;
 
   public ProductRequest buildProductRequest() {
-    return new ProductRequest(null, name, description, price, weight, categoryId);
+    return new ProductRequest(image, name, description, price, weight, categoryId);
   }
 
   public String toJson() {
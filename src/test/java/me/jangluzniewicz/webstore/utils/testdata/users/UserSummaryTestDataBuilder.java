@@ -0,0 +1,23 @@
+package me.jangluzniewicz.webstore.utils.testdata.users;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import me.jangluzniewicz.webstore.users.models.UserSummary;
+import me.jangluzniewicz.webstore.utils.testdata.roles.RoleTestDataBuilder;
+
+@Builder
+public class UserSummaryTestDataBuilder {
+  @Default private Long id = 2L;
+  @Default private RoleTestDataBuilder roleBuilder = RoleTestDataBuilder.builder().build();
+  @Default private String email = "client@client.com";
+  @Default private String phoneNumber = "222222222";
+
+  public UserSummary buildUserSummary() {
+    return UserSummary.builder()
+        .id(id)
+        .role(roleBuilder.buildRole())
+        .email(email)
+        .phoneNumber(phoneNumber)
+        .build();
+  }
+}
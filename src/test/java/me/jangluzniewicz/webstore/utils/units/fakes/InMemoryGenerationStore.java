@@ -0,0 +1,43 @@
+package me.jangluzniewicz.webstore.utils.units.fakes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import me.jangluzniewicz.webstore.cache.services.GenerationStore;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+public class InMemoryGenerationStore extends GenerationStore {
+  private final Map<String, String> tokens = new ConcurrentHashMap<>();
+  private boolean available = true;
+
+  public InMemoryGenerationStore() {
+    super(null);
+  }
+
+  public void setAvailable(boolean available) {
+    this.available = available;
+  }
+
+  @Override
+  public List<String> current(List<String> keys) {
+    requireAvailable();
+    return keys.stream()
+        .map(key -> tokens.computeIfAbsent(key, _ -> UUID.randomUUID().toString()))
+        .toList();
+  }
+
+  @Override
+  public void advance(Collection<String> keys) {
+    requireAvailable();
+    String token = UUID.randomUUID().toString();
+    keys.forEach(key -> tokens.put(key, token));
+  }
+
+  private void requireAvailable() {
+    if (!available) {
+      throw new RedisConnectionFailureException("Redis unavailable");
+    }
+  }
+}